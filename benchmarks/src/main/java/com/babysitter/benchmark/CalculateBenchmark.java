@@ -0,0 +1,75 @@
+package com.babysitter.benchmark;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.exception.InvalidTimeFormatException;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+import com.babysitter.utils.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculateBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    @Param({"VALID", "BOUNDARY", "INVALID"})
+    private ShiftMixEnum mix;
+
+    private PaymentCalculator paymentCalculator;
+    private String[][] shifts;
+    private final long[] startEpochMinutes = new long[BATCH_SIZE];
+    private final long[] endEpochMinutes = new long[BATCH_SIZE];
+    private final int[] familyIds = new int[BATCH_SIZE];
+    private final int[] totalPays = new int[BATCH_SIZE];
+    private final int[] statusCodes = new int[BATCH_SIZE];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        paymentCalculator = new PaymentCalculator();
+        FamilyRegistrySnapshot familySnapshot = paymentCalculator.getFamilyRegistry().getSnapshot();
+        shifts = mix.getShifts();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String[] shift = shifts[i % shifts.length];
+            startEpochMinutes[i] = DateUtil.parseEpochMinute(shift[0]);
+            endEpochMinutes[i] = DateUtil.parseEpochMinute(shift[1]);
+            familyIds[i] = familySnapshot.getFamilyId(shift[2]);
+        }
+    }
+
+    @Benchmark
+    public int calculate() {
+        index = index + 1 == shifts.length ? 0 : index + 1;
+        String[] shift = shifts[index];
+        try {
+            return paymentCalculator.calculate(shift[0], shift[1], shift[2]);
+        } catch (InvalidTimeFormatException e) {
+            return -1;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int calculateBatch() {
+        paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes);
+        return totalPays[BATCH_SIZE - 1];
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.babysitter.benchmark;
+
+import com.babysitter.exception.InvalidTimeFormatException;
+import com.babysitter.utils.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateUtilBenchmark {
+
+    @Param({"VALID", "BOUNDARY", "INVALID"})
+    private ShiftMixEnum mix;
+
+    private String[] times;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        String[][] shifts = mix.getShifts();
+        times = new String[shifts.length * 2];
+        for (int i = 0; i < shifts.length; i++) {
+            times[i * 2] = shifts[i][0];
+            times[i * 2 + 1] = shifts[i][1];
+        }
+    }
+
+    private String nextTime() {
+        index = index + 1 == times.length ? 0 : index + 1;
+        return times[index];
+    }
+
+    @Benchmark
+    public LocalDateTime convertStringIntoLocalDateTime() {
+        try {
+            return DateUtil.convertStringIntoLocalDateTime(nextTime());
+        } catch (InvalidTimeFormatException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public long parseEpochMinute() {
+        return DateUtil.parseEpochMinute(nextTime());
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.babysitter.benchmark;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.server.PricingServer;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+// Sends single quotes at a fixed rate and prints the latency percentiles. Latency is measured from the time a request
+// was due to be sent, not from when it was sent, so a stalled server cannot hide its queueing delay.
+// At most MAX_IN_FLIGHT requests are outstanding, which keeps the client to a bounded number of connections; a request
+// that has to wait for a free slot still counts its wait as latency. Without a url a server is started in this JVM on a free port.
+// Usage: LoadGenerator [requests per second] [seconds] [url of the /quote endpoint]
+public class LoadGenerator {
+
+    private static final double TARGET_P99_MILLIS = 1.0;
+    private static final int MAX_IN_FLIGHT = 256;
+    private static final String[] QUOTES = {
+            "2020-03-21 17:00,2020-03-22 04:00,A",
+            "2020-03-21 18:30,2020-03-21 23:45,B",
+            "2020-03-21 20:00,2020-03-22 02:00,C",
+            "2020-03-21 22:00,2020-03-21 21:00,A"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int requestsPerSecond = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        PricingServer pricingServer = null;
+        URI uri;
+        if (args.length > 2) {
+            uri = URI.create(args[2]);
+        } else {
+            PricingServer.setTcpNoDelay();
+            pricingServer = new PricingServer(new PaymentCalculator(), new InetSocketAddress("localhost", 0));
+            pricingServer.start();
+            uri = URI.create("http://localhost:" + pricingServer.getPort() + "/quote");
+        }
+        ExecutorService clientExecutor = PricingServer.createRequestExecutor();
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clientExecutor).build();
+        HttpRequest[] requests = new HttpRequest[QUOTES.length];
+        for (int i = 0; i < QUOTES.length; i++) {
+            requests[i] = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString(QUOTES[i])).build();
+        }
+
+        // A warm up second at the same rate is sent first and left out of the results
+        run(httpClient, requests, requestsPerSecond, requestsPerSecond);
+        int requestCount = requestsPerSecond * seconds;
+        long startNanos = System.nanoTime();
+        long[] latencies = run(httpClient, requests, requestsPerSecond, requestCount);
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        int failures = 0;
+        while (failures < latencies.length && latencies[failures] < 0) {
+            failures++;
+        }
+        System.out.println(String.format("Requests: %d, failed: %d, throughput: %.0f requests/second", requestCount, failures, requestCount * 1e9 / elapsedNanos));
+        for (double percentile : new double[]{50, 90, 99, 99.9, 100}) {
+            System.out.println(String.format("p%-6s %10.3f ms", percentile == 100 ? "max" : String.valueOf(percentile), getPercentile(latencies, failures, percentile) / 1e6));
+        }
+        double p99Millis = getPercentile(latencies, failures, 99) / 1e6;
+        System.out.println(String.format("p99 %.3f ms is %s the %.1f ms target", p99Millis, p99Millis < TARGET_P99_MILLIS ? "within" : "above", TARGET_P99_MILLIS));
+        if (pricingServer != null) {
+            System.out.println(String.format("Average quote batch size: %.1f", (double) pricingServer.getBatchedQuotes() / Math.max(1, pricingServer.getQuoteBatches())));
+            pricingServer.close();
+        }
+        clientExecutor.shutdown();
+    }
+
+    // Returns the sorted latencies in nanoseconds, failed requests are -1 and sort first
+    private static long[] run(HttpClient httpClient, HttpRequest[] requests, int requestsPerSecond, int requestCount) throws InterruptedException {
+        long[] latencies = new long[requestCount];
+        CountDownLatch done = new CountDownLatch(requestCount);
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        long intervalNanos = 1_000_000_000L / requestsPerSecond;
+        long firstDueNanos = System.nanoTime();
+        for (int i = 0; i < requestCount; i++) {
+            long dueNanos = firstDueNanos + i * intervalNanos;
+            long waitNanos = dueNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            inFlight.acquire();
+            int request = i;
+            httpClient.sendAsync(requests[i % requests.length], HttpResponse.BodyHandlers.discarding()).whenComplete((response, throwable) -> {
+                if (throwable != null || response.statusCode() != 200) {
+                    latencies[request] = -1;
+                } else {
+                    latencies[request] = System.nanoTime() - dueNanos;
+                }
+                inFlight.release();
+                done.countDown();
+            });
+        }
+        done.await();
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static long getPercentile(long[] sortedLatencies, int failures, double percentile) {
+        int succeeded = sortedLatencies.length - failures;
+        if (succeeded == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * succeeded) - 1;
+        return sortedLatencies[failures + Math.max(0, Math.min(succeeded - 1, index))];
+    }
+
+}
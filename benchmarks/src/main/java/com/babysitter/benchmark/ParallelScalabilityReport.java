@@ -0,0 +1,66 @@
+package com.babysitter.benchmark;
+
+import com.babysitter.calculator.ParallelPaymentCalculator;
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.utils.ShiftTimeUtil;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.babysitter.constants.Constants.WORKABLE_MINUTES;
+
+// Prices the same random batch on pools of 1, 2, 4 ... up to the number of cores and prints throughput and speedup.
+// Usage: ParallelScalabilityReport [shifts] [rounds]
+public class ParallelScalabilityReport {
+
+    public static void main(String[] args) {
+        int shiftCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        long[] startEpochMinutes = new long[shiftCount];
+        long[] endEpochMinutes = new long[shiftCount];
+        int[] familyIds = new int[shiftCount];
+        int[] totalPays = new int[shiftCount];
+        int[] statusCodes = new int[shiftCount];
+        Random random = new Random(42);
+        long firstNightStart = ShiftTimeUtil.getNightStartEpochMinute(ShiftTimeUtil.toEpochMinute(LocalDateTime.of(2020, 3, 21, 17, 0)));
+        for (int i = 0; i < shiftCount; i++) {
+            long nightStart = firstNightStart + random.nextInt(365) * 1440L;
+            int startOffset = random.nextInt(WORKABLE_MINUTES + 1);
+            startEpochMinutes[i] = nightStart + startOffset;
+            endEpochMinutes[i] = nightStart + startOffset + random.nextInt(WORKABLE_MINUTES + 1 - startOffset);
+            familyIds[i] = random.nextInt(3);
+        }
+
+        PaymentCalculator paymentCalculator = new PaymentCalculator();
+        System.out.println("Shifts: " + shiftCount + ", cores: " + cores);
+        System.out.println(String.format("%8s %16s %10s %12s", "threads", "shifts/second", "speedup", "efficiency"));
+        double singleThreadRate = 0;
+        int threads = 1;
+        while (true) {
+            ForkJoinPool forkJoinPool = new ForkJoinPool(threads);
+            ParallelPaymentCalculator parallelPaymentCalculator = new ParallelPaymentCalculator(paymentCalculator, forkJoinPool, ParallelPaymentCalculator.DEFAULT_CHUNK_SIZE);
+            parallelPaymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes);
+            long bestNanos = Long.MAX_VALUE;
+            for (int round = 0; round < rounds; round++) {
+                long startNanos = System.nanoTime();
+                parallelPaymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes);
+                bestNanos = Math.min(bestNanos, System.nanoTime() - startNanos);
+            }
+            forkJoinPool.shutdown();
+            double rate = shiftCount * 1e9 / bestNanos;
+            if (threads == 1) {
+                singleThreadRate = rate;
+            }
+            double speedup = rate / singleThreadRate;
+            System.out.println(String.format("%8d %16.0f %10.2f %11.0f%%", threads, rate, speedup, speedup / threads * 100));
+            if (threads == cores) {
+                break;
+            }
+            threads = Math.min(threads * 2, cores);
+        }
+    }
+
+}
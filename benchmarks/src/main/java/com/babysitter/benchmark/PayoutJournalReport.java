@@ -0,0 +1,77 @@
+package com.babysitter.benchmark;
+
+import com.babysitter.ledger.PayoutJournal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+// Appends payouts from many threads, each waiting for its payouts to be durable before it appends more, and prints
+// the durable throughput and payouts per force. With more than one payout per call the threads use appendBatch.
+// Usage: PayoutJournalReport [payouts] [threads] [payouts per call] [max batch size] [commit delay micros] [journal file]
+public class PayoutJournalReport {
+
+    public static void main(String[] args) throws Exception {
+        int payoutCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threadCount = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        int payoutsPerCall = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int maxBatchSize = args.length > 3 ? Integer.parseInt(args[3]) : PayoutJournal.DEFAULT_MAX_BATCH_SIZE;
+        long maxCommitDelayNanos = args.length > 4 ? TimeUnit.MICROSECONDS.toNanos(Long.parseLong(args[4])) : PayoutJournal.DEFAULT_MAX_COMMIT_DELAY_NANOS;
+        Path file = args.length > 5 ? Paths.get(args[5]) : Files.createTempFile("payouts", ".journal");
+        Files.deleteIfExists(file);
+
+        try (PayoutJournal payoutJournal = PayoutJournal.open(file, maxBatchSize, maxCommitDelayNanos)) {
+            Thread[] threads = new Thread[threadCount];
+            IOException[] failures = new IOException[1];
+            long startNanos = System.nanoTime();
+            for (int thread = 0; thread < threadCount; thread++) {
+                int sitterId = thread;
+                int payouts = payoutCount / threadCount + (thread < payoutCount % threadCount ? 1 : 0);
+                threads[thread] = new Thread(() -> {
+                    long[] startEpochMinutes = new long[payoutsPerCall];
+                    long[] endEpochMinutes = new long[payoutsPerCall];
+                    int[] sitterIds = new int[payoutsPerCall];
+                    int[] familyIds = new int[payoutsPerCall];
+                    int[] totalPays = new int[payoutsPerCall];
+                    int[] statusCodes = new int[payoutsPerCall];
+                    try {
+                        for (int i = 0; i < payouts; i += payoutsPerCall) {
+                            if (payoutsPerCall == 1) {
+                                payoutJournal.append(i, i + 60, sitterId, i % 3, 15);
+                                continue;
+                            }
+                            int length = Math.min(payoutsPerCall, payouts - i);
+                            for (int j = 0; j < length; j++) {
+                                startEpochMinutes[j] = i + j;
+                                endEpochMinutes[j] = i + j + 60;
+                                sitterIds[j] = sitterId;
+                                familyIds[j] = (i + j) % 3;
+                                totalPays[j] = 15;
+                            }
+                            payoutJournal.appendBatch(startEpochMinutes, endEpochMinutes, sitterIds, familyIds, totalPays, statusCodes, 0, length);
+                        }
+                    } catch (IOException e) {
+                        failures[0] = e;
+                    }
+                });
+                threads[thread].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long nanos = System.nanoTime() - startNanos;
+            if (failures[0] != null) {
+                throw failures[0];
+            }
+            System.out.println(String.format("%d payouts from %d threads in %.0f ms: %.0f durable payouts/second, %.1f payouts per force",
+                    payoutCount, threadCount, nanos / 1e6, payoutCount * 1e9 / nanos, (double) payoutCount / payoutJournal.getCommits()));
+        } finally {
+            if (args.length <= 5) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.babysitter.benchmark;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.enums.PricingModeEnum;
+import com.babysitter.registry.FamilyRegistry;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+import com.babysitter.service.BatchPricingKernel;
+import com.babysitter.service.PriceMatrix;
+import com.babysitter.utils.ShiftTimeUtil;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static com.babysitter.constants.Constants.WORKABLE_MINUTES;
+
+// Builds the price matrix of every family and prints its memory and build time, then the batch throughput of every
+// pricing mode and whether it ran the Vector API kernel. VECTORIZED only runs vectorized when the JVM is started
+// with --add-modules jdk.incubator.vector, otherwise it prices the computed way.
+// Usage: java --add-modules jdk.incubator.vector -cp benchmarks.jar com.babysitter.benchmark.PriceMatrixReport
+// [shifts] [family rates file]
+public class PriceMatrixReport {
+
+    public static void main(String[] args) throws IOException {
+        int shiftCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        FamilyRegistry familyRegistry = args.length > 1 ? FamilyRegistry.load(Paths.get(args[1])) : FamilyRegistry.createDefault();
+        FamilyRegistrySnapshot familySnapshot = familyRegistry.getSnapshot();
+
+        System.out.println(String.format("%10s %12s %12s", "family", "bytes", "build ms"));
+        long totalBytes = 0;
+        for (int familyId = 0; familyId < familySnapshot.getFamilyIdCount(); familyId++) {
+            if (!familySnapshot.isFamilyValid(familyId)) {
+                continue;
+            }
+            PriceMatrix priceMatrix = familySnapshot.getRateSchedule(familyId).getPriceMatrix();
+            totalBytes += priceMatrix.getMemoryBytes();
+            System.out.println(String.format("%10s %12d %12.3f", familySnapshot.getFamilyName(familyId), priceMatrix.getMemoryBytes(), priceMatrix.getBuildNanos() / 1e6));
+        }
+        System.out.println(String.format("%10s %12d", "total", totalBytes));
+
+        long[] startEpochMinutes = new long[shiftCount];
+        long[] endEpochMinutes = new long[shiftCount];
+        int[] familyIds = new int[shiftCount];
+        int[] totalPays = new int[shiftCount];
+        int[] statusCodes = new int[shiftCount];
+        Random random = new Random(42);
+        long firstNightStart = ShiftTimeUtil.getNightStartEpochMinute(ShiftTimeUtil.toEpochMinute(LocalDateTime.of(2020, 3, 21, 17, 0)));
+        for (int i = 0; i < shiftCount; i++) {
+            long nightStart = firstNightStart + random.nextInt(365) * 1440L;
+            int startOffset = random.nextInt(WORKABLE_MINUTES + 1);
+            startEpochMinutes[i] = nightStart + startOffset;
+            endEpochMinutes[i] = nightStart + startOffset + random.nextInt(WORKABLE_MINUTES + 1 - startOffset);
+            do {
+                familyIds[i] = random.nextInt(familySnapshot.getFamilyIdCount());
+            } while (!familySnapshot.isFamilyValid(familyIds[i]));
+        }
+
+        boolean vectorized = BatchPricingKernel.create().isVectorized();
+        for (PricingModeEnum pricingMode : PricingModeEnum.values()) {
+            PaymentCalculator paymentCalculator = new PaymentCalculator(familyRegistry, pricingMode);
+            long bestNanos = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                long startNanos = System.nanoTime();
+                paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes);
+                bestNanos = Math.min(bestNanos, System.nanoTime() - startNanos);
+            }
+            System.out.println(String.format("%-14s %14.0f shifts/second, vector kernel %s", pricingMode, shiftCount * 1e9 / bestNanos, pricingMode == PricingModeEnum.VECTORIZED && vectorized));
+        }
+    }
+
+}
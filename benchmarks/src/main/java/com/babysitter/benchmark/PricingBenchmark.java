@@ -0,0 +1,86 @@
+package com.babysitter.benchmark;
+
+import com.babysitter.registry.FamilyRegistry;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+import com.babysitter.service.RateSchedule;
+import com.babysitter.service.TimeAndPayService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.babysitter.constants.Constants.*;
+
+// Single limit pricing is measured with the rates of families A and C, double limit pricing with family B
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final int SHIFTS = 1024;
+
+    @Param({"A", "B", "C"})
+    private String family;
+
+    private final TimeAndPayService timeAndPayService = new TimeAndPayService();
+    private final LocalDateTime nightStart = LocalDateTime.of(2020, 3, 21, 17, 0);
+    private final LocalDateTime[] startDateTimes = new LocalDateTime[SHIFTS];
+    private final LocalDateTime[] endDateTimes = new LocalDateTime[SHIFTS];
+    private final int[] startOffsets = new int[SHIFTS];
+    private final int[] endOffsets = new int[SHIFTS];
+    private RateSchedule rateSchedule;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < SHIFTS; i++) {
+            startOffsets[i] = random.nextInt(WORKABLE_MINUTES + 1);
+            endOffsets[i] = startOffsets[i] + random.nextInt(WORKABLE_MINUTES + 1 - startOffsets[i]);
+            startDateTimes[i] = nightStart.plusMinutes(startOffsets[i]);
+            endDateTimes[i] = nightStart.plusMinutes(endOffsets[i]);
+        }
+        FamilyRegistrySnapshot familySnapshot = FamilyRegistry.createDefault().getSnapshot();
+        rateSchedule = familySnapshot.getRateSchedule(familySnapshot.getFamilyId(family));
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (SHIFTS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public int timeAndPayService() {
+        int i = nextIndex();
+        switch (family) {
+            case "A":
+                return timeAndPayService.getTotalPayForSingleTimeLimit(startDateTimes[i], endDateTimes[i], nightStart.plusHours(6), FAMILY_A_PAY_PER_HOUR_BEFORE_LIMIT, FAMILY_A_PAY_PER_HOUR_AFTER_LIMIT);
+            case "B":
+                return timeAndPayService.getTotalPayForDoubleTimeLimit(startDateTimes[i], endDateTimes[i], nightStart.plusHours(5), nightStart.plusHours(7),
+                        FAMILY_B_PAY_PER_HOUR_BEFORE_FIRST_LIMIT, FAMILY_B_PAY_PER_HOUR_BETWEEN_LIMITS, FAMILY_B_PAY_PER_HOUR_AFTER_SECOND_LIMIT);
+            default:
+                return timeAndPayService.getTotalPayForSingleTimeLimit(startDateTimes[i], endDateTimes[i], nightStart.plusHours(4), FAMILY_C_PAY_PER_HOUR_BEFORE_LIMIT, FAMILY_C_PAY_PER_HOUR_AFTER_LIMIT);
+        }
+    }
+
+    @Benchmark
+    public int rateSchedule() {
+        int i = nextIndex();
+        return rateSchedule.getTotalPay(startOffsets[i], endOffsets[i]);
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.babysitter.benchmark;
+
+import com.babysitter.enums.FamilyEnum;
+import com.babysitter.ledger.LedgerRerater;
+import com.babysitter.ledger.RerateSummary;
+import com.babysitter.ledger.ShiftLedger;
+import com.babysitter.registry.FamilyRegistry;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+import com.babysitter.service.RateSchedule;
+import com.babysitter.service.RateScheduleVersions;
+import com.babysitter.utils.ShiftTimeUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static com.babysitter.constants.Constants.MINUTES_PER_DAY;
+import static com.babysitter.constants.Constants.WORKABLE_MINUTES;
+
+// Fills a ledger with a month of shifts of the built in families, raises the rates of family A from the middle of
+// the month and prints how long re-rating the ledger takes. Usage: RerateReport [shifts] [ledger directory]
+public class RerateReport {
+
+    private static final int NIGHTS = 30;
+    private static final int SITTERS = 100_000;
+
+    public static void main(String[] args) throws IOException {
+        int shiftCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path directory = args.length > 1 ? Paths.get(args[1]) : Files.createTempDirectory("ledger");
+        FamilyRegistrySnapshot previousSnapshot = FamilyRegistry.createDefault().getSnapshot();
+        LocalDate firstNight = LocalDate.of(2020, 3, 1);
+        long firstNightStart = ShiftTimeUtil.toEpochMinute(LocalDateTime.of(2020, 3, 1, 17, 0));
+
+        try (ShiftLedger shiftLedger = ShiftLedger.open(directory)) {
+            Random random = new Random(42);
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < shiftCount; i++) {
+                // Shifts arrive about in order, the way a ledger is filled
+                long nightStart = firstNightStart + (long) i * NIGHTS / shiftCount * MINUTES_PER_DAY;
+                int startOffset = random.nextInt(WORKABLE_MINUTES + 1);
+                long startEpochMinute = nightStart + startOffset;
+                long endEpochMinute = startEpochMinute + random.nextInt(WORKABLE_MINUTES + 1 - startOffset);
+                int familyId = random.nextInt(FamilyEnum.values().length);
+                int totalPay = previousSnapshot.getRateSchedule(familyId).getTotalPay(startOffset, (int) (endEpochMinute - nightStart));
+                shiftLedger.append(startEpochMinute, endEpochMinute, random.nextInt(SITTERS), familyId, totalPay);
+            }
+            System.out.println(String.format("Appended %d shifts in %.0f ms", shiftCount, (System.nanoTime() - startNanos) / 1e6));
+
+            Map<String, RateScheduleVersions> rateScheduleVersions = new HashMap<>();
+            for (FamilyEnum family : FamilyEnum.values()) {
+                rateScheduleVersions.put(family.toString(), previousSnapshot.getRateScheduleVersions(family.ordinal()));
+            }
+            RateSchedule familyA = previousSnapshot.getRateSchedule(FamilyEnum.A.ordinal());
+            int[] raisedPayPerHour = familyA.getPayPerHour();
+            for (int segment = 0; segment < raisedPayPerHour.length; segment++) {
+                raisedPayPerHour[segment]++;
+            }
+            rateScheduleVersions.put(FamilyEnum.A.toString(), new RateScheduleVersions(
+                    new long[]{RateScheduleVersions.SINCE_ALWAYS, firstNight.plusDays(NIGHTS / 2).toEpochDay()},
+                    new RateSchedule[]{familyA, new RateSchedule(familyA.getLimitOffsets(), raisedPayPerHour)}));
+            FamilyRegistrySnapshot currentSnapshot = FamilyRegistrySnapshot.create(previousSnapshot, rateScheduleVersions);
+
+            LedgerRerater ledgerRerater = new LedgerRerater(previousSnapshot, currentSnapshot);
+            for (int round = 0; round < 3; round++) {
+                long[] deltas = new long[1];
+                startNanos = System.nanoTime();
+                RerateSummary summary = ledgerRerater.rerate(shiftLedger, (recordIndex, sitterId, familyId, startEpochMinute, endEpochMinute, previousPay, currentPay) ->
+                        deltas[0] += currentPay - previousPay);
+                long nanos = System.nanoTime() - startNanos;
+                System.out.println(String.format("Re-rated %d of %d shifts in %.0f ms, %d changed by %d in total, %.0f ledger shifts/second",
+                        summary.getRepricedShifts(), shiftCount, nanos / 1e6, summary.getChangedShifts(), deltas[0], shiftCount * 1e9 / nanos));
+            }
+        } finally {
+            if (args.length < 2) {
+                try (Stream<Path> segmentFiles = Files.list(directory)) {
+                    for (Path segmentFile : (Iterable<Path>) segmentFiles::iterator) {
+                        Files.delete(segmentFile);
+                    }
+                }
+                Files.delete(directory);
+            }
+        }
+    }
+
+}
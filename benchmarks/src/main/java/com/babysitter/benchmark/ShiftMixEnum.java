@@ -0,0 +1,39 @@
+package com.babysitter.benchmark;
+
+// Shift inputs the benchmarks cycle through, so the JIT cannot fold a single constant input
+public enum ShiftMixEnum {
+    VALID(new String[][]{
+            {"2020-03-21 17:00", "2020-03-22 04:00", "A"},
+            {"2020-03-21 18:30", "2020-03-21 23:45", "B"},
+            {"2020-03-21 20:00", "2020-03-22 02:00", "C"},
+            {"2020-03-22 00:15", "2020-03-22 03:30", "A"},
+            {"2020-03-21 21:10", "2020-03-22 01:40", "B"},
+            {"2020-03-21 17:05", "2020-03-21 21:00", "C"}
+    }),
+    BOUNDARY(new String[][]{
+            {"2020-03-21 17:00", "2020-03-21 17:00", "A"},
+            {"2020-03-21 23:00", "2020-03-21 23:00", "A"},
+            {"2020-03-21 22:00", "2020-03-22 00:00", "B"},
+            {"2020-03-21 21:00", "2020-03-22 04:00", "C"},
+            {"2020-03-22 04:00", "2020-03-22 04:00", "B"},
+            {"2020-02-29 17:00", "2020-03-01 04:00", "C"}
+    }),
+    INVALID(new String[][]{
+            {"", "2020-03-21 19:00", "A"},
+            {"2020-03-21 17:00", "2020-03-22 04:00", "E"},
+            {"2020-03-21 17:00", "2020-03-21 04:00", "A"},
+            {"2020-03-21 16:59", "2020-03-21 17:00", "B"},
+            {"2020-03-21 17:00", "2020-03-22 04:01", "C"},
+            {"2020-03-21 25:00", "2020-03-21 19:00", "A"}
+    });
+
+    private final String[][] shifts;
+
+    ShiftMixEnum(String[][] shifts) {
+        this.shifts = shifts;
+    }
+
+    public String[][] getShifts() {
+        return shifts;
+    }
+}
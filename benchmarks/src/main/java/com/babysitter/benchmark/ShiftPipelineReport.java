@@ -0,0 +1,80 @@
+package com.babysitter.benchmark;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.pipeline.PricedShift;
+import com.babysitter.pipeline.ShiftPipeline;
+import com.babysitter.pipeline.ShiftRequest;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+import static com.babysitter.constants.Constants.WORKABLE_MINUTES;
+
+// Pushes random shifts through a pipeline and prints the queue depth, throughput and utilization of every stage, so
+// the stage to give more threads stands out.
+// Usage: ShiftPipelineReport [shifts] [parse threads] [validate threads] [price threads]
+public class ShiftPipelineReport {
+
+    public static void main(String[] args) throws InterruptedException {
+        int shiftCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int parseThreads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int validateThreads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int priceThreads = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        String[][] shifts = new String[1024][];
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        Random random = new Random(42);
+        for (int i = 0; i < shifts.length; i++) {
+            LocalDateTime start = LocalDateTime.of(2020, 3, 21, 17, 0).plusDays(random.nextInt(365)).plusMinutes(random.nextInt(WORKABLE_MINUTES + 1));
+            LocalDateTime end = start.plusMinutes(random.nextInt(WORKABLE_MINUTES));
+            shifts[i] = new String[]{start.format(formatter), end.format(formatter), String.valueOf((char) ('A' + random.nextInt(3)))};
+        }
+
+        ShiftPipeline shiftPipeline = new ShiftPipeline(PaymentCalculator.getDefault(), ShiftPipeline.DEFAULT_QUEUE_CAPACITY, parseThreads, validateThreads, priceThreads);
+        CountDownLatch completed = new CountDownLatch(1);
+        shiftPipeline.subscribe(new Flow.Subscriber<PricedShift>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(PricedShift pricedShift) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+        long startNanos = System.nanoTime();
+        long nextReportNanos = startNanos + 1_000_000_000L;
+        try (SubmissionPublisher<ShiftRequest> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(shiftPipeline);
+            for (int i = 0; i < shiftCount; i++) {
+                String[] shift = shifts[i & (shifts.length - 1)];
+                publisher.submit(new ShiftRequest(shift[0], shift[1], shift[2]));
+                if ((i & 4095) == 0 && System.nanoTime() >= nextReportNanos) {
+                    shiftPipeline.getStageStats().forEach(System.out::println);
+                    System.out.println();
+                    nextReportNanos += 1_000_000_000L;
+                }
+            }
+        }
+        completed.await();
+        long nanos = System.nanoTime() - startNanos;
+        shiftPipeline.getStageStats().forEach(System.out::println);
+        shiftPipeline.close();
+        System.out.println(String.format("%d shifts in %.2f s, %.0f shifts/s", shiftCount, nanos / 1e9, shiftCount * 1e9 / nanos));
+    }
+
+}
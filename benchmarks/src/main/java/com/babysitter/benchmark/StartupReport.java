@@ -0,0 +1,60 @@
+package com.babysitter.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Starts the calculator as a new JVM for one shift again and again and prints the median and best wall time to the
+// priced shift, with and without the AppCDS archive of mvn package -Pcds, next to a bare java -version.
+// Usage: StartupReport [runs] [jar] [archive]
+public class StartupReport {
+
+    private static final long TARGET_MILLIS = 100;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 21;
+        String jar = args.length > 1 ? args[1] : "target/babysitter-1.0-SNAPSHOT.jar";
+        String archive = args.length > 2 ? args[2] : "target/babysitter.jsa";
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String[] shift = {"2020-03-21 17:00", "2020-03-22 04:00", "B"};
+
+        System.out.println(String.format("%-28s %10s %10s", "run", "median ms", "best ms"));
+        report("java -version", runs, java, "-version");
+        report("jar", runs, concat(new String[]{java, "-jar", jar}, shift));
+        if (Files.exists(Paths.get(archive))) {
+            String sharedArchive = "-XX:SharedArchiveFile=" + archive;
+            report("jar + archive", runs, concat(new String[]{java, sharedArchive, "-jar", jar}, shift));
+            long median = report("jar + archive + C1 + serial", runs,
+                    concat(new String[]{java, sharedArchive, "-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC", "-jar", jar}, shift));
+            System.out.println("Target of " + TARGET_MILLIS + " ms " + (median < TARGET_MILLIS ? "met" : "missed"));
+        } else {
+            System.out.println("No archive at " + archive + ", build it with mvn package -Pcds");
+        }
+    }
+
+    private static long report(String name, int runs, String... command) throws IOException, InterruptedException {
+        long[] millis = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            long startNanos = System.nanoTime();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException("Failed: " + String.join(" ", command));
+            }
+            millis[run] = (System.nanoTime() - startNanos) / 1_000_000;
+        }
+        Arrays.sort(millis);
+        System.out.println(String.format("%-28s %10d %10d", name, millis[runs / 2], millis[0]));
+        return millis[runs / 2];
+    }
+
+    private static String[] concat(String[] first, String[] second) {
+        List<String> command = new ArrayList<>(Arrays.asList(first));
+        command.addAll(Arrays.asList(second));
+        return command.toArray(new String[0]);
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.babysitter.benchmark;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+import com.babysitter.utils.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"VALID", "BOUNDARY", "INVALID"})
+    private ShiftMixEnum mix;
+
+    private PaymentCalculator paymentCalculator;
+    private String[][] shifts;
+    private long[] startEpochMinutes;
+    private long[] endEpochMinutes;
+    private int[] familyIds;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        paymentCalculator = new PaymentCalculator();
+        FamilyRegistrySnapshot familySnapshot = paymentCalculator.getFamilyRegistry().getSnapshot();
+        shifts = mix.getShifts();
+        startEpochMinutes = new long[shifts.length];
+        endEpochMinutes = new long[shifts.length];
+        familyIds = new int[shifts.length];
+        for (int i = 0; i < shifts.length; i++) {
+            startEpochMinutes[i] = DateUtil.parseEpochMinute(shifts[i][0]);
+            endEpochMinutes[i] = DateUtil.parseEpochMinute(shifts[i][1]);
+            familyIds[i] = familySnapshot.getFamilyId(shifts[i][2]);
+        }
+    }
+
+    private int nextIndex() {
+        index = index + 1 == shifts.length ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public int validate() {
+        String[] shift = shifts[nextIndex()];
+        return paymentCalculator.validate(shift[0], shift[1], shift[2]);
+    }
+
+    @Benchmark
+    public int validateShift() {
+        int i = nextIndex();
+        return paymentCalculator.validateShift(startEpochMinutes[i], endEpochMinutes[i], familyIds[i]);
+    }
+
+}
@@ -1,14 +1,81 @@
 package com.babysitter;
 
+import com.babysitter.calculator.CalculationResult;
 import com.babysitter.calculator.PaymentCalculator;
 import com.babysitter.exception.InvalidTimeFormatException;
+import com.babysitter.metrics.CalculationMetrics;
+import com.babysitter.metrics.MetricsReporter;
+import com.babysitter.server.PricingServer;
+import com.babysitter.stream.BinaryShiftConverter;
+import com.babysitter.stream.BinaryShiftFileProcessor;
+import com.babysitter.stream.QuarantineWriter;
+import com.babysitter.stream.ShiftFileProcessor;
+import com.babysitter.stream.ShiftFileSummary;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
 
 public class BabysitterPaymentCalculator {
 
-    public static void main(String args[]) throws InvalidTimeFormatException {
-        PaymentCalculator paymentCalculator = new PaymentCalculator();
+    private static final long METRICS_REPORT_PERIOD_SECONDS = 60;
+
+    public static void main(String args[]) throws InvalidTimeFormatException, IOException, JMException {
+        PaymentCalculator paymentCalculator = PaymentCalculator.getDefault();
+        if ((args.length == 3 || args.length == 4) && "--file".equals(args[0])) {
+            // Streams a CSV or NDJSON file of start,end,family records into an output file, and the records that
+            // cannot be read into an optional quarantine file
+            ShiftFileSummary summary;
+            if (args.length == 4) {
+                try (QuarantineWriter quarantineWriter = new QuarantineWriter(Paths.get(args[3]))) {
+                    summary = new ShiftFileProcessor(paymentCalculator).process(Paths.get(args[1]), Paths.get(args[2]), quarantineWriter);
+                }
+            } else {
+                summary = new ShiftFileProcessor(paymentCalculator).process(Paths.get(args[1]), Paths.get(args[2]));
+            }
+            System.out.println("Priced " + summary.getPricedRecords() + " of " + summary.getRecords() + " shifts, rejected " + summary.getRejectedRecords());
+            if (args.length == 4) {
+                System.out.println("Quarantined " + summary.getMalformedRecords() + " malformed shifts");
+            }
+            System.out.println("The Total Payment is: $" + summary.getTotalPay());
+            return;
+        }
+        if (args.length == 3 && "--convert".equals(args[0])) {
+            // Converts a CSV file of start,end,family records into a binary shift file
+            long records = BinaryShiftConverter.convert(Paths.get(args[1]), Paths.get(args[2]));
+            System.out.println("Converted " + records + " shifts");
+            return;
+        }
+        if (args.length == 3 && "--binary".equals(args[0])) {
+            // Prices a binary shift file into a file of total pay and status code pairs
+            ShiftFileSummary summary = new BinaryShiftFileProcessor(paymentCalculator).process(Paths.get(args[1]), Paths.get(args[2]));
+            System.out.println("Priced " + summary.getPricedRecords() + " of " + summary.getRecords() + " shifts, rejected " + summary.getRejectedRecords());
+            System.out.println("The Total Payment is: $" + summary.getTotalPay());
+            return;
+        }
+        if (args.length >= 1 && "--serve".equals(args[0])) {
+            // Serves quotes over HTTP until the process is stopped
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : PricingServer.DEFAULT_PORT;
+            PricingServer.setTcpNoDelay();
+            if (CalculationMetrics.ENABLED) {
+                paymentCalculator.getCalculationMetrics().registerMBean("server");
+                MetricsReporter.start(paymentCalculator.getCalculationMetrics(), METRICS_REPORT_PERIOD_SECONDS, System.out);
+            }
+            new PricingServer(paymentCalculator, new InetSocketAddress(port)).start();
+            System.out.println("Serving quotes on port " + port);
+            return;
+        }
         // Start Date Time and End Date Time Format is yyyy-MM-dd HH:mm
-        int result = paymentCalculator.calculate("2020-03-21 17:00", "2020-03-21 17:00", "A");
+        boolean isShiftGiven = args.length == 3 && !args[0].startsWith("--");
+        CalculationResult calculationResult = new CalculationResult();
+        int result = isShiftGiven ? paymentCalculator.calculate(args[0], args[1], args[2], calculationResult)
+                : paymentCalculator.calculate("2020-03-21 17:00", "2020-03-21 17:00", "A", calculationResult);
+        if (!calculationResult.isValid()) {
+            for (String message : calculationResult.getMessages()) {
+                System.out.println(message);
+            }
+        }
         System.out.println("The Total Payment is: $" + result);
     }
 
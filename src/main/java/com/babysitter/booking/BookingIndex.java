@@ -0,0 +1,157 @@
+package com.babysitter.booking;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+
+import java.util.Arrays;
+
+import static com.babysitter.constants.Constants.STATUS_FAMILY_DOUBLE_BOOKED;
+import static com.babysitter.constants.Constants.STATUS_SITTER_DOUBLE_BOOKED;
+import static com.babysitter.constants.Constants.STATUS_VALID;
+
+// The booked shifts of every sitter and every family, each in a ShiftIntervalTree, so a shift that double books a
+// sitter or a family is rejected with one O(log n) query per tree instead of a check against every shift of the month.
+// A shift must first pass the calculator's own rules, workable hours included. Not thread safe.
+public class BookingIndex {
+
+    private static final int INITIAL_OVERLAP_CAPACITY = 16;
+
+    private final PaymentCalculator paymentCalculator;
+    private final IntObjectHashMap<ShiftIntervalTree> sitterBookings = new IntObjectHashMap<>();
+    private final IntObjectHashMap<ShiftIntervalTree> familyBookings = new IntObjectHashMap<>();
+    private final ShiftOverlapVisitor overlapCollector = this::addOverlap;
+    private long[] overlapStarts = new long[INITIAL_OVERLAP_CAPACITY];
+    private long[] overlapEnds = new long[INITIAL_OVERLAP_CAPACITY];
+    private int overlapCount;
+
+    public BookingIndex(PaymentCalculator paymentCalculator) {
+        this.paymentCalculator = paymentCalculator;
+    }
+
+    // The STATUS_* flags of validateShift, and once those pass the double booking flags of the sitter and the family
+    public int validateBooking(int sitterId, int familyId, long startEpochMinute, long endEpochMinute) {
+        int statusCode = paymentCalculator.validateShift(startEpochMinute, endEpochMinute, familyId);
+        if (statusCode != STATUS_VALID) {
+            return statusCode;
+        }
+        if (hasOverlap(sitterBookings, sitterId, startEpochMinute, endEpochMinute)) {
+            statusCode |= STATUS_SITTER_DOUBLE_BOOKED;
+        }
+        if (hasOverlap(familyBookings, familyId, startEpochMinute, endEpochMinute)) {
+            statusCode |= STATUS_FAMILY_DOUBLE_BOOKED;
+        }
+        return statusCode;
+    }
+
+    // Books the shift only when validateBooking passes and returns its status code
+    public int book(int shiftId, int sitterId, int familyId, long startEpochMinute, long endEpochMinute) {
+        int statusCode = validateBooking(sitterId, familyId, startEpochMinute, endEpochMinute);
+        if (statusCode == STATUS_VALID) {
+            getBookings(sitterBookings, sitterId).insert(startEpochMinute, endEpochMinute, shiftId);
+            getBookings(familyBookings, familyId).insert(startEpochMinute, endEpochMinute, shiftId);
+        }
+        return statusCode;
+    }
+
+    // Loads shifts that were already booked, sorted by start, without checking them. Sitters and families without
+    // bookings get a balanced tree built in one pass; the shifts of the others are inserted one at a time.
+    public void load(int[] shiftIds, int[] sitterIds, int[] familyIds, long[] startEpochMinutes, long[] endEpochMinutes, int offset, int length) {
+        load(sitterBookings, sitterIds, shiftIds, startEpochMinutes, endEpochMinutes, offset, length);
+        load(familyBookings, familyIds, shiftIds, startEpochMinutes, endEpochMinutes, offset, length);
+    }
+
+    // Pays the part of the shift the sitter is not already booked for, each free stretch priced on its own the way
+    // the hours on each side of a limit are; 0 when the shift fails validateShift
+    public int calculateNonOverlappingPay(int sitterId, int familyId, long startEpochMinute, long endEpochMinute) {
+        FamilyRegistrySnapshot familySnapshot = paymentCalculator.getFamilyRegistry().getSnapshot();
+        if (paymentCalculator.validateShift(startEpochMinute, endEpochMinute, familyId) != STATUS_VALID) {
+            return 0;
+        }
+        overlapCount = 0;
+        ShiftIntervalTree bookings = sitterBookings.get(sitterId);
+        if (bookings != null) {
+            bookings.forEachOverlap(startEpochMinute, endEpochMinute, overlapCollector);
+        }
+        int totalPay = 0;
+        long freeStart = startEpochMinute;
+        for (int i = 0; i < overlapCount && freeStart < endEpochMinute; i++) {
+            if (overlapStarts[i] > freeStart) {
+                totalPay += paymentCalculator.calculateTotalPay(familySnapshot, familyId, freeStart, overlapStarts[i]);
+            }
+            freeStart = Math.max(freeStart, overlapEnds[i]);
+        }
+        if (freeStart < endEpochMinute) {
+            totalPay += paymentCalculator.calculateTotalPay(familySnapshot, familyId, freeStart, endEpochMinute);
+        }
+        return totalPay;
+    }
+
+    // The bookings of a sitter, null when the sitter has none
+    public ShiftIntervalTree getSitterBookings(int sitterId) {
+        return sitterBookings.get(sitterId);
+    }
+
+    // The bookings of a family, null when the family has none
+    public ShiftIntervalTree getFamilyBookings(int familyId) {
+        return familyBookings.get(familyId);
+    }
+
+    private boolean hasOverlap(IntObjectHashMap<ShiftIntervalTree> bookings, int key, long startEpochMinute, long endEpochMinute) {
+        ShiftIntervalTree tree = bookings.get(key);
+        return tree != null && tree.hasOverlap(startEpochMinute, endEpochMinute);
+    }
+
+    private ShiftIntervalTree getBookings(IntObjectHashMap<ShiftIntervalTree> bookings, int key) {
+        return bookings.computeIfAbsent(key, k -> new ShiftIntervalTree());
+    }
+
+    // Groups the shifts by key with a counting sort that keeps their order, so every group is still sorted by start
+    private void load(IntObjectHashMap<ShiftIntervalTree> bookings, int[] keys, int[] shiftIds, long[] startEpochMinutes, long[] endEpochMinutes, int offset, int length) {
+        // Length, offset and next free position of the group of every key; a group gets its offset at its first shift
+        IntObjectHashMap<int[]> groups = new IntObjectHashMap<>();
+        for (int i = offset; i < offset + length; i++) {
+            groups.computeIfAbsent(keys[i], k -> new int[]{0, -1, 0})[0]++;
+        }
+        int[] groupedShiftIds = new int[length];
+        long[] groupedStarts = new long[length];
+        long[] groupedEnds = new long[length];
+        int groupStart = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int[] group = groups.get(keys[i]);
+            if (group[1] < 0) {
+                group[1] = groupStart;
+                group[2] = groupStart;
+                groupStart += group[0];
+            }
+            int position = group[2]++;
+            groupedShiftIds[position] = shiftIds[i];
+            groupedStarts[position] = startEpochMinutes[i];
+            groupedEnds[position] = endEpochMinutes[i];
+        }
+        groups.forEach((key, group) -> {
+            int groupLength = group[0];
+            int groupOffset = group[1];
+            ShiftIntervalTree tree = bookings.get(key);
+            if (tree == null) {
+                tree = new ShiftIntervalTree(groupLength);
+                tree.bulkLoad(groupedStarts, groupedEnds, groupedShiftIds, groupOffset, groupLength);
+                bookings.put(key, tree);
+                return;
+            }
+            for (int i = groupOffset; i < groupOffset + groupLength; i++) {
+                tree.insert(groupedStarts[i], groupedEnds[i], groupedShiftIds[i]);
+            }
+        });
+    }
+
+    private void addOverlap(int shiftId, long startEpochMinute, long endEpochMinute) {
+        if (overlapCount == overlapStarts.length) {
+            overlapStarts = Arrays.copyOf(overlapStarts, overlapCount * 2);
+            overlapEnds = Arrays.copyOf(overlapEnds, overlapCount * 2);
+        }
+        overlapStarts[overlapCount] = startEpochMinute;
+        overlapEnds[overlapCount] = endEpochMinute;
+        overlapCount++;
+    }
+
+}
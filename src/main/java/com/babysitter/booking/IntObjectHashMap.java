@@ -0,0 +1,135 @@
+package com.babysitter.booking;
+
+import java.util.function.IntFunction;
+
+// Open addressing hash map from int keys to object values with linear probing over two parallel arrays, so sitter and
+// family ids are never boxed. A null value marks a free slot, so values cannot be null. Not thread safe.
+final class IntObjectHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_LOAD_PERCENT = 70;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int resizeThreshold;
+
+    IntObjectHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        resizeThreshold = (int) ((long) capacity * MAX_LOAD_PERCENT / 100);
+    }
+
+    // The value of key, null for a missing key
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    // The value of key, created and added by newValue for a missing key
+    @SuppressWarnings("unchecked")
+    V computeIfAbsent(int key, IntFunction<V> newValue) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        V value = newValue.apply(key);
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            resize();
+        }
+        return value;
+    }
+
+    // Returns the value key had, null for a missing key
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("An IntObjectHashMap cannot hold null values");
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previousValue = (V) values[slot];
+                values[slot] = value;
+                return previousValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            resize();
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(IntObjectConsumer<V> consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != null) {
+                consumer.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("An IntObjectHashMap cannot hold more than " + resizeThreshold + " keys");
+        }
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        int mask = keys.length - 1;
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            if (oldValues[oldSlot] == null) {
+                continue;
+            }
+            int slot = hash(oldKeys[oldSlot]) & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[oldSlot];
+            values[slot] = oldValues[oldSlot];
+        }
+    }
+
+    // Finalizer of MurmurHash3; ids are often consecutive, which linear probing needs spread out
+    private static int hash(int key) {
+        key ^= key >>> 16;
+        key *= 0x85ebca6b;
+        key ^= key >>> 13;
+        key *= 0xc2b2ae35;
+        key ^= key >>> 16;
+        return key;
+    }
+
+    @FunctionalInterface
+    interface IntObjectConsumer<V> {
+
+        void accept(int key, V value);
+
+    }
+
+}
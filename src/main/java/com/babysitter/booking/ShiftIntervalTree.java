@@ -0,0 +1,228 @@
+package com.babysitter.booking;
+
+import java.util.Arrays;
+
+// AVL tree of shifts ordered by start, kept in parallel arrays indexed by node. Every node also holds the latest end in
+// its subtree, so an overlap query skips each subtree that ends before the query starts: inserts and the first overlap
+// take O(log n), visiting every overlap O(log n + k). Shifts are half open, so one that ends at the minute the next
+// starts does not overlap it, and an empty shift overlaps nothing. Not thread safe.
+public final class ShiftIntervalTree {
+
+    public static final int NO_SHIFT = -1;
+
+    private static final int NIL = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] starts;
+    private long[] ends;
+    private long[] maxEnds;
+    private int[] shiftIds;
+    private int[] lefts;
+    private int[] rights;
+    private byte[] heights;
+    private int size;
+    private int root = NIL;
+
+    public ShiftIntervalTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ShiftIntervalTree(int expectedSize) {
+        allocate(Math.max(DEFAULT_CAPACITY, expectedSize));
+    }
+
+    public void insert(long startEpochMinute, long endEpochMinute, int shiftId) {
+        if (size == starts.length) {
+            allocate(starts.length * 2);
+        }
+        int node = size++;
+        setNode(node, startEpochMinute, endEpochMinute, shiftId);
+        root = insert(root, node);
+    }
+
+    // Builds a balanced tree in O(n) from shifts sorted by start; the tree must be empty
+    public void bulkLoad(long[] startEpochMinutes, long[] endEpochMinutes, int[] shiftIds, int offset, int length) {
+        if (size > 0) {
+            throw new IllegalStateException("Only an empty tree can be bulk loaded");
+        }
+        for (int i = offset + 1; i < offset + length; i++) {
+            if (startEpochMinutes[i] < startEpochMinutes[i - 1]) {
+                throw new IllegalArgumentException("Shifts must be sorted by start, shift " + shiftIds[i] + " starts before the shift in front of it");
+            }
+        }
+        if (length > starts.length) {
+            allocate(length);
+        }
+        for (int i = 0; i < length; i++) {
+            setNode(i, startEpochMinutes[offset + i], endEpochMinutes[offset + i], shiftIds[offset + i]);
+        }
+        size = length;
+        root = build(0, length - 1);
+    }
+
+    public boolean hasOverlap(long startEpochMinute, long endEpochMinute) {
+        return getOverlappingShiftId(startEpochMinute, endEpochMinute) != NO_SHIFT;
+    }
+
+    // Id of one shift overlapping [start, end), NO_SHIFT when there is none. If no shift of the left subtree
+    // overlaps although one of them ends after the query starts, that one starts at or after the query ends, and so
+    // does every shift to its right, so one path from the root is enough.
+    public int getOverlappingShiftId(long startEpochMinute, long endEpochMinute) {
+        if (startEpochMinute >= endEpochMinute) {
+            return NO_SHIFT;
+        }
+        int node = root;
+        while (node != NIL) {
+            if (starts[node] < endEpochMinute && ends[node] > startEpochMinute && starts[node] < ends[node]) {
+                return shiftIds[node];
+            }
+            int left = lefts[node];
+            node = left != NIL && maxEnds[left] > startEpochMinute ? left : rights[node];
+        }
+        return NO_SHIFT;
+    }
+
+    // Visits every shift overlapping [start, end) in order of start
+    public void forEachOverlap(long startEpochMinute, long endEpochMinute, ShiftOverlapVisitor visitor) {
+        if (startEpochMinute < endEpochMinute) {
+            forEachOverlap(root, startEpochMinute, endEpochMinute, visitor);
+        }
+    }
+
+    private void forEachOverlap(int node, long startEpochMinute, long endEpochMinute, ShiftOverlapVisitor visitor) {
+        if (node == NIL || maxEnds[node] <= startEpochMinute) {
+            return;
+        }
+        forEachOverlap(lefts[node], startEpochMinute, endEpochMinute, visitor);
+        if (starts[node] >= endEpochMinute) {
+            return;
+        }
+        if (ends[node] > startEpochMinute && starts[node] < ends[node]) {
+            visitor.visit(shiftIds[node], starts[node], ends[node]);
+        }
+        forEachOverlap(rights[node], startEpochMinute, endEpochMinute, visitor);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getHeight() {
+        return height(root);
+    }
+
+    private int insert(int subtree, int node) {
+        if (subtree == NIL) {
+            return node;
+        }
+        if (starts[node] < starts[subtree]) {
+            lefts[subtree] = insert(lefts[subtree], node);
+        } else {
+            rights[subtree] = insert(rights[subtree], node);
+        }
+        return rebalance(subtree);
+    }
+
+    private int build(int first, int last) {
+        if (first > last) {
+            return NIL;
+        }
+        int middle = (first + last) >>> 1;
+        lefts[middle] = build(first, middle - 1);
+        rights[middle] = build(middle + 1, last);
+        update(middle);
+        return middle;
+    }
+
+    private int rebalance(int node) {
+        update(node);
+        int balance = height(lefts[node]) - height(rights[node]);
+        if (balance > 1) {
+            int left = lefts[node];
+            if (height(lefts[left]) < height(rights[left])) {
+                lefts[node] = rotateLeft(left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            int right = rights[node];
+            if (height(rights[right]) < height(lefts[right])) {
+                rights[node] = rotateRight(right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private int rotateRight(int node) {
+        int left = lefts[node];
+        lefts[node] = rights[left];
+        rights[left] = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private int rotateLeft(int node) {
+        int right = rights[node];
+        rights[node] = lefts[right];
+        lefts[right] = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private void update(int node) {
+        int left = lefts[node];
+        int right = rights[node];
+        heights[node] = (byte) (Math.max(height(left), height(right)) + 1);
+        long maxEnd = getOverlappableEnd(node);
+        if (left != NIL) {
+            maxEnd = Math.max(maxEnd, maxEnds[left]);
+        }
+        if (right != NIL) {
+            maxEnd = Math.max(maxEnd, maxEnds[right]);
+        }
+        maxEnds[node] = maxEnd;
+    }
+
+    // An empty shift never overlaps, so it must not keep the search in its subtree
+    private long getOverlappableEnd(int node) {
+        return starts[node] < ends[node] ? ends[node] : Long.MIN_VALUE;
+    }
+
+    private int height(int node) {
+        return node == NIL ? 0 : heights[node];
+    }
+
+    private void setNode(int node, long startEpochMinute, long endEpochMinute, int shiftId) {
+        starts[node] = startEpochMinute;
+        ends[node] = endEpochMinute;
+        maxEnds[node] = getOverlappableEnd(node);
+        shiftIds[node] = shiftId;
+        lefts[node] = NIL;
+        rights[node] = NIL;
+        heights[node] = 1;
+    }
+
+    private void allocate(int capacity) {
+        if (starts == null) {
+            starts = new long[capacity];
+            ends = new long[capacity];
+            maxEnds = new long[capacity];
+            shiftIds = new int[capacity];
+            lefts = new int[capacity];
+            rights = new int[capacity];
+            heights = new byte[capacity];
+            return;
+        }
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        maxEnds = Arrays.copyOf(maxEnds, capacity);
+        shiftIds = Arrays.copyOf(shiftIds, capacity);
+        lefts = Arrays.copyOf(lefts, capacity);
+        rights = Arrays.copyOf(rights, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+    }
+
+}
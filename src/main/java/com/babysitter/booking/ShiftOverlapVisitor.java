@@ -0,0 +1,8 @@
+package com.babysitter.booking;
+
+@FunctionalInterface
+public interface ShiftOverlapVisitor {
+
+    void visit(int shiftId, long startEpochMinute, long endEpochMinute);
+
+}
@@ -0,0 +1,57 @@
+package com.babysitter.calculator;
+
+import static com.babysitter.constants.Constants.STATUS_VALID;
+
+// Totals of one part of a batch. Every fork join task fills its own instance and the parts are added up when the
+// tasks are joined, so no counter is ever shared between threads.
+public class BatchTotals {
+
+    private final long[] familyTotalPays;
+    private long pricedShifts;
+    private long rejectedShifts;
+
+    public BatchTotals(int familyIdCount) {
+        familyTotalPays = new long[familyIdCount];
+    }
+
+    void addShifts(int[] familyIds, int[] totalPays, int[] statusCodes, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            if (statusCodes[i] == STATUS_VALID) {
+                familyTotalPays[familyIds[i]] += totalPays[i];
+                pricedShifts++;
+            } else {
+                rejectedShifts++;
+            }
+        }
+    }
+
+    void add(BatchTotals other) {
+        for (int familyId = 0; familyId < familyTotalPays.length; familyId++) {
+            familyTotalPays[familyId] += other.familyTotalPays[familyId];
+        }
+        pricedShifts += other.pricedShifts;
+        rejectedShifts += other.rejectedShifts;
+    }
+
+    public long getFamilyTotalPay(int familyId) {
+        return familyTotalPays[familyId];
+    }
+
+    public long getTotalPay() {
+        long totalPay = 0;
+        for (long familyTotalPay : familyTotalPays) {
+            totalPay += familyTotalPay;
+        }
+        return totalPay;
+    }
+
+    public long getPricedShifts() {
+        return pricedShifts;
+    }
+
+    public long getRejectedShifts() {
+        return rejectedShifts;
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.babysitter.calculator;
+
+import com.babysitter.enums.ValidationErrorEnum;
+
+import java.util.List;
+
+import static com.babysitter.constants.Constants.STATUS_VALID;
+
+// Mutable holder a caller can reuse for every calculation, so reporting why a shift was rejected allocates nothing
+public class CalculationResult {
+
+    private int totalPay;
+    private int statusCode;
+
+    void set(int totalPay, int statusCode) {
+        this.totalPay = totalPay;
+        this.statusCode = statusCode;
+    }
+
+    public int getTotalPay() {
+        return totalPay;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isValid() {
+        return statusCode == STATUS_VALID;
+    }
+
+    public List<String> getMessages() {
+        return ValidationErrorEnum.getMessages(statusCode);
+    }
+
+}
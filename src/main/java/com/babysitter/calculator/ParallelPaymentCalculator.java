@@ -0,0 +1,79 @@
+package com.babysitter.calculator;
+
+import com.babysitter.registry.FamilyRegistrySnapshot;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Prices a batch on a fork join pool. The batch is split in halves down to chunks that keep their slice of the
+// input and output arrays in cache; every chunk writes only to its own slice of the output arrays and its own totals.
+public class ParallelPaymentCalculator {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private final PaymentCalculator paymentCalculator;
+    private final ForkJoinPool forkJoinPool;
+    private final int chunkSize;
+
+    public ParallelPaymentCalculator(PaymentCalculator paymentCalculator) {
+        this(paymentCalculator, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelPaymentCalculator(PaymentCalculator paymentCalculator, ForkJoinPool forkJoinPool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size has to be at least 1");
+        }
+        this.paymentCalculator = paymentCalculator;
+        this.forkJoinPool = forkJoinPool;
+        this.chunkSize = chunkSize;
+    }
+
+    public BatchTotals calculateBatch(long[] startEpochMinutes, long[] endEpochMinutes, int[] familyIds, int[] totalPays, int[] statusCodes) {
+        FamilyRegistrySnapshot familySnapshot = paymentCalculator.getFamilyRegistry().getSnapshot();
+        return forkJoinPool.invoke(new BatchTask(familySnapshot, startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, 0, startEpochMinutes.length));
+    }
+
+    private class BatchTask extends RecursiveTask<BatchTotals> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FamilyRegistrySnapshot familySnapshot;
+        private final long[] startEpochMinutes;
+        private final long[] endEpochMinutes;
+        private final int[] familyIds;
+        private final int[] totalPays;
+        private final int[] statusCodes;
+        private final int offset;
+        private final int length;
+
+        BatchTask(FamilyRegistrySnapshot familySnapshot, long[] startEpochMinutes, long[] endEpochMinutes, int[] familyIds, int[] totalPays, int[] statusCodes, int offset, int length) {
+            this.familySnapshot = familySnapshot;
+            this.startEpochMinutes = startEpochMinutes;
+            this.endEpochMinutes = endEpochMinutes;
+            this.familyIds = familyIds;
+            this.totalPays = totalPays;
+            this.statusCodes = statusCodes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        protected BatchTotals compute() {
+            if (length <= chunkSize) {
+                BatchTotals batchTotals = new BatchTotals(familySnapshot.getFamilyIdCount());
+                paymentCalculator.calculateBatch(familySnapshot, startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, offset, length);
+                batchTotals.addShifts(familyIds, totalPays, statusCodes, offset, length);
+                return batchTotals;
+            }
+            // Split on a chunk boundary so neighbouring tasks do not write to the same cache lines
+            int firstLength = (length / 2 + chunkSize - 1) / chunkSize * chunkSize;
+            BatchTask first = new BatchTask(familySnapshot, startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, offset, firstLength);
+            BatchTask second = new BatchTask(familySnapshot, startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, offset + firstLength, length - firstLength);
+            first.fork();
+            BatchTotals batchTotals = second.compute();
+            batchTotals.add(first.join());
+            return batchTotals;
+        }
+    }
+
+}
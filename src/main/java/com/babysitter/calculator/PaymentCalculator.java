@@ -1,166 +1,475 @@
 package com.babysitter.calculator;
 
-import com.babysitter.enums.FamilyEnum;
+import com.babysitter.codec.ShiftRecordCodec;
+import com.babysitter.enums.CalculationStageEnum;
+import com.babysitter.enums.PricingModeEnum;
+import com.babysitter.enums.RoundingPolicyEnum;
 import com.babysitter.exception.InvalidTimeFormatException;
+import com.babysitter.metrics.CalculationMetrics;
+import com.babysitter.registry.FamilyRegistry;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+import com.babysitter.service.BatchPricingKernel;
+import com.babysitter.service.NightCalendar;
+import com.babysitter.service.RateScheduleVersions;
+import com.babysitter.service.RateSegmentTable;
 import com.babysitter.service.TimeAndPayService;
 import com.babysitter.utils.DateUtil;
-import org.apache.commons.lang3.StringUtils;
+import com.babysitter.utils.ShiftTimeUtil;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.nio.ByteBuffer;
+import java.time.ZoneId;
+import java.util.Arrays;
 
 import static com.babysitter.constants.Constants.*;
 
-public class PaymentCalculator {
+// A calculator keeps no state between calls and its fields never change, so one instance can be shared by any number
+// of threads. Scratch space is per thread; the rates are read from the immutable snapshot of the registry.
+public final class PaymentCalculator {
 
-    TimeAndPayService timeAndPayService;
+    private static final int KERNEL_CHUNK_SIZE = 1024;
+    // Kernel inputs of one chunk and the other scratch arrays of a batch, reused by every batch on the thread.
+    // Anonymous classes rather than lambdas keep the lambda bootstrap off the startup of a one shot calculation.
+    private static final ThreadLocal<KernelChunk> KERNEL_CHUNKS = new ThreadLocal<KernelChunk>() {
+        @Override
+        protected KernelChunk initialValue() {
+            return new KernelChunk();
+        }
+    };
+    // Result of calculate calls that do not pass their own
+    private static final ThreadLocal<CalculationResult> CALCULATION_RESULTS = new ThreadLocal<CalculationResult>() {
+        @Override
+        protected CalculationResult initialValue() {
+            return new CalculationResult();
+        }
+    };
+
+    private final TimeAndPayService timeAndPayService;
+    private final FamilyRegistry familyRegistry;
+    private final PricingModeEnum pricingMode;
+    private final BatchPricingKernel batchPricingKernel;
+    private final CalculationMetrics calculationMetrics;
 
     public PaymentCalculator() {
-        timeAndPayService = new TimeAndPayService();
+        this(FamilyRegistry.createDefault());
+    }
+
+    public PaymentCalculator(FamilyRegistry familyRegistry) {
+        this(familyRegistry, PricingModeEnum.COMPUTED);
+    }
+
+    // A family reloaded with new rules gets a new rate schedule, so its old price matrix is never read again
+    public PaymentCalculator(FamilyRegistry familyRegistry, PricingModeEnum pricingMode) {
+        timeAndPayService = TimeAndPayService.getInstance();
+        this.familyRegistry = familyRegistry;
+        this.pricingMode = pricingMode;
+        BatchPricingKernel batchPricingKernel = pricingMode == PricingModeEnum.VECTORIZED ? BatchPricingKernel.create() : null;
+        // Without the Vector API the computed loop is faster than the scalar kernel
+        this.batchPricingKernel = batchPricingKernel != null && batchPricingKernel.isVectorized() ? batchPricingKernel : null;
+        calculationMetrics = CalculationMetrics.ENABLED ? new CalculationMetrics(familyRegistry) : null;
+    }
+
+    // Calculator over the built in families shared by the whole JVM, created on first use
+    public static PaymentCalculator getDefault() {
+        return DefaultHolder.DEFAULT;
+    }
+
+    public FamilyRegistry getFamilyRegistry() {
+        return familyRegistry;
+    }
+
+    public PricingModeEnum getPricingMode() {
+        return pricingMode;
+    }
+
+    // Null unless the pricing mode is VECTORIZED and the Vector API is available
+    public BatchPricingKernel getBatchPricingKernel() {
+        return batchPricingKernel;
     }
 
+    // Null unless CalculationMetrics.ENABLED
+    public CalculationMetrics getCalculationMetrics() {
+        return calculationMetrics;
+    }
 
+    // Returns 0 for a shift that fails validation; validate or the CalculationResult overload tell which rules failed
     public int calculate(String startTime, String endTime, String family) throws InvalidTimeFormatException {
+        CalculationResult calculationResult = CALCULATION_RESULTS.get();
+        int totalPay = calculate(startTime, endTime, family, calculationResult);
+        if (calculationResult.getStatusCode() == STATUS_INVALID_TIME_FORMAT) {
+            DateUtil.convertStringIntoEpochMinute(startTime);
+            DateUtil.convertStringIntoEpochMinute(endTime);
+        }
+        return totalPay;
+    }
+
+    // Never throws; the status code of every failed rule is written to the reusable result instead
+    public int calculate(String startTime, String endTime, String family, CalculationResult calculationResult) {
+        FamilyRegistrySnapshot familySnapshot = familyRegistry.getSnapshot();
+        long stageStartNanos = CalculationMetrics.ENABLED ? calculationMetrics.startSample() : 0;
+        long startEpochMinute = DateUtil.parseEpochMinute(startTime);
+        long endEpochMinute = DateUtil.parseEpochMinute(endTime);
+        if (CalculationMetrics.ENABLED) {
+            stageStartNanos = calculationMetrics.recordStage(CalculationStageEnum.PARSE, stageStartNanos);
+        }
+        int statusCode = validate(startTime, endTime, family, startEpochMinute, endEpochMinute, familySnapshot);
+        if (CalculationMetrics.ENABLED) {
+            stageStartNanos = calculationMetrics.recordStage(CalculationStageEnum.VALIDATE, stageStartNanos);
+        }
         int totalPay = 0;
-        if (validateTimesAndFamily(startTime, endTime, family)) {
-            LocalDateTime startDateTime = DateUtil.convertStringIntoLocalDateTime(startTime);
-            LocalDateTime endDateTime = DateUtil.convertStringIntoLocalDateTime(endTime);
-            if (areTimesValid(startDateTime, endDateTime)) {
-                totalPay = calculateTotalPay(startDateTime, endDateTime, family);
+        if (statusCode == STATUS_VALID) {
+            int familyId = familySnapshot.getFamilyId(family);
+            totalPay = calculateTotalPay(familySnapshot, familyId, startEpochMinute, endEpochMinute);
+            if (CalculationMetrics.ENABLED) {
+                calculationMetrics.recordStage(CalculationStageEnum.PRICE, stageStartNanos);
+                calculationMetrics.recordPricedShift(familyId);
             }
+        } else if (CalculationMetrics.ENABLED) {
+            calculationMetrics.recordRejectedShift(statusCode);
         }
+        calculationResult.set(totalPay, statusCode);
         return totalPay;
     }
 
-    private int calculateTotalPay(LocalDateTime startDateTime, LocalDateTime endDateTime, String family) {
+    // Times are local clock times in the zone. They are validated the same way as by calculate, and the hours worked
+    // at each rate are real hours, so a full night pays 10 or 12 hours when the clocks change.
+    public int calculateZoned(String startTime, String endTime, String family, ZoneId zone, CalculationResult calculationResult) {
+        FamilyRegistrySnapshot familySnapshot = familyRegistry.getSnapshot();
+        long startEpochMinute = DateUtil.parseEpochMinute(startTime);
+        long endEpochMinute = DateUtil.parseEpochMinute(endTime);
+        int statusCode = validate(startTime, endTime, family, startEpochMinute, endEpochMinute, familySnapshot);
         int totalPay = 0;
-        if (FamilyEnum.A.toString().equals(family)) {
-            LocalDate limitDate = getDayForLimitDateTime(startDateTime).toLocalDate();
-            LocalTime limitTime = LocalTime.parse(FAMILY_A_ELEVEN_PM_LIMIT);
-            LocalDateTime limitDateTime = LocalDateTime.of(limitDate, limitTime);
-
-            totalPay = timeAndPayService.getTotalPayForSingleTimeLimit(startDateTime, endDateTime, limitDateTime, FAMILY_A_PAY_PER_HOUR_BEFORE_LIMIT, FAMILY_A_PAY_PER_HOUR_AFTER_LIMIT);
+        if (statusCode == STATUS_VALID) {
+            NightCalendar nightCalendar = NightCalendar.of(zone);
+            long nightStartEpochMinute = ShiftTimeUtil.getNightStartEpochMinute(startEpochMinute);
+            long nightEpochDay = ShiftTimeUtil.getEpochDay(nightStartEpochMinute);
+            long startEpochSecond = nightCalendar.getEpochSecond(nightEpochDay, (int) (startEpochMinute - nightStartEpochMinute) * SECONDS_PER_MINUTE);
+            long endEpochSecond = nightCalendar.getEpochSecond(nightEpochDay, (int) (endEpochMinute - nightStartEpochMinute) * SECONDS_PER_MINUTE);
+            RateScheduleVersions rateScheduleVersions = familySnapshot.getRateScheduleVersions(familySnapshot.getFamilyId(family));
+            totalPay = rateScheduleVersions.getRateSchedule(nightEpochDay).getTotalPay(nightCalendar, nightEpochDay, startEpochSecond, endEpochSecond);
         }
-        if (FamilyEnum.B.toString().equals(family)) {
-            LocalDate firstLimitDate = getDayForLimitDateTime(startDateTime).toLocalDate();
-            LocalDate secondLimitDate = getDayForMidnightLimitDateTime(startDateTime).toLocalDate();
-            LocalDateTime firstLimitDateTime = LocalDateTime.of(firstLimitDate, LocalTime.parse(FAMILY_B_TEN_PM_LIMIT));
-            LocalDateTime secondLimitDateTime = LocalDateTime.of(secondLimitDate, LocalTime.parse(FAMILY_B_MIDNIGHT_LIMIT));
+        calculationResult.set(totalPay, statusCode);
+        return totalPay;
+    }
 
-            totalPay = timeAndPayService.getTotalPayForDoubleTimeLimit(startDateTime, endDateTime, firstLimitDateTime, secondLimitDateTime, FAMILY_B_PAY_PER_HOUR_BEFORE_FIRST_LIMIT, FAMILY_B_PAY_PER_HOUR_BETWEEN_LIMITS, FAMILY_B_PAY_PER_HOUR_AFTER_SECOND_LIMIT);
+    // Shifts as UTC epoch seconds, each with the calendar of the zone it was worked in; callers keep one NightCalendar
+    // per zone, so the array only holds references. Returns the number of shifts that passed validation and were priced.
+    public int calculateZonedBatch(long[] startEpochSeconds, long[] endEpochSeconds, int[] familyIds, NightCalendar[] nightCalendars, int[] totalPays, int[] statusCodes, int offset, int length) {
+        FamilyRegistrySnapshot familySnapshot = familyRegistry.getSnapshot();
+        long batchStartNanos = CalculationMetrics.ENABLED ? System.nanoTime() : 0;
+        int pricedShifts = 0;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            long startEpochSecond = startEpochSeconds[i];
+            long endEpochSecond = endEpochSeconds[i];
+            int familyId = familyIds[i];
+            NightCalendar nightCalendar = nightCalendars[i];
+            long nightEpochDay = nightCalendar.getNightEpochDay(startEpochSecond);
+            int statusCode = isFamilyValid(familyId, familySnapshot) | areZonedTimesValid(startEpochSecond, endEpochSecond, nightCalendar, nightEpochDay);
+            int totalPay = 0;
+            if (statusCode == STATUS_VALID) {
+                totalPay = familySnapshot.getRateScheduleVersions(familyId).getRateSchedule(nightEpochDay).getTotalPay(nightCalendar, nightEpochDay, startEpochSecond, endEpochSecond);
+                pricedShifts++;
+            }
+            statusCodes[i] = statusCode;
+            totalPays[i] = totalPay;
         }
+        if (CalculationMetrics.ENABLED) {
+            calculationMetrics.recordBatch(familyIds, statusCodes, offset, length, System.nanoTime() - batchStartNanos);
+        }
+        return pricedShifts;
+    }
 
-        if (FamilyEnum.C.toString().equals(family)) {
-            LocalDate limitDate = getDayForLimitDateTime(startDateTime).toLocalDate();
-            LocalTime limitTime = LocalTime.parse(FAMILY_C_NINE_PM_LIMIT);
-            LocalDateTime limitDateTime = LocalDateTime.of(limitDate, limitTime);
-
-            totalPay = timeAndPayService.getTotalPayForSingleTimeLimit(startDateTime, endDateTime, limitDateTime, FAMILY_C_PAY_PER_HOUR_BEFORE_LIMIT, FAMILY_C_PAY_PER_HOUR_AFTER_LIMIT);
+    // Pay in cents with the minutes of every rate rounded by the policy; returns 0 for a shift that fails validation
+    public long calculateCents(String startTime, String endTime, String family, RoundingPolicyEnum roundingPolicy) {
+        FamilyRegistrySnapshot familySnapshot = familyRegistry.getSnapshot();
+        long startEpochMinute = DateUtil.parseEpochMinute(startTime);
+        long endEpochMinute = DateUtil.parseEpochMinute(endTime);
+        if (validate(startTime, endTime, family, startEpochMinute, endEpochMinute, familySnapshot) != STATUS_VALID) {
+            return 0;
         }
-        return totalPay;
+        return timeAndPayService.getTotalPayCentsForRateSchedule(familySnapshot.getRateScheduleVersions(familySnapshot.getFamilyId(family)), startEpochMinute, endEpochMinute, roundingPolicy);
     }
 
-    private Boolean validateTimesAndFamily(String startTime, String endTime, String family) {
-        Boolean areInputsValid = Boolean.TRUE;
+    // Returns the STATUS_* flags of every rule the shift fails, STATUS_VALID when it can be priced.
+    // ValidationErrorEnum.getMessages turns the flags into messages.
+    public int validate(String startTime, String endTime, String family) {
+        return validate(startTime, endTime, family, DateUtil.parseEpochMinute(startTime), DateUtil.parseEpochMinute(endTime), familyRegistry.getSnapshot());
+    }
 
-        if (!areAllInputsNotBlank(startTime, endTime, family) || !isFamilyValid(family)) {
-            areInputsValid = Boolean.FALSE;
-        }
-        return areInputsValid;
+    public int calculateBatch(long[] startEpochMinutes, long[] endEpochMinutes, int[] familyIds, int[] totalPays, int[] statusCodes) {
+        return calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, 0, startEpochMinutes.length);
     }
 
-    private Boolean areAllInputsNotBlank(String startTime, String endTime, String family) {
-        Boolean areAllInputsNotBlank = Boolean.TRUE;
+    // Family ids come from FamilyRegistrySnapshot.getFamilyId, the built in families keep their FamilyEnum ordinals.
+    // Times that could not be parsed are passed as DateUtil.INVALID_EPOCH_MINUTE.
+    // Returns the number of shifts that passed validation and were priced.
+    public int calculateBatch(long[] startEpochMinutes, long[] endEpochMinutes, int[] familyIds, int[] totalPays, int[] statusCodes, int offset, int length) {
+        return calculateBatch(familyRegistry.getSnapshot(), startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, offset, length);
+    }
 
-        if (StringUtils.isBlank(startTime)) {
-            System.out.println("Start time cannot be blank!");
-            areAllInputsNotBlank = Boolean.FALSE;
+    // Prices against the given snapshot so that callers splitting one batch into parts see the same rates in every part
+    public int calculateBatch(FamilyRegistrySnapshot familySnapshot, long[] startEpochMinutes, long[] endEpochMinutes, int[] familyIds, int[] totalPays, int[] statusCodes, int offset, int length) {
+        long batchStartNanos = CalculationMetrics.ENABLED ? System.nanoTime() : 0;
+        int pricedShifts = 0;
+        int end = offset + length;
+        if (batchPricingKernel != null) {
+            for (int chunkOffset = offset; chunkOffset < end; chunkOffset += KERNEL_CHUNK_SIZE) {
+                pricedShifts += calculateKernelChunk(familySnapshot, startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, chunkOffset, Math.min(KERNEL_CHUNK_SIZE, end - chunkOffset));
+            }
+        } else {
+            for (int i = offset; i < end; i++) {
+                long startEpochMinute = startEpochMinutes[i];
+                long endEpochMinute = endEpochMinutes[i];
+                int familyId = familyIds[i];
+                int statusCode = validateShift(startEpochMinute, endEpochMinute, familyId, familySnapshot);
+                int totalPay = 0;
+                if (statusCode == STATUS_VALID) {
+                    totalPay = calculateTotalPay(familySnapshot, familyId, startEpochMinute, endEpochMinute);
+                    pricedShifts++;
+                }
+                statusCodes[i] = statusCode;
+                totalPays[i] = totalPay;
+            }
+        }
+        if (CalculationMetrics.ENABLED) {
+            calculationMetrics.recordBatch(familyIds, statusCodes, offset, length, System.nanoTime() - batchStartNanos);
         }
-        if (StringUtils.isBlank(endTime)) {
-            System.out.println("End time cannot be blank!");
-            areAllInputsNotBlank = Boolean.FALSE;
+        return pricedShifts;
+    }
+
+    // calculateBatch in cents. Returns the number of shifts that passed validation and were priced.
+    public int calculateCentsBatch(long[] startEpochMinutes, long[] endEpochMinutes, int[] familyIds, RoundingPolicyEnum roundingPolicy, long[] totalPayCents, int[] statusCodes, int offset, int length) {
+        FamilyRegistrySnapshot familySnapshot = familyRegistry.getSnapshot();
+        long batchStartNanos = CalculationMetrics.ENABLED ? System.nanoTime() : 0;
+        int pricedShifts = 0;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            long startEpochMinute = startEpochMinutes[i];
+            long endEpochMinute = endEpochMinutes[i];
+            int familyId = familyIds[i];
+            int statusCode = validateShift(startEpochMinute, endEpochMinute, familyId, familySnapshot);
+            long totalCents = 0;
+            if (statusCode == STATUS_VALID) {
+                totalCents = timeAndPayService.getTotalPayCentsForRateSchedule(familySnapshot.getRateScheduleVersions(familyId), startEpochMinute, endEpochMinute, roundingPolicy);
+                pricedShifts++;
+            }
+            statusCodes[i] = statusCode;
+            totalPayCents[i] = totalCents;
         }
-        if (StringUtils.isBlank(family)) {
-            System.out.println("Family cannot be blank!");
-            areAllInputsNotBlank = Boolean.FALSE;
+        if (CalculationMetrics.ENABLED) {
+            calculationMetrics.recordBatch(familyIds, statusCodes, offset, length, System.nanoTime() - batchStartNanos);
         }
-        return areAllInputsNotBlank;
+        return pricedShifts;
     }
 
-    private Boolean isFamilyValid(String family) {
-        Boolean isFamilyValid = Boolean.FALSE;
+    // Prices length records of ShiftRecordCodec.RECORD_SIZE bytes from firstRecord on straight from the buffer, e.g. a
+    // mapped region of a binary shift file, and writes the results from offset on. The records hold family ids of the
+    // registry; familyIdMap, when given, maps them to the family ids of the snapshot instead, -1 for unknown families.
+    public int calculateEncodedBatch(ByteBuffer records, int firstRecord, int[] totalPays, int[] statusCodes, int offset, int length) {
+        return calculateEncodedBatch(familyRegistry.getSnapshot(), records, firstRecord, null, totalPays, statusCodes, offset, length);
+    }
 
-        for (FamilyEnum familyName : FamilyEnum.values()) {
-            if (familyName.toString().equals(family)) {
-                isFamilyValid = Boolean.TRUE;
+    public int calculateEncodedBatch(FamilyRegistrySnapshot familySnapshot, ByteBuffer records, int firstRecord, int[] familyIdMap, int[] totalPays, int[] statusCodes, int offset, int length) {
+        long batchStartNanos = CalculationMetrics.ENABLED ? System.nanoTime() : 0;
+        int[] pricedFamilyIds = CalculationMetrics.ENABLED ? KERNEL_CHUNKS.get().getFamilyIds(length) : null;
+        int pricedShifts = 0;
+        for (int i = 0; i < length; i++) {
+            long startEpochMinute = ShiftRecordCodec.getStartEpochMinute(records, firstRecord + i);
+            long endEpochMinute = ShiftRecordCodec.getEndEpochMinute(records, firstRecord + i);
+            int familyId = ShiftRecordCodec.getFamilyId(records, firstRecord + i);
+            if (familyIdMap != null) {
+                familyId = familyId >= 0 && familyId < familyIdMap.length ? familyIdMap[familyId] : -1;
+            }
+            int statusCode = validateShift(startEpochMinute, endEpochMinute, familyId, familySnapshot);
+            int totalPay = 0;
+            if (statusCode == STATUS_VALID) {
+                totalPay = calculateTotalPay(familySnapshot, familyId, startEpochMinute, endEpochMinute);
+                pricedShifts++;
+            }
+            statusCodes[offset + i] = statusCode;
+            totalPays[offset + i] = totalPay;
+            if (CalculationMetrics.ENABLED) {
+                pricedFamilyIds[i] = familyId;
             }
         }
-        if (!isFamilyValid) {
-            System.out.println("The family is not valid!");
+        if (CalculationMetrics.ENABLED) {
+            calculationMetrics.recordBatch(pricedFamilyIds, 0, statusCodes, offset, length, System.nanoTime() - batchStartNanos);
         }
-        return isFamilyValid;
+        return pricedShifts;
     }
 
-    private Boolean areTimesValid(LocalDateTime startDateTime, LocalDateTime endDateTime) {
-        Boolean areTimesValid = Boolean.TRUE;
-        if (!isStartTimeBeforeOrEqualToEndTime(startDateTime, endDateTime) || !areTimesWithinWorkableHours(startDateTime, endDateTime)) {
-            areTimesValid = Boolean.FALSE;
+    // Validates the chunk and resolves the night offsets and rate schedule version of every shift, groups the shifts by
+    // version with a counting sort and prices every group in one kernel call
+    private int calculateKernelChunk(FamilyRegistrySnapshot familySnapshot, long[] startEpochMinutes, long[] endEpochMinutes, int[] familyIds, int[] totalPays, int[] statusCodes, int offset, int length) {
+        KernelChunk kernelChunk = KERNEL_CHUNKS.get();
+        RateSegmentTable rateSegmentTable = familySnapshot.getRateSegmentTable();
+        int[] slotStarts = kernelChunk.getSlotStarts(rateSegmentTable.getSlotCount());
+        int pricedShifts = 0;
+        for (int i = 0; i < length; i++) {
+            long startEpochMinute = startEpochMinutes[offset + i];
+            long endEpochMinute = endEpochMinutes[offset + i];
+            int familyId = familyIds[offset + i];
+            int statusCode = validateShift(startEpochMinute, endEpochMinute, familyId, familySnapshot);
+            statusCodes[offset + i] = statusCode;
+            if (statusCode == STATUS_VALID) {
+                long nightStartEpochMinute = ShiftTimeUtil.getNightStartEpochMinute(startEpochMinute);
+                RateScheduleVersions rateScheduleVersions = familySnapshot.getRateScheduleVersions(familyId);
+                int slot = rateSegmentTable.getSlot(familyId, rateScheduleVersions.getVersion(ShiftTimeUtil.getEpochDay(nightStartEpochMinute)));
+                kernelChunk.slots[i] = slot;
+                kernelChunk.startOffsets[i] = (int) (startEpochMinute - nightStartEpochMinute);
+                kernelChunk.endOffsets[i] = (int) (endEpochMinute - nightStartEpochMinute);
+                slotStarts[slot + 1]++;
+                pricedShifts++;
+            } else {
+                kernelChunk.slots[i] = -1;
+                totalPays[offset + i] = 0;
+            }
+        }
+        for (int slot = 0; slot < rateSegmentTable.getSlotCount(); slot++) {
+            slotStarts[slot + 1] += slotStarts[slot];
+        }
+        // slotStarts[slot] moves to the end of the slot's group while the shifts are placed, then it is the start of the next one
+        for (int i = 0; i < length; i++) {
+            int slot = kernelChunk.slots[i];
+            if (slot >= 0) {
+                int groupedIndex = slotStarts[slot]++;
+                kernelChunk.groupedStartOffsets[groupedIndex] = kernelChunk.startOffsets[i];
+                kernelChunk.groupedEndOffsets[groupedIndex] = kernelChunk.endOffsets[i];
+                kernelChunk.groupedIndexes[groupedIndex] = i;
+            }
+        }
+        int groupStart = 0;
+        for (int slot = 0; slot < rateSegmentTable.getSlotCount(); slot++) {
+            int groupEnd = slotStarts[slot];
+            if (groupEnd > groupStart) {
+                batchPricingKernel.price(rateSegmentTable, slot, kernelChunk.groupedStartOffsets, kernelChunk.groupedEndOffsets, groupStart, groupEnd, kernelChunk.groupedTotalPays);
+            }
+            groupStart = groupEnd;
+        }
+        for (int groupedIndex = 0; groupedIndex < pricedShifts; groupedIndex++) {
+            totalPays[offset + kernelChunk.groupedIndexes[groupedIndex]] = kernelChunk.groupedTotalPays[groupedIndex];
         }
-        return areTimesValid;
+        Arrays.fill(slotStarts, 0, rateSegmentTable.getSlotCount() + 1, 0);
+        return pricedShifts;
     }
 
-    private Boolean isStartTimeBeforeOrEqualToEndTime(LocalDateTime startDateTime, LocalDateTime endDateTime) {
-        Boolean isStartTimeBeforeOrEqualToEndTime = Boolean.FALSE;
-        if (startDateTime.isBefore(endDateTime) || startDateTime.isEqual(endDateTime)) {
-            isStartTimeBeforeOrEqualToEndTime = Boolean.TRUE;
+    public int validateShift(long startEpochMinute, long endEpochMinute, int familyId) {
+        return validateShift(startEpochMinute, endEpochMinute, familyId, familyRegistry.getSnapshot());
+    }
+
+    private int validateShift(long startEpochMinute, long endEpochMinute, int familyId, FamilyRegistrySnapshot familySnapshot) {
+        return isFamilyValid(familyId, familySnapshot) | areTimesValid(startEpochMinute, endEpochMinute);
+    }
+
+    // Prices a shift that passed validation against the snapshot it was validated with
+    public int calculateTotalPay(FamilyRegistrySnapshot familySnapshot, int familyId, long startEpochMinute, long endEpochMinute) {
+        if (pricingMode == PricingModeEnum.PRICE_MATRIX) {
+            return timeAndPayService.getTotalPayForPriceMatrix(familySnapshot.getRateScheduleVersions(familyId), startEpochMinute, endEpochMinute);
         }
+        return timeAndPayService.getTotalPayForRateSchedule(familySnapshot.getRateScheduleVersions(familyId), startEpochMinute, endEpochMinute);
+    }
 
-        if (!isStartTimeBeforeOrEqualToEndTime) {
-            System.out.println("End time cannot be before the start time!");
+    // Validates times that were already parsed with DateUtil.parseEpochMinute, so parsing can run as a stage of its own
+    public int validate(String startTime, String endTime, String family, long startEpochMinute, long endEpochMinute, FamilyRegistrySnapshot familySnapshot) {
+        int statusCode = areAllInputsNotBlank(startTime, endTime, family);
+        if ((statusCode & STATUS_FAMILY_BLANK) == 0) {
+            statusCode |= isFamilyValid(family, familySnapshot);
         }
-        return isStartTimeBeforeOrEqualToEndTime;
+        if ((statusCode & (STATUS_START_TIME_BLANK | STATUS_END_TIME_BLANK)) == 0) {
+            statusCode |= areTimesValid(startEpochMinute, endEpochMinute);
+        }
+        return statusCode;
     }
 
-    private Boolean areTimesWithinWorkableHours(LocalDateTime startDateTime, LocalDateTime endDateTime) {
-        Boolean areTimesWithinWorkableHours = Boolean.FALSE;
-        LocalDateTime allowedEndStartDateTime;
+    private int areAllInputsNotBlank(String startTime, String endTime, String family) {
+        int statusCode = STATUS_VALID;
+        if (isBlank(startTime)) {
+            statusCode |= STATUS_START_TIME_BLANK;
+        }
+        if (isBlank(endTime)) {
+            statusCode |= STATUS_END_TIME_BLANK;
+        }
+        if (isBlank(family)) {
+            statusCode |= STATUS_FAMILY_BLANK;
+        }
+        return statusCode;
+    }
 
-        if (startDateTime.getHour() >= START_TIME_HOUR) {
-            allowedEndStartDateTime = LocalDateTime.of(startDateTime.plusDays(1).toLocalDate(), LocalTime.parse(END_TIME));
-            if (endDateTime.isEqual(allowedEndStartDateTime) || endDateTime.isBefore(allowedEndStartDateTime)) {
-                areTimesWithinWorkableHours = Boolean.TRUE;
-            }
-        } else if ((startDateTime.getHour() < END_TIME_HOUR)
-                || ((startDateTime.getHour() == END_TIME_HOUR) && (startDateTime.getMinute() == ZERO_MINUTE))) {
-            allowedEndStartDateTime = LocalDateTime.of(startDateTime.toLocalDate(), LocalTime.parse(END_TIME));
-            if (endDateTime.isEqual(allowedEndStartDateTime) || endDateTime.isBefore(allowedEndStartDateTime)) {
-                areTimesWithinWorkableHours = Boolean.TRUE;
+    // Same as StringUtils.isBlank, without loading commons-lang3 on the first call
+    private static boolean isBlank(CharSequence value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isWhitespace(value.charAt(i))) {
+                return false;
             }
         }
+        return true;
+    }
 
-        if (!areTimesWithinWorkableHours) {
-            System.out.println("The Start Time or End Time are not within the Allowed Workable Hours! The Allowed Workable Hours are from 5:00PM to 4:00 AM inclusive.");
-        }
+    private int isFamilyValid(String family, FamilyRegistrySnapshot familySnapshot) {
+        return familySnapshot.getFamilyId(family) >= 0 ? STATUS_VALID : STATUS_INVALID_FAMILY;
+    }
 
-        return areTimesWithinWorkableHours;
+    private int isFamilyValid(int familyId, FamilyRegistrySnapshot familySnapshot) {
+        return familySnapshot.isFamilyValid(familyId) ? STATUS_VALID : STATUS_INVALID_FAMILY;
     }
 
-    private LocalDateTime getDayForLimitDateTime(LocalDateTime startDateTime) {
-        if (startDateTime.getHour() <= END_TIME_HOUR) {
-            return startDateTime.minusDays(1);
-        } else {
-            return startDateTime;
+    private int areTimesValid(long startEpochMinute, long endEpochMinute) {
+        if (startEpochMinute == DateUtil.INVALID_EPOCH_MINUTE || endEpochMinute == DateUtil.INVALID_EPOCH_MINUTE) {
+            return STATUS_INVALID_TIME_FORMAT;
         }
+        return isStartTimeBeforeOrEqualToEndTime(startEpochMinute, endEpochMinute) | areTimesWithinWorkableHours(startEpochMinute, endEpochMinute);
     }
 
-    private LocalDateTime getDayForMidnightLimitDateTime(LocalDateTime startDateTime) {
-        if (startDateTime.getHour() <= END_TIME_HOUR) {
-            return startDateTime;
-        } else {
-            return startDateTime.plusDays(1);
+    private int areZonedTimesValid(long startEpochSecond, long endEpochSecond, NightCalendar nightCalendar, long nightEpochDay) {
+        int statusCode = startEpochSecond <= endEpochSecond ? STATUS_VALID : STATUS_END_TIME_BEFORE_START_TIME;
+        long nightEndEpochSecond = nightCalendar.getNightEndEpochSecond(nightEpochDay);
+        if (startEpochSecond > nightEndEpochSecond || endEpochSecond > nightEndEpochSecond) {
+            statusCode |= STATUS_OUTSIDE_WORKABLE_HOURS;
         }
+        return statusCode;
+    }
+
+    private int isStartTimeBeforeOrEqualToEndTime(long startEpochMinute, long endEpochMinute) {
+        return ShiftTimeUtil.isStartTimeBeforeOrEqualToEndTime(startEpochMinute, endEpochMinute) ? STATUS_VALID : STATUS_END_TIME_BEFORE_START_TIME;
+    }
+
+    private int areTimesWithinWorkableHours(long startEpochMinute, long endEpochMinute) {
+        return ShiftTimeUtil.areTimesWithinWorkableHours(startEpochMinute, endEpochMinute) ? STATUS_VALID : STATUS_OUTSIDE_WORKABLE_HOURS;
+    }
+
+    private static final class DefaultHolder {
+        static final PaymentCalculator DEFAULT = new PaymentCalculator();
     }
 
+    private static final class KernelChunk {
+        final int[] slots = new int[KERNEL_CHUNK_SIZE];
+        final int[] startOffsets = new int[KERNEL_CHUNK_SIZE];
+        final int[] endOffsets = new int[KERNEL_CHUNK_SIZE];
+        final int[] groupedStartOffsets = new int[KERNEL_CHUNK_SIZE];
+        final int[] groupedEndOffsets = new int[KERNEL_CHUNK_SIZE];
+        final int[] groupedIndexes = new int[KERNEL_CHUNK_SIZE];
+        final int[] groupedTotalPays = new int[KERNEL_CHUNK_SIZE];
+        private int[] slotStarts = new int[0];
+        private int[] familyIds = new int[0];
+
+        // Zeroed, with one more entry than slots
+        int[] getSlotStarts(int slotCount) {
+            if (slotStarts.length <= slotCount) {
+                slotStarts = new int[slotCount + 1];
+            }
+            return slotStarts;
+        }
+
+        // Not zeroed, with at least length entries
+        int[] getFamilyIds(int length) {
+            if (familyIds.length < length) {
+                familyIds = new int[length];
+            }
+            return familyIds;
+        }
+    }
 
 }
@@ -0,0 +1,224 @@
+package com.babysitter.clock;
+
+import com.babysitter.payroll.LongLongHashMap;
+import com.babysitter.registry.FamilyRegistry;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+import com.babysitter.service.RateSchedule;
+import com.babysitter.utils.ShiftTimeUtil;
+
+import java.util.Arrays;
+
+import static com.babysitter.constants.Constants.*;
+
+// Keeps the open shift of every clocked in sitter and its pay accrued so far. Open shifts live in a fixed number of
+// slots of parallel arrays. Each one waits in a timing wheel with one bucket per minute of the day for its next rate
+// limit, where the hours of the finished rate segment are settled, or for the minute after the 04:00 end of the night,
+// where a shift the sitter did not clock out of is closed at 04:00. A shift is never more than WORKABLE_MINUTES from
+// its next timer, so a day of buckets needs no overflow rounds, and every clock-in, clock-out and timer is O(1).
+// Events must arrive in time order and from one thread; every event first advances the clock to its time.
+public class ClockEventProcessor {
+
+    private static final int NO_SLOT = -1;
+    private static final long CLOCK_NOT_STARTED = Long.MIN_VALUE;
+
+    private final FamilyRegistry familyRegistry;
+    private final ClosedShiftListener closedShiftListener;
+    private final int capacity;
+    private final LongLongHashMap slotsBySitter;
+    private final int[] freeSlots;
+    private int freeSlotCount;
+
+    private final int[] sitterIds;
+    private final int[] familyIds;
+    private final RateSchedule[] rateSchedules;
+    private final long[] nightStartEpochMinutes;
+    private final int[] startOffsets;
+    private final int[] segments;
+    private final int[] segmentStartOffsets;
+    private final int[] settledPays;
+
+    private final int[] wheelHeads = new int[MINUTES_PER_DAY];
+    private final int[] wheelNext;
+    private final int[] wheelPrevious;
+    private final int[] wheelBuckets;
+    private long clockEpochMinute = CLOCK_NOT_STARTED;
+
+    public ClockEventProcessor(FamilyRegistry familyRegistry, int capacity, ClosedShiftListener closedShiftListener) {
+        this.familyRegistry = familyRegistry;
+        this.closedShiftListener = closedShiftListener;
+        this.capacity = capacity;
+        slotsBySitter = new LongLongHashMap(capacity);
+        freeSlots = new int[capacity];
+        for (int slot = 0; slot < capacity; slot++) {
+            freeSlots[slot] = capacity - 1 - slot;
+        }
+        freeSlotCount = capacity;
+        sitterIds = new int[capacity];
+        familyIds = new int[capacity];
+        rateSchedules = new RateSchedule[capacity];
+        nightStartEpochMinutes = new long[capacity];
+        startOffsets = new int[capacity];
+        segments = new int[capacity];
+        segmentStartOffsets = new int[capacity];
+        settledPays = new int[capacity];
+        wheelNext = new int[capacity];
+        wheelPrevious = new int[capacity];
+        wheelBuckets = new int[capacity];
+        Arrays.fill(wheelHeads, NO_SLOT);
+    }
+
+    // Returns the STATUS_* flags of every rule the clock-in breaks, STATUS_VALID when the shift was opened
+    public int clockIn(int sitterId, int familyId, long epochMinute) {
+        if (epochMinute < clockEpochMinute) {
+            return STATUS_EVENT_OUT_OF_ORDER;
+        }
+        advanceTo(epochMinute);
+        FamilyRegistrySnapshot familySnapshot = familyRegistry.getSnapshot();
+        int statusCode = familySnapshot.isFamilyValid(familyId) ? STATUS_VALID : STATUS_INVALID_FAMILY;
+        if (!ShiftTimeUtil.areTimesWithinWorkableHours(epochMinute, epochMinute)) {
+            statusCode |= STATUS_OUTSIDE_WORKABLE_HOURS;
+        }
+        if (slotsBySitter.containsKey(sitterId)) {
+            statusCode |= STATUS_SHIFT_ALREADY_OPEN;
+        } else if (freeSlotCount == 0) {
+            statusCode |= STATUS_TOO_MANY_OPEN_SHIFTS;
+        }
+        if (statusCode != STATUS_VALID) {
+            return statusCode;
+        }
+
+        int slot = freeSlots[--freeSlotCount];
+        slotsBySitter.put(sitterId, slot);
+        long nightStartEpochMinute = ShiftTimeUtil.getNightStartEpochMinute(epochMinute);
+        RateSchedule rateSchedule = familySnapshot.getRateSchedule(familyId, ShiftTimeUtil.getEpochDay(nightStartEpochMinute));
+        int startOffset = (int) (epochMinute - nightStartEpochMinute);
+        sitterIds[slot] = sitterId;
+        familyIds[slot] = familyId;
+        rateSchedules[slot] = rateSchedule;
+        nightStartEpochMinutes[slot] = nightStartEpochMinute;
+        startOffsets[slot] = startOffset;
+        segments[slot] = rateSchedule.getSegment(startOffset);
+        segmentStartOffsets[slot] = startOffset;
+        settledPays[slot] = 0;
+        schedule(slot);
+        return STATUS_VALID;
+    }
+
+    // Closes the open shift of the sitter and hands it to the listener
+    public int clockOut(int sitterId, long epochMinute) {
+        if (epochMinute < clockEpochMinute) {
+            return STATUS_EVENT_OUT_OF_ORDER;
+        }
+        advanceTo(epochMinute);
+        int slot = getSlot(sitterId);
+        if (slot == NO_SLOT) {
+            return STATUS_SHIFT_NOT_OPEN;
+        }
+        unschedule(slot);
+        closeShift(slot, (int) (epochMinute - nightStartEpochMinutes[slot]), false);
+        return STATUS_VALID;
+    }
+
+    // Runs every timer due up to and including epochMinute; the clock never goes back
+    public void advanceTo(long epochMinute) {
+        if (epochMinute <= clockEpochMinute) {
+            return;
+        }
+        if (freeSlotCount == capacity) {
+            clockEpochMinute = epochMinute;
+            return;
+        }
+        while (clockEpochMinute < epochMinute && freeSlotCount < capacity) {
+            clockEpochMinute++;
+            runTimers(ShiftTimeUtil.getMinuteOfDay(clockEpochMinute));
+        }
+        clockEpochMinute = epochMinute;
+    }
+
+    // Pay of the open shift up to the clock, counting whole hours of the current rate segment; 0 without an open shift
+    public int getAccruedPay(int sitterId) {
+        int slot = getSlot(sitterId);
+        if (slot == NO_SLOT) {
+            return 0;
+        }
+        int clockOffset = (int) (clockEpochMinute - nightStartEpochMinutes[slot]);
+        return settledPays[slot] + rateSchedules[slot].getPayPerHour(segments[slot]) * ((clockOffset - segmentStartOffsets[slot]) / MINUTES_PER_HOUR);
+    }
+
+    public boolean isClockedIn(int sitterId) {
+        return getSlot(sitterId) != NO_SLOT;
+    }
+
+    public int getOpenShiftCount() {
+        return capacity - freeSlotCount;
+    }
+
+    public long getClockEpochMinute() {
+        return clockEpochMinute;
+    }
+
+    private int getSlot(int sitterId) {
+        return slotsBySitter.containsKey(sitterId) ? (int) slotsBySitter.get(sitterId) : NO_SLOT;
+    }
+
+    private void runTimers(int bucket) {
+        int slot = wheelHeads[bucket];
+        wheelHeads[bucket] = NO_SLOT;
+        while (slot != NO_SLOT) {
+            int next = wheelNext[slot];
+            int segment = segments[slot];
+            RateSchedule rateSchedule = rateSchedules[slot];
+            if (segment == rateSchedule.getSegmentCount() - 1) {
+                closeShift(slot, WORKABLE_MINUTES, true);
+            } else {
+                int limitOffset = rateSchedule.getSegmentStartOffset(segment + 1);
+                settledPays[slot] += rateSchedule.getPayPerHour(segment) * ((limitOffset - segmentStartOffsets[slot]) / MINUTES_PER_HOUR);
+                segments[slot] = segment + 1;
+                segmentStartOffsets[slot] = limitOffset;
+                schedule(slot);
+            }
+            slot = next;
+        }
+    }
+
+    // Puts the shift in the bucket where its rate segment ends, or in the minute after the night for the last segment
+    private void schedule(int slot) {
+        int segment = segments[slot];
+        RateSchedule rateSchedule = rateSchedules[slot];
+        int dueOffset = segment == rateSchedule.getSegmentCount() - 1 ? WORKABLE_MINUTES + 1 : rateSchedule.getSegmentStartOffset(segment + 1);
+        long dueEpochMinute = nightStartEpochMinutes[slot] + dueOffset;
+        int bucket = ShiftTimeUtil.getMinuteOfDay(dueEpochMinute);
+        int head = wheelHeads[bucket];
+        wheelBuckets[slot] = bucket;
+        wheelPrevious[slot] = NO_SLOT;
+        wheelNext[slot] = head;
+        if (head != NO_SLOT) {
+            wheelPrevious[head] = slot;
+        }
+        wheelHeads[bucket] = slot;
+    }
+
+    private void unschedule(int slot) {
+        int previous = wheelPrevious[slot];
+        int next = wheelNext[slot];
+        if (previous == NO_SLOT) {
+            wheelHeads[wheelBuckets[slot]] = next;
+        } else {
+            wheelNext[previous] = next;
+        }
+        if (next != NO_SLOT) {
+            wheelPrevious[next] = previous;
+        }
+    }
+
+    private void closeShift(int slot, int endOffset, boolean closedAtCutoff) {
+        int totalPay = rateSchedules[slot].getTotalPay(startOffsets[slot], endOffset);
+        long nightStartEpochMinute = nightStartEpochMinutes[slot];
+        int sitterId = sitterIds[slot];
+        slotsBySitter.remove(sitterId);
+        rateSchedules[slot] = null;
+        freeSlots[freeSlotCount++] = slot;
+        closedShiftListener.onShiftClosed(sitterId, familyIds[slot], nightStartEpochMinute + startOffsets[slot], nightStartEpochMinute + endOffset, totalPay, closedAtCutoff);
+    }
+
+}
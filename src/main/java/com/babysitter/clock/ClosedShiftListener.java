@@ -0,0 +1,8 @@
+package com.babysitter.clock;
+
+public interface ClosedShiftListener {
+
+    // closedAtCutoff is true for a shift the processor closed at 04:00 because the sitter never clocked out
+    void onShiftClosed(int sitterId, int familyId, long startEpochMinute, long endEpochMinute, int totalPay, boolean closedAtCutoff);
+
+}
@@ -0,0 +1,71 @@
+package com.babysitter.codec;
+
+import com.babysitter.utils.DateUtil;
+
+import java.nio.ByteBuffer;
+
+// Fixed width binary shift records of RECORD_SIZE bytes: start and end as int epoch minutes and the family id. A time
+// that could not be parsed is stored as INVALID_TIME and read back as DateUtil.INVALID_EPOCH_MINUTE, a missing or
+// unknown family as -1. Records are read and written in place at their index, without creating objects.
+public class ShiftRecordCodec {
+
+    public static final int RECORD_SIZE = 12;
+    public static final int INVALID_TIME = Integer.MIN_VALUE;
+    public static final int MISSING_FAMILY = -1;
+
+    // Writes the record at the position of the record index
+    public static void putRecord(ByteBuffer buffer, int recordIndex, long startEpochMinute, long endEpochMinute, int familyId) {
+        int position = recordIndex * RECORD_SIZE;
+        buffer.putInt(position, encodeTime(startEpochMinute));
+        buffer.putInt(position + 4, encodeTime(endEpochMinute));
+        buffer.putInt(position + 8, familyId);
+    }
+
+    // Writes the record at the current position of the buffer and moves past it
+    public static void putRecord(ByteBuffer buffer, long startEpochMinute, long endEpochMinute, int familyId) {
+        buffer.putInt(encodeTime(startEpochMinute));
+        buffer.putInt(encodeTime(endEpochMinute));
+        buffer.putInt(familyId);
+    }
+
+    public static long getStartEpochMinute(ByteBuffer buffer, int recordIndex) {
+        return decodeTime(buffer.getInt(recordIndex * RECORD_SIZE));
+    }
+
+    public static long getEndEpochMinute(ByteBuffer buffer, int recordIndex) {
+        return decodeTime(buffer.getInt(recordIndex * RECORD_SIZE + 4));
+    }
+
+    public static int getFamilyId(ByteBuffer buffer, int recordIndex) {
+        return buffer.getInt(recordIndex * RECORD_SIZE + 8);
+    }
+
+    // Decodes length records from firstRecord on into the arrays from offset on
+    public static void getRecords(ByteBuffer buffer, int firstRecord, long[] startEpochMinutes, long[] endEpochMinutes, int[] familyIds, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            startEpochMinutes[offset + i] = getStartEpochMinute(buffer, firstRecord + i);
+            endEpochMinutes[offset + i] = getEndEpochMinute(buffer, firstRecord + i);
+            familyIds[offset + i] = getFamilyId(buffer, firstRecord + i);
+        }
+    }
+
+    // Epoch minutes fit an int from the year -2113 to 6053; times beyond are rejected rather than wrapped
+    public static boolean isEncodable(long epochMinute) {
+        return epochMinute == DateUtil.INVALID_EPOCH_MINUTE || (epochMinute > INVALID_TIME && epochMinute <= Integer.MAX_VALUE);
+    }
+
+    private static int encodeTime(long epochMinute) {
+        if (epochMinute == DateUtil.INVALID_EPOCH_MINUTE) {
+            return INVALID_TIME;
+        }
+        if (!isEncodable(epochMinute)) {
+            throw new IllegalArgumentException("The epoch minute " + epochMinute + " does not fit a shift record");
+        }
+        return (int) epochMinute;
+    }
+
+    private static long decodeTime(int time) {
+        return time == INVALID_TIME ? DateUtil.INVALID_EPOCH_MINUTE : time;
+    }
+
+}
@@ -12,10 +12,42 @@ public class Constants {
     public static final int FAMILY_C_PAY_PER_HOUR_AFTER_LIMIT = 15;
     public static final int ZERO_MINUTE = 0;
 
+    public static final int MINUTES_PER_HOUR = 60;
+    public static final int MINUTES_PER_DAY = 24 * MINUTES_PER_HOUR;
+    public static final int DAYS_PER_WEEK = 7;
+    public static final int MINUTES_PER_QUARTER_HOUR = 15;
+    public static final int QUARTER_HOURS_PER_HOUR = MINUTES_PER_HOUR / MINUTES_PER_QUARTER_HOUR;
+    public static final int CENTS_PER_DOLLAR = 100;
+    public static final int SECONDS_PER_MINUTE = 60;
+    public static final int SECONDS_PER_HOUR = MINUTES_PER_HOUR * SECONDS_PER_MINUTE;
+    public static final int SECONDS_PER_DAY = MINUTES_PER_DAY * SECONDS_PER_MINUTE;
+    public static final int START_TIME_MINUTE_OF_DAY = START_TIME_HOUR * MINUTES_PER_HOUR;
+    public static final int END_TIME_MINUTE_OF_DAY = END_TIME_HOUR * MINUTES_PER_HOUR;
+    public static final int WORKABLE_MINUTES = MINUTES_PER_DAY - START_TIME_MINUTE_OF_DAY + END_TIME_MINUTE_OF_DAY;
+
     public static final String START_TIME = "17:00";
     public static final String END_TIME = "04:00";
     public static final String FAMILY_A_ELEVEN_PM_LIMIT = "23:00";
     public static final String FAMILY_B_TEN_PM_LIMIT = "22:00";
     public static final String FAMILY_B_MIDNIGHT_LIMIT = "00:00";
     public static final String FAMILY_C_NINE_PM_LIMIT = "21:00";
+
+    // Status codes are bit flags so a batch record can report every rule it failed
+    public static final int STATUS_VALID = 0;
+    public static final int STATUS_INVALID_FAMILY = 1;
+    public static final int STATUS_END_TIME_BEFORE_START_TIME = 1 << 1;
+    public static final int STATUS_OUTSIDE_WORKABLE_HOURS = 1 << 2;
+    public static final int STATUS_INVALID_TIME_FORMAT = 1 << 3;
+    public static final int STATUS_START_TIME_BLANK = 1 << 4;
+    public static final int STATUS_END_TIME_BLANK = 1 << 5;
+    public static final int STATUS_FAMILY_BLANK = 1 << 6;
+    public static final int STATUS_SHIFT_ALREADY_OPEN = 1 << 7;
+    public static final int STATUS_SHIFT_NOT_OPEN = 1 << 8;
+    public static final int STATUS_TOO_MANY_OPEN_SHIFTS = 1 << 9;
+    public static final int STATUS_EVENT_OUT_OF_ORDER = 1 << 10;
+    public static final int STATUS_SITTER_DOUBLE_BOOKED = 1 << 11;
+    public static final int STATUS_FAMILY_DOUBLE_BOOKED = 1 << 12;
+    // A record with any of these could not be read at all, as opposed to one that was read and broke a shift rule
+    public static final int STATUS_MALFORMED_RECORD = STATUS_INVALID_FAMILY | STATUS_INVALID_TIME_FORMAT
+            | STATUS_START_TIME_BLANK | STATUS_END_TIME_BLANK | STATUS_FAMILY_BLANK;
 }
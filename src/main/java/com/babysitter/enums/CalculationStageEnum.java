@@ -0,0 +1,12 @@
+package com.babysitter.enums;
+
+public enum CalculationStageEnum {
+    // Parsing the start and end time of a single calculation
+    PARSE,
+    // Checking every validation rule of a single calculation
+    VALIDATE,
+    // Pricing a single calculation that passed validation
+    PRICE,
+    // A whole calculateBatch call
+    BATCH
+}
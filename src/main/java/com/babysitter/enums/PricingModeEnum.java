@@ -0,0 +1,11 @@
+package com.babysitter.enums;
+
+public enum PricingModeEnum {
+    // Prices every shift from the rate schedule of its family
+    COMPUTED,
+    // Reads every shift from a matrix of all shift prices per family, built on the first use of a family
+    PRICE_MATRIX,
+    // Prices batches with the Vector API BatchPricingKernel when the JVM runs with --add-modules jdk.incubator.vector
+    // and the computed way otherwise; single shifts are always priced the computed way
+    VECTORIZED
+}
@@ -0,0 +1,28 @@
+package com.babysitter.enums;
+
+import static com.babysitter.constants.Constants.*;
+
+// How the minutes worked at one rate are paid. Every rate segment of a shift is rounded on its own, the same way the
+// whole hours have always been counted per segment.
+public enum RoundingPolicyEnum {
+    // Whole hours only, the pay of PaymentCalculator.calculate in cents
+    TRUNCATE_TO_HOUR,
+    // Quarter hours, a remainder of 8 minutes or more counts as a whole quarter
+    NEAREST_QUARTER_HOUR,
+    // Every minute, rounded to the nearest cent with half a cent rounded up
+    EXACT_MINUTE;
+
+    // Throws an ArithmeticException instead of overflowing
+    public long getCents(int payPerHour, long minutes) {
+        long centsPerHour = Math.multiplyExact((long) payPerHour, CENTS_PER_DOLLAR);
+        switch (this) {
+            case TRUNCATE_TO_HOUR:
+                return Math.multiplyExact(centsPerHour, minutes / MINUTES_PER_HOUR);
+            case NEAREST_QUARTER_HOUR:
+                long quarterHours = (minutes + MINUTES_PER_QUARTER_HOUR / 2) / MINUTES_PER_QUARTER_HOUR;
+                return Math.multiplyExact(centsPerHour / QUARTER_HOURS_PER_HOUR, quarterHours);
+            default:
+                return Math.addExact(Math.multiplyExact(centsPerHour, minutes), MINUTES_PER_HOUR / 2) / MINUTES_PER_HOUR;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.babysitter.enums;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.babysitter.constants.Constants.*;
+
+public enum ValidationErrorEnum {
+    START_TIME_BLANK(STATUS_START_TIME_BLANK, "Start time cannot be blank!"),
+    END_TIME_BLANK(STATUS_END_TIME_BLANK, "End time cannot be blank!"),
+    FAMILY_BLANK(STATUS_FAMILY_BLANK, "Family cannot be blank!"),
+    INVALID_FAMILY(STATUS_INVALID_FAMILY, "The family is not valid!"),
+    INVALID_TIME_FORMAT(STATUS_INVALID_TIME_FORMAT, "The start time or end time is in an invalid format! Please use the format: \"yyyy-MM-dd HH:mm\" and please ensure that the times are correct"),
+    END_TIME_BEFORE_START_TIME(STATUS_END_TIME_BEFORE_START_TIME, "End time cannot be before the start time!"),
+    OUTSIDE_WORKABLE_HOURS(STATUS_OUTSIDE_WORKABLE_HOURS, "The Start Time or End Time are not within the Allowed Workable Hours! The Allowed Workable Hours are from 5:00PM to 4:00 AM inclusive."),
+    SHIFT_ALREADY_OPEN(STATUS_SHIFT_ALREADY_OPEN, "The sitter is already clocked in!"),
+    SHIFT_NOT_OPEN(STATUS_SHIFT_NOT_OPEN, "The sitter is not clocked in!"),
+    TOO_MANY_OPEN_SHIFTS(STATUS_TOO_MANY_OPEN_SHIFTS, "Too many sitters are clocked in at the same time!"),
+    EVENT_OUT_OF_ORDER(STATUS_EVENT_OUT_OF_ORDER, "The clock event is older than an event that was already processed!"),
+    SITTER_DOUBLE_BOOKED(STATUS_SITTER_DOUBLE_BOOKED, "The sitter is already booked for part of the shift!"),
+    FAMILY_DOUBLE_BOOKED(STATUS_FAMILY_DOUBLE_BOOKED, "The family already has a sitter booked for part of the shift!");
+
+    private final int statusCode;
+    private final String message;
+
+    ValidationErrorEnum(int statusCode, String message) {
+        this.statusCode = statusCode;
+        this.message = message;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isIn(int statusCode) {
+        return (statusCode & this.statusCode) != 0;
+    }
+
+    public static List<String> getMessages(int statusCode) {
+        List<String> messages = new ArrayList<>();
+        for (ValidationErrorEnum validationError : values()) {
+            if (validationError.isIn(statusCode)) {
+                messages.add(validationError.getMessage());
+            }
+        }
+        return messages;
+    }
+}
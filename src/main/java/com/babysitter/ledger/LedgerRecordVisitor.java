@@ -0,0 +1,8 @@
+package com.babysitter.ledger;
+
+@FunctionalInterface
+public interface LedgerRecordVisitor {
+
+    void visit(long recordIndex, long startEpochMinute, long endEpochMinute, int sitterId, int familyId, long totalPay);
+
+}
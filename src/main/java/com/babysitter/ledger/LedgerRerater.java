@@ -0,0 +1,153 @@
+package com.babysitter.ledger;
+
+import com.babysitter.registry.FamilyRegistrySnapshot;
+import com.babysitter.service.RateScheduleVersions;
+import com.babysitter.utils.ShiftTimeUtil;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+import static com.babysitter.constants.Constants.MINUTES_PER_DAY;
+import static com.babysitter.constants.Constants.START_TIME_MINUTE_OF_DAY;
+
+// Re-prices the shifts of a ledger after rates changed retroactively, e.g. a reload that added or edited an effective
+// dated version. The nights on which the rates of a family differ between the two snapshots are worked out from the
+// version dates up front. Only the records of those families on those nights are priced again, with the rates of both
+// snapshots, and a shift is reported only when its pay changes. The scans cover just the changed nights, so the block
+// index of the ledger skips the rest of it. The ledger keeps the pay it was appended with.
+// One instance reprices one ledger at a time.
+public class LedgerRerater {
+
+    private static final long[] NO_CHANGED_NIGHTS = new long[0];
+
+    private final FamilyRegistrySnapshot previousSnapshot;
+    private final FamilyRegistrySnapshot currentSnapshot;
+    // By family id, pairs of the first night epoch day whose rates changed and the night epoch day after the last one
+    private final long[][] changedNights;
+    private RerateDeltaListener listener;
+    private long repricedShifts;
+    private long changedShifts;
+    private long totalDelta;
+
+    public LedgerRerater(FamilyRegistrySnapshot previousSnapshot, FamilyRegistrySnapshot currentSnapshot) {
+        this.previousSnapshot = previousSnapshot;
+        this.currentSnapshot = currentSnapshot;
+        changedNights = new long[currentSnapshot.getFamilyIdCount()][];
+        for (int familyId = 0; familyId < changedNights.length; familyId++) {
+            changedNights[familyId] = findChangedNights(familyId);
+        }
+    }
+
+    // Families removed from either snapshot cannot be priced with both and are skipped
+    private long[] findChangedNights(int familyId) {
+        if (familyId >= previousSnapshot.getFamilyIdCount() || !previousSnapshot.isFamilyValid(familyId) || !currentSnapshot.isFamilyValid(familyId)) {
+            return NO_CHANGED_NIGHTS;
+        }
+        TreeSet<Long> effectiveEpochDays = new TreeSet<>();
+        addEffectiveEpochDays(previousSnapshot.getRateScheduleVersions(familyId), effectiveEpochDays);
+        addEffectiveEpochDays(currentSnapshot.getRateScheduleVersions(familyId), effectiveEpochDays);
+        effectiveEpochDays.add(Long.MAX_VALUE);
+
+        List<Long> changedNights = new ArrayList<>();
+        long fromEpochDay = RateScheduleVersions.SINCE_ALWAYS;
+        for (long toEpochDay : effectiveEpochDays) {
+            if (!previousSnapshot.getRateSchedule(familyId, fromEpochDay).hasSameRates(currentSnapshot.getRateSchedule(familyId, fromEpochDay))) {
+                if (!changedNights.isEmpty() && changedNights.get(changedNights.size() - 1) == fromEpochDay) {
+                    changedNights.set(changedNights.size() - 1, toEpochDay);
+                } else {
+                    changedNights.add(fromEpochDay);
+                    changedNights.add(toEpochDay);
+                }
+            }
+            fromEpochDay = toEpochDay;
+        }
+        return changedNights.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private void addEffectiveEpochDays(RateScheduleVersions rateScheduleVersions, TreeSet<Long> effectiveEpochDays) {
+        for (int version = 1; version < rateScheduleVersions.getVersionCount(); version++) {
+            effectiveEpochDays.add(rateScheduleVersions.getEffectiveEpochDay(version));
+        }
+    }
+
+    public RerateSummary rerate(ShiftLedger shiftLedger, RerateDeltaListener listener) {
+        this.listener = listener;
+        repricedShifts = 0;
+        changedShifts = 0;
+        totalDelta = 0;
+        for (long[] startEpochMinutes : getScanRanges()) {
+            shiftLedger.scan(startEpochMinutes[0], startEpochMinutes[1], ShiftLedger.ANY_SITTER, this::visit);
+        }
+        this.listener = null;
+        return new RerateSummary(repricedShifts, changedShifts, totalDelta);
+    }
+
+    // Start times of the changed nights of every family, merged so that no record is visited twice
+    private List<long[]> getScanRanges() {
+        List<long[]> nightRanges = new ArrayList<>();
+        for (long[] familyChangedNights : changedNights) {
+            for (int i = 0; i < familyChangedNights.length; i += 2) {
+                nightRanges.add(new long[]{familyChangedNights[i], familyChangedNights[i + 1]});
+            }
+        }
+        nightRanges.sort(Comparator.comparingLong(nightRange -> nightRange[0]));
+        List<long[]> scanRanges = new ArrayList<>();
+        long[] scanRange = null;
+        for (long[] nightRange : nightRanges) {
+            if (scanRange != null && nightRange[0] <= scanRange[1]) {
+                scanRange[1] = Math.max(scanRange[1], nightRange[1]);
+            } else {
+                scanRange = nightRange;
+                scanRanges.add(scanRange);
+            }
+        }
+        // A night starts at 17:00 and every shift of it starts before 17:00 on the next day
+        for (long[] range : scanRanges) {
+            range[0] = range[0] == RateScheduleVersions.SINCE_ALWAYS ? Long.MIN_VALUE : range[0] * MINUTES_PER_DAY + START_TIME_MINUTE_OF_DAY;
+            range[1] = range[1] == Long.MAX_VALUE ? Long.MAX_VALUE : range[1] * MINUTES_PER_DAY + START_TIME_MINUTE_OF_DAY;
+        }
+        return scanRanges;
+    }
+
+    private void visit(long recordIndex, long startEpochMinute, long endEpochMinute, int sitterId, int familyId, long totalPay) {
+        if (familyId < 0 || familyId >= changedNights.length) {
+            return;
+        }
+        long[] familyChangedNights = changedNights[familyId];
+        long nightStartEpochMinute = ShiftTimeUtil.getNightStartEpochMinute(startEpochMinute);
+        long nightEpochDay = ShiftTimeUtil.getEpochDay(nightStartEpochMinute);
+        if (!isChangedNight(familyChangedNights, nightEpochDay)) {
+            return;
+        }
+        int startOffset = (int) (startEpochMinute - nightStartEpochMinute);
+        int endOffset = (int) (endEpochMinute - nightStartEpochMinute);
+        int previousPay = previousSnapshot.getRateSchedule(familyId, nightEpochDay).getTotalPay(startOffset, endOffset);
+        int currentPay = currentSnapshot.getRateSchedule(familyId, nightEpochDay).getTotalPay(startOffset, endOffset);
+        repricedShifts++;
+        if (previousPay != currentPay) {
+            changedShifts++;
+            totalDelta += currentPay - previousPay;
+            listener.onPayChanged(recordIndex, sitterId, familyId, startEpochMinute, endEpochMinute, previousPay, currentPay);
+        }
+    }
+
+    private static boolean isChangedNight(long[] familyChangedNights, long nightEpochDay) {
+        for (int i = 0; i < familyChangedNights.length; i += 2) {
+            if (nightEpochDay < familyChangedNights[i]) {
+                return false;
+            }
+            if (nightEpochDay < familyChangedNights[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The changed nights of the family as pairs of the first night epoch day and the one after the last
+    public long[] getChangedNights(int familyId) {
+        return familyId < changedNights.length ? changedNights[familyId].clone() : NO_CHANGED_NIGHTS;
+    }
+
+}
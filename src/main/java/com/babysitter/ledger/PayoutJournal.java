@@ -0,0 +1,383 @@
+package com.babysitter.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+import static com.babysitter.constants.Constants.STATUS_VALID;
+
+// Write ahead journal of priced payouts in one file: a header with magic and version, then RECORD_SIZE byte records of
+//   sequence, start, end, sitter id, family id, total pay, a CRC32C of those fields and a record marker.
+// append returns once its record is on disk, but writers never force the file themselves. One commit thread takes
+// every record appended since its last commit, writes them and forces them with a single force(), while new appends
+// fill a second buffer, so concurrent writers share one force instead of paying one each. The commit thread waits up
+// to the commit delay for a batch to fill before it commits a partial one.
+// open cuts the file after the last whole record whose CRC matches. A batch is only confirmed after it and every
+// batch before it were forced, so no record after the first torn one was ever confirmed to a writer.
+public class PayoutJournal implements Closeable {
+
+    public static final int RECORD_SIZE = 48;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 8192;
+    public static final long DEFAULT_MAX_COMMIT_DELAY_NANOS = 0;
+
+    private static final int MAGIC = 0x42534A4C;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int CHECKED_SIZE = 40;
+    private static final int RECORD_MARKER = 0x5041594F;
+    private static final int READ_BUFFER_RECORDS = 16384;
+
+    private final FileChannel fileChannel;
+    private final int maxBatchSize;
+    private final long maxCommitDelayNanos;
+    private final long recoveredRecords;
+    private final long truncatedBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final Condition spaceAvailable = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final Thread commitThread;
+    private ByteBuffer pending;
+    private ByteBuffer writing;
+    private long filePosition;
+    private long nextSequence;
+    private long durableRecords;
+    private long commits;
+    private boolean isClosed;
+    private IOException failure;
+
+    private PayoutJournal(FileChannel fileChannel, int maxBatchSize, long maxCommitDelayNanos, long recoveredRecords, long truncatedBytes) {
+        this.fileChannel = fileChannel;
+        this.maxBatchSize = maxBatchSize;
+        this.maxCommitDelayNanos = maxCommitDelayNanos;
+        this.recoveredRecords = recoveredRecords;
+        this.truncatedBytes = truncatedBytes;
+        pending = ByteBuffer.allocateDirect(maxBatchSize * RECORD_SIZE);
+        writing = ByteBuffer.allocateDirect(maxBatchSize * RECORD_SIZE);
+        filePosition = HEADER_SIZE + recoveredRecords * RECORD_SIZE;
+        nextSequence = recoveredRecords;
+        durableRecords = recoveredRecords;
+        commitThread = new Thread(this::commit, "payout-journal-commit");
+        commitThread.setDaemon(true);
+        commitThread.start();
+    }
+
+    public static PayoutJournal open(Path file) throws IOException {
+        return open(file, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_COMMIT_DELAY_NANOS);
+    }
+
+    // A longer commit delay forces larger batches less often, at the cost of that much latency per append when few
+    // writers are appending
+    public static PayoutJournal open(Path file, int maxBatchSize, long maxCommitDelayNanos) throws IOException {
+        if (maxBatchSize < 1 || maxCommitDelayNanos < 0) {
+            throw new IllegalArgumentException("The batch size must be positive and the commit delay not negative: " + maxBatchSize + ", " + maxCommitDelayNanos);
+        }
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = fileChannel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            if (size < HEADER_SIZE) {
+                // A journal whose header was never forced cannot hold a confirmed payout, so it is started again
+                ByteBuffer existingHeader = ByteBuffer.allocate((int) size);
+                fileChannel.read(existingHeader, 0);
+                if (!existingHeader.flip().equals(header.duplicate().limit((int) size))) {
+                    throw new IOException("Not a payout journal: " + file);
+                }
+                fileChannel.truncate(0);
+                while (header.hasRemaining()) {
+                    fileChannel.write(header, header.position());
+                }
+                fileChannel.force(true);
+                forceDirectory(file);
+                size = HEADER_SIZE;
+            } else {
+                ByteBuffer existingHeader = ByteBuffer.allocate(HEADER_SIZE);
+                fileChannel.read(existingHeader, 0);
+                if (existingHeader.getInt(0) != MAGIC || existingHeader.getInt(4) != VERSION) {
+                    throw new IOException("Not a payout journal: " + file);
+                }
+            }
+            long records = read(fileChannel, (size - HEADER_SIZE) / RECORD_SIZE, null);
+            long validSize = HEADER_SIZE + records * RECORD_SIZE;
+            if (validSize < size) {
+                fileChannel.truncate(validSize);
+                fileChannel.force(true);
+            }
+            return new PayoutJournal(fileChannel, maxBatchSize, maxCommitDelayNanos, records, size - validSize);
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    // Returns the sequence number of the payout once it is on disk
+    public long append(long startEpochMinute, long endEpochMinute, int sitterId, int familyId, long totalPay) throws IOException {
+        lock.lock();
+        try {
+            long sequence = put(startEpochMinute, endEpochMinute, sitterId, familyId, totalPay);
+            awaitDurable(sequence);
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Appends the shifts of a calculateBatch call that were priced and returns once all of them are on disk. The
+    // records of other writers can be committed in between, so the batch is not atomic.
+    public int appendBatch(long[] startEpochMinutes, long[] endEpochMinutes, int[] sitterIds, int[] familyIds, int[] totalPays, int[] statusCodes, int offset, int length) throws IOException {
+        lock.lock();
+        try {
+            int appended = 0;
+            long lastSequence = -1;
+            for (int i = offset; i < offset + length; i++) {
+                if (statusCodes[i] == STATUS_VALID) {
+                    lastSequence = put(startEpochMinutes[i], endEpochMinutes[i], sitterIds[i], familyIds[i], totalPays[i]);
+                    appended++;
+                }
+            }
+            if (lastSequence >= 0) {
+                awaitDurable(lastSequence);
+            }
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Visits every payout on disk in order of sequence; appends may go on meanwhile
+    public long replay(LedgerRecordVisitor visitor) throws IOException {
+        long records;
+        lock.lock();
+        try {
+            records = durableRecords;
+        } finally {
+            lock.unlock();
+        }
+        if (read(fileChannel, records, visitor) != records) {
+            throw new IOException("The payout journal was changed while it was open");
+        }
+        return records;
+    }
+
+    // Payouts that were on disk when the journal was opened
+    public long getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    // Bytes of torn records cut from the end of the file when it was opened
+    public long getTruncatedBytes() {
+        return truncatedBytes;
+    }
+
+    public long getDurableRecords() {
+        lock.lock();
+        try {
+            return durableRecords;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Number of forces so far; payouts per commit is the batch size the writers achieved
+    public long getCommits() {
+        lock.lock();
+        try {
+            return commits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Commits the payouts already appended and closes the file
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            batchReady.signal();
+            spaceAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        boolean isInterrupted = false;
+        while (commitThread.isAlive()) {
+            try {
+                commitThread.join();
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+        fileChannel.close();
+    }
+
+    // Called with the lock held. The record is put into the pending batch and the commit thread woken when the
+    // batch has its first record, which starts the commit delay, or is full.
+    private long put(long startEpochMinute, long endEpochMinute, int sitterId, int familyId, long totalPay) throws IOException {
+        checkOpen();
+        while (pending.remaining() < RECORD_SIZE) {
+            spaceAvailable.awaitUninterruptibly();
+            checkOpen();
+        }
+        long sequence = nextSequence++;
+        record.clear();
+        record.putLong(sequence).putLong(startEpochMinute).putLong(endEpochMinute).putInt(sitterId).putInt(familyId).putLong(totalPay);
+        crc.reset();
+        crc.update(record.array(), 0, CHECKED_SIZE);
+        record.putInt((int) crc.getValue()).putInt(RECORD_MARKER);
+        pending.put(record.array());
+        if (pending.position() == RECORD_SIZE || pending.remaining() < RECORD_SIZE) {
+            batchReady.signal();
+        }
+        return sequence;
+    }
+
+    private void awaitDurable(long sequence) throws IOException {
+        while (durableRecords <= sequence) {
+            if (failure != null) {
+                throw new IOException("The payout journal could not be written", failure);
+            }
+            committed.awaitUninterruptibly();
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (failure != null) {
+            throw new IOException("The payout journal could not be written", failure);
+        }
+        if (isClosed) {
+            throw new IllegalStateException("The payout journal is closed");
+        }
+    }
+
+    // Runs on the commit thread until the journal is closed and every appended payout is committed, or a write fails
+    private void commit() {
+        lock.lock();
+        try {
+            while (true) {
+                while (pending.position() == 0 && !isClosed) {
+                    batchReady.awaitUninterruptibly();
+                }
+                if (pending.position() == 0) {
+                    return;
+                }
+                long delayNanos = maxCommitDelayNanos;
+                while (delayNanos > 0 && pending.remaining() >= RECORD_SIZE && !isClosed) {
+                    delayNanos = awaitNanos(batchReady, delayNanos);
+                }
+                ByteBuffer batch = pending;
+                pending = writing;
+                writing = batch;
+                long batchEnd = nextSequence;
+                spaceAvailable.signalAll();
+
+                IOException writeFailure = null;
+                lock.unlock();
+                try {
+                    batch.flip();
+                    while (batch.hasRemaining()) {
+                        filePosition += fileChannel.write(batch, filePosition);
+                    }
+                    // force(false) is fdatasync on Linux, which also writes the file length the data needs
+                    fileChannel.force(false);
+                } catch (IOException e) {
+                    writeFailure = e;
+                } finally {
+                    batch.clear();
+                    lock.lock();
+                }
+
+                if (writeFailure != null) {
+                    failure = writeFailure;
+                    committed.signalAll();
+                    spaceAvailable.signalAll();
+                    return;
+                }
+                durableRecords = batchEnd;
+                commits++;
+                committed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The commit thread is never interrupted by the journal, so an interrupt only ends the delay early
+    private static long awaitNanos(Condition condition, long nanos) {
+        try {
+            return condition.awaitNanos(nanos);
+        } catch (InterruptedException e) {
+            return 0;
+        }
+    }
+
+    // Reads up to maxRecords records from the start of the journal, stopping at the first one that is torn, and
+    // returns how many were whole; visitor may be null
+    private static long read(FileChannel fileChannel, long maxRecords, LedgerRecordVisitor visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_RECORDS * RECORD_SIZE);
+        byte[] checked = new byte[CHECKED_SIZE];
+        CRC32C crc = new CRC32C();
+        long records = 0;
+        while (records < maxRecords) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (maxRecords - records) * RECORD_SIZE));
+            long position = HEADER_SIZE + records * RECORD_SIZE;
+            while (buffer.hasRemaining()) {
+                int read = fileChannel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            for (int index = 0; index + RECORD_SIZE <= buffer.limit(); index += RECORD_SIZE) {
+                buffer.get(index, checked);
+                crc.reset();
+                crc.update(checked, 0, CHECKED_SIZE);
+                if (buffer.getLong(index) != records || buffer.getInt(index + CHECKED_SIZE) != (int) crc.getValue()
+                        || buffer.getInt(index + CHECKED_SIZE + 4) != RECORD_MARKER) {
+                    return records;
+                }
+                if (visitor != null) {
+                    visitor.visit(records, buffer.getLong(index + 8), buffer.getLong(index + 16), buffer.getInt(index + 24),
+                            buffer.getInt(index + 28), buffer.getLong(index + 32));
+                }
+                records++;
+            }
+            if (buffer.limit() < RECORD_SIZE) {
+                return records;
+            }
+        }
+        return records;
+    }
+
+    // Forces the entry of a new journal file in its directory, without which a crash can lose the file and every
+    // payout forced into it. Opening a directory only works on some platforms, e.g. Linux; elsewhere, e.g. Windows,
+    // the open fails, and the file system is relied on to keep the entry.
+    private static void forceDirectory(Path file) throws IOException {
+        FileChannel directoryChannel;
+        try {
+            directoryChannel = FileChannel.open(file.toAbsolutePath().getParent(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (directoryChannel) {
+            directoryChannel.force(true);
+        }
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.babysitter.ledger;
+
+@FunctionalInterface
+public interface RerateDeltaListener {
+
+    void onPayChanged(long recordIndex, int sitterId, int familyId, long startEpochMinute, long endEpochMinute, int previousPay, int currentPay);
+
+}
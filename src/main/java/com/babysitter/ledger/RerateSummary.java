@@ -0,0 +1,29 @@
+package com.babysitter.ledger;
+
+public class RerateSummary {
+
+    private final long repricedShifts;
+    private final long changedShifts;
+    private final long totalDelta;
+
+    public RerateSummary(long repricedShifts, long changedShifts, long totalDelta) {
+        this.repricedShifts = repricedShifts;
+        this.changedShifts = changedShifts;
+        this.totalDelta = totalDelta;
+    }
+
+    // Shifts on nights whose rates changed
+    public long getRepricedShifts() {
+        return repricedShifts;
+    }
+
+    // Repriced shifts whose pay is different
+    public long getChangedShifts() {
+        return changedShifts;
+    }
+
+    public long getTotalDelta() {
+        return totalDelta;
+    }
+
+}
@@ -0,0 +1,221 @@
+package com.babysitter.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.babysitter.constants.Constants.STATUS_VALID;
+
+// Append only ledger of priced shifts in memory mapped segment files named ledger-<number>.seg. A segment is
+//   header       magic, version, records per segment and the number of records written
+//   block index  for every block of BLOCK_SIZE records the lowest and highest start and a mask of sitter id hashes
+//   records      RECORD_SIZE bytes each: start, end, sitter id, family id and total pay
+// and is created at its full size, so records are written and read straight in the mapped memory and the heap only
+// holds one buffer per segment. The record count is written after the record, so a crash of the JVM never exposes
+// a half written record: the mapped pages are still written out by the OS. A crash of the OS or a power loss can
+// write the page of the count without the page of the record, so only the records appended before the last force()
+// are safe from it. Queries skip every block whose index rules it out and read the rest without creating objects.
+// One thread appends; queries see the records appended before they started.
+public class ShiftLedger implements Closeable {
+
+    public static final int RECORD_SIZE = 32;
+    public static final int BLOCK_SIZE = 4096;
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 22;
+    public static final int ANY_SITTER = Integer.MIN_VALUE;
+
+    private static final int MAGIC = 0x42534C47;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORDS_PER_SEGMENT_POSITION = 8;
+    private static final int RECORD_COUNT_POSITION = 16;
+    private static final int BLOCK_INDEX_ENTRY_SIZE = 24;
+    private static final int MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int blocksPerSegment;
+    private final int recordsPosition;
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private volatile long recordCount;
+
+    private ShiftLedger(Path directory, int recordsPerSegment) {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        blocksPerSegment = (recordsPerSegment + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        recordsPosition = HEADER_SIZE + blocksPerSegment * BLOCK_INDEX_ENTRY_SIZE;
+    }
+
+    public static ShiftLedger open(Path directory) throws IOException {
+        return open(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    // The records per segment of an existing ledger are read from its first segment and recordsPerSegment is ignored
+    public static ShiftLedger open(Path directory, int recordsPerSegment) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segmentFiles = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path segmentFile : directoryStream) {
+                segmentFiles.add(segmentFile);
+            }
+        }
+        segmentFiles.sort(null);
+        if (!segmentFiles.isEmpty()) {
+            try (FileChannel fileChannel = FileChannel.open(segmentFiles.get(0), StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                fileChannel.read(header, 0);
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                    throw new IOException("Not a ledger segment: " + segmentFiles.get(0));
+                }
+                recordsPerSegment = header.getInt(RECORDS_PER_SEGMENT_POSITION);
+            }
+        }
+        if (HEADER_SIZE + ((long) recordsPerSegment + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_INDEX_ENTRY_SIZE + (long) recordsPerSegment * RECORD_SIZE > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("A ledger segment cannot hold " + recordsPerSegment + " records");
+        }
+        ShiftLedger shiftLedger = new ShiftLedger(directory, recordsPerSegment);
+        long recordCount = 0;
+        for (int segment = 0; segment < segmentFiles.size(); segment++) {
+            if (!segmentFiles.get(segment).equals(shiftLedger.getSegmentFile(segment))) {
+                throw new IOException("Ledger segment " + segment + " is missing in " + directory);
+            }
+            MappedByteBuffer segmentBuffer = shiftLedger.mapSegment(segment);
+            long segmentRecordCount = segmentBuffer.getLong(RECORD_COUNT_POSITION);
+            if (segmentRecordCount != recordsPerSegment && segment < segmentFiles.size() - 1) {
+                throw new IOException("Ledger segment " + segment + " is not full but is followed by another one in " + directory);
+            }
+            shiftLedger.segments.add(segmentBuffer);
+            recordCount += segmentRecordCount;
+        }
+        shiftLedger.recordCount = recordCount;
+        return shiftLedger;
+    }
+
+    // Returns the index of the new record
+    public long append(long startEpochMinute, long endEpochMinute, int sitterId, int familyId, long totalPay) throws IOException {
+        long recordIndex = recordCount;
+        int segment = (int) (recordIndex / recordsPerSegment);
+        int recordInSegment = (int) (recordIndex % recordsPerSegment);
+        if (segment == segments.size()) {
+            segments.add(createSegment(segment));
+        }
+        MappedByteBuffer segmentBuffer = segments.get(segment);
+        int position = recordsPosition + recordInSegment * RECORD_SIZE;
+        segmentBuffer.putLong(position, startEpochMinute);
+        segmentBuffer.putLong(position + 8, endEpochMinute);
+        segmentBuffer.putInt(position + 16, sitterId);
+        segmentBuffer.putInt(position + 20, familyId);
+        segmentBuffer.putLong(position + 24, totalPay);
+
+        int blockPosition = HEADER_SIZE + recordInSegment / BLOCK_SIZE * BLOCK_INDEX_ENTRY_SIZE;
+        if (recordInSegment % BLOCK_SIZE == 0) {
+            segmentBuffer.putLong(blockPosition, startEpochMinute);
+            segmentBuffer.putLong(blockPosition + 8, startEpochMinute);
+            segmentBuffer.putLong(blockPosition + 16, getSitterBit(sitterId));
+        } else {
+            segmentBuffer.putLong(blockPosition, Math.min(segmentBuffer.getLong(blockPosition), startEpochMinute));
+            segmentBuffer.putLong(blockPosition + 8, Math.max(segmentBuffer.getLong(blockPosition + 8), startEpochMinute));
+            segmentBuffer.putLong(blockPosition + 16, segmentBuffer.getLong(blockPosition + 16) | getSitterBit(sitterId));
+        }
+        // Published after the record for readers and for a JVM crash; the OS may write the pages to disk in any order
+        segmentBuffer.putLong(RECORD_COUNT_POSITION, recordInSegment + 1);
+        recordCount = recordIndex + 1;
+        return recordIndex;
+    }
+
+    // Appends the shifts of a calculateBatch call that were priced and returns how many there were
+    public int appendBatch(long[] startEpochMinutes, long[] endEpochMinutes, int[] sitterIds, int[] familyIds, int[] totalPays, int[] statusCodes, int offset, int length) throws IOException {
+        int appended = 0;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            if (statusCodes[i] == STATUS_VALID) {
+                append(startEpochMinutes[i], endEpochMinutes[i], sitterIds[i], familyIds[i], totalPays[i]);
+                appended++;
+            }
+        }
+        return appended;
+    }
+
+    // Visits the records of the sitter, or of every sitter for ANY_SITTER, that start within
+    // fromEpochMinute inclusive and toEpochMinute exclusive, in the order they were appended
+    public void scan(long fromEpochMinute, long toEpochMinute, int sitterId, LedgerRecordVisitor visitor) {
+        long recordCount = this.recordCount;
+        long sitterBit = sitterId == ANY_SITTER ? -1L : getSitterBit(sitterId);
+        for (int segment = 0; (long) segment * recordsPerSegment < recordCount; segment++) {
+            MappedByteBuffer segmentBuffer = segments.get(segment);
+            int segmentRecordCount = (int) Math.min(recordsPerSegment, recordCount - (long) segment * recordsPerSegment);
+            for (int blockStart = 0; blockStart < segmentRecordCount; blockStart += BLOCK_SIZE) {
+                int blockPosition = HEADER_SIZE + blockStart / BLOCK_SIZE * BLOCK_INDEX_ENTRY_SIZE;
+                if (segmentBuffer.getLong(blockPosition) >= toEpochMinute || segmentBuffer.getLong(blockPosition + 8) < fromEpochMinute
+                        || (segmentBuffer.getLong(blockPosition + 16) & sitterBit) == 0) {
+                    continue;
+                }
+                int blockEnd = Math.min(blockStart + BLOCK_SIZE, segmentRecordCount);
+                for (int recordInSegment = blockStart; recordInSegment < blockEnd; recordInSegment++) {
+                    int position = recordsPosition + recordInSegment * RECORD_SIZE;
+                    long startEpochMinute = segmentBuffer.getLong(position);
+                    int recordSitterId = segmentBuffer.getInt(position + 16);
+                    if (startEpochMinute >= fromEpochMinute && startEpochMinute < toEpochMinute && (sitterId == ANY_SITTER || recordSitterId == sitterId)) {
+                        visitor.visit((long) segment * recordsPerSegment + recordInSegment, startEpochMinute, segmentBuffer.getLong(position + 8),
+                                recordSitterId, segmentBuffer.getInt(position + 20), segmentBuffer.getLong(position + 24));
+                    }
+                }
+            }
+        }
+    }
+
+    public void scanSitter(int sitterId, LedgerRecordVisitor visitor) {
+        scan(Long.MIN_VALUE, Long.MAX_VALUE, sitterId, visitor);
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    // Writes the mapped segments to disk
+    public void force() {
+        for (MappedByteBuffer segmentBuffer : segments) {
+            segmentBuffer.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+        segments.clear();
+    }
+
+    private MappedByteBuffer createSegment(int segment) throws IOException {
+        MappedByteBuffer segmentBuffer = mapSegment(segment);
+        segmentBuffer.putInt(0, MAGIC);
+        segmentBuffer.putInt(4, VERSION);
+        segmentBuffer.putInt(RECORDS_PER_SEGMENT_POSITION, recordsPerSegment);
+        segmentBuffer.putLong(RECORD_COUNT_POSITION, 0);
+        return segmentBuffer;
+    }
+
+    private MappedByteBuffer mapSegment(int segment) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(getSegmentFile(segment), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, recordsPosition + (long) recordsPerSegment * RECORD_SIZE);
+        }
+    }
+
+    private Path getSegmentFile(int segment) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private static long getSitterBit(int sitterId) {
+        return 1L << ((sitterId * 0x9E3779B9) >>> 26);
+    }
+
+}
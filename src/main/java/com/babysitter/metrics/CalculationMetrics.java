@@ -0,0 +1,250 @@
+package com.babysitter.metrics;
+
+import com.babysitter.enums.CalculationStageEnum;
+import com.babysitter.enums.ValidationErrorEnum;
+import com.babysitter.registry.FamilyRegistry;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and stage latencies of one PaymentCalculator. Recording only happens when the JVM is started with
+// -Dbabysitter.metrics=true; ENABLED is a constant, so the JIT removes every recording call when it is off.
+// Counters are striped LongAdders, updated once per calculation and once per batch for calculateBatch; stage latencies
+// are timed for one calculation in SAMPLE_RATE, because reading the clock costs more than the rest of the recording.
+public class CalculationMetrics implements CalculationMetricsMXBean {
+
+    public static final boolean ENABLED = Boolean.getBoolean("babysitter.metrics");
+    public static final int SAMPLE_RATE = 64;
+    // Family ids from here on share the last counter
+    public static final int MAX_FAMILY_IDS = 256;
+    // Smaller batches are counted shift by shift rather than summed up first
+    private static final int MIN_SUMMED_BATCH_SIZE = 64;
+    private static final String OTHER_FAMILIES = "other";
+    // Per family and per status bit counts of one batch, left zeroed after every batch on the thread
+    private static final ThreadLocal<BatchCounts> BATCH_COUNTS = new ThreadLocal<BatchCounts>() {
+        @Override
+        protected BatchCounts initialValue() {
+            return new BatchCounts();
+        }
+    };
+
+    private final FamilyRegistry familyRegistry;
+    private final LongAdder[] pricedShiftsByFamily = createLongAdders(MAX_FAMILY_IDS);
+    private final LongAdder[] rejectionsByStatusBit = createLongAdders(Integer.SIZE);
+    private final LongAdder rejectedShifts = new LongAdder();
+    private final LatencyHistogram[] stageHistograms = new LatencyHistogram[CalculationStageEnum.values().length];
+
+    public CalculationMetrics(FamilyRegistry familyRegistry) {
+        this.familyRegistry = familyRegistry;
+        for (int stage = 0; stage < stageHistograms.length; stage++) {
+            stageHistograms[stage] = new LatencyHistogram();
+        }
+    }
+
+    private static LongAdder[] createLongAdders(int count) {
+        LongAdder[] longAdders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            longAdders[i] = new LongAdder();
+        }
+        return longAdders;
+    }
+
+    // Returns the current nanoTime when this calculation is sampled and 0 otherwise, to be passed to recordStage
+    public long startSample() {
+        return (ThreadLocalRandom.current().nextInt() & (SAMPLE_RATE - 1)) == 0 ? System.nanoTime() : 0;
+    }
+
+    // Records the time since the previous stage of a sampled calculation and returns the start of the next stage
+    public long recordStage(CalculationStageEnum stage, long stageStartNanos) {
+        if (stageStartNanos == 0) {
+            return 0;
+        }
+        long nanos = System.nanoTime();
+        stageHistograms[stage.ordinal()].record(nanos - stageStartNanos);
+        return nanos;
+    }
+
+    public void recordBatch(int[] familyIds, int[] statusCodes, int offset, int length, long nanos) {
+        recordBatch(familyIds, offset, statusCodes, offset, length, nanos);
+    }
+
+    // For callers whose family ids are not at the same index as the status codes
+    public void recordBatch(int[] familyIds, int familyIdOffset, int[] statusCodes, int offset, int length, long nanos) {
+        stageHistograms[CalculationStageEnum.BATCH.ordinal()].record(nanos);
+        int end = offset + length;
+        int familyIdShift = familyIdOffset - offset;
+        if (length < MIN_SUMMED_BATCH_SIZE) {
+            for (int i = offset; i < end; i++) {
+                if (statusCodes[i] == 0) {
+                    recordPricedShift(familyIds[i + familyIdShift]);
+                } else {
+                    recordRejectedShift(statusCodes[i]);
+                }
+            }
+            return;
+        }
+        BatchCounts batchCounts = BATCH_COUNTS.get();
+        int[] pricedShifts = batchCounts.pricedShifts;
+        int[] rejections = batchCounts.rejections;
+        int rejected = 0;
+        int maxFamilyId = 0;
+        for (int i = offset; i < end; i++) {
+            int statusCode = statusCodes[i];
+            if (statusCode == 0) {
+                int counter = Math.min(familyIds[i + familyIdShift], MAX_FAMILY_IDS - 1);
+                pricedShifts[counter]++;
+                maxFamilyId = Math.max(maxFamilyId, counter);
+            } else {
+                rejected++;
+                while (statusCode != 0) {
+                    rejections[Integer.numberOfTrailingZeros(statusCode)]++;
+                    statusCode &= statusCode - 1;
+                }
+            }
+        }
+        for (int familyId = 0; familyId <= maxFamilyId; familyId++) {
+            if (pricedShifts[familyId] != 0) {
+                pricedShiftsByFamily[familyId].add(pricedShifts[familyId]);
+                pricedShifts[familyId] = 0;
+            }
+        }
+        if (rejected != 0) {
+            rejectedShifts.add(rejected);
+            for (int bit = 0; bit < Integer.SIZE; bit++) {
+                if (rejections[bit] != 0) {
+                    rejectionsByStatusBit[bit].add(rejections[bit]);
+                    rejections[bit] = 0;
+                }
+            }
+        }
+    }
+
+    public void recordPricedShift(int familyId) {
+        pricedShiftsByFamily[Math.min(familyId, MAX_FAMILY_IDS - 1)].increment();
+    }
+
+    public void recordRejectedShift(int statusCode) {
+        rejectedShifts.increment();
+        while (statusCode != 0) {
+            rejectionsByStatusBit[Integer.numberOfTrailingZeros(statusCode)].increment();
+            statusCode &= statusCode - 1;
+        }
+    }
+
+    public LatencyHistogram getStageHistogram(CalculationStageEnum stage) {
+        return stageHistograms[stage.ordinal()];
+    }
+
+    @Override
+    public long getPricedShifts() {
+        long pricedShifts = 0;
+        for (LongAdder longAdder : pricedShiftsByFamily) {
+            pricedShifts += longAdder.sum();
+        }
+        return pricedShifts;
+    }
+
+    @Override
+    public long getRejectedShifts() {
+        return rejectedShifts.sum();
+    }
+
+    // Families without any priced shift are left out
+    @Override
+    public Map<String, Long> getPricedShiftsByFamily() {
+        FamilyRegistrySnapshot familySnapshot = familyRegistry.getSnapshot();
+        Map<String, Long> pricedShiftsByFamily = new LinkedHashMap<>();
+        for (int familyId = 0; familyId < MAX_FAMILY_IDS; familyId++) {
+            long pricedShifts = this.pricedShiftsByFamily[familyId].sum();
+            if (pricedShifts != 0) {
+                pricedShiftsByFamily.put(familyId == MAX_FAMILY_IDS - 1 ? OTHER_FAMILIES : familySnapshot.getFamilyName(familyId), pricedShifts);
+            }
+        }
+        return pricedShiftsByFamily;
+    }
+
+    @Override
+    public Map<String, Long> getRejectionsByReason() {
+        Map<String, Long> rejectionsByReason = new LinkedHashMap<>();
+        for (ValidationErrorEnum validationError : ValidationErrorEnum.values()) {
+            rejectionsByReason.put(validationError.name(), rejectionsByStatusBit[Integer.numberOfTrailingZeros(validationError.getStatusCode())].sum());
+        }
+        return rejectionsByReason;
+    }
+
+    @Override
+    public Map<String, Long> getMedianNanosByStage() {
+        return getByStage(50);
+    }
+
+    @Override
+    public Map<String, Long> getP99NanosByStage() {
+        return getByStage(99);
+    }
+
+    @Override
+    public Map<String, Long> getMaxNanosByStage() {
+        return getByStage(100);
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("Priced shifts: ").append(getPricedShifts()).append(", rejected shifts: ").append(getRejectedShifts()).append('\n');
+        for (Map.Entry<String, Long> pricedShifts : getPricedShiftsByFamily().entrySet()) {
+            report.append(String.format("  family %-10s %12d%n", pricedShifts.getKey(), pricedShifts.getValue()));
+        }
+        for (Map.Entry<String, Long> rejections : getRejectionsByReason().entrySet()) {
+            if (rejections.getValue() != 0) {
+                report.append(String.format("  rejected %-28s %12d%n", rejections.getKey(), rejections.getValue()));
+            }
+        }
+        for (CalculationStageEnum stage : CalculationStageEnum.values()) {
+            LatencyHistogram histogram = getStageHistogram(stage);
+            report.append(String.format("  stage %-9s %10d samples  p50 %8d ns  p99 %8d ns  max %10d ns%n", stage,
+                    histogram.getCount(), histogram.getPercentile(50), histogram.getPercentile(99), histogram.getMax()));
+        }
+        return report.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder longAdder : pricedShiftsByFamily) {
+            longAdder.reset();
+        }
+        for (LongAdder longAdder : rejectionsByStatusBit) {
+            longAdder.reset();
+        }
+        rejectedShifts.reset();
+        for (LatencyHistogram histogram : stageHistograms) {
+            histogram.reset();
+        }
+    }
+
+    // Publishes these metrics as com.babysitter:type=CalculationMetrics,name=<name> on the platform MBean server
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("com.babysitter:type=CalculationMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    private Map<String, Long> getByStage(double percentile) {
+        Map<String, Long> byStage = new LinkedHashMap<>();
+        for (CalculationStageEnum stage : CalculationStageEnum.values()) {
+            byStage.put(stage.name(), getStageHistogram(stage).getPercentile(percentile));
+        }
+        return byStage;
+    }
+
+    private static final class BatchCounts {
+        final int[] pricedShifts = new int[MAX_FAMILY_IDS];
+        final int[] rejections = new int[Integer.SIZE];
+    }
+
+}
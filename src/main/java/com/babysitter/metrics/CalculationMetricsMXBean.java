@@ -0,0 +1,25 @@
+package com.babysitter.metrics;
+
+import java.util.Map;
+
+public interface CalculationMetricsMXBean {
+
+    long getPricedShifts();
+
+    long getRejectedShifts();
+
+    Map<String, Long> getPricedShiftsByFamily();
+
+    Map<String, Long> getRejectionsByReason();
+
+    Map<String, Long> getMedianNanosByStage();
+
+    Map<String, Long> getP99NanosByStage();
+
+    Map<String, Long> getMaxNanosByStage();
+
+    String getReport();
+
+    void reset();
+
+}
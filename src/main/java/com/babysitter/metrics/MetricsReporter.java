@@ -0,0 +1,33 @@
+package com.babysitter.metrics;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Prints the report of a CalculationMetrics at a fixed period on a background daemon thread
+public class MetricsReporter implements Closeable {
+
+    private final ScheduledExecutorService scheduler;
+
+    private MetricsReporter(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    public static MetricsReporter start(CalculationMetrics calculationMetrics, long periodSeconds, PrintStream printStream) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> printStream.print(calculationMetrics.getReport()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        return new MetricsReporter(scheduler);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+
+}
@@ -0,0 +1,220 @@
+package com.babysitter.payroll;
+
+import java.util.Arrays;
+
+// Open addressing hash map from long keys to long values with linear probing over two parallel arrays, so neither
+// keys nor values are ever boxed. Missing keys read as 0. Not thread safe; fill one map per thread and merge them.
+public final class LongLongHashMap {
+
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_LOAD_PERCENT = 70;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int resizeThreshold;
+    // EMPTY_KEY marks free slots, so its own value is kept outside the arrays
+    private boolean hasEmptyKey;
+    private long emptyKeyValue;
+
+    public LongLongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        long minCapacity = Math.max(DEFAULT_CAPACITY, (long) expectedSize * 100 / MAX_LOAD_PERCENT);
+        allocate((int) Math.min(MAX_CAPACITY, Long.highestOneBit(minCapacity - 1) << 1));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        resizeThreshold = (int) ((long) capacity * MAX_LOAD_PERCENT / 100);
+    }
+
+    public long get(long key) {
+        if (key == EMPTY_KEY) {
+            return emptyKeyValue;
+        }
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            long slotKey = keys[slot];
+            if (slotKey == key) {
+                return values[slot];
+            }
+            if (slotKey == EMPTY_KEY) {
+                return 0;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY_KEY) {
+            return hasEmptyKey;
+        }
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            long slotKey = keys[slot];
+            if (slotKey == key) {
+                return true;
+            }
+            if (slotKey == EMPTY_KEY) {
+                return false;
+            }
+        }
+    }
+
+    // Adds delta to the value of key, starting from 0 for a new key, and returns the new value
+    public long add(long key, long delta) {
+        if (key == EMPTY_KEY) {
+            if (!hasEmptyKey) {
+                hasEmptyKey = true;
+                size++;
+            }
+            emptyKeyValue += delta;
+            return emptyKeyValue;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            long slotKey = keys[slot];
+            if (slotKey == key) {
+                values[slot] += delta;
+                return values[slot];
+            }
+            if (slotKey == EMPTY_KEY) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > resizeThreshold) {
+            resize();
+        }
+        return delta;
+    }
+
+    // Returns the value key had, 0 for a missing key
+    public long put(long key, long value) {
+        long previousValue = remove(key);
+        add(key, value);
+        return previousValue;
+    }
+
+    // Returns the value key had, 0 for a missing key. Later keys of the probe sequence are shifted back into the
+    // freed slot, so lookups never need tombstones.
+    public long remove(long key) {
+        if (key == EMPTY_KEY) {
+            long value = emptyKeyValue;
+            if (hasEmptyKey) {
+                hasEmptyKey = false;
+                emptyKeyValue = 0;
+                size--;
+            }
+            return value;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY_KEY) {
+                return 0;
+            }
+            slot = (slot + 1) & mask;
+        }
+        long value = values[slot];
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY_KEY; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY_KEY;
+        values[gap] = 0;
+        size--;
+        return value;
+    }
+
+    // Adds every value of other to this map
+    public void merge(LongLongHashMap other) {
+        if (other.hasEmptyKey) {
+            add(EMPTY_KEY, other.emptyKeyValue);
+        }
+        long[] otherKeys = other.keys;
+        long[] otherValues = other.values;
+        for (int slot = 0; slot < otherKeys.length; slot++) {
+            if (otherKeys[slot] != EMPTY_KEY) {
+                add(otherKeys[slot], otherValues[slot]);
+            }
+        }
+    }
+
+    public void forEach(LongLongConsumer consumer) {
+        if (hasEmptyKey) {
+            consumer.accept(EMPTY_KEY, emptyKeyValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY_KEY) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Keeps the capacity so a reused map does not allocate again
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        size = 0;
+        hasEmptyKey = false;
+        emptyKeyValue = 0;
+    }
+
+    private void resize() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("A LongLongHashMap cannot hold more than " + resizeThreshold + " keys");
+        }
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        int mask = keys.length - 1;
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            long key = oldKeys[oldSlot];
+            if (key == EMPTY_KEY) {
+                continue;
+            }
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY_KEY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = oldValues[oldSlot];
+        }
+    }
+
+    // Finalizer of MurmurHash3; payroll keys differ mostly in their high bits, which linear probing needs spread out
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    @FunctionalInterface
+    public interface LongLongConsumer {
+
+        void accept(long key, long value);
+
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.babysitter.payroll;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+import com.babysitter.utils.ShiftTimeUtil;
+
+import static com.babysitter.constants.Constants.STATUS_VALID;
+
+// Running payroll totals per sitter, family and ISO week. Shifts are priced in batches through calculateBatch into
+// reused arrays and added to a LongLongHashMap, so aggregating allocates nothing but the growth of the map.
+// An aggregator belongs to one thread; aggregators of separate threads or files are combined with merge.
+public class PayrollAggregator {
+
+    private static final int BATCH_SIZE = 4096;
+
+    private final PaymentCalculator paymentCalculator;
+    private final LongLongHashMap totalPays;
+    private final long[] batchStartEpochMinutes = new long[BATCH_SIZE];
+    private final long[] batchEndEpochMinutes = new long[BATCH_SIZE];
+    private final int[] batchFamilyIds = new int[BATCH_SIZE];
+    private final int[] batchTotalPays = new int[BATCH_SIZE];
+    private final int[] batchStatusCodes = new int[BATCH_SIZE];
+    private long pricedShifts;
+    private long rejectedShifts;
+
+    public PayrollAggregator(PaymentCalculator paymentCalculator) {
+        this(paymentCalculator, 0);
+    }
+
+    public PayrollAggregator(PaymentCalculator paymentCalculator, int expectedKeys) {
+        this.paymentCalculator = paymentCalculator;
+        totalPays = new LongLongHashMap(expectedKeys);
+    }
+
+    // Shifts that fail validation are counted as rejected and left out of the totals
+    public void addShifts(int[] sitterIds, long[] startEpochMinutes, long[] endEpochMinutes, int[] familyIds, int offset, int length) {
+        FamilyRegistrySnapshot familySnapshot = paymentCalculator.getFamilyRegistry().getSnapshot();
+        int end = offset + length;
+        for (int batchOffset = offset; batchOffset < end; batchOffset += BATCH_SIZE) {
+            int batchLength = Math.min(BATCH_SIZE, end - batchOffset);
+            System.arraycopy(startEpochMinutes, batchOffset, batchStartEpochMinutes, 0, batchLength);
+            System.arraycopy(endEpochMinutes, batchOffset, batchEndEpochMinutes, 0, batchLength);
+            System.arraycopy(familyIds, batchOffset, batchFamilyIds, 0, batchLength);
+            paymentCalculator.calculateBatch(familySnapshot, batchStartEpochMinutes, batchEndEpochMinutes, batchFamilyIds, batchTotalPays, batchStatusCodes, 0, batchLength);
+            for (int i = 0; i < batchLength; i++) {
+                if (batchStatusCodes[i] != STATUS_VALID) {
+                    rejectedShifts++;
+                    continue;
+                }
+                long nightEpochDay = ShiftTimeUtil.getEpochDay(ShiftTimeUtil.getNightStartEpochMinute(batchStartEpochMinutes[i]));
+                totalPays.add(PayrollKey.create(sitterIds[batchOffset + i], batchFamilyIds[i], nightEpochDay), batchTotalPays[i]);
+                pricedShifts++;
+            }
+        }
+    }
+
+    public void merge(PayrollAggregator other) {
+        totalPays.merge(other.totalPays);
+        pricedShifts += other.pricedShifts;
+        rejectedShifts += other.rejectedShifts;
+    }
+
+    public long getTotalPay(long payrollKey) {
+        return totalPays.get(payrollKey);
+    }
+
+    // Totals keyed by the parts of the payroll key kept by mask, e.g. PayrollKey.SITTER_MASK for the total per sitter
+    public LongLongHashMap rollUp(long mask) {
+        LongLongHashMap rolledUpTotalPays = new LongLongHashMap();
+        totalPays.forEach((payrollKey, totalPay) -> rolledUpTotalPays.add(payrollKey & mask, totalPay));
+        return rolledUpTotalPays;
+    }
+
+    // Every payroll key with its total pay
+    public LongLongHashMap getTotalPays() {
+        return totalPays;
+    }
+
+    public long getPricedShifts() {
+        return pricedShifts;
+    }
+
+    public long getRejectedShifts() {
+        return rejectedShifts;
+    }
+
+}
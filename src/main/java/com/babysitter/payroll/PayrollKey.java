@@ -0,0 +1,57 @@
+package com.babysitter.payroll;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+
+import static com.babysitter.constants.Constants.DAYS_PER_WEEK;
+
+// A payroll key packs the sitter id into the high 32 bits, the family id into the next 16 and the ISO week into the
+// low 16. Weeks are counted from the Monday before 1970-01-01 and are taken from the date the night starts, so a
+// shift from Sunday evening into Monday morning is paid in the week of the Sunday.
+public class PayrollKey {
+
+    public static final long SITTER_MASK = 0xFFFFFFFF00000000L;
+    public static final long FAMILY_MASK = 0x00000000FFFF0000L;
+    public static final long WEEK_MASK = 0x000000000000FFFFL;
+    public static final int MAX_FAMILY_ID = 0xFFFF;
+    // 1970-01-01 was a Thursday, three days after the Monday its ISO week starts on
+    private static final int EPOCH_DAY_OF_WEEK_OFFSET = 3;
+
+    public static long create(int sitterId, int familyId, long nightEpochDay) {
+        if (familyId < 0 || familyId > MAX_FAMILY_ID) {
+            throw new IllegalArgumentException("Family ids of a payroll key must be between 0 and " + MAX_FAMILY_ID + ": " + familyId);
+        }
+        int epochWeek = getEpochWeekOfDay(nightEpochDay);
+        if (epochWeek < 0 || epochWeek > WEEK_MASK) {
+            throw new IllegalArgumentException("The night of a payroll key is outside the weeks it can hold: " + LocalDate.ofEpochDay(nightEpochDay));
+        }
+        return (long) sitterId << 32 | (long) familyId << 16 | epochWeek;
+    }
+
+    public static int getSitterId(long payrollKey) {
+        return (int) (payrollKey >>> 32);
+    }
+
+    public static int getFamilyId(long payrollKey) {
+        return (int) ((payrollKey & FAMILY_MASK) >>> 16);
+    }
+
+    public static int getEpochWeek(long payrollKey) {
+        return (int) (payrollKey & WEEK_MASK);
+    }
+
+    public static LocalDate getWeekMonday(long payrollKey) {
+        return LocalDate.ofEpochDay((long) getEpochWeek(payrollKey) * DAYS_PER_WEEK - EPOCH_DAY_OF_WEEK_OFFSET);
+    }
+
+    // ISO 8601 week such as 2020-W12
+    public static String getIsoWeek(long payrollKey) {
+        LocalDate monday = getWeekMonday(payrollKey);
+        return String.format("%d-W%02d", monday.get(IsoFields.WEEK_BASED_YEAR), monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    static int getEpochWeekOfDay(long epochDay) {
+        return (int) Math.floorDiv(epochDay + EPOCH_DAY_OF_WEEK_OFFSET, DAYS_PER_WEEK);
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.babysitter.pipeline;
+
+import com.babysitter.enums.CalculationStageEnum;
+
+// What one stage of a ShiftPipeline has done since the pipeline started. The stage with the fullest queue and the
+// highest utilization is the one to give more threads.
+public final class PipelineStageStats {
+
+    private final CalculationStageEnum stage;
+    private final int threads;
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final long processedShifts;
+    private final long busyNanos;
+    private final long elapsedNanos;
+
+    PipelineStageStats(CalculationStageEnum stage, int threads, int queueDepth, int queueCapacity, long processedShifts, long busyNanos, long elapsedNanos) {
+        this.stage = stage;
+        this.threads = threads;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.processedShifts = processedShifts;
+        this.busyNanos = busyNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public CalculationStageEnum getStage() {
+        return stage;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    // Shifts waiting for a thread of this stage
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getProcessedShifts() {
+        return processedShifts;
+    }
+
+    public double getShiftsPerSecond() {
+        return elapsedNanos == 0 ? 0 : processedShifts * 1e9 / elapsedNanos;
+    }
+
+    // Share of the time the threads of this stage spent working rather than waiting for shifts or for room downstream
+    public double getUtilization() {
+        return elapsedNanos == 0 ? 0 : (double) busyNanos / ((long) threads * elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-8s threads=%d queue=%d/%d processed=%d shifts/s=%.0f utilization=%.0f%%",
+                stage, threads, queueDepth, queueCapacity, processedShifts, getShiftsPerSecond(), getUtilization() * 100);
+    }
+
+}
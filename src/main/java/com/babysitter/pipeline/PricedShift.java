@@ -0,0 +1,50 @@
+package com.babysitter.pipeline;
+
+import com.babysitter.enums.ValidationErrorEnum;
+
+import java.util.List;
+
+import static com.babysitter.constants.Constants.STATUS_VALID;
+
+// A shift that went through every stage of a ShiftPipeline, with the same total pay and status code
+// PaymentCalculator.calculate gives it, or the exception of the stage that failed it
+public final class PricedShift {
+
+    private final ShiftRequest shiftRequest;
+    private final int totalPay;
+    private final int statusCode;
+    private final Throwable failure;
+
+    PricedShift(ShiftRequest shiftRequest, int totalPay, int statusCode, Throwable failure) {
+        this.shiftRequest = shiftRequest;
+        this.totalPay = totalPay;
+        this.statusCode = statusCode;
+        this.failure = failure;
+    }
+
+    public ShiftRequest getShiftRequest() {
+        return shiftRequest;
+    }
+
+    public int getTotalPay() {
+        return totalPay;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    // Null for a shift that was priced
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public boolean isValid() {
+        return failure == null && statusCode == STATUS_VALID;
+    }
+
+    public List<String> getMessages() {
+        return ValidationErrorEnum.getMessages(statusCode);
+    }
+
+}
@@ -0,0 +1,397 @@
+package com.babysitter.pipeline;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.enums.CalculationStageEnum;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+import com.babysitter.utils.DateUtil;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.babysitter.constants.Constants.STATUS_VALID;
+
+// Prices shifts in three stages, parse, validate and price, each with its own threads and a bounded queue in front of
+// it. A full queue blocks the stage before it, so a slow stage holds back submit and the upstream publisher instead
+// of letting shifts pile up in memory; a slow downstream subscriber holds back the price stage the same way.
+// Shifts come in through submit or as a Flow.Subscriber of ShiftRequests and go out through the returned futures and
+// the Flow.Subscriber of PricedShifts, in the order they finish, which is not the order they came in. A shift that a
+// stage fails completes its future exceptionally and goes to the subscriber with the exception as its failure.
+public class ShiftPipeline implements Flow.Processor<ShiftRequest, PricedShift>, Closeable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final PaymentCalculator paymentCalculator;
+    private final Stage parseStage;
+    private final Stage validateStage;
+    private final Stage priceStage;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong inFlightShifts = new AtomicLong();
+    private final Object deliveryLock = new Object();
+    private volatile boolean closed;
+    private volatile Flow.Subscription upstream;
+    private volatile boolean upstreamDone;
+    private Throwable upstreamError;
+    private Flow.Subscriber<? super PricedShift> downstream;
+    private long downstreamDemand;
+    private boolean downstreamDone;
+
+    public ShiftPipeline(PaymentCalculator paymentCalculator) {
+        this(paymentCalculator, DEFAULT_QUEUE_CAPACITY, 1, 1, 1);
+    }
+
+    public ShiftPipeline(PaymentCalculator paymentCalculator, int queueCapacity, int parseThreads, int validateThreads, int priceThreads) {
+        this.paymentCalculator = paymentCalculator;
+        parseStage = new Stage(CalculationStageEnum.PARSE, queueCapacity, parseThreads);
+        validateStage = new Stage(CalculationStageEnum.VALIDATE, queueCapacity, validateThreads);
+        priceStage = new Stage(CalculationStageEnum.PRICE, queueCapacity, priceThreads);
+        parseStage.start(this::parse, validateStage);
+        validateStage.start(this::validate, priceStage);
+        priceStage.start(this::price, null);
+    }
+
+    // Blocks while the parse queue is full. The future completes on a price thread, so work chained to it without
+    // an executor of its own holds up the pipeline.
+    public CompletableFuture<PricedShift> submit(String startTime, String endTime, String family) throws InterruptedException {
+        // Counted before the check, so a close that sees no shifts in flight has already rejected this one
+        inFlightShifts.incrementAndGet();
+        if (closed) {
+            leave();
+            throw new IllegalStateException("The pipeline is closed");
+        }
+        PipelineShift shift = new PipelineShift(new ShiftRequest(startTime, endTime, family), new CompletableFuture<>(), false);
+        try {
+            parseStage.queue.put(shift);
+        } catch (InterruptedException e) {
+            leave();
+            throw e;
+        }
+        return shift.future;
+    }
+
+    // Requests as many shifts as the parse queue holds and one more every time the parse stage takes one
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null || closed) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        subscription.request(parseStage.queue.remainingCapacity());
+    }
+
+    @Override
+    public void onNext(ShiftRequest shiftRequest) {
+        inFlightShifts.incrementAndGet();
+        // A publisher may still send a few shifts after close cancelled it; nothing would take them off the queue
+        if (closed) {
+            leave();
+            return;
+        }
+        try {
+            parseStage.queue.put(new PipelineShift(shiftRequest, null, true));
+        } catch (InterruptedException e) {
+            leave();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The subscriber gets the error once the shifts already received are priced
+    @Override
+    public void onError(Throwable throwable) {
+        synchronized (deliveryLock) {
+            upstreamError = throwable;
+        }
+        upstreamDone = true;
+        completeDownstreamWhenDrained();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        completeDownstreamWhenDrained();
+    }
+
+    // One subscriber at a time; every priced shift waits for its demand
+    @Override
+    public void subscribe(Flow.Subscriber<? super PricedShift> subscriber) {
+        synchronized (deliveryLock) {
+            if (downstream != null) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("The pipeline already has a subscriber"));
+                return;
+            }
+            downstream = subscriber;
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    synchronized (deliveryLock) {
+                        if (downstream != subscriber) {
+                            return;
+                        }
+                        if (n <= 0) {
+                            downstream = null;
+                            deliveryLock.notifyAll();
+                            subscriber.onError(new IllegalArgumentException("Demand must be positive: " + n));
+                            return;
+                        }
+                        downstreamDemand = downstreamDemand + n < 0 ? Long.MAX_VALUE : downstreamDemand + n;
+                        deliveryLock.notifyAll();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    synchronized (deliveryLock) {
+                        if (downstream == subscriber) {
+                            downstream = null;
+                            deliveryLock.notifyAll();
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    public PipelineStageStats getStageStats(CalculationStageEnum stage) {
+        switch (stage) {
+            case PARSE:
+                return parseStage.getStats();
+            case VALIDATE:
+                return validateStage.getStats();
+            case PRICE:
+                return priceStage.getStats();
+            default:
+                throw new IllegalArgumentException("Not a pipeline stage: " + stage);
+        }
+    }
+
+    public List<PipelineStageStats> getStageStats() {
+        List<PipelineStageStats> stageStats = new ArrayList<>(3);
+        stageStats.add(parseStage.getStats());
+        stageStats.add(validateStage.getStats());
+        stageStats.add(priceStage.getStats());
+        return stageStats;
+    }
+
+    // Shifts submitted or received that have not come out of the price stage yet
+    public long getInFlightShifts() {
+        return inFlightShifts.get();
+    }
+
+    // Stops taking shifts, waits until every shift already taken is priced and stops the stage threads. Priced shifts
+    // still wait for the demand of the subscriber, so a subscriber that stops requesting has to cancel first or close
+    // blocks until it requests more.
+    @Override
+    public void close() {
+        closed = true;
+        Flow.Subscription subscription = upstream;
+        if (subscription != null && !upstreamDone) {
+            subscription.cancel();
+        }
+        try {
+            synchronized (inFlightShifts) {
+                while (inFlightShifts.get() > 0) {
+                    inFlightShifts.wait();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        parseStage.stop();
+        validateStage.stop();
+        priceStage.stop();
+    }
+
+    private void parse(PipelineShift shift) {
+        if (shift.fromUpstream) {
+            Flow.Subscription subscription = upstream;
+            if (subscription != null && !closed) {
+                subscription.request(1);
+            }
+        }
+        shift.familySnapshot = paymentCalculator.getFamilyRegistry().getSnapshot();
+        shift.startEpochMinute = DateUtil.parseEpochMinute(shift.shiftRequest.getStartTime());
+        shift.endEpochMinute = DateUtil.parseEpochMinute(shift.shiftRequest.getEndTime());
+    }
+
+    private void validate(PipelineShift shift) {
+        ShiftRequest shiftRequest = shift.shiftRequest;
+        shift.statusCode = paymentCalculator.validate(shiftRequest.getStartTime(), shiftRequest.getEndTime(), shiftRequest.getFamily(),
+                shift.startEpochMinute, shift.endEpochMinute, shift.familySnapshot);
+    }
+
+    private void price(PipelineShift shift) {
+        if (shift.statusCode == STATUS_VALID) {
+            int familyId = shift.familySnapshot.getFamilyId(shift.shiftRequest.getFamily());
+            shift.totalPay = paymentCalculator.calculateTotalPay(shift.familySnapshot, familyId, shift.startEpochMinute, shift.endEpochMinute);
+        }
+    }
+
+    // Runs on a price thread after the shift is priced, or on the stage thread that failed it
+    private void finish(PipelineShift shift, Throwable failure) throws InterruptedException {
+        try {
+            PricedShift pricedShift = new PricedShift(shift.shiftRequest, failure == null ? shift.totalPay : 0, shift.statusCode, failure);
+            deliver(pricedShift);
+            if (shift.future != null) {
+                if (failure != null) {
+                    shift.future.completeExceptionally(failure);
+                } else {
+                    shift.future.complete(pricedShift);
+                }
+            }
+        } finally {
+            leave();
+        }
+    }
+
+    private void leave() {
+        if (inFlightShifts.decrementAndGet() == 0) {
+            synchronized (inFlightShifts) {
+                inFlightShifts.notifyAll();
+            }
+            completeDownstreamWhenDrained();
+        }
+    }
+
+    private void deliver(PricedShift pricedShift) throws InterruptedException {
+        synchronized (deliveryLock) {
+            while (downstream != null && downstreamDemand == 0) {
+                deliveryLock.wait();
+            }
+            if (downstream != null && !downstreamDone) {
+                if (downstreamDemand != Long.MAX_VALUE) {
+                    downstreamDemand--;
+                }
+                downstream.onNext(pricedShift);
+            }
+        }
+    }
+
+    private void completeDownstreamWhenDrained() {
+        if (!upstreamDone || inFlightShifts.get() > 0) {
+            return;
+        }
+        synchronized (deliveryLock) {
+            if (downstreamDone) {
+                return;
+            }
+            downstreamDone = true;
+            if (downstream != null) {
+                if (upstreamError != null) {
+                    downstream.onError(upstreamError);
+                } else {
+                    downstream.onComplete();
+                }
+            }
+        }
+    }
+
+    private interface StageTask {
+        void process(PipelineShift shift);
+    }
+
+    private final class Stage {
+
+        private final CalculationStageEnum stage;
+        private final BlockingQueue<PipelineShift> queue;
+        private final Thread[] threads;
+        private final LongAdder processedShifts = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+
+        private Stage(CalculationStageEnum stage, int queueCapacity, int threadCount) {
+            if (threadCount < 1) {
+                throw new IllegalArgumentException("A stage needs at least one thread: " + threadCount);
+            }
+            this.stage = stage;
+            queue = new ArrayBlockingQueue<>(queueCapacity);
+            threads = new Thread[threadCount];
+        }
+
+        private void start(StageTask task, Stage nextStage) {
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> run(task, nextStage), "shift-pipeline-" + stage.name().toLowerCase() + "-" + i);
+                threads[i].setDaemon(true);
+                threads[i].start();
+            }
+        }
+
+        private void run(StageTask task, Stage nextStage) {
+            try {
+                while (true) {
+                    PipelineShift shift = queue.take();
+                    long taskStartNanos = System.nanoTime();
+                    Throwable failure = null;
+                    try {
+                        task.process(shift);
+                    } catch (Throwable e) {
+                        failure = e;
+                    }
+                    busyNanos.add(System.nanoTime() - taskStartNanos);
+                    processedShifts.increment();
+                    if (failure != null || nextStage == null) {
+                        finish(shift, failure);
+                    } else {
+                        nextStage.queue.put(shift);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Stopped by close once the pipeline is drained
+            }
+        }
+
+        private PipelineStageStats getStats() {
+            return new PipelineStageStats(stage, threads.length, queue.size(), queue.size() + queue.remainingCapacity(),
+                    processedShifts.sum(), busyNanos.sum(), System.nanoTime() - startNanos);
+        }
+
+        private void stop() {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+    }
+
+    private static final class PipelineShift {
+
+        private final ShiftRequest shiftRequest;
+        private final CompletableFuture<PricedShift> future;
+        private final boolean fromUpstream;
+        private FamilyRegistrySnapshot familySnapshot;
+        private long startEpochMinute;
+        private long endEpochMinute;
+        private int statusCode;
+        private int totalPay;
+
+        private PipelineShift(ShiftRequest shiftRequest, CompletableFuture<PricedShift> future, boolean fromUpstream) {
+            this.shiftRequest = shiftRequest;
+            this.future = future;
+            this.fromUpstream = fromUpstream;
+        }
+
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.babysitter.pipeline;
+
+// One shift as it arrives, before parsing; times are in the yyyy-MM-dd HH:mm format of PaymentCalculator.calculate
+public final class ShiftRequest {
+
+    private final String startTime;
+    private final String endTime;
+    private final String family;
+
+    public ShiftRequest(String startTime, String endTime, String family) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.family = family;
+    }
+
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public String getEndTime() {
+        return endTime;
+    }
+
+    public String getFamily() {
+        return family;
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.babysitter.registry;
+
+import com.babysitter.enums.FamilyEnum;
+import com.babysitter.service.RateSchedule;
+import com.babysitter.service.RateScheduleVersions;
+import com.babysitter.utils.DateUtil;
+import com.babysitter.utils.ShiftTimeUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static com.babysitter.constants.Constants.*;
+
+// Families and their rates, either the built in A, B and C or loaded from a properties file such as:
+//   A = 17:00=15, 23:00=20
+//   B = 17:00=12, 22:00=8, 00:00=16
+// Every entry is the time a rate starts and the pay per hour from then on; the first one has to start at 17:00.
+// Rates that change later are added as new versions with the date of the first night they apply to:
+//   A@2021-06-01 = 17:00=16, 23:00=21
+// The plain entry applies to the nights before the first dated one, so every family needs one.
+// Reloads build a complete snapshot first and then publish it with a single volatile write.
+public class FamilyRegistry implements Closeable {
+
+    private static final char EFFECTIVE_DATE_SEPARATOR = '@';
+
+    private final Path configFile;
+    private volatile FamilyRegistrySnapshot snapshot;
+    private WatchService watchService;
+
+    private FamilyRegistry(Path configFile, FamilyRegistrySnapshot snapshot) {
+        this.configFile = configFile;
+        this.snapshot = snapshot;
+    }
+
+    public static FamilyRegistry createDefault() {
+        Map<String, RateScheduleVersions> rateSchedules = new HashMap<>();
+        rateSchedules.put(FamilyEnum.A.toString(), RateScheduleVersions.of(new RateSchedule(
+                new int[]{getLimitOffset(FAMILY_A_ELEVEN_PM_LIMIT)},
+                new int[]{FAMILY_A_PAY_PER_HOUR_BEFORE_LIMIT, FAMILY_A_PAY_PER_HOUR_AFTER_LIMIT})));
+        rateSchedules.put(FamilyEnum.B.toString(), RateScheduleVersions.of(new RateSchedule(
+                new int[]{getLimitOffset(FAMILY_B_TEN_PM_LIMIT), getLimitOffset(FAMILY_B_MIDNIGHT_LIMIT)},
+                new int[]{FAMILY_B_PAY_PER_HOUR_BEFORE_FIRST_LIMIT, FAMILY_B_PAY_PER_HOUR_BETWEEN_LIMITS, FAMILY_B_PAY_PER_HOUR_AFTER_SECOND_LIMIT})));
+        rateSchedules.put(FamilyEnum.C.toString(), RateScheduleVersions.of(new RateSchedule(
+                new int[]{getLimitOffset(FAMILY_C_NINE_PM_LIMIT)},
+                new int[]{FAMILY_C_PAY_PER_HOUR_BEFORE_LIMIT, FAMILY_C_PAY_PER_HOUR_AFTER_LIMIT})));
+        return new FamilyRegistry(null, FamilyRegistrySnapshot.create(rateSchedules));
+    }
+
+    // The built in limits are constants, so they skip LocalTime.parse and the formatter classes it loads at startup
+    private static int getLimitOffset(String limit) {
+        return ShiftTimeUtil.getMinutesAfterStartTime(DateUtil.parseMinuteOfDay(limit));
+    }
+
+    public static FamilyRegistry load(Path configFile) throws IOException {
+        return new FamilyRegistry(configFile, FamilyRegistrySnapshot.create(readRateSchedules(configFile)));
+    }
+
+    public FamilyRegistrySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public synchronized void reload() throws IOException {
+        if (configFile == null) {
+            throw new IllegalStateException("The default family registry has no configuration file to reload");
+        }
+        snapshot = FamilyRegistrySnapshot.create(snapshot, readRateSchedules(configFile));
+    }
+
+    // Reloads on a background daemon thread whenever the configuration file changes. A file that cannot be
+    // read or parsed keeps the previous snapshot in place until the next change and is logged as a warning.
+    public synchronized void startWatching() throws IOException {
+        if (configFile == null) {
+            throw new IllegalStateException("The default family registry has no configuration file to watch");
+        }
+        if (watchService != null) {
+            return;
+        }
+        Path directory = configFile.toAbsolutePath().getParent();
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread watcher = new Thread(() -> watch(watchService), "family-registry-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch(WatchService watchService) {
+        Path fileName = configFile.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean configChanged = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (fileName.equals(event.context())) {
+                        configChanged = true;
+                    }
+                }
+                key.reset();
+                if (configChanged) {
+                    try {
+                        reload();
+                    } catch (IOException | RuntimeException e) {
+                        // The logger is only looked up here, so loading the registry does not start up logging
+                        System.getLogger(FamilyRegistry.class.getName()).log(System.Logger.Level.WARNING,
+                                "The family configuration could not be reloaded, keeping the previous rates", e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped by close()
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    static Map<String, RateScheduleVersions> readRateSchedules(Path configFile) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(configFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        Map<String, TreeMap<Long, RateSchedule>> rateSchedulesByFamily = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            int separator = key.indexOf(EFFECTIVE_DATE_SEPARATOR);
+            String familyName = separator < 0 ? key : key.substring(0, separator);
+            long effectiveEpochDay = separator < 0 ? RateScheduleVersions.SINCE_ALWAYS : parseEffectiveEpochDay(familyName, key.substring(separator + 1));
+            rateSchedulesByFamily.computeIfAbsent(familyName, name -> new TreeMap<>())
+                    .put(effectiveEpochDay, parseRateSchedule(familyName, properties.getProperty(key)));
+        }
+        Map<String, RateScheduleVersions> rateScheduleVersions = new HashMap<>();
+        for (Map.Entry<String, TreeMap<Long, RateSchedule>> family : rateSchedulesByFamily.entrySet()) {
+            TreeMap<Long, RateSchedule> rateSchedules = family.getValue();
+            if (rateSchedules.firstKey() != RateScheduleVersions.SINCE_ALWAYS) {
+                throw new IllegalArgumentException("Family " + family.getKey() + " needs rates without a date for the nights before " + LocalDate.ofEpochDay(rateSchedules.firstKey()));
+            }
+            long[] effectiveEpochDays = new long[rateSchedules.size()];
+            int version = 0;
+            for (long effectiveEpochDay : rateSchedules.keySet()) {
+                effectiveEpochDays[version++] = effectiveEpochDay;
+            }
+            rateScheduleVersions.put(family.getKey(), new RateScheduleVersions(effectiveEpochDays, rateSchedules.values().toArray(new RateSchedule[0])));
+        }
+        return rateScheduleVersions;
+    }
+
+    private static long parseEffectiveEpochDay(String familyName, String effectiveDate) {
+        try {
+            return LocalDate.parse(effectiveDate.trim()).toEpochDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Family " + familyName + " has rates with an effective date that is not written as yyyy-MM-dd: " + effectiveDate, e);
+        }
+    }
+
+    static RateSchedule parseRateSchedule(String familyName, String rates) {
+        String[] entries = rates.split(",");
+        int[] limitOffsets = new int[entries.length - 1];
+        int[] payPerHour = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            String[] timeAndPay = entries[i].split("=");
+            if (timeAndPay.length != 2) {
+                throw new IllegalArgumentException("Family " + familyName + " has a rate that is not written as HH:mm=payPerHour: " + entries[i].trim());
+            }
+            int offset;
+            try {
+                offset = ShiftTimeUtil.getMinutesAfterStartTime(LocalTime.parse(timeAndPay[0].trim()));
+                payPerHour[i] = Integer.parseInt(timeAndPay[1].trim());
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Family " + familyName + " has a rate that is not written as HH:mm=payPerHour: " + entries[i].trim(), e);
+            }
+            if (i == 0 && offset != 0) {
+                throw new IllegalArgumentException("The first rate of family " + familyName + " has to start at " + START_TIME);
+            }
+            if (i > 0) {
+                limitOffsets[i - 1] = offset;
+            }
+        }
+        try {
+            return new RateSchedule(limitOffsets, payPerHour);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Family " + familyName + " has invalid rates: " + e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.babysitter.registry;
+
+import com.babysitter.service.RateSchedule;
+import com.babysitter.service.RateScheduleVersions;
+import com.babysitter.service.RateSegmentTable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Immutable view of every known family. Family ids index straight into the arrays and stay stable across reloads,
+// so a removed family leaves an empty slot instead of shifting the ids after it. Every family has its effective dated
+// rate versions; getRateSchedule(familyId) is the latest one.
+public final class FamilyRegistrySnapshot {
+
+    private final String[] familyNames;
+    private final RateScheduleVersions[] rateScheduleVersions;
+    private final RateSegmentTable rateSegmentTable;
+    private final Map<String, Integer> familyIds;
+    // Open addressing table of family id + 1 by the hash of the ASCII family name, for lookups straight from bytes
+    private final byte[][] familyNameBytes;
+    private final int[] familyIdSlots;
+
+    private FamilyRegistrySnapshot(String[] familyNames, RateScheduleVersions[] rateScheduleVersions) {
+        this.familyNames = familyNames;
+        this.rateScheduleVersions = rateScheduleVersions;
+        this.rateSegmentTable = new RateSegmentTable(rateScheduleVersions);
+        this.familyIds = new HashMap<>();
+        this.familyNameBytes = new byte[familyNames.length][];
+        this.familyIdSlots = new int[Integer.highestOneBit(Math.max(familyNames.length, 1) * 4 - 1) << 1];
+        for (int familyId = 0; familyId < familyNames.length; familyId++) {
+            if (rateScheduleVersions[familyId] != null) {
+                familyIds.put(familyNames[familyId], familyId);
+                familyNameBytes[familyId] = familyNames[familyId].getBytes(StandardCharsets.UTF_8);
+                int slot = familyNames[familyId].hashCode() & (familyIdSlots.length - 1);
+                while (familyIdSlots[slot] != 0) {
+                    slot = (slot + 1) & (familyIdSlots.length - 1);
+                }
+                familyIdSlots[slot] = familyId + 1;
+            }
+        }
+    }
+
+    public static FamilyRegistrySnapshot create(Map<String, RateScheduleVersions> rateScheduleVersionsByFamily) {
+        return create(null, rateScheduleVersionsByFamily);
+    }
+
+    // New families are appended in name order after the ids already used by the previous snapshot
+    public static FamilyRegistrySnapshot create(FamilyRegistrySnapshot previous, Map<String, RateScheduleVersions> rateScheduleVersionsByFamily) {
+        List<String> familyNames = new ArrayList<>();
+        if (previous != null) {
+            familyNames.addAll(Arrays.asList(previous.familyNames));
+        }
+        for (String familyName : new TreeMap<>(rateScheduleVersionsByFamily).keySet()) {
+            if (!familyNames.contains(familyName)) {
+                familyNames.add(familyName);
+            }
+        }
+        RateScheduleVersions[] rateScheduleVersions = new RateScheduleVersions[familyNames.size()];
+        for (int familyId = 0; familyId < rateScheduleVersions.length; familyId++) {
+            rateScheduleVersions[familyId] = rateScheduleVersionsByFamily.get(familyNames.get(familyId));
+        }
+        return new FamilyRegistrySnapshot(familyNames.toArray(new String[0]), rateScheduleVersions);
+    }
+
+    public int getFamilyId(String familyName) {
+        Integer familyId = familyIds.get(familyName);
+        return familyId == null ? -1 : familyId;
+    }
+
+    // Same as getFamilyId(String) for ASCII family names, without creating a String
+    public int getFamilyId(ByteBuffer buffer, int index, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + buffer.get(index + i);
+        }
+        int slot = hash & (familyIdSlots.length - 1);
+        while (familyIdSlots[slot] != 0) {
+            int familyId = familyIdSlots[slot] - 1;
+            if (isFamilyName(familyNameBytes[familyId], buffer, index, length)) {
+                return familyId;
+            }
+            slot = (slot + 1) & (familyIdSlots.length - 1);
+        }
+        return -1;
+    }
+
+    private boolean isFamilyName(byte[] familyName, ByteBuffer buffer, int index, int length) {
+        if (familyName.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (familyName[i] != buffer.get(index + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isFamilyValid(int familyId) {
+        return familyId >= 0 && familyId < rateScheduleVersions.length && rateScheduleVersions[familyId] != null;
+    }
+
+    public String getFamilyName(int familyId) {
+        return familyNames[familyId];
+    }
+
+    // Upper bound of the family ids, including ids of families that have been removed
+    public int getFamilyIdCount() {
+        return rateScheduleVersions.length;
+    }
+
+    public RateSchedule getRateSchedule(int familyId) {
+        RateScheduleVersions versions = rateScheduleVersions[familyId];
+        return versions == null ? null : versions.getLatestRateSchedule();
+    }
+
+    // Rates of the night starting at 17:00 on nightEpochDay
+    public RateSchedule getRateSchedule(int familyId, long nightEpochDay) {
+        return rateScheduleVersions[familyId].getRateSchedule(nightEpochDay);
+    }
+
+    public RateScheduleVersions getRateScheduleVersions(int familyId) {
+        return rateScheduleVersions[familyId];
+    }
+
+    public RateSegmentTable getRateSegmentTable() {
+        return rateSegmentTable;
+    }
+
+}
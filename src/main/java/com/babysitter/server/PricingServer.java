@@ -0,0 +1,251 @@
+package com.babysitter.server;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+import com.babysitter.utils.DateUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Serves quotes over HTTP with the JDK's built in server:
+//   POST /quote   body "start,end,family"                      answers "totalPay,statusCode"
+//   POST /quotes  body one "start,end,family" line per shift   answers one "totalPay,statusCode" line per shift
+// Every request runs on its own virtual thread when the JVM has them, otherwise on a fixed pool. Single quotes of
+// concurrent requests are priced together by a QuoteBatcher; a bulk request is one batch of its own.
+public class PricingServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_MAX_BODY_SIZE = 16 * 1024 * 1024;
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final int QUOTE_QUEUE_CAPACITY = 65536;
+    private static final int FALLBACK_REQUEST_THREADS = 64;
+    private static final byte[] CSV_HEADER = "start,end,family".getBytes(StandardCharsets.US_ASCII);
+
+    private final PaymentCalculator paymentCalculator;
+    private final HttpServer httpServer;
+    private final ExecutorService requestExecutor;
+    private final QuoteBatcher quoteBatcher;
+    private final int maxBodySize;
+
+    public PricingServer(PaymentCalculator paymentCalculator, InetSocketAddress address) throws IOException {
+        this(paymentCalculator, address, DEFAULT_MAX_BODY_SIZE);
+    }
+
+    // Requests with a body of more than maxBodySize bytes are answered with 413
+    public PricingServer(PaymentCalculator paymentCalculator, InetSocketAddress address, int maxBodySize) throws IOException {
+        if (maxBodySize < 1 || maxBodySize == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The maximum body size must be positive and less than " + Integer.MAX_VALUE + ": " + maxBodySize);
+        }
+        this.paymentCalculator = paymentCalculator;
+        this.maxBodySize = maxBodySize;
+        httpServer = HttpServer.create(address, 0);
+        requestExecutor = createRequestExecutor();
+        quoteBatcher = new QuoteBatcher(paymentCalculator::calculateBatch, MAX_BATCH_SIZE, QUOTE_QUEUE_CAPACITY);
+        httpServer.setExecutor(requestExecutor);
+        httpServer.createContext("/quote", this::handleQuote);
+        httpServer.createContext("/quotes", this::handleQuotes);
+    }
+
+    // The JDK server writes the headers and the body of a response separately; with Nagle's algorithm on, a small
+    // response then waits for the client's delayed acknowledgement. The property is JVM wide and read when the first
+    // server is created, so the process that serves quotes sets it at startup, before any server exists.
+    public static void setTcpNoDelay() {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    // Virtual threads are looked up by reflection so the server also runs on JVMs that do not have them
+    public static ExecutorService createRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(FALLBACK_REQUEST_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "pricing-request");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    // Number of single quote batches and quotes priced so far; quotes / batches is the average batch size
+    public long getQuoteBatches() {
+        return quoteBatcher.getBatches();
+    }
+
+    public long getBatchedQuotes() {
+        return quoteBatcher.getQuotes();
+    }
+
+    private void handleQuote(HttpExchange exchange) throws IOException {
+        ByteBuffer body = readBody(exchange);
+        if (body == null) {
+            return;
+        }
+        int lineEnd = findLineEnd(body, 0);
+        int[] fieldPositions = new int[6];
+        findFields(body, 0, lineEnd, fieldPositions);
+        FamilyRegistrySnapshot familySnapshot = paymentCalculator.getFamilyRegistry().getSnapshot();
+        QuoteBatcher.PendingQuote pendingQuote;
+        try {
+            pendingQuote = quoteBatcher.quote(
+                    DateUtil.parseEpochMinute(body, fieldPositions[0], fieldPositions[1]),
+                    DateUtil.parseEpochMinute(body, fieldPositions[2], fieldPositions[3]),
+                    familySnapshot.getFamilyId(body, fieldPositions[4], fieldPositions[5]));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendResponse(exchange, 503, new byte[0]);
+            return;
+        } catch (IllegalStateException e) {
+            sendResponse(exchange, 500, new byte[0]);
+            return;
+        }
+        sendResponse(exchange, 200, (pendingQuote.getTotalPay() + "," + pendingQuote.getStatusCode() + "\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void handleQuotes(HttpExchange exchange) throws IOException {
+        ByteBuffer body = readBody(exchange);
+        if (body == null) {
+            return;
+        }
+        int lineStart = 0;
+        int firstLineEnd = findLineEnd(body, 0);
+        if (isCsvHeader(body, 0, firstLineEnd)) {
+            lineStart = Math.min(firstLineEnd + 1, body.limit());
+        }
+        int shiftCount = countLines(body, lineStart);
+        long[] startEpochMinutes = new long[shiftCount];
+        long[] endEpochMinutes = new long[shiftCount];
+        int[] familyIds = new int[shiftCount];
+        int[] totalPays = new int[shiftCount];
+        int[] statusCodes = new int[shiftCount];
+        int[] fieldPositions = new int[6];
+        FamilyRegistrySnapshot familySnapshot = paymentCalculator.getFamilyRegistry().getSnapshot();
+        int shift = 0;
+        while (lineStart < body.limit()) {
+            int lineEnd = findLineEnd(body, lineStart);
+            if (lineEnd > lineStart) {
+                findFields(body, lineStart, lineEnd, fieldPositions);
+                startEpochMinutes[shift] = DateUtil.parseEpochMinute(body, fieldPositions[0], fieldPositions[1]);
+                endEpochMinutes[shift] = DateUtil.parseEpochMinute(body, fieldPositions[2], fieldPositions[3]);
+                familyIds[shift] = familySnapshot.getFamilyId(body, fieldPositions[4], fieldPositions[5]);
+                shift++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        paymentCalculator.calculateBatch(familySnapshot, startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, 0, shiftCount);
+        StringBuilder response = new StringBuilder(shiftCount * 8);
+        for (int i = 0; i < shiftCount; i++) {
+            response.append(totalPays[i]).append(',').append(statusCodes[i]).append('\n');
+        }
+        sendResponse(exchange, 200, response.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // Answers 405 and returns null for anything but a POST, and 413 for a body of more than maxBodySize bytes
+    private ByteBuffer readBody(HttpExchange exchange) throws IOException {
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, new byte[0]);
+                return null;
+            }
+            byte[] body = requestBody.readNBytes(maxBodySize + 1);
+            if (body.length > maxBodySize) {
+                // The rest of the body is left unread, so the connection cannot carry another request
+                exchange.getResponseHeaders().set("Connection", "close");
+                sendResponse(exchange, 413, new byte[0]);
+                return null;
+            }
+            return ByteBuffer.wrap(body);
+        }
+    }
+
+    private void sendResponse(HttpExchange exchange, int statusCode, byte[] response) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(statusCode, response.length == 0 ? -1 : response.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(response);
+        }
+    }
+
+    // Positions and lengths of the trimmed start, end and family fields; missing fields are empty
+    private static void findFields(ByteBuffer body, int lineStart, int lineEnd, int[] fieldPositions) {
+        if (lineEnd > lineStart && body.get(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        int fieldStart = lineStart;
+        for (int field = 0; field < 3; field++) {
+            int fieldEnd = fieldStart;
+            while (fieldEnd < lineEnd && (field == 2 || body.get(fieldEnd) != ',')) {
+                fieldEnd++;
+            }
+            int trimmedStart = fieldStart;
+            int trimmedEnd = fieldEnd;
+            while (trimmedStart < trimmedEnd && body.get(trimmedStart) == ' ') {
+                trimmedStart++;
+            }
+            while (trimmedEnd > trimmedStart && body.get(trimmedEnd - 1) == ' ') {
+                trimmedEnd--;
+            }
+            fieldPositions[field * 2] = trimmedStart;
+            fieldPositions[field * 2 + 1] = trimmedEnd - trimmedStart;
+            fieldStart = Math.min(fieldEnd + 1, lineEnd);
+        }
+    }
+
+    private static int findLineEnd(ByteBuffer body, int from) {
+        while (from < body.limit() && body.get(from) != '\n') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int countLines(ByteBuffer body, int from) {
+        int lines = 0;
+        while (from < body.limit()) {
+            int lineEnd = findLineEnd(body, from);
+            if (lineEnd > from) {
+                lines++;
+            }
+            from = lineEnd + 1;
+        }
+        return lines;
+    }
+
+    private static boolean isCsvHeader(ByteBuffer body, int lineStart, int lineEnd) {
+        if (lineEnd - lineStart < CSV_HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < CSV_HEADER.length; i++) {
+            if (body.get(lineStart + i) != CSV_HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Stops taking requests, prices the quotes that are already queued and stops the request threads
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        quoteBatcher.close();
+        requestExecutor.shutdown();
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.babysitter.server;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+// Collects single quotes from concurrent requests and prices them together through calculateBatch. There is no
+// timer: every quote that arrives while a batch is being priced goes into the next one, so a quiet server prices
+// each quote at once and a busy one prices more quotes per batch. A batch that fails fails its quotes, not the batcher.
+class QuoteBatcher implements Closeable {
+
+    private final BatchPricer batchPricer;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingQuote> pendingQuotes;
+    private final List<PendingQuote> batch;
+    private final long[] startEpochMinutes;
+    private final long[] endEpochMinutes;
+    private final int[] familyIds;
+    private final int[] totalPays;
+    private final int[] statusCodes;
+    private final Thread batchThread;
+    private volatile boolean closed;
+    private long batches;
+    private long quotes;
+
+    // The pricer is called from the batch thread only, e.g. PaymentCalculator::calculateBatch
+    QuoteBatcher(BatchPricer batchPricer, int maxBatchSize, int queueCapacity) {
+        this.batchPricer = batchPricer;
+        this.maxBatchSize = maxBatchSize;
+        pendingQuotes = new ArrayBlockingQueue<>(queueCapacity);
+        batch = new ArrayList<>(maxBatchSize);
+        startEpochMinutes = new long[maxBatchSize];
+        endEpochMinutes = new long[maxBatchSize];
+        familyIds = new int[maxBatchSize];
+        totalPays = new int[maxBatchSize];
+        statusCodes = new int[maxBatchSize];
+        batchThread = new Thread(this::run, "quote-batcher");
+        batchThread.setDaemon(true);
+        batchThread.start();
+    }
+
+    // Blocks the calling request until its quote has been priced. Throws an IllegalStateException when the batcher is
+    // closed or the batch of the quote could not be priced.
+    PendingQuote quote(long startEpochMinute, long endEpochMinute, int familyId) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("The quote batcher is closed");
+        }
+        PendingQuote pendingQuote = new PendingQuote(startEpochMinute, endEpochMinute, familyId);
+        pendingQuotes.put(pendingQuote);
+        // A quote queued after the batch thread took its last quotes is never priced; whichever side removes it owns it
+        if (closed && pendingQuotes.remove(pendingQuote)) {
+            throw new IllegalStateException("The quote batcher is closed");
+        }
+        pendingQuote.done.await();
+        if (pendingQuote.failure != null) {
+            throw new IllegalStateException("The quote could not be priced", pendingQuote.failure);
+        }
+        return pendingQuote;
+    }
+
+    synchronized long getBatches() {
+        return batches;
+    }
+
+    synchronized long getQuotes() {
+        return quotes;
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                batch.add(pendingQuotes.take());
+                pendingQuotes.drainTo(batch, maxBatchSize - 1);
+                priceBatch();
+            }
+        } catch (InterruptedException e) {
+            while (pendingQuotes.drainTo(batch, maxBatchSize) > 0) {
+                priceBatch();
+            }
+        }
+    }
+
+    private void priceBatch() {
+        int size = batch.size();
+        for (int i = 0; i < size; i++) {
+            PendingQuote pendingQuote = batch.get(i);
+            startEpochMinutes[i] = pendingQuote.startEpochMinute;
+            endEpochMinutes[i] = pendingQuote.endEpochMinute;
+            familyIds[i] = pendingQuote.familyId;
+        }
+        // Errors are caught too: a dead batch thread would leave every waiting and later quote blocked for good
+        Throwable failure = null;
+        try {
+            batchPricer.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, 0, size);
+        } catch (Throwable e) {
+            failure = e;
+        }
+        for (int i = 0; i < size; i++) {
+            PendingQuote pendingQuote = batch.get(i);
+            pendingQuote.totalPay = totalPays[i];
+            pendingQuote.statusCode = statusCodes[i];
+            pendingQuote.failure = failure;
+            pendingQuote.done.countDown();
+        }
+        batch.clear();
+        synchronized (this) {
+            batches++;
+            quotes += size;
+        }
+    }
+
+    // Rejects new quotes, prices the quotes that are still queued and stops the batch thread
+    @Override
+    public void close() {
+        closed = true;
+        batchThread.interrupt();
+        try {
+            batchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static final class PendingQuote {
+
+        private final long startEpochMinute;
+        private final long endEpochMinute;
+        private final int familyId;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private int totalPay;
+        private int statusCode;
+        private Throwable failure;
+
+        private PendingQuote(long startEpochMinute, long endEpochMinute, int familyId) {
+            this.startEpochMinute = startEpochMinute;
+            this.endEpochMinute = endEpochMinute;
+            this.familyId = familyId;
+        }
+
+        int getTotalPay() {
+            return totalPay;
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+
+    }
+
+    interface BatchPricer {
+
+        int calculateBatch(long[] startEpochMinutes, long[] endEpochMinutes, int[] familyIds, int[] totalPays, int[] statusCodes, int offset, int length);
+
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.babysitter.service;
+
+// Prices many shifts of one rate schedule in one call as the sum over its segments of the pay per hour times the
+// whole hours the shift overlaps the segment, which is what RateSchedule.getTotalPay computes one shift at a time.
+// Shift i, for i from fromIndex to toIndex, runs from startOffsets[i] to endOffsets[i] minutes after 17:00 and is paid
+// by the rate schedule in the slot of the table; its pay is written to totalPays[i].
+public interface BatchPricingKernel {
+
+    String VECTOR_KERNEL_CLASS = "com.babysitter.service.VectorBatchPricingKernel";
+
+    void price(RateSegmentTable rateSegmentTable, int slot, int[] startOffsets, int[] endOffsets, int fromIndex, int toIndex, int[] totalPays);
+
+    boolean isVectorized();
+
+    // The Vector API kernel needs the JVM to run with --add-modules jdk.incubator.vector; without it the class cannot
+    // be linked and the scalar kernel is used instead
+    static BatchPricingKernel create() {
+        try {
+            return (BatchPricingKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarBatchPricingKernel();
+        }
+    }
+
+}
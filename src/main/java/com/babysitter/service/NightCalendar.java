@@ -0,0 +1,132 @@
+package com.babysitter.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.babysitter.constants.Constants.*;
+
+// Where the nights of one time zone fall in UTC epoch seconds. A night is named by the epoch day of the local date its
+// 17:00 falls on, and wall offsets are seconds of local clock time after that 17:00, the same offsets a RateSchedule
+// uses. Each night keeps the UTC second of its 17:00 and at most one offset transition, so turning a wall offset into
+// an epoch second is a few comparisons; ZoneRules is only read when a block of nights is first used. A night with two
+// transitions is treated as having only the first.
+public final class NightCalendar {
+
+    private static final int BLOCK_SHIFT = 8;
+    private static final int NIGHTS_PER_BLOCK = 1 << BLOCK_SHIFT;
+    private static final long FIRST_CACHED_EPOCH_DAY = LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final long LAST_CACHED_EPOCH_DAY = LocalDate.of(2200, 1, 1).toEpochDay();
+    private static final int BLOCK_COUNT = (int) ((LAST_CACHED_EPOCH_DAY - FIRST_CACHED_EPOCH_DAY) >> BLOCK_SHIFT) + 1;
+    private static final long NO_TRANSITION = Long.MAX_VALUE;
+    private static final ConcurrentMap<ZoneId, NightCalendar> NIGHT_CALENDARS = new ConcurrentHashMap<>();
+
+    private final ZoneId zone;
+    private final ZoneRules zoneRules;
+    private final AtomicReferenceArray<Block> blocks = new AtomicReferenceArray<>(BLOCK_COUNT);
+
+    private NightCalendar(ZoneId zone) {
+        this.zone = zone;
+        zoneRules = zone.getRules();
+    }
+
+    // One calendar per zone for the whole JVM, so every calculator shares the nights already worked out
+    public static NightCalendar of(ZoneId zone) {
+        NightCalendar nightCalendar = NIGHT_CALENDARS.get(zone);
+        return nightCalendar != null ? nightCalendar : NIGHT_CALENDARS.computeIfAbsent(zone, NightCalendar::new);
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    // The night whose 17:00 is the last one at or before epochSecond; the second may still be after its 04:00
+    public long getNightEpochDay(long epochSecond) {
+        long nightEpochDay = Math.floorDiv(epochSecond - START_TIME_MINUTE_OF_DAY * SECONDS_PER_MINUTE, SECONDS_PER_DAY);
+        while (getNightStartEpochSecond(nightEpochDay + 1) <= epochSecond) {
+            nightEpochDay++;
+        }
+        while (getNightStartEpochSecond(nightEpochDay) > epochSecond) {
+            nightEpochDay--;
+        }
+        return nightEpochDay;
+    }
+
+    public long getNightStartEpochSecond(long nightEpochDay) {
+        Block block = getBlock(nightEpochDay);
+        return block.nightStartEpochSeconds[block.getNight(nightEpochDay)];
+    }
+
+    public long getNightEndEpochSecond(long nightEpochDay) {
+        return getEpochSecond(nightEpochDay, WORKABLE_MINUTES * SECONDS_PER_MINUTE);
+    }
+
+    // A wall offset skipped by the change to summer time is the moment of the change, so later offsets never come
+    // out earlier; one repeated by the change back is its first occurrence, as ZonedDateTime resolves it
+    public long getEpochSecond(long nightEpochDay, int wallOffsetSeconds) {
+        Block block = getBlock(nightEpochDay);
+        int night = block.getNight(nightEpochDay);
+        long epochSecond = block.nightStartEpochSeconds[night] + wallOffsetSeconds;
+        long transitionEpochSecond = block.transitionEpochSeconds[night];
+        if (epochSecond < transitionEpochSecond) {
+            return epochSecond;
+        }
+        return Math.max(transitionEpochSecond, epochSecond - block.offsetChangeSeconds[night]);
+    }
+
+    // Nights outside the cached years get a block of their own that is not kept
+    private Block getBlock(long nightEpochDay) {
+        if (nightEpochDay < FIRST_CACHED_EPOCH_DAY || nightEpochDay >= LAST_CACHED_EPOCH_DAY) {
+            return new Block(nightEpochDay, 1);
+        }
+        int blockIndex = (int) ((nightEpochDay - FIRST_CACHED_EPOCH_DAY) >> BLOCK_SHIFT);
+        Block block = blocks.get(blockIndex);
+        if (block == null) {
+            // Two threads may build the same block; both build the same nights, so either one can win
+            block = new Block(FIRST_CACHED_EPOCH_DAY + ((long) blockIndex << BLOCK_SHIFT), NIGHTS_PER_BLOCK);
+            blocks.compareAndSet(blockIndex, null, block);
+        }
+        return block;
+    }
+
+    private long toEpochSecond(long epochDay, int minuteOfDay) {
+        return LocalDate.ofEpochDay(epochDay).atTime(minuteOfDay / MINUTES_PER_HOUR, minuteOfDay % MINUTES_PER_HOUR).atZone(zone).toEpochSecond();
+    }
+
+    private final class Block {
+
+        private final long firstNightEpochDay;
+        private final long[] nightStartEpochSeconds;
+        private final long[] transitionEpochSeconds;
+        private final int[] offsetChangeSeconds;
+
+        private Block(long firstNightEpochDay, int nightCount) {
+            this.firstNightEpochDay = firstNightEpochDay;
+            nightStartEpochSeconds = new long[nightCount];
+            transitionEpochSeconds = new long[nightCount];
+            offsetChangeSeconds = new int[nightCount];
+            for (int night = 0; night < nightCount; night++) {
+                long nightEpochDay = firstNightEpochDay + night;
+                long nightStartEpochSecond = toEpochSecond(nightEpochDay, START_TIME_MINUTE_OF_DAY);
+                nightStartEpochSeconds[night] = nightStartEpochSecond;
+                transitionEpochSeconds[night] = NO_TRANSITION;
+                ZoneOffsetTransition transition = zoneRules.isFixedOffset() ? null : zoneRules.nextTransition(Instant.ofEpochSecond(nightStartEpochSecond));
+                if (transition != null && transition.toEpochSecond() <= toEpochSecond(nightEpochDay + 1, END_TIME_MINUTE_OF_DAY)) {
+                    transitionEpochSeconds[night] = transition.toEpochSecond();
+                    offsetChangeSeconds[night] = transition.getOffsetAfter().getTotalSeconds() - transition.getOffsetBefore().getTotalSeconds();
+                }
+            }
+        }
+
+        private int getNight(long nightEpochDay) {
+            return (int) (nightEpochDay - firstNightEpochDay);
+        }
+
+    }
+
+}
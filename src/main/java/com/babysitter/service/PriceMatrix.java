@@ -0,0 +1,64 @@
+package com.babysitter.service;
+
+import static com.babysitter.constants.Constants.WORKABLE_MINUTES;
+
+// The total pay of every shift of one family, stored as a triangular matrix with one row per start offset holding
+// the end offsets from the start to the end of the night. Prices are kept in a char array when the highest pay of
+// the family fits, which halves the memory of the int array used otherwise.
+public final class PriceMatrix {
+
+    private static final int POSITIONS = WORKABLE_MINUTES + 1;
+    private static final int[] ROW_OFFSETS = createRowOffsets();
+    private static final int CELLS = ROW_OFFSETS[POSITIONS - 1] + 1;
+
+    private final char[] smallPrices;
+    private final int[] prices;
+    private final long buildNanos;
+
+    PriceMatrix(RateSchedule rateSchedule) {
+        long startNanos = System.nanoTime();
+        if (rateSchedule.getTotalPay(0, WORKABLE_MINUTES) <= Character.MAX_VALUE) {
+            smallPrices = new char[CELLS];
+            prices = null;
+            for (int startOffset = 0; startOffset < POSITIONS; startOffset++) {
+                int rowOffset = ROW_OFFSETS[startOffset] - startOffset;
+                for (int endOffset = startOffset; endOffset < POSITIONS; endOffset++) {
+                    smallPrices[rowOffset + endOffset] = (char) rateSchedule.getTotalPay(startOffset, endOffset);
+                }
+            }
+        } else {
+            smallPrices = null;
+            prices = new int[CELLS];
+            for (int startOffset = 0; startOffset < POSITIONS; startOffset++) {
+                int rowOffset = ROW_OFFSETS[startOffset] - startOffset;
+                for (int endOffset = startOffset; endOffset < POSITIONS; endOffset++) {
+                    prices[rowOffset + endOffset] = rateSchedule.getTotalPay(startOffset, endOffset);
+                }
+            }
+        }
+        buildNanos = System.nanoTime() - startNanos;
+    }
+
+    private static int[] createRowOffsets() {
+        int[] rowOffsets = new int[POSITIONS];
+        for (int startOffset = 1; startOffset < POSITIONS; startOffset++) {
+            rowOffsets[startOffset] = rowOffsets[startOffset - 1] + POSITIONS - (startOffset - 1);
+        }
+        return rowOffsets;
+    }
+
+    // Same contract as RateSchedule.getTotalPay
+    public int getTotalPay(int startOffset, int endOffset) {
+        int index = ROW_OFFSETS[startOffset] + endOffset - startOffset;
+        return smallPrices != null ? smallPrices[index] : prices[index];
+    }
+
+    public long getMemoryBytes() {
+        return smallPrices != null ? (long) smallPrices.length * Character.BYTES : (long) prices.length * Integer.BYTES;
+    }
+
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+}
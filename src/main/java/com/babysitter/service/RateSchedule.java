@@ -0,0 +1,176 @@
+package com.babysitter.service;
+
+import com.babysitter.enums.RoundingPolicyEnum;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.babysitter.constants.Constants.MINUTES_PER_HOUR;
+import static com.babysitter.constants.Constants.SECONDS_PER_HOUR;
+import static com.babysitter.constants.Constants.SECONDS_PER_MINUTE;
+import static com.babysitter.constants.Constants.WORKABLE_MINUTES;
+
+// Pay rules of one family compiled over the workable window. Offsets are minutes after the 17:00 start of the night.
+// Hours are truncated per rate segment, the same way TimeAndPayService pays each side of a limit separately.
+public final class RateSchedule {
+
+    private final int[] limitOffsets;
+    private final int[] payPerHour;
+    private final int[] segmentStartOffsets;
+    private final int[] startSegments;
+    private final int[] endSegments;
+    private final int[] payBeforeStartOffset;
+    private final int[] payUntilEndOffset;
+    private final AtomicBoolean isPriceMatrixClaimed = new AtomicBoolean();
+    private volatile PriceMatrix priceMatrix;
+
+    public RateSchedule(int[] limitOffsets, int[] payPerHour) {
+        if (payPerHour.length != limitOffsets.length + 1) {
+            throw new IllegalArgumentException("A rate schedule needs exactly one more pay per hour than limits");
+        }
+        int segmentCount = payPerHour.length;
+        segmentStartOffsets = new int[segmentCount + 1];
+        segmentStartOffsets[segmentCount] = WORKABLE_MINUTES;
+        for (int i = 0; i < limitOffsets.length; i++) {
+            if (limitOffsets[i] <= segmentStartOffsets[i] || limitOffsets[i] >= WORKABLE_MINUTES) {
+                throw new IllegalArgumentException("Limits must be increasing and inside the workable hours: " + Arrays.toString(limitOffsets));
+            }
+            segmentStartOffsets[i + 1] = limitOffsets[i];
+        }
+        for (int pay : payPerHour) {
+            if (pay < 0) {
+                throw new IllegalArgumentException("Pay per hour cannot be negative: " + Arrays.toString(payPerHour));
+            }
+        }
+        this.limitOffsets = limitOffsets.clone();
+        this.payPerHour = payPerHour.clone();
+
+        int[] cumulativePay = new int[segmentCount + 1];
+        for (int segment = 0; segment < segmentCount; segment++) {
+            int segmentHours = (segmentStartOffsets[segment + 1] - segmentStartOffsets[segment]) / MINUTES_PER_HOUR;
+            cumulativePay[segment + 1] = cumulativePay[segment] + this.payPerHour[segment] * segmentHours;
+        }
+
+        startSegments = new int[WORKABLE_MINUTES + 1];
+        endSegments = new int[WORKABLE_MINUTES + 1];
+        payBeforeStartOffset = new int[WORKABLE_MINUTES + 1];
+        payUntilEndOffset = new int[WORKABLE_MINUTES + 1];
+        for (int offset = 0; offset <= WORKABLE_MINUTES; offset++) {
+            int startSegment = findSegment(offset, segmentCount);
+            int endSegment = offset == 0 ? 0 : findSegment(offset - 1, segmentCount);
+            int startSegmentEnd = segmentStartOffsets[startSegment + 1];
+            startSegments[offset] = startSegment;
+            endSegments[offset] = endSegment;
+            payBeforeStartOffset[offset] = cumulativePay[startSegment + 1] - this.payPerHour[startSegment] * ((startSegmentEnd - offset) / MINUTES_PER_HOUR);
+            payUntilEndOffset[offset] = cumulativePay[endSegment] + this.payPerHour[endSegment] * ((offset - segmentStartOffsets[endSegment]) / MINUTES_PER_HOUR);
+        }
+    }
+
+    private int findSegment(int offset, int segmentCount) {
+        int segment = 0;
+        while (segment < segmentCount - 1 && offset >= segmentStartOffsets[segment + 1]) {
+            segment++;
+        }
+        return segment;
+    }
+
+    // Both offsets must be within 0 and WORKABLE_MINUTES with startOffset <= endOffset
+    public int getTotalPay(int startOffset, int endOffset) {
+        int startSegment = startSegments[startOffset];
+        if (endSegments[endOffset] <= startSegment) {
+            return payPerHour[startSegment] * ((endOffset - startOffset) / MINUTES_PER_HOUR);
+        }
+        return payUntilEndOffset[endOffset] - payBeforeStartOffset[startOffset];
+    }
+
+    // Pay in cents with every segment the shift overlaps rounded by the policy; TRUNCATE_TO_HOUR is getTotalPay * 100
+    public long getTotalPayCents(int startOffset, int endOffset, RoundingPolicyEnum roundingPolicy) {
+        long totalPayCents = 0;
+        int endSegment = endSegments[endOffset];
+        for (int segment = startSegments[startOffset]; segment <= endSegment; segment++) {
+            int minutes = Math.min(endOffset, segmentStartOffsets[segment + 1]) - Math.max(startOffset, segmentStartOffsets[segment]);
+            if (minutes > 0) {
+                totalPayCents = Math.addExact(totalPayCents, roundingPolicy.getCents(payPerHour[segment], minutes));
+            }
+        }
+        return totalPayCents;
+    }
+
+    // Pays the real time a shift overlaps each rate: the limits are local clock times, so on the night the clocks
+    // change a segment can be an hour longer or shorter than its offsets say. The shift must lie within the night.
+    public int getTotalPay(NightCalendar nightCalendar, long nightEpochDay, long startEpochSecond, long endEpochSecond) {
+        int totalPay = 0;
+        long segmentStartEpochSecond = nightCalendar.getNightStartEpochSecond(nightEpochDay);
+        for (int segment = 0; segment < payPerHour.length && segmentStartEpochSecond < endEpochSecond; segment++) {
+            long segmentEndEpochSecond = nightCalendar.getEpochSecond(nightEpochDay, segmentStartOffsets[segment + 1] * SECONDS_PER_MINUTE);
+            long seconds = Math.min(endEpochSecond, segmentEndEpochSecond) - Math.max(startEpochSecond, segmentStartEpochSecond);
+            if (seconds > 0) {
+                totalPay += payPerHour[segment] * (int) (seconds / SECONDS_PER_HOUR);
+            }
+            segmentStartEpochSecond = segmentEndEpochSecond;
+        }
+        return totalPay;
+    }
+
+    // Reads the price matrix once it is built. The first caller builds it; every other caller uses the computed path
+    // until it is published, so a family whose rules just changed never waits for its new matrix.
+    public int getTotalPayFromPriceMatrix(int startOffset, int endOffset) {
+        PriceMatrix priceMatrix = this.priceMatrix;
+        if (priceMatrix == null) {
+            if (!isPriceMatrixClaimed.compareAndSet(false, true)) {
+                return getTotalPay(startOffset, endOffset);
+            }
+            priceMatrix = buildPriceMatrix();
+        }
+        return priceMatrix.getTotalPay(startOffset, endOffset);
+    }
+
+    // Builds the matrix now instead of on first use and returns it, e.g. to report its memory and build time at startup
+    public PriceMatrix getPriceMatrix() {
+        PriceMatrix priceMatrix = this.priceMatrix;
+        if (priceMatrix == null) {
+            isPriceMatrixClaimed.set(true);
+            priceMatrix = buildPriceMatrix();
+        }
+        return priceMatrix;
+    }
+
+    private PriceMatrix buildPriceMatrix() {
+        PriceMatrix priceMatrix = new PriceMatrix(this);
+        this.priceMatrix = priceMatrix;
+        return priceMatrix;
+    }
+
+    public int getSegmentCount() {
+        return payPerHour.length;
+    }
+
+    // Segment the minute at offset is paid in
+    public int getSegment(int offset) {
+        return startSegments[offset];
+    }
+
+    // Offset at which segment starts; getSegmentStartOffset(getSegmentCount()) is WORKABLE_MINUTES
+    public int getSegmentStartOffset(int segment) {
+        return segmentStartOffsets[segment];
+    }
+
+    public int getPayPerHour(int segment) {
+        return payPerHour[segment];
+    }
+
+    // True when both schedules pay every shift the same, e.g. a family that was reloaded without changing its rates
+    public boolean hasSameRates(RateSchedule rateSchedule) {
+        return rateSchedule == this || (rateSchedule != null && Arrays.equals(limitOffsets, rateSchedule.limitOffsets)
+                && Arrays.equals(payPerHour, rateSchedule.payPerHour));
+    }
+
+    public int[] getLimitOffsets() {
+        return limitOffsets.clone();
+    }
+
+    public int[] getPayPerHour() {
+        return payPerHour.clone();
+    }
+
+}
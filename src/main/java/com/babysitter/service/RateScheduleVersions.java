@@ -0,0 +1,71 @@
+package com.babysitter.service;
+
+import java.util.Arrays;
+
+// Rate schedules of one family by the epoch day of the first night they apply to, sorted by that day. The first
+// version also applies to every earlier night, so a night always has rates. A family whose rates never changed has a
+// single version and is never searched.
+public final class RateScheduleVersions {
+
+    public static final long SINCE_ALWAYS = Long.MIN_VALUE;
+
+    private final long[] effectiveEpochDays;
+    private final RateSchedule[] rateSchedules;
+
+    public RateScheduleVersions(long[] effectiveEpochDays, RateSchedule[] rateSchedules) {
+        if (effectiveEpochDays.length == 0 || effectiveEpochDays.length != rateSchedules.length) {
+            throw new IllegalArgumentException("Rate schedule versions need one effective day per rate schedule");
+        }
+        for (int version = 1; version < effectiveEpochDays.length; version++) {
+            if (effectiveEpochDays[version] <= effectiveEpochDays[version - 1]) {
+                throw new IllegalArgumentException("Effective days must be increasing: " + Arrays.toString(effectiveEpochDays));
+            }
+        }
+        this.effectiveEpochDays = effectiveEpochDays.clone();
+        this.rateSchedules = rateSchedules.clone();
+    }
+
+    public static RateScheduleVersions of(RateSchedule rateSchedule) {
+        return new RateScheduleVersions(new long[]{SINCE_ALWAYS}, new RateSchedule[]{rateSchedule});
+    }
+
+    // nightEpochDay is the epoch day of the 17:00 start of the night
+    public RateSchedule getRateSchedule(long nightEpochDay) {
+        if (rateSchedules.length == 1) {
+            return rateSchedules[0];
+        }
+        return rateSchedules[getVersion(nightEpochDay)];
+    }
+
+    // Index of the last version effective on or before the night, 0 for nights before the first version
+    public int getVersion(long nightEpochDay) {
+        int low = 1;
+        int high = effectiveEpochDays.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (effectiveEpochDays[middle] <= nightEpochDay) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low - 1;
+    }
+
+    public int getVersionCount() {
+        return rateSchedules.length;
+    }
+
+    public long getEffectiveEpochDay(int version) {
+        return effectiveEpochDays[version];
+    }
+
+    public RateSchedule getRateScheduleOfVersion(int version) {
+        return rateSchedules[version];
+    }
+
+    public RateSchedule getLatestRateSchedule() {
+        return rateSchedules[rateSchedules.length - 1];
+    }
+
+}
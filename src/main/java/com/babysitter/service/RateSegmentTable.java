@@ -0,0 +1,65 @@
+package com.babysitter.service;
+
+// The segments of every rate schedule version of a snapshot flattened into arrays for BatchPricingKernel. Each version
+// has a slot, numbered by getSlot(familyId, version), of getStride() segments; a schedule with fewer segments pads
+// its slot with empty segments, which overlap no shift and pay nothing.
+public final class RateSegmentTable {
+
+    private static final int NO_SLOT = -1;
+
+    private final int stride;
+    private final int slotCount;
+    private final int[] firstSlots;
+    final int[] segmentStarts;
+    final int[] segmentEnds;
+    final int[] payPerHour;
+
+    public RateSegmentTable(RateScheduleVersions[] rateScheduleVersions) {
+        int stride = 1;
+        int slotCount = 0;
+        firstSlots = new int[rateScheduleVersions.length];
+        for (int familyId = 0; familyId < rateScheduleVersions.length; familyId++) {
+            RateScheduleVersions versions = rateScheduleVersions[familyId];
+            if (versions == null) {
+                firstSlots[familyId] = NO_SLOT;
+                continue;
+            }
+            firstSlots[familyId] = slotCount;
+            slotCount += versions.getVersionCount();
+            for (int version = 0; version < versions.getVersionCount(); version++) {
+                stride = Math.max(stride, versions.getRateScheduleOfVersion(version).getSegmentCount());
+            }
+        }
+        this.stride = stride;
+        this.slotCount = slotCount;
+        segmentStarts = new int[slotCount * stride];
+        segmentEnds = new int[slotCount * stride];
+        payPerHour = new int[slotCount * stride];
+        for (int familyId = 0; familyId < rateScheduleVersions.length; familyId++) {
+            RateScheduleVersions versions = rateScheduleVersions[familyId];
+            for (int version = 0; versions != null && version < versions.getVersionCount(); version++) {
+                RateSchedule rateSchedule = versions.getRateScheduleOfVersion(version);
+                int slotIndex = getSlot(familyId, version) * stride;
+                for (int segment = 0; segment < rateSchedule.getSegmentCount(); segment++) {
+                    segmentStarts[slotIndex + segment] = rateSchedule.getSegmentStartOffset(segment);
+                    segmentEnds[slotIndex + segment] = rateSchedule.getSegmentStartOffset(segment + 1);
+                    payPerHour[slotIndex + segment] = rateSchedule.getPayPerHour(segment);
+                }
+            }
+        }
+    }
+
+    // Segments per slot, the most segments of any rate schedule
+    public int getStride() {
+        return stride;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int getSlot(int familyId, int version) {
+        return firstSlots[familyId] + version;
+    }
+
+}
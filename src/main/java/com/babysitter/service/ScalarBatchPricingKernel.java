@@ -0,0 +1,31 @@
+package com.babysitter.service;
+
+import static com.babysitter.constants.Constants.MINUTES_PER_HOUR;
+
+public final class ScalarBatchPricingKernel implements BatchPricingKernel {
+
+    @Override
+    public void price(RateSegmentTable rateSegmentTable, int slot, int[] startOffsets, int[] endOffsets, int fromIndex, int toIndex, int[] totalPays) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            totalPays[i] = price(rateSegmentTable, slot, startOffsets[i], endOffsets[i]);
+        }
+    }
+
+    static int price(RateSegmentTable rateSegmentTable, int slot, int startOffset, int endOffset) {
+        int totalPay = 0;
+        int firstSegment = slot * rateSegmentTable.getStride();
+        for (int segment = firstSegment; segment < firstSegment + rateSegmentTable.getStride(); segment++) {
+            int overlap = Math.min(endOffset, rateSegmentTable.segmentEnds[segment]) - Math.max(startOffset, rateSegmentTable.segmentStarts[segment]);
+            if (overlap > 0) {
+                totalPay += rateSegmentTable.payPerHour[segment] * (overlap / MINUTES_PER_HOUR);
+            }
+        }
+        return totalPay;
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return false;
+    }
+
+}
@@ -1,9 +1,19 @@
 package com.babysitter.service;
 
+import com.babysitter.enums.RoundingPolicyEnum;
+import com.babysitter.utils.ShiftTimeUtil;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
 
-public class TimeAndPayService {
+// Keeps no state, so the shared instance serves every calculator and thread
+public final class TimeAndPayService {
+
+    private static final TimeAndPayService INSTANCE = new TimeAndPayService();
+
+    public static TimeAndPayService getInstance() {
+        return INSTANCE;
+    }
 
     public int getTotalPayForSingleTimeLimit(LocalDateTime startDateTime, LocalDateTime endDateTime, LocalDateTime limitDateTime, Integer payPerHourBeforeTimeLimit, Integer payPerHourAfterTimeLimit) {
         int totalPay = 0;
@@ -42,6 +52,44 @@ public class TimeAndPayService {
         return totalPay;
     }
 
+    // The single limit rule in cents, each side of the limit rounded by the policy
+    public long getTotalPayCentsForSingleTimeLimit(LocalDateTime startDateTime, LocalDateTime endDateTime, LocalDateTime limitDateTime, int payPerHourBeforeTimeLimit, int payPerHourAfterTimeLimit, RoundingPolicyEnum roundingPolicy) {
+        long minutesBeforeLimit = getDifferenceInMinutes(startDateTime, endDateTime.isBefore(limitDateTime) ? endDateTime : limitDateTime);
+        long minutesAfterLimit = getDifferenceInMinutes(startDateTime.isAfter(limitDateTime) ? startDateTime : limitDateTime, endDateTime);
+        return Math.addExact(calculatePaymentCentsBasedOnMinutes(minutesBeforeLimit, payPerHourBeforeTimeLimit, roundingPolicy),
+                calculatePaymentCentsBasedOnMinutes(minutesAfterLimit, payPerHourAfterTimeLimit, roundingPolicy));
+    }
+
+    // The double limit rule in cents, each of the three rates rounded by the policy
+    public long getTotalPayCentsForDoubleTimeLimit(LocalDateTime startDateTime, LocalDateTime endDateTime, LocalDateTime firstLimit, LocalDateTime secondLimit, int payPerHourBeforeFirstLimit, int payPerHourBetweenLimits, int payPerHourAfterSecondLimit, RoundingPolicyEnum roundingPolicy) {
+        long minutesBeforeFirstLimit = getDifferenceInMinutes(startDateTime, endDateTime.isBefore(firstLimit) ? endDateTime : firstLimit);
+        long payCentsBeforeFirstLimit = calculatePaymentCentsBasedOnMinutes(minutesBeforeFirstLimit, payPerHourBeforeFirstLimit, roundingPolicy);
+        LocalDateTime startFromFirstLimit = startDateTime.isAfter(firstLimit) ? startDateTime : firstLimit;
+        if (!endDateTime.isAfter(startFromFirstLimit)) {
+            return payCentsBeforeFirstLimit;
+        }
+        return Math.addExact(payCentsBeforeFirstLimit, getTotalPayCentsForSingleTimeLimit(startFromFirstLimit, endDateTime, secondLimit, payPerHourBetweenLimits, payPerHourAfterSecondLimit, roundingPolicy));
+    }
+
+    public long getTotalPayCentsForRateSchedule(RateScheduleVersions rateScheduleVersions, long startEpochMinute, long endEpochMinute, RoundingPolicyEnum roundingPolicy) {
+        long nightStartEpochMinute = ShiftTimeUtil.getNightStartEpochMinute(startEpochMinute);
+        RateSchedule rateSchedule = rateScheduleVersions.getRateSchedule(ShiftTimeUtil.getEpochDay(nightStartEpochMinute));
+        return rateSchedule.getTotalPayCents((int) (startEpochMinute - nightStartEpochMinute), (int) (endEpochMinute - nightStartEpochMinute), roundingPolicy);
+    }
+
+    // Prices with the version in effect on the night of the shift
+    public int getTotalPayForRateSchedule(RateScheduleVersions rateScheduleVersions, long startEpochMinute, long endEpochMinute) {
+        long nightStartEpochMinute = ShiftTimeUtil.getNightStartEpochMinute(startEpochMinute);
+        RateSchedule rateSchedule = rateScheduleVersions.getRateSchedule(ShiftTimeUtil.getEpochDay(nightStartEpochMinute));
+        return rateSchedule.getTotalPay((int) (startEpochMinute - nightStartEpochMinute), (int) (endEpochMinute - nightStartEpochMinute));
+    }
+
+    public int getTotalPayForPriceMatrix(RateScheduleVersions rateScheduleVersions, long startEpochMinute, long endEpochMinute) {
+        long nightStartEpochMinute = ShiftTimeUtil.getNightStartEpochMinute(startEpochMinute);
+        RateSchedule rateSchedule = rateScheduleVersions.getRateSchedule(ShiftTimeUtil.getEpochDay(nightStartEpochMinute));
+        return rateSchedule.getTotalPayFromPriceMatrix((int) (startEpochMinute - nightStartEpochMinute), (int) (endEpochMinute - nightStartEpochMinute));
+    }
+
     public int calcuatePaymentBasedOnTimes(LocalDateTime startDateTime, LocalDateTime endDateTime, int payPerHour) {
         int totalHours = getDifferenceInHours(startDateTime, endDateTime);
         return calculatePaymentBasedOnHours(totalHours, payPerHour);
@@ -55,4 +103,13 @@ public class TimeAndPayService {
     public int calculatePaymentBasedOnHours(int hours, int payPerHour) {
         return payPerHour * hours;
     }
+
+    // Zero for an end before the start
+    public long getDifferenceInMinutes(LocalDateTime startDateTime, LocalDateTime endDateTime) {
+        return Math.max(0, Duration.between(startDateTime, endDateTime).toMinutes());
+    }
+
+    public long calculatePaymentCentsBasedOnMinutes(long minutes, int payPerHour, RoundingPolicyEnum roundingPolicy) {
+        return roundingPolicy.getCents(payPerHour, minutes);
+    }
 }
@@ -0,0 +1,51 @@
+package com.babysitter.service;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static com.babysitter.constants.Constants.WORKABLE_MINUTES;
+
+// Prices a vector of shifts per step against the segments of one rate schedule broadcast to every lane. Only loaded by
+// BatchPricingKernel.create when the jdk.incubator.vector module is present.
+final class VectorBatchPricingKernel implements BatchPricingKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    // Whole hours as (minutes * 1093) >>> 16, which equals minutes / 60 for up to 1498 minutes and has no vector division
+    private static final int HOUR_RECIPROCAL = 1093;
+    private static final int HOUR_RECIPROCAL_SHIFT = 16;
+
+    static {
+        if (WORKABLE_MINUTES > 1498) {
+            throw new IllegalStateException("Whole hours cannot be computed with a reciprocal over " + WORKABLE_MINUTES + " minutes");
+        }
+    }
+
+    @Override
+    public void price(RateSegmentTable rateSegmentTable, int slot, int[] startOffsets, int[] endOffsets, int fromIndex, int toIndex, int[] totalPays) {
+        int stride = rateSegmentTable.getStride();
+        int firstSegment = slot * stride;
+        int vectorEnd = fromIndex + SPECIES.loopBound(toIndex - fromIndex);
+        int i = fromIndex;
+        for (; i < vectorEnd; i += SPECIES.length()) {
+            IntVector startOffset = IntVector.fromArray(SPECIES, startOffsets, i);
+            IntVector endOffset = IntVector.fromArray(SPECIES, endOffsets, i);
+            IntVector totalPay = IntVector.zero(SPECIES);
+            for (int segment = firstSegment; segment < firstSegment + stride; segment++) {
+                IntVector overlap = endOffset.min(rateSegmentTable.segmentEnds[segment]).sub(startOffset.max(rateSegmentTable.segmentStarts[segment])).max(0);
+                IntVector hours = overlap.mul(HOUR_RECIPROCAL).lanewise(VectorOperators.LSHR, HOUR_RECIPROCAL_SHIFT);
+                totalPay = totalPay.add(hours.mul(rateSegmentTable.payPerHour[segment]));
+            }
+            totalPay.intoArray(totalPays, i);
+        }
+        for (; i < toIndex; i++) {
+            totalPays[i] = ScalarBatchPricingKernel.price(rateSegmentTable, slot, startOffsets[i], endOffsets[i]);
+        }
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
+}
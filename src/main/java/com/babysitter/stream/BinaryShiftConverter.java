@@ -0,0 +1,113 @@
+package com.babysitter.stream;
+
+import com.babysitter.codec.ShiftRecordCodec;
+import com.babysitter.utils.DateUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Converts a CSV file of start,end,family lines with times written as yyyy-MM-dd HH:mm into a binary shift file of
+// 12 bytes per shift instead of about 40. Times that cannot be parsed are kept as invalid times, so pricing the binary
+// file gives every record the same status code as pricing the CSV file.
+public class BinaryShiftConverter {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final byte[] CSV_HEADER = "start,end,family".getBytes();
+
+    // Returns the number of records written
+    public static long convert(Path textFile, Path binaryFile) throws IOException {
+        try (InputStream input = Files.newInputStream(textFile);
+             BinaryShiftWriter writer = new BinaryShiftWriter(binaryFile)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            // Start index and length of the start, end and family fields of the current line
+            int[] fieldPositions = new int[6];
+            int length = 0;
+            boolean isFirstLine = true;
+            while (true) {
+                int read = input.read(buffer, length, buffer.length - length);
+                boolean isEnd = read < 0;
+                length += Math.max(read, 0);
+                int lineStart = 0;
+                while (lineStart < length) {
+                    int lineEnd = indexOf(buffer, (byte) '\n', lineStart, length);
+                    if (lineEnd < 0) {
+                        if (!isEnd) {
+                            break;
+                        }
+                        lineEnd = length;
+                    }
+                    int contentEnd = lineEnd > lineStart && buffer[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                    if (contentEnd > lineStart) {
+                        if (!isFirstLine || !startsWith(buffer, lineStart, contentEnd, CSV_HEADER)) {
+                            writeRecord(writer, buffer, lineStart, contentEnd, fieldPositions);
+                        }
+                        isFirstLine = false;
+                    }
+                    lineStart = lineEnd + 1;
+                }
+                if (isEnd) {
+                    return writer.getRecordCount();
+                }
+                if (lineStart == 0 && length == buffer.length) {
+                    byte[] grown = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, grown, 0, length);
+                    buffer = grown;
+                    continue;
+                }
+                length -= Math.min(lineStart, length);
+                System.arraycopy(buffer, lineStart, buffer, 0, length);
+            }
+        }
+    }
+
+    private static void writeRecord(BinaryShiftWriter writer, byte[] line, int lineStart, int lineEnd, int[] fields) throws IOException {
+        int fieldStart = lineStart;
+        for (int field = 0; field < 3; field++) {
+            int fieldEnd = field < 2 ? indexOf(line, (byte) ',', fieldStart, lineEnd) : -1;
+            if (fieldEnd < 0) {
+                fieldEnd = lineEnd;
+            }
+            int trimmedStart = fieldStart;
+            int trimmedEnd = fieldEnd;
+            while (trimmedStart < trimmedEnd && line[trimmedStart] == ' ') {
+                trimmedStart++;
+            }
+            while (trimmedEnd > trimmedStart && line[trimmedEnd - 1] == ' ') {
+                trimmedEnd--;
+            }
+            fields[field * 2] = trimmedStart;
+            fields[field * 2 + 1] = trimmedEnd - trimmedStart;
+            fieldStart = Math.min(fieldEnd + 1, lineEnd);
+        }
+        writer.write(parseTime(line, fields[0], fields[1]), parseTime(line, fields[2], fields[3]), line, fields[4], fields[5]);
+    }
+
+    private static long parseTime(byte[] line, int offset, int length) {
+        long epochMinute = DateUtil.parseEpochMinute(line, offset, length);
+        return ShiftRecordCodec.isEncodable(epochMinute) ? epochMinute : DateUtil.INVALID_EPOCH_MINUTE;
+    }
+
+    private static int indexOf(byte[] buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(byte[] buffer, int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer[from + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
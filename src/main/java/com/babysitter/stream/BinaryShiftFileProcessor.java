@@ -0,0 +1,108 @@
+package com.babysitter.stream;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.codec.ShiftRecordCodec;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.babysitter.constants.Constants.STATUS_FAMILY_BLANK;
+import static com.babysitter.constants.Constants.STATUS_INVALID_FAMILY;
+import static com.babysitter.constants.Constants.STATUS_VALID;
+
+// Prices a file written by BinaryShiftWriter straight from memory mapped chunks of its records and writes the total
+// pay and status code of every record as two ints, RESULT_SIZE bytes per record in the order of the input.
+public class BinaryShiftFileProcessor {
+
+    public static final int RESULT_SIZE = 8;
+    public static final int DEFAULT_CHUNK_RECORDS = 4 * 1024 * 1024;
+    private static final int BATCH_SIZE = 4096;
+
+    private final PaymentCalculator paymentCalculator;
+    private final int chunkRecords;
+    private final int[] totalPays = new int[BATCH_SIZE];
+    private final int[] statusCodes = new int[BATCH_SIZE];
+
+    public BinaryShiftFileProcessor(PaymentCalculator paymentCalculator) {
+        this(paymentCalculator, DEFAULT_CHUNK_RECORDS);
+    }
+
+    public BinaryShiftFileProcessor(PaymentCalculator paymentCalculator, int chunkRecords) {
+        this.paymentCalculator = paymentCalculator;
+        this.chunkRecords = chunkRecords;
+    }
+
+    // Not thread safe, use one processor per thread
+    public ShiftFileSummary process(Path inputFile, Path outputFile) throws IOException {
+        FamilyRegistrySnapshot familySnapshot = paymentCalculator.getFamilyRegistry().getSnapshot();
+        long pricedRecords = 0;
+        long totalPay = 0;
+        try (FileChannel inputChannel = FileChannel.open(inputFile, StandardOpenOption.READ);
+             FileChannel outputChannel = FileChannel.open(outputFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(BinaryShiftWriter.HEADER_SIZE);
+            readFully(inputChannel, header, 0);
+            if (header.getInt(0) != BinaryShiftWriter.MAGIC || header.getInt(4) != BinaryShiftWriter.VERSION) {
+                throw new IOException("Not a binary shift file: " + inputFile);
+            }
+            long recordCount = header.getLong(BinaryShiftWriter.RECORD_COUNT_POSITION);
+            int[] familyIds = readFamilyIds(inputChannel, header.getLong(BinaryShiftWriter.FAMILY_TABLE_POSITION), familySnapshot);
+
+            ByteBuffer output = ByteBuffer.allocateDirect(BATCH_SIZE * RESULT_SIZE);
+            for (long firstRecord = 0; firstRecord < recordCount; firstRecord += chunkRecords) {
+                int chunkLength = (int) Math.min(chunkRecords, recordCount - firstRecord);
+                MappedByteBuffer chunk = inputChannel.map(FileChannel.MapMode.READ_ONLY,
+                        BinaryShiftWriter.HEADER_SIZE + firstRecord * ShiftRecordCodec.RECORD_SIZE, (long) chunkLength * ShiftRecordCodec.RECORD_SIZE);
+                for (int batchStart = 0; batchStart < chunkLength; batchStart += BATCH_SIZE) {
+                    int batchLength = Math.min(BATCH_SIZE, chunkLength - batchStart);
+                    pricedRecords += paymentCalculator.calculateEncodedBatch(familySnapshot, chunk, batchStart, familyIds, totalPays, statusCodes, 0, batchLength);
+                    output.clear();
+                    for (int i = 0; i < batchLength; i++) {
+                        // A missing family is blank, as in the text file it came from; a blank time is stored as an invalid one
+                        if (ShiftRecordCodec.getFamilyId(chunk, batchStart + i) == ShiftRecordCodec.MISSING_FAMILY) {
+                            statusCodes[i] = statusCodes[i] & ~STATUS_INVALID_FAMILY | STATUS_FAMILY_BLANK;
+                        }
+                        if (statusCodes[i] == STATUS_VALID) {
+                            totalPay += totalPays[i];
+                        }
+                        output.putInt(totalPays[i]);
+                        output.putInt(statusCodes[i]);
+                    }
+                    output.flip();
+                    while (output.hasRemaining()) {
+                        outputChannel.write(output);
+                    }
+                }
+            }
+            return new ShiftFileSummary(recordCount, pricedRecords, totalPay);
+        }
+    }
+
+    // The family id of the registry for every family index of the file, -1 for families the registry does not know
+    private static int[] readFamilyIds(FileChannel inputChannel, long familyTablePosition, FamilyRegistrySnapshot familySnapshot) throws IOException {
+        ByteBuffer familyTable = ByteBuffer.allocate((int) (inputChannel.size() - familyTablePosition));
+        readFully(inputChannel, familyTable, familyTablePosition);
+        familyTable.flip();
+        int[] familyIds = new int[familyTable.getInt()];
+        for (int familyIndex = 0; familyIndex < familyIds.length; familyIndex++) {
+            byte[] familyName = new byte[familyTable.getShort()];
+            familyTable.get(familyName);
+            familyIds[familyIndex] = familySnapshot.getFamilyId(new String(familyName, StandardCharsets.UTF_8));
+        }
+        return familyIds;
+    }
+
+    private static void readFully(FileChannel fileChannel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (fileChannel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("The binary shift file ends early");
+            }
+        }
+    }
+
+}
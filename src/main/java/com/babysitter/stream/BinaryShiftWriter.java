@@ -0,0 +1,143 @@
+package com.babysitter.stream;
+
+import com.babysitter.codec.ShiftRecordCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Writes a binary shift file:
+//   header        magic, version, the number of records and the position of the family table
+//   records       ShiftRecordCodec records whose family id is the index of the family name in the family table
+//   family table  the number of families, then the length and the UTF-8 bytes of every family name
+// A family name gets its index the first time it is written, so the file does not depend on the ids of any registry.
+public class BinaryShiftWriter implements Closeable {
+
+    public static final int MAGIC = 0x42534846;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_COUNT_POSITION = 8;
+    public static final int FAMILY_TABLE_POSITION = 16;
+    // The family table stores name lengths as shorts, which the reader reads back signed
+    public static final int MAX_FAMILY_NAME_LENGTH = Short.MAX_VALUE;
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final FileChannel fileChannel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final List<byte[]> familyNames = new ArrayList<>();
+    // Open addressing table of family index + 1 by the hash of the family name, kept at most half full
+    private int[] familyIndexSlots = new int[16];
+    private long recordCount;
+
+    public BinaryShiftWriter(Path file) throws IOException {
+        fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        fileChannel.position(HEADER_SIZE);
+    }
+
+    public void write(long startEpochMinute, long endEpochMinute, String family) throws IOException {
+        byte[] familyName = family == null ? new byte[0] : family.getBytes(StandardCharsets.UTF_8);
+        write(startEpochMinute, endEpochMinute, familyName, 0, familyName.length);
+    }
+
+    // An empty family name is stored as a missing family
+    public void write(long startEpochMinute, long endEpochMinute, byte[] family, int offset, int length) throws IOException {
+        if (buffer.remaining() < ShiftRecordCodec.RECORD_SIZE) {
+            flush();
+        }
+        ShiftRecordCodec.putRecord(buffer, startEpochMinute, endEpochMinute, getFamilyIndex(family, offset, length));
+        recordCount++;
+    }
+
+    private int getFamilyIndex(byte[] family, int offset, int length) {
+        if (length == 0) {
+            return ShiftRecordCodec.MISSING_FAMILY;
+        }
+        if (length > MAX_FAMILY_NAME_LENGTH) {
+            throw new IllegalArgumentException("A family name cannot be longer than " + MAX_FAMILY_NAME_LENGTH + " bytes: " + length);
+        }
+        int slot = hash(family, offset, length) & (familyIndexSlots.length - 1);
+        while (familyIndexSlots[slot] != 0) {
+            byte[] familyName = familyNames.get(familyIndexSlots[slot] - 1);
+            if (Arrays.equals(familyName, 0, familyName.length, family, offset, offset + length)) {
+                return familyIndexSlots[slot] - 1;
+            }
+            slot = (slot + 1) & (familyIndexSlots.length - 1);
+        }
+        familyNames.add(Arrays.copyOfRange(family, offset, offset + length));
+        familyIndexSlots[slot] = familyNames.size();
+        if (familyNames.size() * 2 > familyIndexSlots.length) {
+            growFamilyIndexSlots();
+        }
+        return familyNames.size() - 1;
+    }
+
+    private void growFamilyIndexSlots() {
+        familyIndexSlots = new int[familyIndexSlots.length * 2];
+        for (int familyIndex = 0; familyIndex < familyNames.size(); familyIndex++) {
+            byte[] familyName = familyNames.get(familyIndex);
+            int slot = hash(familyName, 0, familyName.length) & (familyIndexSlots.length - 1);
+            while (familyIndexSlots[slot] != 0) {
+                slot = (slot + 1) & (familyIndexSlots.length - 1);
+            }
+            familyIndexSlots[slot] = familyIndex + 1;
+        }
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Writes the family table and then the header, so a file that was not closed is never mistaken for a complete one
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            long familyTablePosition = fileChannel.position();
+            ByteBuffer familyTable = ByteBuffer.allocate(4 + familyNames.stream().mapToInt(familyName -> 2 + familyName.length).sum());
+            familyTable.putInt(familyNames.size());
+            for (byte[] familyName : familyNames) {
+                familyTable.putShort((short) familyName.length);
+                familyTable.put(familyName);
+            }
+            familyTable.flip();
+            while (familyTable.hasRemaining()) {
+                fileChannel.write(familyTable);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putLong(RECORD_COUNT_POSITION, recordCount);
+            header.putLong(FAMILY_TABLE_POSITION, familyTablePosition);
+            while (header.hasRemaining()) {
+                fileChannel.write(header, header.position());
+            }
+        } finally {
+            fileChannel.close();
+        }
+    }
+
+}
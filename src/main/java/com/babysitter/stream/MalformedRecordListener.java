@@ -0,0 +1,12 @@
+package com.babysitter.stream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Told about every record of a file that could not be read, with the byte offset of its line in the file and the
+// STATUS_MALFORMED_RECORD flags it failed. The line is only valid during the call.
+public interface MalformedRecordListener {
+
+    void onMalformedRecord(long byteOffset, int statusCode, ByteBuffer line, int index, int length) throws IOException;
+
+}
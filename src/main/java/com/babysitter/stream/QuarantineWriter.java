@@ -0,0 +1,77 @@
+package com.babysitter.stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Writes every malformed record as a byteOffset,statusCode,line line, so a feed that sends a million bad rows costs
+// a copy into one buffer per row instead of an exception and a message. Not thread safe.
+public class QuarantineWriter implements MalformedRecordListener, Closeable {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_PREFIX_LENGTH = 48;
+
+    private final FileChannel fileChannel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long quarantinedRecords;
+
+    public QuarantineWriter(Path file) throws IOException {
+        fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    public void onMalformedRecord(long byteOffset, int statusCode, ByteBuffer line, int index, int length) throws IOException {
+        if (buffer.remaining() < length + MAX_PREFIX_LENGTH) {
+            flush();
+            if (buffer.capacity() < length + MAX_PREFIX_LENGTH) {
+                buffer = ByteBuffer.allocateDirect(length + MAX_PREFIX_LENGTH);
+            }
+        }
+        putLong(byteOffset);
+        buffer.put((byte) ',');
+        putLong(statusCode);
+        buffer.put((byte) ',');
+        for (int i = 0; i < length; i++) {
+            buffer.put(line.get(index + i));
+        }
+        buffer.put((byte) '\n');
+        quarantinedRecords++;
+    }
+
+    public long getQuarantinedRecords() {
+        return quarantinedRecords;
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            fileChannel.close();
+        }
+    }
+
+    // Offsets and status codes are never negative
+    private void putLong(long value) {
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            buffer.put((byte) ('0' + value / divisor % 10));
+            divisor /= 10;
+        }
+    }
+
+}
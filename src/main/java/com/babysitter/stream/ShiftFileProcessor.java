@@ -0,0 +1,364 @@
+package com.babysitter.stream;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+import com.babysitter.utils.DateUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.babysitter.constants.Constants.STATUS_END_TIME_BLANK;
+import static com.babysitter.constants.Constants.STATUS_FAMILY_BLANK;
+import static com.babysitter.constants.Constants.STATUS_INVALID_FAMILY;
+import static com.babysitter.constants.Constants.STATUS_MALFORMED_RECORD;
+import static com.babysitter.constants.Constants.STATUS_START_TIME_BLANK;
+import static com.babysitter.constants.Constants.STATUS_VALID;
+
+// Streams a CSV file of start,end,family lines or an NDJSON file of {"start":..,"end":..,"family":..} objects through
+// the calculator. The input is memory mapped one chunk at a time and parsed straight from the mapped bytes, records are
+// priced in fixed size batches and the results are written through one reusable buffer, so memory use does not grow
+// with the size of the file. Every record is written back with its total pay and status code appended, and a record
+// that cannot be read is also handed to the MalformedRecordListener with its byte offset, never thrown.
+public class ShiftFileProcessor {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int BATCH_SIZE = 4096;
+    private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_OUTPUT_OVERHEAD = 128;
+
+    private static final byte[] CSV_HEADER = "start,end,family".getBytes();
+    private static final byte[] CSV_RESULT_HEADER = ",totalPay,statusCode".getBytes();
+    private static final byte[] START_KEY = "start".getBytes();
+    private static final byte[] END_KEY = "end".getBytes();
+    private static final byte[] FAMILY_KEY = "family".getBytes();
+    private static final byte[] JSON_START = "{\"start\":\"".getBytes();
+    private static final byte[] JSON_END = "\",\"end\":\"".getBytes();
+    private static final byte[] JSON_FAMILY = "\",\"family\":\"".getBytes();
+    private static final byte[] JSON_TOTAL_PAY = "\",\"totalPay\":".getBytes();
+    private static final byte[] JSON_STATUS_CODE = ",\"statusCode\":".getBytes();
+
+    private final PaymentCalculator paymentCalculator;
+    private final int chunkSize;
+
+    private final long[] startEpochMinutes = new long[BATCH_SIZE];
+    private final long[] endEpochMinutes = new long[BATCH_SIZE];
+    private final int[] familyIds = new int[BATCH_SIZE];
+    private final int[] totalPays = new int[BATCH_SIZE];
+    private final int[] statusCodes = new int[BATCH_SIZE];
+    // Start index and length of the start, end and family fields of every record in the current chunk
+    private final int[] fieldPositions = new int[BATCH_SIZE * 6];
+    private final int[] lineStarts = new int[BATCH_SIZE];
+    private final int[] lineEnds = new int[BATCH_SIZE];
+    private int batchSize;
+    private long chunkPosition;
+
+    private ByteBuffer output;
+    private MalformedRecordListener malformedRecordListener;
+    private FileChannel outputChannel;
+    private long records;
+    private long pricedRecords;
+    private long totalPay;
+    private long malformedRecords;
+
+    public ShiftFileProcessor(PaymentCalculator paymentCalculator) {
+        this(paymentCalculator, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ShiftFileProcessor(PaymentCalculator paymentCalculator, int chunkSize) {
+        this.paymentCalculator = paymentCalculator;
+        this.chunkSize = chunkSize;
+    }
+
+    public ShiftFileSummary process(Path inputFile, Path outputFile) throws IOException {
+        return process(inputFile, outputFile, null);
+    }
+
+    // Not thread safe, use one processor per thread
+    public ShiftFileSummary process(Path inputFile, Path outputFile, MalformedRecordListener malformedRecordListener) throws IOException {
+        records = 0;
+        pricedRecords = 0;
+        totalPay = 0;
+        malformedRecords = 0;
+        batchSize = 0;
+        this.malformedRecordListener = malformedRecordListener;
+        output = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+        FamilyRegistrySnapshot familySnapshot = paymentCalculator.getFamilyRegistry().getSnapshot();
+
+        try (FileChannel inputChannel = FileChannel.open(inputFile, StandardOpenOption.READ);
+             FileChannel outputChannel = FileChannel.open(outputFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            this.outputChannel = outputChannel;
+            long fileSize = inputChannel.size();
+            long position = 0;
+            Boolean isJson = null;
+            boolean isFirstLine = true;
+
+            while (position < fileSize) {
+                int mappedSize = (int) Math.min(chunkSize, fileSize - position);
+                MappedByteBuffer chunk = inputChannel.map(FileChannel.MapMode.READ_ONLY, position, mappedSize);
+                chunkPosition = position;
+                boolean isLastChunk = position + mappedSize == fileSize;
+                int lineStart = 0;
+
+                while (lineStart < mappedSize) {
+                    int lineEnd = indexOf(chunk, (byte) '\n', lineStart, mappedSize);
+                    if (lineEnd < 0) {
+                        if (!isLastChunk) {
+                            break;
+                        }
+                        lineEnd = mappedSize;
+                    }
+                    int contentEnd = lineEnd > lineStart && chunk.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                    if (contentEnd > lineStart) {
+                        if (isJson == null) {
+                            isJson = chunk.get(lineStart) == '{';
+                        }
+                        if (isFirstLine && !isJson && startsWith(chunk, lineStart, contentEnd, CSV_HEADER)) {
+                            writeCsvHeader(chunk, lineStart, contentEnd);
+                        } else {
+                            addRecord(chunk, lineStart, contentEnd, isJson, familySnapshot);
+                        }
+                        isFirstLine = false;
+                    }
+                    lineStart = lineEnd + 1;
+                }
+
+                if (lineStart == 0 && position + mappedSize < fileSize) {
+                    throw new IOException("A line starting at byte " + position + " is longer than the chunk size of " + chunkSize + " bytes");
+                }
+                flushBatch(chunk, isJson != null && isJson);
+                position += Math.min(lineStart, mappedSize);
+            }
+            flushOutput();
+        }
+        output = null;
+        this.outputChannel = null;
+        this.malformedRecordListener = null;
+        return new ShiftFileSummary(records, pricedRecords, totalPay, malformedRecords);
+    }
+
+    private void addRecord(ByteBuffer chunk, int lineStart, int lineEnd, boolean isJson, FamilyRegistrySnapshot familySnapshot) throws IOException {
+        int fieldIndex = batchSize * 6;
+        if (isJson) {
+            findJsonFields(chunk, lineStart, lineEnd, fieldIndex);
+        } else {
+            findCsvFields(chunk, lineStart, lineEnd, fieldIndex);
+        }
+        startEpochMinutes[batchSize] = DateUtil.parseEpochMinute(chunk, fieldPositions[fieldIndex], fieldPositions[fieldIndex + 1]);
+        endEpochMinutes[batchSize] = DateUtil.parseEpochMinute(chunk, fieldPositions[fieldIndex + 2], fieldPositions[fieldIndex + 3]);
+        familyIds[batchSize] = familySnapshot.getFamilyId(chunk, fieldPositions[fieldIndex + 4], fieldPositions[fieldIndex + 5]);
+        lineStarts[batchSize] = lineStart;
+        lineEnds[batchSize] = lineEnd;
+        batchSize++;
+        if (batchSize == BATCH_SIZE) {
+            flushBatch(chunk, isJson);
+        }
+    }
+
+    private void findCsvFields(ByteBuffer chunk, int lineStart, int lineEnd, int fieldIndex) {
+        int fieldStart = lineStart;
+        for (int field = 0; field < 3; field++) {
+            int fieldEnd = field < 2 ? indexOf(chunk, (byte) ',', fieldStart, lineEnd) : -1;
+            if (fieldEnd < 0) {
+                fieldEnd = lineEnd;
+            }
+            int trimmedStart = fieldStart;
+            int trimmedEnd = fieldEnd;
+            while (trimmedStart < trimmedEnd && chunk.get(trimmedStart) == ' ') {
+                trimmedStart++;
+            }
+            while (trimmedEnd > trimmedStart && chunk.get(trimmedEnd - 1) == ' ') {
+                trimmedEnd--;
+            }
+            fieldPositions[fieldIndex + field * 2] = trimmedStart;
+            fieldPositions[fieldIndex + field * 2 + 1] = trimmedEnd - trimmedStart;
+            fieldStart = Math.min(fieldEnd + 1, lineEnd);
+        }
+    }
+
+    // Reads the string values of the start, end and family keys of a flat JSON object; values are not unescaped.
+    // A missing key is an empty field, which is reported as blank.
+    private void findJsonFields(ByteBuffer chunk, int lineStart, int lineEnd, int fieldIndex) {
+        for (int field = 0; field < 3; field++) {
+            fieldPositions[fieldIndex + field * 2] = lineStart;
+            fieldPositions[fieldIndex + field * 2 + 1] = 0;
+        }
+        int index = lineStart;
+        while (true) {
+            int keyStart = indexOf(chunk, (byte) '"', index, lineEnd) + 1;
+            if (keyStart == 0) {
+                return;
+            }
+            int keyEnd = indexOf(chunk, (byte) '"', keyStart, lineEnd);
+            if (keyEnd < 0) {
+                return;
+            }
+            index = skipSpaces(chunk, keyEnd + 1, lineEnd);
+            if (index >= lineEnd || chunk.get(index) != ':') {
+                continue;
+            }
+            index = skipSpaces(chunk, index + 1, lineEnd);
+            if (index >= lineEnd || chunk.get(index) != '"') {
+                continue;
+            }
+            int valueStart = index + 1;
+            int valueEnd = indexOf(chunk, (byte) '"', valueStart, lineEnd);
+            if (valueEnd < 0) {
+                return;
+            }
+            int field = equalsKey(chunk, keyStart, keyEnd, START_KEY) ? 0
+                    : equalsKey(chunk, keyStart, keyEnd, END_KEY) ? 1
+                    : equalsKey(chunk, keyStart, keyEnd, FAMILY_KEY) ? 2 : -1;
+            if (field >= 0) {
+                fieldPositions[fieldIndex + field * 2] = valueStart;
+                fieldPositions[fieldIndex + field * 2 + 1] = valueEnd - valueStart;
+            }
+            index = valueEnd + 1;
+        }
+    }
+
+    private void flushBatch(ByteBuffer chunk, boolean isJson) throws IOException {
+        if (batchSize == 0) {
+            return;
+        }
+        pricedRecords += paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, 0, batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            statusCodes[i] = addBlankFields(statusCodes[i], chunk, i * 6);
+            if (statusCodes[i] == STATUS_VALID) {
+                totalPay += totalPays[i];
+            } else if (malformedRecordListener != null && (statusCodes[i] & STATUS_MALFORMED_RECORD) != 0) {
+                malformedRecords++;
+                malformedRecordListener.onMalformedRecord(chunkPosition + lineStarts[i], statusCodes[i] & STATUS_MALFORMED_RECORD, chunk, lineStarts[i], lineEnds[i] - lineStarts[i]);
+            }
+            int fieldIndex = i * 6;
+            ensureOutputCapacity(lineEnds[i] - lineStarts[i]);
+            if (isJson) {
+                output.put(JSON_START);
+                copy(chunk, fieldPositions[fieldIndex], fieldPositions[fieldIndex + 1]);
+                output.put(JSON_END);
+                copy(chunk, fieldPositions[fieldIndex + 2], fieldPositions[fieldIndex + 3]);
+                output.put(JSON_FAMILY);
+                copy(chunk, fieldPositions[fieldIndex + 4], fieldPositions[fieldIndex + 5]);
+                output.put(JSON_TOTAL_PAY);
+                putInt(totalPays[i]);
+                output.put(JSON_STATUS_CODE);
+                putInt(statusCodes[i]);
+                output.put((byte) '}');
+            } else {
+                copy(chunk, lineStarts[i], lineEnds[i] - lineStarts[i]);
+                output.put((byte) ',');
+                putInt(totalPays[i]);
+                output.put((byte) ',');
+                putInt(statusCodes[i]);
+            }
+            output.put((byte) '\n');
+        }
+        records += batchSize;
+        batchSize = 0;
+    }
+
+    // Whitespace only fields get the blank flags validate gives them, and the rules that need a blank field are off
+    private int addBlankFields(int statusCode, ByteBuffer chunk, int fieldIndex) {
+        int blankFields = (isBlank(chunk, fieldPositions[fieldIndex], fieldPositions[fieldIndex + 1]) ? STATUS_START_TIME_BLANK : 0)
+                | (isBlank(chunk, fieldPositions[fieldIndex + 2], fieldPositions[fieldIndex + 3]) ? STATUS_END_TIME_BLANK : 0)
+                | (isBlank(chunk, fieldPositions[fieldIndex + 4], fieldPositions[fieldIndex + 5]) ? STATUS_FAMILY_BLANK : 0);
+        if ((blankFields & STATUS_FAMILY_BLANK) != 0) {
+            statusCode &= ~STATUS_INVALID_FAMILY;
+        }
+        if ((blankFields & (STATUS_START_TIME_BLANK | STATUS_END_TIME_BLANK)) != 0) {
+            statusCode &= STATUS_INVALID_FAMILY;
+        }
+        return statusCode | blankFields;
+    }
+
+    private void writeCsvHeader(ByteBuffer chunk, int lineStart, int lineEnd) throws IOException {
+        ensureOutputCapacity(lineEnd - lineStart);
+        copy(chunk, lineStart, lineEnd - lineStart);
+        output.put(CSV_RESULT_HEADER);
+        output.put((byte) '\n');
+    }
+
+    private void ensureOutputCapacity(int length) throws IOException {
+        if (output.remaining() < length + MAX_OUTPUT_OVERHEAD) {
+            flushOutput();
+            if (output.capacity() < length + MAX_OUTPUT_OVERHEAD) {
+                output = ByteBuffer.allocateDirect(length + MAX_OUTPUT_OVERHEAD);
+            }
+        }
+    }
+
+    private void flushOutput() throws IOException {
+        output.flip();
+        while (output.hasRemaining()) {
+            outputChannel.write(output);
+        }
+        output.clear();
+    }
+
+    private void copy(ByteBuffer chunk, int index, int length) {
+        for (int i = 0; i < length; i++) {
+            output.put(chunk.get(index + i));
+        }
+    }
+
+    private void putInt(int value) {
+        if (value < 0) {
+            output.put((byte) '-');
+            value = -value;
+        }
+        int divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            output.put((byte) ('0' + value / divisor % 10));
+            divisor /= 10;
+        }
+    }
+
+    // The whitespace rule of PaymentCalculator.isBlank; bytes of multi byte characters are negative and never blank
+    private static boolean isBlank(ByteBuffer buffer, int from, int length) {
+        for (int i = from; i < from + length; i++) {
+            if (!Character.isWhitespace(buffer.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipSpaces(ByteBuffer buffer, int from, int to) {
+        while (from < to && buffer.get(from) == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(from + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsKey(ByteBuffer buffer, int from, int to, byte[] key) {
+        return to - from == key.length && startsWith(buffer, from, to, key);
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.babysitter.stream;
+
+public class ShiftFileSummary {
+
+    private final long records;
+    private final long pricedRecords;
+    private final long totalPay;
+    private final long malformedRecords;
+
+    public ShiftFileSummary(long records, long pricedRecords, long totalPay) {
+        this(records, pricedRecords, totalPay, 0);
+    }
+
+    public ShiftFileSummary(long records, long pricedRecords, long totalPay, long malformedRecords) {
+        this.records = records;
+        this.pricedRecords = pricedRecords;
+        this.totalPay = totalPay;
+        this.malformedRecords = malformedRecords;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getPricedRecords() {
+        return pricedRecords;
+    }
+
+    public long getRejectedRecords() {
+        return records - pricedRecords;
+    }
+
+    // Rejected records that could not be read at all; only counted when the file was processed with a listener
+    public long getMalformedRecords() {
+        return malformedRecords;
+    }
+
+    public long getTotalPay() {
+        return totalPay;
+    }
+
+}
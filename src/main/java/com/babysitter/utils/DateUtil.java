@@ -2,24 +2,114 @@ package com.babysitter.utils;
 
 import com.babysitter.exception.InvalidTimeFormatException;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.ZoneOffset;
+
+import static com.babysitter.constants.Constants.MINUTES_PER_DAY;
+import static com.babysitter.constants.Constants.MINUTES_PER_HOUR;
 
 public class DateUtil {
 
+    public static final long INVALID_EPOCH_MINUTE = Long.MIN_VALUE;
+
+    // Parses the fixed "yyyy-MM-dd HH:mm" layout
+    private static final int DATE_TIME_LENGTH = 16;
+    private static final int TIME_LENGTH = 5;
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
     public static LocalDateTime convertStringIntoLocalDateTime(String date) throws InvalidTimeFormatException {
-        LocalDateTime dateTime;
-        DateTimeFormatter formatter = DateTimeFormatter
-                .ofPattern("yyyy-MM-dd HH:mm");
-
-        try {
-            dateTime = LocalDateTime.parse(date, formatter);
-        } catch (DateTimeParseException e) {
-            System.out.println("The start time or end time is in an invalid format! Please use the format: \"yyyy-MM-dd HH:mm\" and please ensure that the times are correct");
+        long epochMinute = convertStringIntoEpochMinute(date);
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    public static long convertStringIntoEpochMinute(CharSequence date) throws InvalidTimeFormatException {
+        long epochMinute = parseEpochMinute(date);
+        if (epochMinute == INVALID_EPOCH_MINUTE) {
             throw new InvalidTimeFormatException("The start or end time format is not correct and could not be parsed correctly");
         }
-        return dateTime;
+        return epochMinute;
+    }
+
+    // Returns INVALID_EPOCH_MINUTE instead of throwing so bulk callers can carry on with the next record
+    public static long parseEpochMinute(CharSequence date) {
+        if (date == null || date.length() != DATE_TIME_LENGTH
+                || date.charAt(4) != '-' || date.charAt(7) != '-' || date.charAt(10) != ' ' || date.charAt(13) != ':') {
+            return INVALID_EPOCH_MINUTE;
+        }
+        int year = digit(date.charAt(0)) * 1000 + digit(date.charAt(1)) * 100 + digit(date.charAt(2)) * 10 + digit(date.charAt(3));
+        int month = digit(date.charAt(5)) * 10 + digit(date.charAt(6));
+        int day = digit(date.charAt(8)) * 10 + digit(date.charAt(9));
+        int hour = digit(date.charAt(11)) * 10 + digit(date.charAt(12));
+        int minute = digit(date.charAt(14)) * 10 + digit(date.charAt(15));
+        return toEpochMinute(year, month, day, hour, minute);
+    }
+
+    // Shares the parsing of the ByteBuffer overload; the wrapper reads the array in place without copying it
+    public static long parseEpochMinute(byte[] bytes, int offset, int length) {
+        return parseEpochMinute(ByteBuffer.wrap(bytes), offset, length);
+    }
+
+    public static long parseEpochMinute(ByteBuffer buffer, int index, int length) {
+        if (length != DATE_TIME_LENGTH
+                || buffer.get(index + 4) != '-' || buffer.get(index + 7) != '-' || buffer.get(index + 10) != ' ' || buffer.get(index + 13) != ':') {
+            return INVALID_EPOCH_MINUTE;
+        }
+        int year = digit(buffer.get(index)) * 1000 + digit(buffer.get(index + 1)) * 100 + digit(buffer.get(index + 2)) * 10 + digit(buffer.get(index + 3));
+        int month = digit(buffer.get(index + 5)) * 10 + digit(buffer.get(index + 6));
+        int day = digit(buffer.get(index + 8)) * 10 + digit(buffer.get(index + 9));
+        int hour = digit(buffer.get(index + 11)) * 10 + digit(buffer.get(index + 12));
+        int minute = digit(buffer.get(index + 14)) * 10 + digit(buffer.get(index + 15));
+        return toEpochMinute(year, month, day, hour, minute);
+    }
+
+    // Minute of the day of a "HH:mm" time, -1 when it cannot be parsed. Reads the built in limits without loading
+    // the java.time.format classes LocalTime.parse needs.
+    public static int parseMinuteOfDay(CharSequence time) {
+        if (time == null || time.length() != TIME_LENGTH || time.charAt(2) != ':') {
+            return -1;
+        }
+        int hour = digit(time.charAt(0)) * 10 + digit(time.charAt(1));
+        int minute = digit(time.charAt(3)) * 10 + digit(time.charAt(4));
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return -1;
+        }
+        return hour * MINUTES_PER_HOUR + minute;
+    }
+
+    // Any non digit makes its field negative, which the range checks below reject
+    private static int digit(int character) {
+        int digit = character - '0';
+        return digit >= 0 && digit <= 9 ? digit : -10000;
+    }
+
+    private static long toEpochMinute(int year, int month, int day, int hour, int minute) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > getDaysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return INVALID_EPOCH_MINUTE;
+        }
+        return getEpochDay(year, month, day) * MINUTES_PER_DAY + hour * MINUTES_PER_HOUR + minute;
+    }
+
+    private static int getDaysInMonth(int year, int month) {
+        if (month == 2 && isLeapYear(year)) {
+            return 29;
+        }
+        return DAYS_IN_MONTH[month - 1];
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    // Days since 1970-01-01 for a proleptic Gregorian date with a positive year
+    private static long getEpochDay(int year, int month, int day) {
+        int adjustedYear = month <= 2 ? year - 1 : year;
+        int era = adjustedYear / 400;
+        int yearOfEra = adjustedYear - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
     }
 
 }
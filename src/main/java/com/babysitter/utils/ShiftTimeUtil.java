@@ -0,0 +1,56 @@
+package com.babysitter.utils;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static com.babysitter.constants.Constants.*;
+
+// Epoch minutes are minutes since 1970-01-01 00:00 in the same local time the shifts are written in
+public class ShiftTimeUtil {
+
+    public static long toEpochMinute(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toEpochDay() * MINUTES_PER_DAY + dateTime.getHour() * MINUTES_PER_HOUR + dateTime.getMinute();
+    }
+
+    public static int getMinuteOfDay(long epochMinute) {
+        return (int) Math.floorMod(epochMinute, (long) MINUTES_PER_DAY);
+    }
+
+    public static long getEpochDay(long epochMinute) {
+        return Math.floorDiv(epochMinute, (long) MINUTES_PER_DAY);
+    }
+
+    // The night a shift belongs to starts at 17:00 on the same day, or on the previous day for early morning times
+    public static long getNightStartEpochMinute(long epochMinute) {
+        long epochDay = getEpochDay(epochMinute);
+        if (getMinuteOfDay(epochMinute) <= END_TIME_MINUTE_OF_DAY) {
+            epochDay--;
+        }
+        return epochDay * MINUTES_PER_DAY + START_TIME_MINUTE_OF_DAY;
+    }
+
+    public static long getNightEndEpochMinute(long nightStartEpochMinute) {
+        return nightStartEpochMinute + WORKABLE_MINUTES;
+    }
+
+    public static int getMinutesAfterStartTime(LocalTime time) {
+        return getMinutesAfterStartTime(time.getHour() * MINUTES_PER_HOUR + time.getMinute());
+    }
+
+    public static int getMinutesAfterStartTime(int minuteOfDay) {
+        return Math.floorMod(minuteOfDay - START_TIME_MINUTE_OF_DAY, MINUTES_PER_DAY);
+    }
+
+    public static boolean isStartTimeBeforeOrEqualToEndTime(long startEpochMinute, long endEpochMinute) {
+        return startEpochMinute <= endEpochMinute;
+    }
+
+    public static boolean areTimesWithinWorkableHours(long startEpochMinute, long endEpochMinute) {
+        int startMinuteOfDay = getMinuteOfDay(startEpochMinute);
+        if (startMinuteOfDay < START_TIME_MINUTE_OF_DAY && startMinuteOfDay > END_TIME_MINUTE_OF_DAY) {
+            return false;
+        }
+        return endEpochMinute <= getNightEndEpochMinute(getNightStartEpochMinute(startEpochMinute));
+    }
+
+}
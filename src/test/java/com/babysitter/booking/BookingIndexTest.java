@@ -0,0 +1,94 @@
+package com.babysitter.booking;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.enums.FamilyEnum;
+import com.babysitter.utils.ShiftTimeUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+
+import static com.babysitter.constants.Constants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BookingIndexTest {
+
+    private static final int A = FamilyEnum.A.ordinal();
+    private static final int B = FamilyEnum.B.ordinal();
+    private static final int C = FamilyEnum.C.ordinal();
+
+    private BookingIndex bookingIndex;
+    private long nightStart;
+
+    @Before
+    public void setUp() {
+        bookingIndex = new BookingIndex(new PaymentCalculator());
+        nightStart = ShiftTimeUtil.toEpochMinute(LocalDateTime.of(2020, 3, 21, 17, 0));
+    }
+
+    @Test
+    public void whenAShiftOverlapsABookingOfTheSitterOrTheFamilyThenItIsRejectedWithTheDoubleBookedFlags() {
+        assertEquals(STATUS_VALID, bookingIndex.book(1, 7, A, nightStart + 60, nightStart + 180));
+
+        assertEquals(STATUS_SITTER_DOUBLE_BOOKED, bookingIndex.book(2, 7, B, nightStart + 120, nightStart + 240));
+        assertEquals(STATUS_FAMILY_DOUBLE_BOOKED, bookingIndex.book(3, 8, A, nightStart, nightStart + 61));
+        assertEquals(STATUS_SITTER_DOUBLE_BOOKED | STATUS_FAMILY_DOUBLE_BOOKED, bookingIndex.book(4, 7, A, nightStart + 90, nightStart + 100));
+        // Shifts that only touch the booking do not overlap it
+        assertEquals(STATUS_VALID, bookingIndex.book(5, 7, A, nightStart + 180, nightStart + 240));
+        assertEquals(STATUS_VALID, bookingIndex.book(6, 7, C, nightStart, nightStart + 60));
+        assertEquals(3, bookingIndex.getSitterBookings(7).size());
+        assertEquals(2, bookingIndex.getFamilyBookings(A).size());
+        assertNull(bookingIndex.getSitterBookings(8));
+    }
+
+    @Test
+    public void whenAShiftBreaksTheCalculatorRulesThenItIsRejectedWithoutCheckingTheBookings() {
+        bookingIndex.book(1, 7, A, nightStart, nightStart + 660);
+
+        assertEquals(STATUS_OUTSIDE_WORKABLE_HOURS, bookingIndex.book(2, 7, A, nightStart + 600, nightStart + 661));
+        assertEquals(STATUS_INVALID_FAMILY, bookingIndex.book(3, 7, 9, nightStart, nightStart + 60));
+        assertEquals(1, bookingIndex.getSitterBookings(7).size());
+    }
+
+    @Test
+    public void whenBookingsAreLoadedThenNewShiftsAreCheckedAgainstThem() {
+        // Sorted by start; sitter 1 works every night of a month for family A, sitter 2 for family B
+        int nights = 30;
+        int[] shiftIds = new int[nights * 2];
+        int[] sitterIds = new int[nights * 2];
+        int[] familyIds = new int[nights * 2];
+        long[] starts = new long[nights * 2];
+        long[] ends = new long[nights * 2];
+        for (int i = 0; i < nights * 2; i++) {
+            shiftIds[i] = i;
+            sitterIds[i] = 1 + i % 2;
+            familyIds[i] = i % 2 == 0 ? A : B;
+            starts[i] = nightStart + (i / 2) * (long) MINUTES_PER_DAY + 60;
+            ends[i] = starts[i] + 120;
+        }
+        bookingIndex.load(shiftIds, sitterIds, familyIds, starts, ends, 0, nights * 2);
+        bookingIndex.load(new int[]{100}, new int[]{1}, new int[]{C}, new long[]{nightStart + 400}, new long[]{nightStart + 500}, 0, 1);
+
+        assertEquals(nights + 1, bookingIndex.getSitterBookings(1).size());
+        assertEquals(nights, bookingIndex.getFamilyBookings(B).size());
+        long night10 = nightStart + 10L * MINUTES_PER_DAY;
+        assertEquals(STATUS_SITTER_DOUBLE_BOOKED | STATUS_FAMILY_DOUBLE_BOOKED, bookingIndex.validateBooking(2, B, night10 + 150, night10 + 200));
+        assertEquals(STATUS_SITTER_DOUBLE_BOOKED, bookingIndex.validateBooking(1, A, nightStart + 450, nightStart + 460));
+        assertEquals(STATUS_VALID, bookingIndex.validateBooking(2, C, night10 + 180, night10 + 600));
+    }
+
+    @Test
+    public void whenAShiftOverlapsBookingsOfTheSitterThenOnlyTheFreeStretchesArePaid() {
+        // Loaded bookings are not checked, so the sitter's own bookings can overlap
+        bookingIndex.load(new int[]{1, 2, 3}, new int[]{7, 7, 7}, new int[]{B, C, B},
+                new long[]{nightStart + 60, nightStart + 150, nightStart + 420}, new long[]{nightStart + 180, nightStart + 200, nightStart + 480}, 0, 3);
+
+        // 17:00-18:00 and 20:20-00:00 are free: one hour, then two whole hours before 23:00 and one after
+        assertEquals(15 + 2 * 15 + 20, bookingIndex.calculateNonOverlappingPay(7, A, nightStart, nightStart + 420));
+        assertEquals(6 * 15 + 5 * 20, bookingIndex.calculateNonOverlappingPay(8, A, nightStart, nightStart + 660));
+        assertEquals(0, bookingIndex.calculateNonOverlappingPay(7, A, nightStart + 60, nightStart + 180));
+        assertEquals(0, bookingIndex.calculateNonOverlappingPay(7, A, nightStart, nightStart + 661));
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.babysitter.booking;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class IntObjectHashMapTest {
+
+    @Test
+    public void whenRandomKeysArePutThenEveryValueMatchesAHashMap() {
+        IntObjectHashMap<String> intObjectHashMap = new IntObjectHashMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(50_000) - 25_000;
+            String value = Integer.toString(i);
+            assertEquals(expected.put(key, value), intObjectHashMap.put(key, value));
+        }
+        assertEquals(expected.size(), intObjectHashMap.size());
+        for (int key = -25_000; key < 25_000; key++) {
+            assertEquals(expected.get(key), intObjectHashMap.get(key));
+        }
+        int[] entries = new int[1];
+        intObjectHashMap.forEach((key, value) -> {
+            assertEquals(expected.get(key), value);
+            entries[0]++;
+        });
+        assertEquals(expected.size(), entries[0]);
+    }
+
+    @Test
+    public void whenComputeIfAbsentIsCalledForAKnownKeyThenTheValueIsNotCreatedAgain() {
+        IntObjectHashMap<int[]> intObjectHashMap = new IntObjectHashMap<>();
+        int[] value = intObjectHashMap.computeIfAbsent(0, key -> new int[1]);
+        assertSame(value, intObjectHashMap.computeIfAbsent(0, key -> new int[1]));
+        assertNull(intObjectHashMap.get(1));
+        assertEquals(1, intObjectHashMap.size());
+    }
+
+}
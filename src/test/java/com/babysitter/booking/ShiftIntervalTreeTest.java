@@ -0,0 +1,115 @@
+package com.babysitter.booking;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ShiftIntervalTreeTest {
+
+    private static final int SHIFTS = 5_000;
+
+    @Test
+    public void whenShiftsAreInsertedThenEveryQueryMatchesACheckAgainstEveryShift() {
+        Random random = new Random(3);
+        long[] starts = new long[SHIFTS];
+        long[] ends = new long[SHIFTS];
+        ShiftIntervalTree tree = new ShiftIntervalTree();
+        for (int i = 0; i < SHIFTS; i++) {
+            starts[i] = random.nextInt(200_000);
+            ends[i] = starts[i] + random.nextInt(300);
+            tree.insert(starts[i], ends[i], i);
+        }
+
+        assertEquals(SHIFTS, tree.size());
+        assertMatchesEveryShift(tree, starts, ends, random);
+    }
+
+    @Test
+    public void whenSortedShiftsAreBulkLoadedThenTheTreeIsBalancedAndEveryQueryMatches() {
+        Random random = new Random(5);
+        long[] starts = new long[SHIFTS];
+        long[] ends = new long[SHIFTS];
+        int[] shiftIds = new int[SHIFTS];
+        for (int i = 0; i < SHIFTS; i++) {
+            starts[i] = (i == 0 ? 0 : starts[i - 1]) + random.nextInt(60);
+            ends[i] = starts[i] + random.nextInt(300);
+            shiftIds[i] = i;
+        }
+        ShiftIntervalTree tree = new ShiftIntervalTree();
+        tree.bulkLoad(starts, ends, shiftIds, 0, SHIFTS);
+
+        assertEquals(13, tree.getHeight());
+        assertMatchesEveryShift(tree, starts, ends, random);
+    }
+
+    @Test
+    public void whenShiftsAreInsertedInOrderOfStartThenTheHeightStaysLogarithmic() {
+        ShiftIntervalTree tree = new ShiftIntervalTree();
+        for (int i = 0; i < 1 << 16; i++) {
+            tree.insert(i * 60L, i * 60L + 60, i);
+        }
+        assertTrue(tree.getHeight() <= 1.44 * 16 + 1);
+        assertEquals(100, tree.getOverlappingShiftId(100 * 60L + 59, 100 * 60L + 60));
+    }
+
+    @Test
+    public void whenShiftsOnlyTouchOrAreEmptyThenTheyDoNotOverlap() {
+        ShiftIntervalTree tree = new ShiftIntervalTree();
+        tree.insert(100, 200, 1);
+        tree.insert(150, 150, 2);
+
+        assertFalse(tree.hasOverlap(200, 300));
+        assertFalse(tree.hasOverlap(0, 100));
+        assertFalse(tree.hasOverlap(120, 120));
+        assertEquals(1, tree.getOverlappingShiftId(140, 160));
+        assertEquals(ShiftIntervalTree.NO_SHIFT, new ShiftIntervalTree().getOverlappingShiftId(0, 100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenUnsortedShiftsAreBulkLoadedThenAnIllegalArgumentExceptionIsThrown() {
+        new ShiftIntervalTree().bulkLoad(new long[]{10, 5}, new long[]{20, 15}, new int[]{0, 1}, 0, 2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenATreeWithShiftsIsBulkLoadedThenAnIllegalStateExceptionIsThrown() {
+        ShiftIntervalTree tree = new ShiftIntervalTree();
+        tree.insert(0, 10, 0);
+        tree.bulkLoad(new long[]{10}, new long[]{20}, new int[]{1}, 0, 1);
+    }
+
+    private void assertMatchesEveryShift(ShiftIntervalTree tree, long[] starts, long[] ends, Random random) {
+        long lastEnd = Arrays.stream(ends).max().getAsLong();
+        for (int query = 0; query < 2_000; query++) {
+            long queryStart = random.nextInt((int) lastEnd + 100);
+            long queryEnd = queryStart + random.nextInt(300);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < starts.length; i++) {
+                if (starts[i] < queryEnd && ends[i] > queryStart && starts[i] < ends[i] && queryStart < queryEnd) {
+                    expected.add(i);
+                }
+            }
+            List<Integer> overlaps = new ArrayList<>();
+            List<Long> overlapStarts = new ArrayList<>();
+            tree.forEachOverlap(queryStart, queryEnd, (shiftId, start, end) -> {
+                overlaps.add(shiftId);
+                overlapStarts.add(start);
+            });
+            for (int i = 1; i < overlapStarts.size(); i++) {
+                assertTrue(overlapStarts.get(i - 1) <= overlapStarts.get(i));
+            }
+            overlaps.sort(null);
+            assertEquals(expected, overlaps);
+            int overlappingShiftId = tree.getOverlappingShiftId(queryStart, queryEnd);
+            assertEquals(!expected.isEmpty(), overlappingShiftId != ShiftIntervalTree.NO_SHIFT);
+            assertTrue(overlappingShiftId == ShiftIntervalTree.NO_SHIFT || expected.contains(overlappingShiftId));
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.babysitter.calculator;
+
+import com.babysitter.enums.FamilyEnum;
+import com.babysitter.utils.ShiftTimeUtil;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ParallelPaymentCalculatorTest {
+
+    @Test
+    public void whenCalculateBatchIsCalledThenTheResultsAndTotalsMatchTheSingleThreadedBatch() {
+        int shiftCount = 100_003;
+        long[] startEpochMinutes = new long[shiftCount];
+        long[] endEpochMinutes = new long[shiftCount];
+        int[] familyIds = new int[shiftCount];
+        Random random = new Random(7);
+        long nightStart = ShiftTimeUtil.toEpochMinute(LocalDateTime.of(2020, 3, 21, 17, 0));
+        for (int i = 0; i < shiftCount; i++) {
+            startEpochMinutes[i] = nightStart + random.nextInt(700);
+            endEpochMinutes[i] = startEpochMinutes[i] + random.nextInt(700) - 20;
+            familyIds[i] = random.nextInt(4);
+        }
+        PaymentCalculator paymentCalculator = new PaymentCalculator();
+        int[] expectedTotalPays = new int[shiftCount];
+        int[] expectedStatusCodes = new int[shiftCount];
+        paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, expectedTotalPays, expectedStatusCodes);
+
+        int[] totalPays = new int[shiftCount];
+        int[] statusCodes = new int[shiftCount];
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        BatchTotals batchTotals = new ParallelPaymentCalculator(paymentCalculator, forkJoinPool, 1000)
+                .calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes);
+        forkJoinPool.shutdown();
+
+        assertArrayEquals(expectedTotalPays, totalPays);
+        assertArrayEquals(expectedStatusCodes, statusCodes);
+        long[] expectedFamilyTotalPays = new long[FamilyEnum.values().length];
+        long expectedPricedShifts = 0;
+        for (int i = 0; i < shiftCount; i++) {
+            if (expectedStatusCodes[i] == 0) {
+                expectedFamilyTotalPays[familyIds[i]] += expectedTotalPays[i];
+                expectedPricedShifts++;
+            }
+        }
+        long expectedTotalPay = 0;
+        for (FamilyEnum family : FamilyEnum.values()) {
+            assertEquals(expectedFamilyTotalPays[family.ordinal()], batchTotals.getFamilyTotalPay(family.ordinal()));
+            expectedTotalPay += expectedFamilyTotalPays[family.ordinal()];
+        }
+        assertEquals(expectedTotalPay, batchTotals.getTotalPay());
+        assertEquals(expectedPricedShifts, batchTotals.getPricedShifts());
+        assertEquals(shiftCount - expectedPricedShifts, batchTotals.getRejectedShifts());
+    }
+
+}
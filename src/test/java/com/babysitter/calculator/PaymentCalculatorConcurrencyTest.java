@@ -0,0 +1,185 @@
+package com.babysitter.calculator;
+
+import com.babysitter.enums.FamilyEnum;
+import com.babysitter.enums.PricingModeEnum;
+import com.babysitter.enums.RoundingPolicyEnum;
+import com.babysitter.exception.InvalidTimeFormatException;
+import com.babysitter.registry.FamilyRegistry;
+import com.babysitter.service.TimeAndPayService;
+import com.babysitter.utils.ShiftTimeUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.babysitter.constants.Constants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class PaymentCalculatorConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int SHIFTS = 10_000;
+    private static final int ROUNDS = 3;
+    private static final int BATCH_SIZE = 97;
+
+    private ExecutorService executorService;
+    private String[] startTimes;
+    private String[] endTimes;
+    private String[] families;
+    private long[] startEpochMinutes;
+    private long[] endEpochMinutes;
+    private int[] familyIds;
+    private int[] expectedTotalPays;
+    private int[] expectedStatusCodes;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(THREADS);
+        startTimes = new String[SHIFTS];
+        endTimes = new String[SHIFTS];
+        families = new String[SHIFTS];
+        startEpochMinutes = new long[SHIFTS];
+        endEpochMinutes = new long[SHIFTS];
+        familyIds = new int[SHIFTS];
+        expectedTotalPays = new int[SHIFTS];
+        expectedStatusCodes = new int[SHIFTS];
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        TimeAndPayService timeAndPayService = TimeAndPayService.getInstance();
+        PaymentCalculator referenceCalculator = new PaymentCalculator(FamilyRegistry.createDefault());
+        Random random = new Random(11);
+        for (int i = 0; i < SHIFTS; i++) {
+            LocalDateTime nightStart = LocalDateTime.of(2020, 3, 1, START_TIME_HOUR, 0).plusDays(random.nextInt(60));
+            // A few shifts start before the night or end before they start
+            LocalDateTime start = nightStart.plusMinutes(random.nextInt(WORKABLE_MINUTES + 20) - 10);
+            LocalDateTime end = start.plusMinutes(random.nextInt(WORKABLE_MINUTES) - 10);
+            FamilyEnum family = FamilyEnum.values()[random.nextInt(FamilyEnum.values().length)];
+            startTimes[i] = start.format(formatter);
+            endTimes[i] = end.format(formatter);
+            families[i] = family.name();
+            startEpochMinutes[i] = ShiftTimeUtil.toEpochMinute(start);
+            endEpochMinutes[i] = ShiftTimeUtil.toEpochMinute(end);
+            familyIds[i] = family.ordinal();
+            expectedStatusCodes[i] = referenceCalculator.validate(startTimes[i], endTimes[i], families[i]);
+            if (expectedStatusCodes[i] == STATUS_VALID) {
+                expectedTotalPays[i] = getReferenceTotalPay(timeAndPayService, family, nightStart, start, end);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void whenTheDefaultCalculatorIsRequestedFromManyThreadsThenEveryThreadGetsTheSameInstance() throws Exception {
+        List<PaymentCalculator> paymentCalculators = runOnEveryThread(PaymentCalculator::getDefault);
+        for (PaymentCalculator paymentCalculator : paymentCalculators) {
+            assertSame(PaymentCalculator.getDefault(), paymentCalculator);
+        }
+    }
+
+    @Test
+    public void whenTheDefaultCalculatorIsSharedByManyThreadsThenEveryResultMatchesTheReference() throws Exception {
+        hammer(PaymentCalculator.getDefault());
+    }
+
+    @Test
+    public void whenACalculatorOfEveryPricingModeIsSharedByManyThreadsThenEveryResultMatchesTheReference() throws Exception {
+        for (PricingModeEnum pricingMode : PricingModeEnum.values()) {
+            hammer(new PaymentCalculator(FamilyRegistry.createDefault(), pricingMode));
+        }
+    }
+
+    // Every thread prices every shift with each entry point, starting at a different shift so threads collide on
+    // different families and the price matrices are built while other threads read them
+    private void hammer(PaymentCalculator paymentCalculator) throws Exception {
+        runOnEveryThread(new Callable<Void>() {
+            private int nextThread;
+
+            @Override
+            public Void call() throws InvalidTimeFormatException {
+                int firstShift;
+                synchronized (this) {
+                    firstShift = nextThread++ * (SHIFTS / THREADS);
+                }
+                CalculationResult calculationResult = new CalculationResult();
+                int[] totalPays = new int[SHIFTS];
+                int[] statusCodes = new int[SHIFTS];
+                long[] totalPayCents = new long[SHIFTS];
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (int n = 0; n < SHIFTS; n++) {
+                        int i = (firstShift + n) % SHIFTS;
+                        assertEquals(expectedStatusCodes[i], paymentCalculator.validate(startTimes[i], endTimes[i], families[i]));
+                        assertEquals(expectedTotalPays[i], paymentCalculator.calculate(startTimes[i], endTimes[i], families[i]));
+                        assertEquals(expectedTotalPays[i], paymentCalculator.calculate(startTimes[i], endTimes[i], families[i], calculationResult));
+                        assertEquals(expectedStatusCodes[i], calculationResult.getStatusCode());
+                    }
+                    for (int offset = firstShift % BATCH_SIZE; offset + BATCH_SIZE <= SHIFTS; offset += BATCH_SIZE) {
+                        paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, offset, BATCH_SIZE);
+                        for (int i = offset; i < offset + BATCH_SIZE; i++) {
+                            assertEquals(expectedStatusCodes[i], statusCodes[i]);
+                            assertEquals(expectedTotalPays[i], totalPays[i]);
+                        }
+                        paymentCalculator.calculateCentsBatch(startEpochMinutes, endEpochMinutes, familyIds, RoundingPolicyEnum.TRUNCATE_TO_HOUR, totalPayCents, statusCodes, offset, BATCH_SIZE);
+                        for (int i = offset; i < offset + BATCH_SIZE; i++) {
+                            assertEquals(expectedTotalPays[i] * 100L, totalPayCents[i]);
+                        }
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    // Starts the task on every thread at once and rethrows the first failure
+    private <T> List<T> runOnEveryThread(Callable<T> task) throws Exception {
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            futures.add(executorService.submit(() -> {
+                startGate.await();
+                return task.call();
+            }));
+        }
+        startGate.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof AssertionError) {
+                    throw (AssertionError) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    // The rules of the built in families as TimeAndPayService applied them before rate schedules
+    private int getReferenceTotalPay(TimeAndPayService timeAndPayService, FamilyEnum family, LocalDateTime nightStart, LocalDateTime start, LocalDateTime end) {
+        switch (family) {
+            case A:
+                return timeAndPayService.getTotalPayForSingleTimeLimit(start, end, nightStart.plusHours(6), FAMILY_A_PAY_PER_HOUR_BEFORE_LIMIT, FAMILY_A_PAY_PER_HOUR_AFTER_LIMIT);
+            case B:
+                return timeAndPayService.getTotalPayForDoubleTimeLimit(start, end, nightStart.plusHours(5), nightStart.plusHours(7),
+                        FAMILY_B_PAY_PER_HOUR_BEFORE_FIRST_LIMIT, FAMILY_B_PAY_PER_HOUR_BETWEEN_LIMITS, FAMILY_B_PAY_PER_HOUR_AFTER_SECOND_LIMIT);
+            default:
+                return timeAndPayService.getTotalPayForSingleTimeLimit(start, end, nightStart.plusHours(4), FAMILY_C_PAY_PER_HOUR_BEFORE_LIMIT, FAMILY_C_PAY_PER_HOUR_AFTER_LIMIT);
+        }
+    }
+
+}
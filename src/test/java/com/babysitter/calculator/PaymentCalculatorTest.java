@@ -1,14 +1,29 @@
 package com.babysitter.calculator;
 
 import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.enums.FamilyEnum;
+import com.babysitter.enums.PricingModeEnum;
+import com.babysitter.enums.RoundingPolicyEnum;
+import com.babysitter.enums.ValidationErrorEnum;
 import com.babysitter.exception.InvalidTimeFormatException;
+import com.babysitter.registry.FamilyRegistry;
+import com.babysitter.service.NightCalendar;
+import com.babysitter.utils.DateUtil;
+import com.babysitter.utils.ShiftTimeUtil;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
-
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static com.babysitter.constants.Constants.*;
 import static org.junit.Assert.assertEquals;
 
 public class PaymentCalculatorTest {
@@ -23,27 +38,36 @@ public class PaymentCalculatorTest {
     }
 
     @Test
-    public void whenCalculateIsCalledWithABlankStartTimeThenAnErrorMessageIsPrinted() throws InvalidTimeFormatException {
-        paymentCalculator.calculate("", "2020-03-21 19:00", "A");
-        Assert.assertEquals("Start time cannot be blank!", outputStream.toString().trim());
+    public void whenValidateIsCalledWithABlankStartTimeThenTheStartTimeBlankStatusIsReturned() {
+        int result = paymentCalculator.validate("", "2020-03-21 19:00", "A");
+        Assert.assertEquals(STATUS_START_TIME_BLANK, result);
+        Assert.assertEquals(Collections.singletonList("Start time cannot be blank!"), ValidationErrorEnum.getMessages(result));
     }
 
     @Test
-    public void whenCalculateIsCalledWithABlankEndTimeThenAnErrorMessageIsPrinted() throws InvalidTimeFormatException {
-        paymentCalculator.calculate("2020-03-21 18:00", "", "A");
-        Assert.assertEquals("End time cannot be blank!", outputStream.toString().trim());
+    public void whenValidateIsCalledWithABlankEndTimeThenTheEndTimeBlankStatusIsReturned() {
+        int result = paymentCalculator.validate("2020-03-21 18:00", "", "A");
+        Assert.assertEquals(STATUS_END_TIME_BLANK, result);
+        Assert.assertEquals(Collections.singletonList("End time cannot be blank!"), ValidationErrorEnum.getMessages(result));
     }
 
     @Test
-    public void whenCalculateIsCalledWithABlankFamilyThenAnErrorMessageIsPrinted() throws InvalidTimeFormatException {
-        paymentCalculator.calculate("2020-03-21 18:00", "2020-03-21 19:00", "");
-        Assert.assertEquals("Family cannot be blank!", outputStream.toString().trim());
+    public void whenValidateIsCalledWithABlankFamilyThenTheFamilyBlankStatusIsReturned() {
+        int result = paymentCalculator.validate("2020-03-21 18:00", "2020-03-21 19:00", "");
+        Assert.assertEquals(STATUS_FAMILY_BLANK, result);
+        Assert.assertEquals(Collections.singletonList("Family cannot be blank!"), ValidationErrorEnum.getMessages(result));
     }
 
     @Test(expected = InvalidTimeFormatException.class)
-    public void whenCalculateIsCalledWithAnInvalidStartTimeThenAnErrorMessageIsPrintedAndAnInvalidTimeFormatExceptionIsThrown() throws InvalidTimeFormatException {
+    public void whenCalculateIsCalledWithAnInvalidStartTimeThenAnInvalidTimeFormatExceptionIsThrown() throws InvalidTimeFormatException {
         paymentCalculator.calculate("2020-03-21 25:00", "2020-03-21 19:00", "A");
-        Assert.assertEquals("The start time or end time is in an invalid format! Please use the format: \"yyyy-MM-dd HH:mm\" and please ensure that the times are correct", outputStream.toString().trim());
+    }
+
+    @Test
+    public void whenValidateIsCalledWithAnInvalidStartTimeThenTheInvalidTimeFormatStatusIsReturned() {
+        int result = paymentCalculator.validate("2020-03-21 25:00", "2020-03-21 19:00", "A");
+        Assert.assertEquals(STATUS_INVALID_TIME_FORMAT, result);
+        Assert.assertEquals(Collections.singletonList("The start time or end time is in an invalid format! Please use the format: \"yyyy-MM-dd HH:mm\" and please ensure that the times are correct"), ValidationErrorEnum.getMessages(result));
     }
 
     @Test
@@ -53,15 +77,16 @@ public class PaymentCalculatorTest {
     }
 
     @Test
-    public void whenCalculateIsCalledAndFamilyIsInALowerCaseFormatThenAnErrorMessageIsPrinted() throws InvalidTimeFormatException {
-        paymentCalculator.calculate("2020-03-21 17:00", "2020-03-22 04:00", "a");
-        Assert.assertEquals("The family is not valid!", outputStream.toString().trim());
+    public void whenValidateIsCalledAndFamilyIsInALowerCaseFormatThenTheInvalidFamilyStatusIsReturned() {
+        int result = paymentCalculator.validate("2020-03-21 17:00", "2020-03-22 04:00", "a");
+        Assert.assertEquals(STATUS_INVALID_FAMILY, result);
     }
 
     @Test
-    public void whenCalculateIsCalledAndFamilyIsNotValidThenAnErrorMessageIsPrinted() throws InvalidTimeFormatException {
-        paymentCalculator.calculate("2020-03-21 17:00", "2020-03-22 04:00", "E");
-        Assert.assertEquals("The family is not valid!", outputStream.toString().trim());
+    public void whenValidateIsCalledAndFamilyIsNotValidThenTheInvalidFamilyStatusIsReturned() {
+        int result = paymentCalculator.validate("2020-03-21 17:00", "2020-03-22 04:00", "E");
+        Assert.assertEquals(STATUS_INVALID_FAMILY, result);
+        Assert.assertEquals(Collections.singletonList("The family is not valid!"), ValidationErrorEnum.getMessages(result));
     }
 
     @Test
@@ -72,9 +97,10 @@ public class PaymentCalculatorTest {
     }
 
     @Test
-    public void whenCalculateIsCalledAndEndTimeIsBeforeStartTimeThenAnErrorMessageIsPrinted() throws InvalidTimeFormatException {
-        paymentCalculator.calculate("2020-03-21 17:00", "2020-03-21 04:00", "A");
-        Assert.assertEquals("End time cannot be before the start time!", outputStream.toString().trim());
+    public void whenValidateIsCalledAndEndTimeIsBeforeStartTimeThenTheEndTimeBeforeStartTimeStatusIsReturned() {
+        int result = paymentCalculator.validate("2020-03-21 17:00", "2020-03-21 04:00", "A");
+        Assert.assertEquals(STATUS_END_TIME_BEFORE_START_TIME, result);
+        Assert.assertEquals(Collections.singletonList("End time cannot be before the start time!"), ValidationErrorEnum.getMessages(result));
     }
 
     @Test
@@ -84,9 +110,10 @@ public class PaymentCalculatorTest {
     }
 
     @Test
-    public void whenCalculateIsCalledWhereStartTimeIsNotWithinWorkableHoursThenAnErrorMessageIsPrinted() throws InvalidTimeFormatException {
-        paymentCalculator.calculate("2020-03-21 16:59", "2020-03-21 17:00", "A");
-        Assert.assertEquals("The Start Time or End Time are not within the Allowed Workable Hours! The Allowed Workable Hours are from 5:00PM to 4:00 AM inclusive.", outputStream.toString().trim());
+    public void whenValidateIsCalledWhereStartTimeIsNotWithinWorkableHoursThenTheOutsideWorkableHoursStatusIsReturned() {
+        int result = paymentCalculator.validate("2020-03-21 16:59", "2020-03-21 17:00", "A");
+        Assert.assertEquals(STATUS_OUTSIDE_WORKABLE_HOURS, result);
+        Assert.assertEquals(Collections.singletonList("The Start Time or End Time are not within the Allowed Workable Hours! The Allowed Workable Hours are from 5:00PM to 4:00 AM inclusive."), ValidationErrorEnum.getMessages(result));
     }
 
     @Test
@@ -96,15 +123,44 @@ public class PaymentCalculatorTest {
     }
 
     @Test
-    public void whenCalculateIsCalledWhereEndTimeIsAfterFourAMThenAnErrorMessageIsPrinted() throws InvalidTimeFormatException {
-        paymentCalculator.calculate("2020-03-21 17:00", "2020-03-22 04:01", "A");
-        Assert.assertEquals("The Start Time or End Time are not within the Allowed Workable Hours! The Allowed Workable Hours are from 5:00PM to 4:00 AM inclusive.", outputStream.toString().trim());
+    public void whenValidateIsCalledWhereEndTimeIsAfterFourAMThenTheOutsideWorkableHoursStatusIsReturned() {
+        int result = paymentCalculator.validate("2020-03-21 17:00", "2020-03-22 04:01", "A");
+        Assert.assertEquals(STATUS_OUTSIDE_WORKABLE_HOURS, result);
+    }
+
+    @Test
+    public void whenValidateIsCalledWhereEndTimeIsBeforeFourAMButAFewDaysAfterTheStartDateThenTheOutsideWorkableHoursStatusIsReturned() {
+        int result = paymentCalculator.validate("2020-03-21 17:00", "2020-03-23 03:59", "A");
+        Assert.assertEquals(STATUS_OUTSIDE_WORKABLE_HOURS, result);
+    }
+
+    @Test
+    public void whenValidateIsCalledWithAShiftThatFailsSeveralRulesThenEveryFailedRuleIsReturned() {
+        int result = paymentCalculator.validate("2020-03-21 16:00", "", "E");
+        Assert.assertEquals(STATUS_END_TIME_BLANK | STATUS_INVALID_FAMILY, result);
+        Assert.assertEquals(Arrays.asList("End time cannot be blank!", "The family is not valid!"), ValidationErrorEnum.getMessages(result));
+    }
+
+    @Test
+    public void whenCalculateIsCalledWithAnInvalidShiftThenNothingIsPrinted() throws InvalidTimeFormatException {
+        paymentCalculator.calculate("2020-03-21 16:00", "2020-03-21 15:00", "E");
+        paymentCalculator.calculate("", "", "");
+        Assert.assertEquals("", outputStream.toString());
     }
 
     @Test
-    public void whenCalculateIsCalledWhereEndTimeIsBeforeFourAMButAFewDaysAfterTheStartDateThenAnErrorMessageIsPrinted() throws InvalidTimeFormatException {
-        paymentCalculator.calculate("2020-03-21 17:00", "2020-03-23 03:59", "A");
-        Assert.assertEquals("The Start Time or End Time are not within the Allowed Workable Hours! The Allowed Workable Hours are from 5:00PM to 4:00 AM inclusive.", outputStream.toString().trim());
+    public void whenCalculateIsCalledWithACalculationResultThenTheTotalPayAndStatusCodeAreWrittenToIt() {
+        CalculationResult calculationResult = new CalculationResult();
+
+        int result = paymentCalculator.calculate("2020-03-21 17:00", "2020-03-22 04:00", "B", calculationResult);
+        Assert.assertEquals(140, result);
+        Assert.assertEquals(140, calculationResult.getTotalPay());
+        Assert.assertTrue(calculationResult.isValid());
+
+        result = paymentCalculator.calculate("2020-03-21 17:00", "2020-03-22 25:00", "B", calculationResult);
+        Assert.assertEquals(0, result);
+        Assert.assertEquals(STATUS_INVALID_TIME_FORMAT, calculationResult.getStatusCode());
+        Assert.assertEquals(ValidationErrorEnum.getMessages(STATUS_INVALID_TIME_FORMAT), calculationResult.getMessages());
     }
 
     @Test
@@ -270,5 +326,227 @@ public class PaymentCalculatorTest {
         assertEquals(189, result, 0.01);
     }
 
+    // Batch
+
+    @Test
+    public void whenCalculateBatchIsCalledWithValidShiftsThenTotalPaysMatchTheSingleShiftCalculation() throws InvalidTimeFormatException {
+        String[][] shifts = {
+                {"2020-03-21 17:00", "2020-03-22 04:00", "A"},
+                {"2020-03-21 22:00", "2020-03-22 01:00", "B"},
+                {"2020-03-22 01:00", "2020-03-22 04:00", "B"},
+                {"2020-03-21 20:30", "2020-03-22 02:15", "C"},
+                {"2020-03-21 23:00", "2020-03-21 23:00", "A"}
+        };
+        long[] startEpochMinutes = new long[shifts.length];
+        long[] endEpochMinutes = new long[shifts.length];
+        int[] familyIds = new int[shifts.length];
+        for (int i = 0; i < shifts.length; i++) {
+            startEpochMinutes[i] = toEpochMinute(shifts[i][0]);
+            endEpochMinutes[i] = toEpochMinute(shifts[i][1]);
+            familyIds[i] = FamilyEnum.valueOf(shifts[i][2]).ordinal();
+        }
+        int[] totalPays = new int[shifts.length];
+        int[] statusCodes = new int[shifts.length];
+
+        int pricedShifts = paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes);
+
+        assertEquals(shifts.length, pricedShifts);
+        for (int i = 0; i < shifts.length; i++) {
+            assertEquals(STATUS_VALID, statusCodes[i]);
+            assertEquals(paymentCalculator.calculate(shifts[i][0], shifts[i][1], shifts[i][2]), totalPays[i]);
+        }
+    }
+
+    @Test
+    public void whenCalculateCentsIsCalledThenTheMinutesOfEveryRateAreRoundedByThePolicy() throws InvalidTimeFormatException {
+        // Family A, 17:20 to 23:50 is 5 hours 40 minutes at $15 and 50 minutes at $20
+        assertEquals(paymentCalculator.calculate("2020-03-21 17:20", "2020-03-21 23:50", "A") * 100L, paymentCalculator.calculateCents("2020-03-21 17:20", "2020-03-21 23:50", "A", RoundingPolicyEnum.TRUNCATE_TO_HOUR));
+        assertEquals(8625 + 1500, paymentCalculator.calculateCents("2020-03-21 17:20", "2020-03-21 23:50", "A", RoundingPolicyEnum.NEAREST_QUARTER_HOUR));
+        assertEquals(8500 + 1667, paymentCalculator.calculateCents("2020-03-21 17:20", "2020-03-21 23:50", "A", RoundingPolicyEnum.EXACT_MINUTE));
+        assertEquals(0, paymentCalculator.calculateCents("2020-03-21 16:00", "2020-03-21 23:50", "A", RoundingPolicyEnum.EXACT_MINUTE));
+    }
+
+    @Test
+    public void whenCalculateCentsBatchIsCalledThenEveryShiftMatchesCalculateCents() throws InvalidTimeFormatException {
+        String[][] shifts = {
+                {"2020-03-21 17:07", "2020-03-22 03:53", "A"},
+                {"2020-03-21 21:52", "2020-03-22 00:08", "B"},
+                {"2020-03-21 20:31", "2020-03-21 21:29", "C"},
+                {"2020-03-21 23:00", "2020-03-21 22:00", "A"}
+        };
+        long[] startEpochMinutes = new long[shifts.length];
+        long[] endEpochMinutes = new long[shifts.length];
+        int[] familyIds = new int[shifts.length];
+        for (int i = 0; i < shifts.length; i++) {
+            startEpochMinutes[i] = toEpochMinute(shifts[i][0]);
+            endEpochMinutes[i] = toEpochMinute(shifts[i][1]);
+            familyIds[i] = FamilyEnum.valueOf(shifts[i][2]).ordinal();
+        }
+        long[] totalPayCents = new long[shifts.length];
+        int[] statusCodes = new int[shifts.length];
+
+        int pricedShifts = paymentCalculator.calculateCentsBatch(startEpochMinutes, endEpochMinutes, familyIds, RoundingPolicyEnum.EXACT_MINUTE, totalPayCents, statusCodes, 0, shifts.length);
+
+        assertEquals(shifts.length - 1, pricedShifts);
+        assertEquals(STATUS_END_TIME_BEFORE_START_TIME, statusCodes[3]);
+        for (int i = 0; i < shifts.length; i++) {
+            assertEquals(paymentCalculator.calculateCents(shifts[i][0], shifts[i][1], shifts[i][2], RoundingPolicyEnum.EXACT_MINUTE), totalPayCents[i]);
+        }
+    }
+
+    @Test
+    public void whenCalculateZonedIsCalledForTheNightsTheClocksChangeThenTheRealHoursArePaid() {
+        ZoneId newYork = ZoneId.of("America/New_York");
+        CalculationResult calculationResult = new CalculationResult();
+        // 23:00 to 04:00 is 4 real hours when the clocks go forward and 6 when they go back
+        assertEquals(6 * 15 + 4 * 20, paymentCalculator.calculateZoned("2020-03-07 17:00", "2020-03-08 04:00", "A", newYork, calculationResult));
+        assertEquals(6 * 15 + 6 * 20, paymentCalculator.calculateZoned("2020-10-31 17:00", "2020-11-01 04:00", "A", newYork, calculationResult));
+        assertEquals(6 * 15 + 5 * 20, paymentCalculator.calculateZoned("2020-03-21 17:00", "2020-03-22 04:00", "A", newYork, calculationResult));
+        // The clocks went forward at midnight, so 00:00 to 04:00 is 3 real hours
+        assertEquals(5 * 12 + 2 * 8 + 3 * 16, paymentCalculator.calculateZoned("2018-11-03 17:00", "2018-11-04 04:00", "B", ZoneId.of("America/Sao_Paulo"), calculationResult));
+        assertEquals(0, paymentCalculator.calculateZoned("2020-03-07 16:00", "2020-03-08 04:00", "A", newYork, calculationResult));
+        assertEquals(STATUS_OUTSIDE_WORKABLE_HOURS, calculationResult.getStatusCode());
+    }
+
+    @Test
+    public void whenCalculateZonedBatchIsCalledWithAFixedOffsetZoneThenTheResultsMatchCalculateBatch() {
+        int shiftCount = 10_000;
+        long[] startEpochMinutes = new long[shiftCount];
+        long[] endEpochMinutes = new long[shiftCount];
+        long[] startEpochSeconds = new long[shiftCount];
+        long[] endEpochSeconds = new long[shiftCount];
+        int[] familyIds = new int[shiftCount];
+        NightCalendar[] nightCalendars = new NightCalendar[shiftCount];
+        Random random = new Random(5);
+        long nightStart = ShiftTimeUtil.toEpochMinute(LocalDateTime.of(2020, 3, 1, 17, 0));
+        for (int i = 0; i < shiftCount; i++) {
+            startEpochMinutes[i] = nightStart + random.nextInt(60) * 1440L + random.nextInt(720) - 30;
+            endEpochMinutes[i] = startEpochMinutes[i] + random.nextInt(700) - 20;
+            startEpochSeconds[i] = (startEpochMinutes[i] - 90) * 60;
+            endEpochSeconds[i] = (endEpochMinutes[i] - 90) * 60;
+            familyIds[i] = random.nextInt(4);
+            nightCalendars[i] = NightCalendar.of(ZoneId.of("+01:30"));
+        }
+        int[] expectedTotalPays = new int[shiftCount];
+        int[] expectedStatusCodes = new int[shiftCount];
+        int[] totalPays = new int[shiftCount];
+        int[] statusCodes = new int[shiftCount];
+
+        int expectedPricedShifts = paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, expectedTotalPays, expectedStatusCodes);
+        int pricedShifts = paymentCalculator.calculateZonedBatch(startEpochSeconds, endEpochSeconds, familyIds, nightCalendars, totalPays, statusCodes, 0, shiftCount);
+
+        assertEquals(expectedPricedShifts, pricedShifts);
+        Assert.assertArrayEquals(expectedStatusCodes, statusCodes);
+        Assert.assertArrayEquals(expectedTotalPays, totalPays);
+    }
+
+    @Test
+    public void whenCalculateBatchIsCalledWithAnInvalidFamilyIdThenTheStatusCodeIsInvalidFamilyAndTotalPayIsZero() throws InvalidTimeFormatException {
+        long[] startEpochMinutes = {toEpochMinute("2020-03-21 17:00")};
+        long[] endEpochMinutes = {toEpochMinute("2020-03-22 04:00")};
+        int[] totalPays = {-1};
+        int[] statusCodes = new int[1];
+
+        int pricedShifts = paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, new int[]{FamilyEnum.values().length}, totalPays, statusCodes);
+
+        assertEquals(0, pricedShifts);
+        assertEquals(STATUS_INVALID_FAMILY, statusCodes[0]);
+        assertEquals(0, totalPays[0]);
+    }
+
+    @Test
+    public void whenCalculateBatchIsCalledWithAShiftThatFailsSeveralRulesThenEveryFailedRuleIsInTheStatusCode() throws InvalidTimeFormatException {
+        long[] startEpochMinutes = {toEpochMinute("2020-03-21 16:00")};
+        long[] endEpochMinutes = {toEpochMinute("2020-03-21 15:00")};
+        int[] totalPays = new int[1];
+        int[] statusCodes = new int[1];
+
+        paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, new int[]{-1}, totalPays, statusCodes);
+
+        assertEquals(STATUS_INVALID_FAMILY | STATUS_END_TIME_BEFORE_START_TIME | STATUS_OUTSIDE_WORKABLE_HOURS, statusCodes[0]);
+    }
+
+    @Test
+    public void whenCalculateBatchIsCalledWithARangeThenOnlyShiftsInTheRangeArePriced() throws InvalidTimeFormatException {
+        long start = toEpochMinute("2020-03-21 17:00");
+        long end = toEpochMinute("2020-03-22 04:00");
+        long[] startEpochMinutes = {start, start, start};
+        long[] endEpochMinutes = {end, end, end};
+        int[] familyIds = {FamilyEnum.A.ordinal(), FamilyEnum.B.ordinal(), FamilyEnum.C.ordinal()};
+        int[] totalPays = new int[3];
+        int[] statusCodes = new int[3];
+
+        int pricedShifts = paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, 1, 1);
+
+        assertEquals(1, pricedShifts);
+        assertEquals(0, totalPays[0]);
+        assertEquals(140, totalPays[1]);
+        assertEquals(0, totalPays[2]);
+    }
+
+    @Test
+    public void whenCalculateBatchIsCalledForEveryShiftInANightThenTotalPaysMatchTheSingleShiftCalculation() throws InvalidTimeFormatException {
+        LocalDateTime nightStart = DateUtil.convertStringIntoLocalDateTime("2020-03-21 17:00");
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        for (FamilyEnum family : FamilyEnum.values()) {
+            for (int startOffset = 0; startOffset <= 660; startOffset += 7) {
+                for (int endOffset = startOffset; endOffset <= 660; endOffset += 11) {
+                    LocalDateTime startDateTime = nightStart.plusMinutes(startOffset);
+                    LocalDateTime endDateTime = nightStart.plusMinutes(endOffset);
+                    int[] totalPays = new int[1];
+                    paymentCalculator.calculateBatch(new long[]{ShiftTimeUtil.toEpochMinute(startDateTime)}, new long[]{ShiftTimeUtil.toEpochMinute(endDateTime)},
+                            new int[]{family.ordinal()}, totalPays, new int[1]);
+                    assertEquals(paymentCalculator.calculate(startDateTime.format(formatter), endDateTime.format(formatter), family.toString()), totalPays[0]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void whenCalculateIsCalledInPriceMatrixModeThenTheTotalPayMatchesTheComputedMode() throws InvalidTimeFormatException {
+        PaymentCalculator priceMatrixCalculator = new PaymentCalculator(FamilyRegistry.createDefault(), PricingModeEnum.PRICE_MATRIX);
+        LocalDateTime nightStart = DateUtil.convertStringIntoLocalDateTime("2020-03-21 17:00");
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        for (FamilyEnum family : FamilyEnum.values()) {
+            for (int startOffset = 0; startOffset <= 660; startOffset += 13) {
+                for (int endOffset = startOffset; endOffset <= 660; endOffset += 17) {
+                    String startTime = nightStart.plusMinutes(startOffset).format(formatter);
+                    String endTime = nightStart.plusMinutes(endOffset).format(formatter);
+                    assertEquals(paymentCalculator.calculate(startTime, endTime, family.toString()), priceMatrixCalculator.calculate(startTime, endTime, family.toString()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void whenABatchIsCalculatedInVectorizedModeThenTheResultsMatchTheComputedMode() {
+        PaymentCalculator vectorizedCalculator = new PaymentCalculator(FamilyRegistry.createDefault(), PricingModeEnum.VECTORIZED);
+        int shiftCount = 5000;
+        long[] startEpochMinutes = new long[shiftCount];
+        long[] endEpochMinutes = new long[shiftCount];
+        int[] familyIds = new int[shiftCount];
+        Random random = new Random(16);
+        long firstNightStart = ShiftTimeUtil.getNightStartEpochMinute(ShiftTimeUtil.toEpochMinute(LocalDateTime.of(2020, 3, 21, 17, 0)));
+        for (int i = 0; i < shiftCount; i++) {
+            long nightStart = firstNightStart + random.nextInt(30) * (long) MINUTES_PER_DAY;
+            startEpochMinutes[i] = nightStart + random.nextInt(WORKABLE_MINUTES + 60);
+            endEpochMinutes[i] = startEpochMinutes[i] + random.nextInt(WORKABLE_MINUTES) - 30;
+            familyIds[i] = random.nextInt(4);
+        }
+        startEpochMinutes[7] = DateUtil.INVALID_EPOCH_MINUTE;
+        int[] expectedTotalPays = new int[shiftCount];
+        int[] expectedStatusCodes = new int[shiftCount];
+        int[] totalPays = new int[shiftCount];
+        int[] statusCodes = new int[shiftCount];
+
+        int expectedPricedShifts = paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, expectedTotalPays, expectedStatusCodes, 3, shiftCount - 3);
+        assertEquals(expectedPricedShifts, vectorizedCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, 3, shiftCount - 3));
+        Assert.assertArrayEquals(expectedTotalPays, totalPays);
+        Assert.assertArrayEquals(expectedStatusCodes, statusCodes);
+    }
+
+    private long toEpochMinute(String dateTime) throws InvalidTimeFormatException {
+        return ShiftTimeUtil.toEpochMinute(DateUtil.convertStringIntoLocalDateTime(dateTime));
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,128 @@
+package com.babysitter.clock;
+
+import com.babysitter.enums.FamilyEnum;
+import com.babysitter.registry.FamilyRegistry;
+import com.babysitter.service.RateSchedule;
+import com.babysitter.utils.ShiftTimeUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.babysitter.constants.Constants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClockEventProcessorTest {
+
+    private FamilyRegistry familyRegistry;
+    private List<long[]> closedShifts;
+    private ClockEventProcessor clockEventProcessor;
+    private long nightStart;
+
+    @Before
+    public void setUp() {
+        familyRegistry = FamilyRegistry.createDefault();
+        closedShifts = new ArrayList<>();
+        clockEventProcessor = new ClockEventProcessor(familyRegistry, 1000, (sitterId, familyId, startEpochMinute, endEpochMinute, totalPay, closedAtCutoff) ->
+                closedShifts.add(new long[]{sitterId, familyId, startEpochMinute, endEpochMinute, totalPay, closedAtCutoff ? 1 : 0}));
+        nightStart = ShiftTimeUtil.toEpochMinute(LocalDateTime.of(2020, 3, 21, 17, 0));
+    }
+
+    @Test
+    public void whenTheClockPassesARateLimitThenAccruedPaySettlesTheHoursBeforeIt() {
+        assertEquals(STATUS_VALID, clockEventProcessor.clockIn(1, FamilyEnum.A.ordinal(), nightStart + 30));
+        clockEventProcessor.advanceTo(nightStart + 329);
+        assertEquals(4 * 15, clockEventProcessor.getAccruedPay(1));
+        clockEventProcessor.advanceTo(nightStart + 360);
+        // 17:30 to 23:00 is 5 whole hours at 15, the 23:00 segment has no whole hour yet
+        assertEquals(5 * 15, clockEventProcessor.getAccruedPay(1));
+        clockEventProcessor.advanceTo(nightStart + 420);
+        assertEquals(5 * 15 + 20, clockEventProcessor.getAccruedPay(1));
+    }
+
+    @Test
+    public void whenASitterClocksOutThenTheListenerGetsTheShiftWithTheCalculatedPay() {
+        clockEventProcessor.clockIn(1, FamilyEnum.B.ordinal(), nightStart + 45);
+        assertEquals(STATUS_VALID, clockEventProcessor.clockOut(1, nightStart + 500));
+        assertEquals(1, closedShifts.size());
+        long[] closedShift = closedShifts.get(0);
+        assertEquals(nightStart + 45, closedShift[2]);
+        assertEquals(nightStart + 500, closedShift[3]);
+        assertEquals(familyRegistry.getSnapshot().getRateSchedule(FamilyEnum.B.ordinal()).getTotalPay(45, 500), closedShift[4]);
+        assertEquals(0, closedShift[5]);
+        assertFalse(clockEventProcessor.isClockedIn(1));
+        assertEquals(0, clockEventProcessor.getOpenShiftCount());
+    }
+
+    @Test
+    public void whenTheClockPassesFourAmThenOpenShiftsAreClosedAtFourAm() {
+        clockEventProcessor.clockIn(1, FamilyEnum.C.ordinal(), nightStart);
+        clockEventProcessor.clockIn(2, FamilyEnum.A.ordinal(), nightStart + 100);
+        assertEquals(STATUS_VALID, clockEventProcessor.clockOut(2, nightStart + WORKABLE_MINUTES));
+        clockEventProcessor.advanceTo(nightStart + WORKABLE_MINUTES + 1);
+        assertEquals(2, closedShifts.size());
+        assertEquals(0, closedShifts.get(0)[5]);
+        assertEquals(1, closedShifts.get(1)[5]);
+        assertEquals(nightStart + WORKABLE_MINUTES, closedShifts.get(1)[3]);
+        assertEquals(189, closedShifts.get(1)[4]);
+        assertEquals(STATUS_SHIFT_NOT_OPEN, clockEventProcessor.clockOut(1, nightStart + 700));
+    }
+
+    @Test
+    public void whenEventsBreakTheRulesThenTheirStatusCodesAreReturned() {
+        assertEquals(STATUS_INVALID_FAMILY, clockEventProcessor.clockIn(1, 99, nightStart));
+        assertEquals(STATUS_VALID, clockEventProcessor.clockIn(1, FamilyEnum.A.ordinal(), nightStart));
+        assertEquals(STATUS_SHIFT_ALREADY_OPEN, clockEventProcessor.clockIn(1, FamilyEnum.A.ordinal(), nightStart + 10));
+        assertEquals(STATUS_EVENT_OUT_OF_ORDER, clockEventProcessor.clockOut(1, nightStart + 5));
+        assertEquals(STATUS_SHIFT_NOT_OPEN, clockEventProcessor.clockOut(2, nightStart + 20));
+        assertEquals(STATUS_OUTSIDE_WORKABLE_HOURS, clockEventProcessor.clockIn(3, FamilyEnum.A.ordinal(), nightStart + 1000));
+    }
+
+    @Test
+    public void whenEveryProcessorSlotIsTakenThenClockInsAreRefusedUntilAShiftCloses() {
+        ClockEventProcessor smallProcessor = new ClockEventProcessor(familyRegistry, 2, (sitterId, familyId, startEpochMinute, endEpochMinute, totalPay, closedAtCutoff) -> {
+        });
+        smallProcessor.clockIn(1, FamilyEnum.A.ordinal(), nightStart);
+        smallProcessor.clockIn(2, FamilyEnum.A.ordinal(), nightStart);
+        assertEquals(STATUS_TOO_MANY_OPEN_SHIFTS, smallProcessor.clockIn(3, FamilyEnum.A.ordinal(), nightStart));
+        smallProcessor.clockOut(1, nightStart + 60);
+        assertEquals(STATUS_VALID, smallProcessor.clockIn(3, FamilyEnum.A.ordinal(), nightStart + 60));
+    }
+
+    @Test
+    public void whenManySittersClockInAndOutOverSeveralNightsThenEveryPayMatchesTheRateSchedule() {
+        Random random = new Random(3);
+        int sitters = 500;
+        long[] startEpochMinutes = new long[sitters];
+        for (long minute = nightStart; minute < nightStart + 3 * MINUTES_PER_DAY; minute++) {
+            clockEventProcessor.advanceTo(minute);
+            for (int sitterId = 0; sitterId < sitters; sitterId++) {
+                if (random.nextInt(300) != 0) {
+                    continue;
+                }
+                if (clockEventProcessor.isClockedIn(sitterId)) {
+                    int accruedPay = clockEventProcessor.getAccruedPay(sitterId);
+                    long shiftNightStart = ShiftTimeUtil.getNightStartEpochMinute(startEpochMinutes[sitterId]);
+                    RateSchedule rateSchedule = familyRegistry.getSnapshot().getRateSchedule(sitterId % 3);
+                    assertEquals(rateSchedule.getTotalPay((int) (startEpochMinutes[sitterId] - shiftNightStart), (int) (minute - shiftNightStart)), accruedPay);
+                    assertEquals(STATUS_VALID, clockEventProcessor.clockOut(sitterId, minute));
+                } else if (clockEventProcessor.clockIn(sitterId, sitterId % 3, minute) == STATUS_VALID) {
+                    startEpochMinutes[sitterId] = minute;
+                }
+            }
+        }
+        assertTrue(closedShifts.size() > 1000);
+        for (long[] closedShift : closedShifts) {
+            long shiftNightStart = ShiftTimeUtil.getNightStartEpochMinute(closedShift[2]);
+            RateSchedule rateSchedule = familyRegistry.getSnapshot().getRateSchedule((int) closedShift[1]);
+            assertEquals(rateSchedule.getTotalPay((int) (closedShift[2] - shiftNightStart), (int) (closedShift[3] - shiftNightStart)), closedShift[4]);
+            assertTrue(closedShift[3] - shiftNightStart <= WORKABLE_MINUTES);
+        }
+    }
+
+}
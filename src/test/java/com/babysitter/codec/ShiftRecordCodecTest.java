@@ -0,0 +1,65 @@
+package com.babysitter.codec;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.enums.FamilyEnum;
+import com.babysitter.utils.DateUtil;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static com.babysitter.constants.Constants.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ShiftRecordCodecTest {
+
+    @Test
+    public void whenRecordsArePutThenTheyAreReadBackAtTheirIndex() {
+        ByteBuffer buffer = ByteBuffer.allocate(3 * ShiftRecordCodec.RECORD_SIZE);
+        ShiftRecordCodec.putRecord(buffer, 0, 26_413_500L, 26_414_160L, 1);
+        ShiftRecordCodec.putRecord(buffer, 2, DateUtil.INVALID_EPOCH_MINUTE, -5L, -1);
+        buffer.position(ShiftRecordCodec.RECORD_SIZE);
+        ShiftRecordCodec.putRecord(buffer, 7L, 8L, 2);
+
+        long[] startEpochMinutes = new long[4];
+        long[] endEpochMinutes = new long[4];
+        int[] familyIds = new int[4];
+        ShiftRecordCodec.getRecords(buffer, 0, startEpochMinutes, endEpochMinutes, familyIds, 1, 3);
+        assertArrayEquals(new long[]{0, 26_413_500L, 7L, DateUtil.INVALID_EPOCH_MINUTE}, startEpochMinutes);
+        assertArrayEquals(new long[]{0, 26_414_160L, 8L, -5L}, endEpochMinutes);
+        assertArrayEquals(new int[]{0, 1, 2, -1}, familyIds);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenATimeDoesNotFitAnIntThenAnIllegalArgumentExceptionIsThrown() {
+        assertFalse(ShiftRecordCodec.isEncodable(1L << 40));
+        ShiftRecordCodec.putRecord(ByteBuffer.allocate(ShiftRecordCodec.RECORD_SIZE), 0, 1L << 40, 0, 0);
+    }
+
+    @Test
+    public void whenEncodedRecordsAreCalculatedThenTheResultsMatchTheDecodedBatch() {
+        PaymentCalculator paymentCalculator = new PaymentCalculator();
+        long nightStart = DateUtil.parseEpochMinute("2020-03-21 17:00");
+        long[] startEpochMinutes = {nightStart, nightStart + 60, DateUtil.INVALID_EPOCH_MINUTE, nightStart + 600, nightStart};
+        long[] endEpochMinutes = {nightStart + WORKABLE_MINUTES, nightStart + 300, nightStart + 60, nightStart + 500, nightStart + 120};
+        int[] familyIds = {FamilyEnum.A.ordinal(), FamilyEnum.B.ordinal(), FamilyEnum.C.ordinal(), FamilyEnum.A.ordinal(), 7};
+        ByteBuffer records = ByteBuffer.allocateDirect(familyIds.length * ShiftRecordCodec.RECORD_SIZE);
+        for (int i = 0; i < familyIds.length; i++) {
+            ShiftRecordCodec.putRecord(records, i, startEpochMinutes[i], endEpochMinutes[i], familyIds[i]);
+        }
+        int[] expectedTotalPays = new int[familyIds.length];
+        int[] expectedStatusCodes = new int[familyIds.length];
+        paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, expectedTotalPays, expectedStatusCodes);
+
+        int[] totalPays = new int[familyIds.length + 1];
+        int[] statusCodes = new int[familyIds.length + 1];
+        assertEquals(2, paymentCalculator.calculateEncodedBatch(records, 0, totalPays, statusCodes, 1, familyIds.length));
+        for (int i = 0; i < familyIds.length; i++) {
+            assertEquals(expectedTotalPays[i], totalPays[i + 1]);
+            assertEquals(expectedStatusCodes[i], statusCodes[i + 1]);
+        }
+        assertEquals(STATUS_INVALID_FAMILY, statusCodes[5]);
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.babysitter.ledger;
+
+import com.babysitter.registry.FamilyRegistry;
+import com.babysitter.registry.FamilyRegistrySnapshot;
+import com.babysitter.utils.DateUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class LedgerReraterTest {
+
+    private Path directory;
+    private Path configFile;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ledger");
+        configFile = directory.resolve("families.properties");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void whenRatesChangeFromADateThenOnlyShiftsOfTheChangedNightsAreReported() throws IOException {
+        Files.write(configFile, "A = 17:00=15, 23:00=20\nB = 17:00=12\n".getBytes(StandardCharsets.UTF_8));
+        FamilyRegistry familyRegistry = FamilyRegistry.load(configFile);
+        FamilyRegistrySnapshot previousSnapshot = familyRegistry.getSnapshot();
+        Files.write(configFile, "A = 17:00=15, 23:00=20\nA@2021-06-01 = 17:00=16, 23:00=20\nB = 17:00=12\n".getBytes(StandardCharsets.UTF_8));
+        familyRegistry.reload();
+        FamilyRegistrySnapshot currentSnapshot = familyRegistry.getSnapshot();
+        int familyA = currentSnapshot.getFamilyId("A");
+        int familyB = currentSnapshot.getFamilyId("B");
+
+        List<long[]> deltas = new ArrayList<>();
+        RerateSummary summary;
+        try (ShiftLedger shiftLedger = ShiftLedger.open(directory, 10_000)) {
+            append(shiftLedger, "2021-05-31 17:00", "2021-06-01 04:00", 1, familyA, 190);
+            append(shiftLedger, "2021-06-01 17:00", "2021-06-02 04:00", 1, familyA, 190);
+            append(shiftLedger, "2021-06-01 17:00", "2021-06-02 04:00", 2, familyB, 132);
+            append(shiftLedger, "2021-06-02 01:00", "2021-06-02 03:00", 3, familyA, 40);
+            append(shiftLedger, "2021-06-20 18:00", "2021-06-20 20:30", 3, familyA, 30);
+            summary = new LedgerRerater(previousSnapshot, currentSnapshot).rerate(shiftLedger,
+                    (recordIndex, sitterId, familyId, startEpochMinute, endEpochMinute, previousPay, currentPay) ->
+                            deltas.add(new long[]{recordIndex, sitterId, familyId, previousPay, currentPay}));
+        }
+
+        assertEquals(3, summary.getRepricedShifts());
+        assertEquals(2, summary.getChangedShifts());
+        assertEquals(6 + 2, summary.getTotalDelta());
+        assertEquals(2, deltas.size());
+        assertArrayEquals(new long[]{1, 1, familyA, 190, 196}, deltas.get(0));
+        assertArrayEquals(new long[]{4, 3, familyA, 30, 32}, deltas.get(1));
+    }
+
+    @Test
+    public void whenAFamilyIsReloadedWithTheSameRatesThenItHasNoChangedNights() throws IOException {
+        Files.write(configFile, "A = 17:00=15, 23:00=20\n".getBytes(StandardCharsets.UTF_8));
+        FamilyRegistry familyRegistry = FamilyRegistry.load(configFile);
+        FamilyRegistrySnapshot previousSnapshot = familyRegistry.getSnapshot();
+        Files.write(configFile, "A = 17:00=15, 23:00=20\nA@2021-06-01 = 17:00=15, 23:00=20\nA@2021-07-01 = 17:00=15, 23:00=25\n".getBytes(StandardCharsets.UTF_8));
+        familyRegistry.reload();
+
+        LedgerRerater ledgerRerater = new LedgerRerater(previousSnapshot, familyRegistry.getSnapshot());
+        assertArrayEquals(new long[]{LocalDate.of(2021, 7, 1).toEpochDay(), Long.MAX_VALUE}, ledgerRerater.getChangedNights(0));
+    }
+
+    private void append(ShiftLedger shiftLedger, String startTime, String endTime, int sitterId, int familyId, int totalPay) throws IOException {
+        shiftLedger.append(DateUtil.parseEpochMinute(startTime), DateUtil.parseEpochMinute(endTime), sitterId, familyId, totalPay);
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.babysitter.ledger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.babysitter.constants.Constants.STATUS_INVALID_FAMILY;
+import static com.babysitter.constants.Constants.STATUS_VALID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PayoutJournalTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("payouts", ".journal");
+        Files.delete(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void whenManyThreadsAppendThenEveryPayoutIsDurableOnceAndForcesAreShared() throws Exception {
+        int threads = 16;
+        int payoutsPerThread = 500;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try (PayoutJournal payoutJournal = PayoutJournal.open(file)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int sitterId = thread;
+                futures.add(executorService.submit(() -> {
+                    for (int i = 0; i < payoutsPerThread; i++) {
+                        long sequence = payoutJournal.append(i, i + 60, sitterId, i % 3, i);
+                        assertTrue(payoutJournal.getDurableRecords() > sequence);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            assertEquals(threads * payoutsPerThread, payoutJournal.getDurableRecords());
+            assertTrue(payoutJournal.getCommits() < threads * payoutsPerThread);
+            long[] totalPayPerSitter = new long[threads];
+            BitSet sequences = new BitSet();
+            assertEquals(threads * payoutsPerThread, payoutJournal.replay((recordIndex, startEpochMinute, endEpochMinute, sitterId, familyId, totalPay) -> {
+                sequences.set((int) recordIndex);
+                totalPayPerSitter[sitterId] += totalPay;
+                assertEquals(startEpochMinute + 60, endEpochMinute);
+            }));
+            assertEquals(threads * payoutsPerThread, sequences.cardinality());
+            for (long totalPay : totalPayPerSitter) {
+                assertEquals(payoutsPerThread * (payoutsPerThread - 1) / 2, totalPay);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void whenTheJournalIsReopenedThenItsPayoutsAreRecoveredAndSequencesContinue() throws IOException {
+        try (PayoutJournal payoutJournal = PayoutJournal.open(file)) {
+            assertEquals(2, payoutJournal.appendBatch(new long[]{0, 10, 20}, new long[]{60, 70, 80}, new int[]{1, 2, 3}, new int[]{0, 9, 1},
+                    new int[]{15, 0, 12}, new int[]{STATUS_VALID, STATUS_INVALID_FAMILY, STATUS_VALID}, 0, 3));
+        }
+        try (PayoutJournal payoutJournal = PayoutJournal.open(file)) {
+            assertEquals(2, payoutJournal.getRecoveredRecords());
+            assertEquals(0, payoutJournal.getTruncatedBytes());
+            assertEquals(2, payoutJournal.append(30, 90, 4, 2, 16));
+            List<String> payouts = new ArrayList<>();
+            payoutJournal.replay((recordIndex, startEpochMinute, endEpochMinute, sitterId, familyId, totalPay) ->
+                    payouts.add(recordIndex + ":" + startEpochMinute + "-" + endEpochMinute + ":" + sitterId + ":" + familyId + ":" + totalPay));
+            assertEquals(List.of("0:0-60:1:0:15", "1:20-80:3:1:12", "2:30-90:4:2:16"), payouts);
+        }
+    }
+
+    @Test
+    public void whenTheJournalEndsWithTornRecordsThenTheyAreCutWhenItIsOpened() throws IOException {
+        try (PayoutJournal payoutJournal = PayoutJournal.open(file)) {
+            for (int i = 0; i < 5; i++) {
+                payoutJournal.append(i, i + 60, i, 0, 15);
+            }
+        }
+        long fullSize = Files.size(file);
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // The total pay of the fourth record is flipped and half of a sixth record follows the fifth
+            fileChannel.write(ByteBuffer.wrap(new byte[]{1}), fullSize - 2 * PayoutJournal.RECORD_SIZE + 32);
+            fileChannel.write(ByteBuffer.wrap(new byte[PayoutJournal.RECORD_SIZE / 2]), fullSize);
+        }
+
+        try (PayoutJournal payoutJournal = PayoutJournal.open(file)) {
+            assertEquals(3, payoutJournal.getRecoveredRecords());
+            assertEquals(2 * PayoutJournal.RECORD_SIZE + PayoutJournal.RECORD_SIZE / 2, payoutJournal.getTruncatedBytes());
+            assertEquals(fullSize - 2 * PayoutJournal.RECORD_SIZE, Files.size(file));
+            assertEquals(3, payoutJournal.append(9, 69, 9, 0, 15));
+        }
+        try (PayoutJournal payoutJournal = PayoutJournal.open(file)) {
+            assertEquals(4, payoutJournal.getRecoveredRecords());
+        }
+    }
+
+    @Test
+    public void whenABatchFillsBeforeTheCommitDelayThenItIsCommittedAtOnce() throws Exception {
+        int batchSize = 4;
+        ExecutorService executorService = Executors.newFixedThreadPool(batchSize);
+        try (PayoutJournal payoutJournal = PayoutJournal.open(file, batchSize, TimeUnit.SECONDS.toNanos(30))) {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < batchSize; i++) {
+                futures.add(executorService.submit(() -> payoutJournal.append(0, 60, 1, 0, 15)));
+            }
+            for (Future<Long> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(1, payoutJournal.getCommits());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void whenTheBatchSizeIsOneThenEveryPayoutHasItsOwnCommit() throws IOException {
+        try (PayoutJournal payoutJournal = PayoutJournal.open(file, 1, 0)) {
+            for (int i = 0; i < 10; i++) {
+                payoutJournal.append(i, i + 60, i, 0, 15);
+            }
+            assertEquals(10, payoutJournal.getCommits());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenAPayoutIsAppendedToAClosedJournalThenAnIllegalStateExceptionIsThrown() throws IOException {
+        PayoutJournal payoutJournal = PayoutJournal.open(file);
+        payoutJournal.close();
+        payoutJournal.append(0, 60, 1, 0, 15);
+    }
+
+    @Test
+    public void whenTheFileIsNotAJournalThenAnIOExceptionIsThrownAndTheFileIsKept() throws IOException {
+        Files.write(file, "start,end,family\n".getBytes());
+        try {
+            PayoutJournal.open(file);
+        } catch (IOException e) {
+            assertEquals(17, Files.size(file));
+            return;
+        }
+        fail("A file that is not a journal was opened");
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.babysitter.ledger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShiftLedgerTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ledger");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> segmentFiles = Files.list(directory)) {
+            for (Path segmentFile : (Iterable<Path>) segmentFiles::iterator) {
+                Files.delete(segmentFile);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void whenRecordsAreAppendedThenTheyAreReadBackAfterReopening() throws IOException {
+        try (ShiftLedger shiftLedger = ShiftLedger.open(directory, 10_000)) {
+            assertEquals(0, shiftLedger.append(26_413_500L, 26_414_160L, 7, 1, 140));
+            assertEquals(1, shiftLedger.append(26_414_940L, 26_415_000L, 8, 0, 15));
+        }
+        try (ShiftLedger shiftLedger = ShiftLedger.open(directory)) {
+            assertEquals(2, shiftLedger.getRecordCount());
+            List<long[]> records = scan(shiftLedger, Long.MIN_VALUE, Long.MAX_VALUE, ShiftLedger.ANY_SITTER);
+            assertArrayEquals(new long[]{0, 26_413_500L, 26_414_160L, 7, 1, 140}, records.get(0));
+            assertArrayEquals(new long[]{1, 26_414_940L, 26_415_000L, 8, 0, 15}, records.get(1));
+            assertEquals(2, shiftLedger.append(26_415_000L, 26_415_060L, 9, 2, 21));
+        }
+    }
+
+    @Test
+    public void whenTheLedgerIsScannedThenTheResultsMatchAFullScanAcrossSegments() throws IOException {
+        Random random = new Random(9);
+        List<long[]> appended = new ArrayList<>();
+        try (ShiftLedger shiftLedger = ShiftLedger.open(directory, 10_000)) {
+            long start = 26_000_000L;
+            for (int i = 0; i < 35_000; i++) {
+                start += random.nextInt(20);
+                int sitterId = random.nextInt(500);
+                long[] record = {i, start, start + random.nextInt(661), sitterId, random.nextInt(3), random.nextInt(300)};
+                shiftLedger.append(record[1], record[2], sitterId, (int) record[4], record[5]);
+                appended.add(record);
+            }
+            assertTrue(Files.exists(directory.resolve("ledger-00000003.seg")));
+            long from = 26_100_000L;
+            long to = 26_200_000L;
+            for (int sitterId : new int[]{ShiftLedger.ANY_SITTER, 17, 499}) {
+                List<long[]> expected = new ArrayList<>();
+                for (long[] record : appended) {
+                    if (record[1] >= from && record[1] < to && (sitterId == ShiftLedger.ANY_SITTER || record[3] == sitterId)) {
+                        expected.add(record);
+                    }
+                }
+                List<long[]> actual = scan(shiftLedger, from, to, sitterId);
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertArrayEquals(expected.get(i), actual.get(i));
+                }
+            }
+            long sitterRecords = appended.stream().filter(record -> record[3] == 42).count();
+            long[] visited = new long[1];
+            shiftLedger.scanSitter(42, (recordIndex, startEpochMinute, endEpochMinute, sitterId, familyId, totalPay) -> visited[0]++);
+            assertEquals(sitterRecords, visited[0]);
+        }
+    }
+
+    @Test
+    public void whenAppendBatchIsCalledThenOnlyPricedShiftsAreStored() throws IOException {
+        try (ShiftLedger shiftLedger = ShiftLedger.open(directory, 10_000)) {
+            int appended = shiftLedger.appendBatch(new long[]{1, 2, 3}, new long[]{61, 62, 63}, new int[]{4, 5, 6}, new int[]{0, 1, 2},
+                    new int[]{15, 0, 21}, new int[]{0, 4, 0}, 0, 3);
+            assertEquals(2, appended);
+            assertEquals(2, shiftLedger.getRecordCount());
+            assertEquals(6, scan(shiftLedger, 0, 10, ShiftLedger.ANY_SITTER).get(1)[3]);
+        }
+    }
+
+    private static List<long[]> scan(ShiftLedger shiftLedger, long from, long to, int sitterId) {
+        List<long[]> records = new ArrayList<>();
+        shiftLedger.scan(from, to, sitterId, (recordIndex, startEpochMinute, endEpochMinute, recordSitterId, familyId, totalPay) ->
+                records.add(new long[]{recordIndex, startEpochMinute, endEpochMinute, recordSitterId, familyId, totalPay}));
+        return records;
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.babysitter.metrics;
+
+import com.babysitter.calculator.CalculationResult;
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.enums.CalculationStageEnum;
+import com.babysitter.enums.FamilyEnum;
+import com.babysitter.utils.ShiftTimeUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+// The build runs the tests with -Dbabysitter.metrics=true
+public class CalculationMetricsTest {
+
+    private PaymentCalculator paymentCalculator;
+    private CalculationMetrics calculationMetrics;
+
+    @Before
+    public void setUp() {
+        assertTrue(CalculationMetrics.ENABLED);
+        paymentCalculator = new PaymentCalculator();
+        calculationMetrics = paymentCalculator.getCalculationMetrics();
+    }
+
+    @Test
+    public void whenShiftsAreCalculatedThenPricedShiftsAreCountedPerFamily() {
+        paymentCalculator.calculate("2020-03-21 17:00", "2020-03-22 04:00", "A", new CalculationResult());
+        paymentCalculator.calculate("2020-03-21 17:00", "2020-03-22 04:00", "A", new CalculationResult());
+        paymentCalculator.calculate("2020-03-21 17:00", "2020-03-22 04:00", "C", new CalculationResult());
+        assertEquals(3, calculationMetrics.getPricedShifts());
+        assertEquals(Long.valueOf(2), calculationMetrics.getPricedShiftsByFamily().get("A"));
+        assertEquals(Long.valueOf(1), calculationMetrics.getPricedShiftsByFamily().get("C"));
+        assertNull(calculationMetrics.getPricedShiftsByFamily().get("B"));
+    }
+
+    @Test
+    public void whenAShiftIsRejectedThenEveryFailedRuleIsCounted() {
+        paymentCalculator.calculate("2020-03-21 22:00", "2020-03-21 21:00", "D", new CalculationResult());
+        paymentCalculator.calculate("2020-03-21 22:00", "2020-03-22 05:00", "A", new CalculationResult());
+        assertEquals(2, calculationMetrics.getRejectedShifts());
+        Map<String, Long> rejectionsByReason = calculationMetrics.getRejectionsByReason();
+        assertEquals(Long.valueOf(1), rejectionsByReason.get("INVALID_FAMILY"));
+        assertEquals(Long.valueOf(1), rejectionsByReason.get("END_TIME_BEFORE_START_TIME"));
+        assertEquals(Long.valueOf(1), rejectionsByReason.get("OUTSIDE_WORKABLE_HOURS"));
+        assertEquals(Long.valueOf(0), rejectionsByReason.get("FAMILY_BLANK"));
+    }
+
+    @Test
+    public void whenABatchIsCalculatedThenEveryShiftIsCountedAndTheBatchIsTimed() {
+        long nightStart = ShiftTimeUtil.toEpochMinute(LocalDateTime.of(2020, 3, 21, 17, 0));
+        paymentCalculator.calculateBatch(new long[]{nightStart, nightStart}, new long[]{nightStart + 660, nightStart + 661},
+                new int[]{FamilyEnum.B.ordinal(), FamilyEnum.B.ordinal()}, new int[2], new int[2]);
+        assertEquals(1, calculationMetrics.getPricedShifts());
+        assertEquals(1, calculationMetrics.getRejectedShifts());
+        assertEquals(1, calculationMetrics.getStageHistogram(CalculationStageEnum.BATCH).getCount());
+    }
+
+    @Test
+    public void whenALargeBatchIsCalculatedThenItsSummedCountsMatchTheShifts() {
+        long nightStart = ShiftTimeUtil.toEpochMinute(LocalDateTime.of(2020, 3, 21, 17, 0));
+        int shiftCount = 1000;
+        long[] startEpochMinutes = new long[shiftCount];
+        long[] endEpochMinutes = new long[shiftCount];
+        int[] familyIds = new int[shiftCount];
+        for (int i = 0; i < shiftCount; i++) {
+            startEpochMinutes[i] = nightStart;
+            endEpochMinutes[i] = nightStart + (i % 10 == 0 ? 700 : 600);
+            familyIds[i] = i % 3;
+        }
+        paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, new int[shiftCount], new int[shiftCount]);
+        assertEquals(900, calculationMetrics.getPricedShifts());
+        assertEquals(100, calculationMetrics.getRejectedShifts());
+        assertEquals(Long.valueOf(100), calculationMetrics.getRejectionsByReason().get("OUTSIDE_WORKABLE_HOURS"));
+        assertEquals(Long.valueOf(300), calculationMetrics.getPricedShiftsByFamily().get("B"));
+
+        // The per thread counts of the first batch must not leak into the second
+        paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, new int[shiftCount], new int[shiftCount]);
+        assertEquals(1800, calculationMetrics.getPricedShifts());
+        assertEquals(Long.valueOf(200), calculationMetrics.getRejectionsByReason().get("OUTSIDE_WORKABLE_HOURS"));
+        assertEquals(Long.valueOf(600), calculationMetrics.getPricedShiftsByFamily().get("B"));
+    }
+
+    @Test
+    public void whenManyShiftsAreCalculatedThenAboutOneInSampleRateIsTimed() {
+        for (int i = 0; i < 64_000; i++) {
+            paymentCalculator.calculate("2020-03-21 17:00", "2020-03-22 04:00", "B", new CalculationResult());
+        }
+        long samples = calculationMetrics.getStageHistogram(CalculationStageEnum.PRICE).getCount();
+        assertTrue(samples > 500 && samples < 1500);
+        assertEquals(samples, calculationMetrics.getStageHistogram(CalculationStageEnum.PARSE).getCount());
+        assertTrue(calculationMetrics.getReport().contains("stage PRICE"));
+        calculationMetrics.reset();
+        assertEquals(0, calculationMetrics.getPricedShifts());
+    }
+
+    @Test
+    public void whenRegisterMBeanIsCalledThenTheCountersCanBeReadOverJmx() throws Exception {
+        paymentCalculator.calculate("2020-03-21 17:00", "2020-03-22 04:00", "A", new CalculationResult());
+        ObjectName objectName = calculationMetrics.registerMBean("test");
+        try {
+            assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "PricedShifts"));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.babysitter.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void whenGetBucketIsCalledThenEveryValueIsAtOrBelowTheHighestValueOfItsBucketWithinOneSixteenth() {
+        for (long value = 0; value < 100_000; value++) {
+            long highestValue = LatencyHistogram.getHighestValue(LatencyHistogram.getBucket(value));
+            assertTrue(highestValue >= value);
+            assertTrue(highestValue - value <= value / 16);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.getHighestValue(LatencyHistogram.getBucket(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void whenGetBucketIsCalledForIncreasingValuesThenBucketsNeverDecrease() {
+        int previousBucket = 0;
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+            int bucket = LatencyHistogram.getBucket(value);
+            assertTrue(bucket >= previousBucket);
+            previousBucket = bucket;
+        }
+    }
+
+    @Test
+    public void whenGetPercentileIsCalledThenTheBucketOfThatRankIsReturned() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int nanos = 1; nanos <= 100; nanos++) {
+            histogram.record(nanos);
+        }
+        histogram.record(1_000_000);
+        assertEquals(101, histogram.getCount());
+        assertEquals(51, histogram.getPercentile(50));
+        assertEquals(LatencyHistogram.getHighestValue(LatencyHistogram.getBucket(100)), histogram.getPercentile(99));
+        assertEquals(LatencyHistogram.getHighestValue(LatencyHistogram.getBucket(1_000_000)), histogram.getMax());
+    }
+
+    @Test
+    public void whenResetIsCalledThenNothingIsRecorded() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0, histogram.getMax());
+    }
+
+}
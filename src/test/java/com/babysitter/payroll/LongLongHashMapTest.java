@@ -0,0 +1,96 @@
+package com.babysitter.payroll;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongLongHashMapTest {
+
+    @Test
+    public void whenRandomKeysAreAddedThenEveryValueMatchesAHashMap() {
+        LongLongHashMap longLongHashMap = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            long key = (long) random.nextInt(50_000) << 32 | random.nextInt(4);
+            long delta = random.nextInt(1000);
+            expected.merge(key, delta, Long::sum);
+            assertEquals((long) expected.get(key), longLongHashMap.add(key, delta));
+        }
+        assertEquals(expected.size(), longLongHashMap.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals((long) entry.getValue(), longLongHashMap.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void whenTheSentinelKeyIsAddedThenItIsStoredLikeAnyOtherKey() {
+        LongLongHashMap longLongHashMap = new LongLongHashMap();
+        assertFalse(longLongHashMap.containsKey(Long.MIN_VALUE));
+        longLongHashMap.add(Long.MIN_VALUE, 5);
+        longLongHashMap.add(Long.MIN_VALUE, 6);
+        longLongHashMap.add(0, 1);
+        assertTrue(longLongHashMap.containsKey(Long.MIN_VALUE));
+        assertEquals(11, longLongHashMap.get(Long.MIN_VALUE));
+        assertEquals(2, longLongHashMap.size());
+        long[] sum = new long[1];
+        longLongHashMap.forEach((key, value) -> sum[0] += value);
+        assertEquals(12, sum[0]);
+    }
+
+    @Test
+    public void whenMergeIsCalledThenValuesOfSharedKeysAreAdded() {
+        LongLongHashMap first = new LongLongHashMap();
+        LongLongHashMap second = new LongLongHashMap();
+        first.add(1, 10);
+        first.add(2, 20);
+        second.add(2, 5);
+        second.add(3, 7);
+        second.add(Long.MIN_VALUE, 1);
+        first.merge(second);
+        assertEquals(10, first.get(1));
+        assertEquals(25, first.get(2));
+        assertEquals(7, first.get(3));
+        assertEquals(1, first.get(Long.MIN_VALUE));
+        assertEquals(4, first.size());
+    }
+
+    @Test
+    public void whenRandomKeysArePutAndRemovedThenEveryValueMatchesAHashMap() {
+        LongLongHashMap longLongHashMap = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                Long previousValue = expected.remove(key);
+                assertEquals(previousValue == null ? 0 : previousValue, longLongHashMap.remove(key));
+            } else {
+                Long previousValue = expected.put(key, (long) i);
+                assertEquals(previousValue == null ? 0 : previousValue, longLongHashMap.put(key, i));
+            }
+        }
+        assertEquals(expected.size(), longLongHashMap.size());
+        for (long key = 0; key < 2_000; key++) {
+            assertEquals(expected.containsKey(key), longLongHashMap.containsKey(key));
+            assertEquals(expected.getOrDefault(key, 0L).longValue(), longLongHashMap.get(key));
+        }
+    }
+
+    @Test
+    public void whenClearIsCalledThenNoKeyIsLeft() {
+        LongLongHashMap longLongHashMap = new LongLongHashMap(100);
+        longLongHashMap.add(42, 1);
+        longLongHashMap.clear();
+        assertEquals(0, longLongHashMap.size());
+        assertFalse(longLongHashMap.containsKey(42));
+        assertEquals(0, longLongHashMap.get(42));
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.babysitter.payroll;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.enums.FamilyEnum;
+import com.babysitter.utils.ShiftTimeUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PayrollAggregatorTest {
+
+    private PaymentCalculator paymentCalculator;
+
+    @Before
+    public void setUp() {
+        paymentCalculator = new PaymentCalculator();
+    }
+
+    @Test
+    public void whenShiftsAreAddedThenTotalsAreKeptPerSitterFamilyAndWeek() {
+        PayrollAggregator payrollAggregator = new PayrollAggregator(paymentCalculator);
+        // Sunday 2020-03-22 into Monday morning belongs to the week of the Sunday; the Monday night starts the next week
+        long sundayNight = toEpochMinute(2020, 3, 22, 17, 0);
+        long mondayNight = toEpochMinute(2020, 3, 23, 17, 0);
+        payrollAggregator.addShifts(new int[]{7, 7, 7, 8}, new long[]{sundayNight, sundayNight + 600, mondayNight, sundayNight},
+                new long[]{sundayNight + 660, sundayNight + 660, mondayNight + 660, sundayNight + 661},
+                new int[]{FamilyEnum.A.ordinal(), FamilyEnum.A.ordinal(), FamilyEnum.A.ordinal(), FamilyEnum.B.ordinal()}, 0, 4);
+
+        long sundayKey = PayrollKey.create(7, FamilyEnum.A.ordinal(), LocalDate.of(2020, 3, 22).toEpochDay());
+        long mondayKey = PayrollKey.create(7, FamilyEnum.A.ordinal(), LocalDate.of(2020, 3, 23).toEpochDay());
+        assertEquals(190 + 20, payrollAggregator.getTotalPay(sundayKey));
+        assertEquals(190, payrollAggregator.getTotalPay(mondayKey));
+        assertEquals("2020-W12", PayrollKey.getIsoWeek(sundayKey));
+        assertEquals("2020-W13", PayrollKey.getIsoWeek(mondayKey));
+        assertEquals(3, payrollAggregator.getPricedShifts());
+        assertEquals(1, payrollAggregator.getRejectedShifts());
+        assertEquals(400, payrollAggregator.rollUp(PayrollKey.SITTER_MASK).get(PayrollKey.create(7, 0, 0) & PayrollKey.SITTER_MASK));
+    }
+
+    @Test
+    public void whenPartialAggregatesAreMergedThenTheTotalsMatchOneAggregateOfAllShifts() {
+        int shiftCount = 20_000;
+        int[] sitterIds = new int[shiftCount];
+        long[] startEpochMinutes = new long[shiftCount];
+        long[] endEpochMinutes = new long[shiftCount];
+        int[] familyIds = new int[shiftCount];
+        Random random = new Random(11);
+        long firstNight = toEpochMinute(2020, 1, 1, 17, 0);
+        for (int i = 0; i < shiftCount; i++) {
+            long nightStart = firstNight + random.nextInt(120) * 1440L;
+            int startOffset = random.nextInt(661);
+            sitterIds[i] = random.nextInt(50);
+            startEpochMinutes[i] = nightStart + startOffset;
+            endEpochMinutes[i] = nightStart + startOffset + random.nextInt(661 - startOffset);
+            familyIds[i] = random.nextInt(3);
+        }
+        PayrollAggregator whole = new PayrollAggregator(paymentCalculator);
+        whole.addShifts(sitterIds, startEpochMinutes, endEpochMinutes, familyIds, 0, shiftCount);
+        PayrollAggregator first = new PayrollAggregator(paymentCalculator);
+        PayrollAggregator second = new PayrollAggregator(paymentCalculator);
+        first.addShifts(sitterIds, startEpochMinutes, endEpochMinutes, familyIds, 0, 12_345);
+        second.addShifts(sitterIds, startEpochMinutes, endEpochMinutes, familyIds, 12_345, shiftCount - 12_345);
+        first.merge(second);
+
+        assertEquals(whole.getTotalPays().size(), first.getTotalPays().size());
+        whole.getTotalPays().forEach((payrollKey, totalPay) -> assertEquals(totalPay, first.getTotalPay(payrollKey)));
+        assertEquals(whole.getPricedShifts(), first.getPricedShifts());
+    }
+
+    @Test
+    public void whenAPayrollKeyIsCreatedThenEveryPartCanBeReadBack() {
+        long payrollKey = PayrollKey.create(-3, 65_535, LocalDate.of(2021, 1, 3).toEpochDay());
+        assertEquals(-3, PayrollKey.getSitterId(payrollKey));
+        assertEquals(65_535, PayrollKey.getFamilyId(payrollKey));
+        assertEquals(LocalDate.of(2020, 12, 28), PayrollKey.getWeekMonday(payrollKey));
+        assertEquals("2020-W53", PayrollKey.getIsoWeek(payrollKey));
+    }
+
+    private static long toEpochMinute(int year, int month, int day, int hour, int minute) {
+        return ShiftTimeUtil.toEpochMinute(LocalDateTime.of(year, month, day, hour, minute));
+    }
+
+}
@@ -0,0 +1,258 @@
+package com.babysitter.pipeline;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.enums.CalculationStageEnum;
+import com.babysitter.exception.InvalidTimeFormatException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.babysitter.constants.Constants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ShiftPipelineTest {
+
+    private static final String[][] SHIFTS = {
+            {"2020-03-21 17:00", "2020-03-22 04:00", "A"},
+            {"2020-03-21 18:10", "2020-03-22 01:00", "B"},
+            {"2020-03-21 21:00", "2020-03-21 23:59", "C"},
+            {"2020-03-21 16:00", "2020-03-21 19:00", "A"},
+            {"2020-03-21 19:00", "2020-03-21 18:00", "B"},
+            {"2020-03-21 25:00", "2020-03-21 19:00", "C"},
+            {"2020-03-21 18:00", "2020-03-21 19:00", "D"},
+            {"", "2020-03-21 19:00", "A"}
+    };
+
+    private PaymentCalculator paymentCalculator;
+    private ShiftPipeline shiftPipeline;
+
+    @Before
+    public void setUp() {
+        paymentCalculator = new PaymentCalculator();
+        shiftPipeline = new ShiftPipeline(paymentCalculator, 4, 2, 1, 2);
+    }
+
+    @After
+    public void tearDown() {
+        shiftPipeline.close();
+    }
+
+    @Test
+    public void whenShiftsAreSubmittedThenEveryFutureCompletesWithTheResultOfCalculate() throws Exception {
+        List<CompletableFuture<PricedShift>> futures = new ArrayList<>();
+        for (int round = 0; round < 100; round++) {
+            for (String[] shift : SHIFTS) {
+                futures.add(shiftPipeline.submit(shift[0], shift[1], shift[2]));
+            }
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            String[] shift = SHIFTS[i % SHIFTS.length];
+            PricedShift pricedShift = futures.get(i).get(10, TimeUnit.SECONDS);
+            assertEquals(shift[0], pricedShift.getShiftRequest().getStartTime());
+            assertEquals(paymentCalculator.validate(shift[0], shift[1], shift[2]), pricedShift.getStatusCode());
+            assertEquals(calculate(shift), pricedShift.getTotalPay());
+        }
+    }
+
+    @Test
+    public void whenAPublisherIsConnectedThenTheSubscriberGetsEveryPricedShiftAndCompletes() throws Exception {
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        shiftPipeline.subscribe(subscriber);
+        long expectedTotalPay = 0;
+        try (SubmissionPublisher<ShiftRequest> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(shiftPipeline);
+            for (int round = 0; round < 500; round++) {
+                for (String[] shift : SHIFTS) {
+                    publisher.submit(new ShiftRequest(shift[0], shift[1], shift[2]));
+                    expectedTotalPay += calculate(shift);
+                }
+            }
+        }
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(500L * SHIFTS.length, subscriber.pricedShifts.get());
+        assertEquals(expectedTotalPay, subscriber.totalPay.get());
+        assertEquals(0, shiftPipeline.getInFlightShifts());
+    }
+
+    @Test
+    public void whenAStageFailsAShiftFromThePublisherThenTheSubscriberGetsItAsAFailedShift() throws Exception {
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        shiftPipeline.subscribe(subscriber);
+        shiftPipeline.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        shiftPipeline.onNext(new ShiftRequest(SHIFTS[0][0], SHIFTS[0][1], SHIFTS[0][2]));
+        // A publisher that breaks the Flow rules with a null shift fails the parse stage
+        shiftPipeline.onNext(null);
+        shiftPipeline.onComplete();
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(2, subscriber.pricedShifts.get());
+        assertEquals(1, subscriber.failedShifts.get());
+        assertEquals(calculate(SHIFTS[0]), subscriber.totalPay.get());
+    }
+
+    @Test
+    public void whenTheSubscriberRequestsNothingThenSubmitBlocksOnceEveryQueueIsFull() throws Exception {
+        CollectingSubscriber subscriber = new CollectingSubscriber(0);
+        shiftPipeline.subscribe(subscriber);
+        int shiftCount = 100;
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < shiftCount; i++) {
+                    shiftPipeline.submit("2020-03-21 17:00", "2020-03-21 20:00", "A");
+                }
+                submitted.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+
+        assertFalse(submitted.await(500, TimeUnit.MILLISECONDS));
+        // Three queues of 4 and one shift held by each of the 5 stage threads
+        assertTrue(shiftPipeline.getInFlightShifts() <= 3 * 4 + 5 + 1);
+        assertEquals(4, shiftPipeline.getStageStats(CalculationStageEnum.PRICE).getQueueDepth());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(submitted.await(10, TimeUnit.SECONDS));
+        producer.join();
+        shiftPipeline.close();
+        assertEquals(shiftCount, subscriber.pricedShifts.get());
+        assertEquals(shiftCount * 3L * FAMILY_A_PAY_PER_HOUR_BEFORE_LIMIT, subscriber.totalPay.get());
+    }
+
+    @Test
+    public void whenThePipelineIsClosedThenEveryStageHasProcessedEveryShift() throws Exception {
+        for (String[] shift : SHIFTS) {
+            shiftPipeline.submit(shift[0], shift[1], shift[2]);
+        }
+        shiftPipeline.close();
+
+        for (PipelineStageStats stageStats : shiftPipeline.getStageStats()) {
+            assertEquals(SHIFTS.length, stageStats.getProcessedShifts());
+            assertEquals(0, stageStats.getQueueDepth());
+            assertEquals(4, stageStats.getQueueCapacity());
+        }
+        assertEquals(2, shiftPipeline.getStageStats(CalculationStageEnum.PARSE).getThreads());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenTheStatsOfTheBatchStageAreRequestedThenAnIllegalArgumentExceptionIsThrown() {
+        shiftPipeline.getStageStats(CalculationStageEnum.BATCH);
+    }
+
+    @Test
+    public void whenThePipelineIsClosedWhileShiftsAreSubmittedThenEveryAcceptedShiftCompletes() throws Exception {
+        int producerCount = 4;
+        List<List<CompletableFuture<PricedShift>>> futures = new ArrayList<>();
+        List<Thread> producers = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(producerCount);
+        for (int i = 0; i < producerCount; i++) {
+            List<CompletableFuture<PricedShift>> producerFutures = new ArrayList<>();
+            futures.add(producerFutures);
+            Thread producer = new Thread(() -> {
+                started.countDown();
+                try {
+                    while (true) {
+                        producerFutures.add(shiftPipeline.submit(SHIFTS[0][0], SHIFTS[0][1], SHIFTS[0][2]));
+                    }
+                } catch (IllegalStateException | InterruptedException e) {
+                    // Rejected once the pipeline is closed
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        started.await();
+        Thread.sleep(50);
+        shiftPipeline.close();
+        for (Thread producer : producers) {
+            producer.join(10000);
+            assertFalse(producer.isAlive());
+        }
+
+        for (List<CompletableFuture<PricedShift>> producerFutures : futures) {
+            for (CompletableFuture<PricedShift> future : producerFutures) {
+                assertEquals(calculate(SHIFTS[0]), future.get(10, TimeUnit.SECONDS).getTotalPay());
+            }
+        }
+        assertEquals(0, shiftPipeline.getInFlightShifts());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenAShiftIsSubmittedToAClosedPipelineThenAnIllegalStateExceptionIsThrown() throws InterruptedException {
+        shiftPipeline.close();
+        shiftPipeline.submit("2020-03-21 17:00", "2020-03-21 20:00", "A");
+    }
+
+    private int calculate(String[] shift) {
+        try {
+            return paymentCalculator.calculate(shift[0], shift[1], shift[2]);
+        } catch (InvalidTimeFormatException e) {
+            return 0;
+        }
+    }
+
+    private static final class CollectingSubscriber implements Flow.Subscriber<PricedShift> {
+
+        private final long initialDemand;
+        private final AtomicLong pricedShifts = new AtomicLong();
+        private final AtomicLong totalPay = new AtomicLong();
+        private final AtomicLong failedShifts = new AtomicLong();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+
+        private CollectingSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        public void onNext(PricedShift pricedShift) {
+            pricedShifts.incrementAndGet();
+            totalPay.addAndGet(pricedShift.getTotalPay());
+            if (pricedShift.getFailure() != null) {
+                failedShifts.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+    }
+
+}
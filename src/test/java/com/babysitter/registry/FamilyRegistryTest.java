@@ -0,0 +1,185 @@
+package com.babysitter.registry;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.enums.FamilyEnum;
+import com.babysitter.exception.InvalidTimeFormatException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FamilyRegistryTest {
+
+    private Path configDirectory;
+    private Path configFile;
+
+    @Before
+    public void setUp() throws IOException {
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        configDirectory = Files.createTempDirectory("families");
+        configFile = configDirectory.resolve("families.properties");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(configFile);
+        Files.deleteIfExists(configDirectory);
+    }
+
+    @Test
+    public void whenTheDefaultRegistryIsCreatedThenTheBuiltInFamiliesKeepTheirEnumOrdinalsAsIds() {
+        FamilyRegistrySnapshot snapshot = FamilyRegistry.createDefault().getSnapshot();
+        for (FamilyEnum family : FamilyEnum.values()) {
+            assertEquals(family.ordinal(), snapshot.getFamilyId(family.toString()));
+        }
+        assertEquals(-1, snapshot.getFamilyId("D"));
+    }
+
+    @Test
+    public void whenARegistryIsLoadedFromAFileThenTheCalculatorPricesTheConfiguredFamilies() throws IOException, InvalidTimeFormatException {
+        writeConfig("A = 17:00=15, 23:00=20\nD = 17:00=10, 19:30=30, 02:00=5\n");
+        PaymentCalculator paymentCalculator = new PaymentCalculator(FamilyRegistry.load(configFile));
+
+        assertEquals(190, paymentCalculator.calculate("2020-03-21 17:00", "2020-03-22 04:00", "A"));
+        assertEquals(20 + 180 + 10, paymentCalculator.calculate("2020-03-21 17:00", "2020-03-22 04:00", "D"));
+        assertEquals(0, paymentCalculator.calculate("2020-03-21 17:00", "2020-03-22 04:00", "B"));
+    }
+
+    @Test
+    public void whenTheRegistryIsReloadedThenExistingFamiliesKeepTheirIdsAndNewFamiliesAreAppended() throws IOException {
+        writeConfig("A = 17:00=15\nB = 17:00=12\n");
+        FamilyRegistry familyRegistry = FamilyRegistry.load(configFile);
+        FamilyRegistrySnapshot before = familyRegistry.getSnapshot();
+
+        writeConfig("B = 17:00=13\nC = 17:00=21\n");
+        familyRegistry.reload();
+        FamilyRegistrySnapshot after = familyRegistry.getSnapshot();
+
+        assertEquals(before.getFamilyId("B"), after.getFamilyId("B"));
+        assertEquals(2, after.getFamilyId("C"));
+        assertEquals(-1, after.getFamilyId("A"));
+        assertFalse(after.isFamilyValid(0));
+        assertNull(after.getRateSchedule(0));
+        assertEquals(13, after.getRateSchedule(after.getFamilyId("B")).getTotalPay(0, 60));
+        assertEquals(12, before.getRateSchedule(before.getFamilyId("B")).getTotalPay(0, 60));
+    }
+
+    @Test
+    public void whenRatesHaveEffectiveDatesThenEveryShiftIsPricedWithTheVersionOfItsNight() throws IOException, InvalidTimeFormatException {
+        writeConfig("A = 17:00=15\nA@2021-06-01 = 17:00=16\nA@2021-07-01 = 17:00=18, 23:00=30\n");
+        PaymentCalculator paymentCalculator = new PaymentCalculator(FamilyRegistry.load(configFile));
+
+        assertEquals(15 * 11, paymentCalculator.calculate("2021-05-31 17:00", "2021-06-01 04:00", "A"));
+        assertEquals(16 * 11, paymentCalculator.calculate("2021-06-01 17:00", "2021-06-02 04:00", "A"));
+        assertEquals(16, paymentCalculator.calculate("2021-07-01 03:00", "2021-07-01 04:00", "A"));
+        assertEquals(18 * 6 + 30 * 5, paymentCalculator.calculate("2021-07-01 17:00", "2021-07-02 04:00", "A"));
+        assertEquals(18 * 6 + 30 * 5, paymentCalculator.calculate("2031-07-01 17:00", "2031-07-02 04:00", "A"));
+        assertEquals(0, paymentCalculator.calculate("2021-07-01 17:00", "2021-07-02 04:00", "A@2021-07-01"));
+        assertEquals(30, FamilyRegistry.load(configFile).getSnapshot().getRateSchedule(0).getPayPerHour(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenAFamilyOnlyHasDatedRatesThenAnIllegalArgumentExceptionIsThrown() throws IOException {
+        writeConfig("A@2021-06-01 = 17:00=16\n");
+        FamilyRegistry.load(configFile);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenTheEffectiveDateIsNotADateThenAnIllegalArgumentExceptionIsThrown() throws IOException {
+        writeConfig("A = 17:00=15\nA@June = 17:00=16\n");
+        FamilyRegistry.load(configFile);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenTheFirstRateDoesNotStartAtFivePMThenAnIllegalArgumentExceptionIsThrown() throws IOException {
+        writeConfig("A = 18:00=15\n");
+        FamilyRegistry.load(configFile);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenARateIsNotWrittenAsTimeAndPayThenAnIllegalArgumentExceptionIsThrown() throws IOException {
+        writeConfig("A = 17:00=15, 23:00\n");
+        FamilyRegistry.load(configFile);
+    }
+
+    @Test
+    public void whenTheConfigFileChangesWhileWatchingThenTheNewRatesArePublished() throws IOException, InterruptedException {
+        writeConfig("A = 17:00=15\n");
+        try (FamilyRegistry familyRegistry = FamilyRegistry.load(configFile)) {
+            familyRegistry.startWatching();
+            writeConfig("A = 17:00=15\nE = 17:00=40\n");
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (familyRegistry.getSnapshot().getFamilyId("E") < 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(familyRegistry.getSnapshot().getFamilyId("E") >= 0);
+        }
+    }
+
+    @Test
+    public void whenAChangedConfigFileCannotBeReadThenWatchingGoesOnWithThePreviousRates() throws IOException, InterruptedException {
+        BlockingQueue<LogRecord> warnings = new LinkedBlockingQueue<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                warnings.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger(FamilyRegistry.class.getName());
+        logger.addHandler(handler);
+        writeConfig("A = 17:00=15\n");
+        try (FamilyRegistry familyRegistry = FamilyRegistry.load(configFile)) {
+            familyRegistry.startWatching();
+            FamilyRegistrySnapshot snapshot = familyRegistry.getSnapshot();
+            // A family without any rate fails with a NegativeArraySizeException rather than an IllegalArgumentException
+            writeConfig("A = 17:00=15\nE = ,\n");
+            LogRecord warning = warnings.poll(10, TimeUnit.SECONDS);
+            assertTrue(warning != null && warning.getThrown() instanceof NegativeArraySizeException);
+            assertSame(snapshot, familyRegistry.getSnapshot());
+
+            writeConfig("A = 17:00=15\nE = 17:00=40\n");
+            long deadline = System.currentTimeMillis() + 10000;
+            while (familyRegistry.getSnapshot().getFamilyId("E") < 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(familyRegistry.getSnapshot().getFamilyId("E") >= 0);
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+
+    private void writeConfig(String config) throws IOException {
+        Path temporaryFile = configDirectory.resolve("families.tmp");
+        Files.write(temporaryFile, config.getBytes(StandardCharsets.UTF_8));
+        Files.move(temporaryFile, configFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
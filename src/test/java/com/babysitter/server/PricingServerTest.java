@@ -0,0 +1,96 @@
+package com.babysitter.server;
+
+import com.babysitter.calculator.PaymentCalculator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.babysitter.constants.Constants.*;
+import static org.junit.Assert.assertEquals;
+
+public class PricingServerTest {
+
+    private PricingServer pricingServer;
+    private HttpClient httpClient;
+
+    @Before
+    public void setUp() throws IOException {
+        pricingServer = new PricingServer(new PaymentCalculator(), new InetSocketAddress("localhost", 0));
+        pricingServer.start();
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @After
+    public void tearDown() {
+        pricingServer.close();
+    }
+
+    @Test
+    public void whenAQuoteIsPostedThenTheTotalPayAndStatusCodeAreReturned() throws Exception {
+        assertEquals("190,0\n", post("/quote", "2020-03-21 17:00, 2020-03-22 04:00, A").body());
+    }
+
+    @Test
+    public void whenAnInvalidQuoteIsPostedThenItsStatusCodeIsReturned() throws Exception {
+        assertEquals("0," + (STATUS_INVALID_FAMILY | STATUS_END_TIME_BEFORE_START_TIME) + "\n", post("/quote", "2020-03-21 22:00,2020-03-21 21:00,D").body());
+        assertEquals("0," + STATUS_INVALID_TIME_FORMAT + "\n", post("/quote", "2020-03-21,,A").body());
+    }
+
+    @Test
+    public void whenQuotesArePostedThenOneResultLineIsReturnedForEveryShift() throws Exception {
+        String body = "start,end,family\n2020-03-21 17:00,2020-03-22 04:00,A\n2020-03-21 17:00,2020-03-22 04:00,B\r\n\n2020-03-21 17:00,2020-03-22 05:00,C\n";
+        assertEquals("190,0\n140,0\n0," + STATUS_OUTSIDE_WORKABLE_HOURS + "\n", post("/quotes", body).body());
+    }
+
+    @Test
+    public void whenAQuoteIsRequestedWithGetThenMethodNotAllowedIsReturned() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + pricingServer.getPort() + "/quote")).GET().build();
+        assertEquals(405, httpClient.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    public void whenTheBodyIsLargerThanTheMaximumThenPayloadTooLargeIsReturned() throws Exception {
+        try (PricingServer smallBodyServer = new PricingServer(new PaymentCalculator(), new InetSocketAddress("localhost", 0), 64)) {
+            smallBodyServer.start();
+            String shift = "2020-03-21 17:00,2020-03-22 04:00,A\n";
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + smallBodyServer.getPort() + "/quotes"))
+                    .POST(HttpRequest.BodyPublishers.ofString(shift + shift)).build();
+            assertEquals(413, httpClient.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+            request = HttpRequest.newBuilder(URI.create("http://localhost:" + smallBodyServer.getPort() + "/quotes"))
+                    .POST(HttpRequest.BodyPublishers.ofString(shift)).build();
+            assertEquals("190,0\n", httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        }
+    }
+
+    @Test
+    public void whenManyQuotesArePostedConcurrentlyThenEveryRequestGetsItsOwnResult() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String family = i % 2 == 0 ? "A" : "C";
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + pricingServer.getPort() + "/quote"))
+                    .POST(HttpRequest.BodyPublishers.ofString("2020-03-21 17:00,2020-03-22 04:00," + family)).build();
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (int i = 0; i < responses.size(); i++) {
+            assertEquals(i % 2 == 0 ? "190,0\n" : "189,0\n", responses.get(i).get().body());
+        }
+        assertEquals(200, pricingServer.getBatchedQuotes());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + pricingServer.getPort() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.babysitter.server;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.utils.ShiftTimeUtil;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+
+import static com.babysitter.constants.Constants.STATUS_VALID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class QuoteBatcherTest {
+
+    private static final long START_EPOCH_MINUTE = ShiftTimeUtil.toEpochMinute(LocalDateTime.of(2020, 3, 21, 17, 0));
+    private static final long END_EPOCH_MINUTE = ShiftTimeUtil.toEpochMinute(LocalDateTime.of(2020, 3, 22, 4, 0));
+
+    @Test
+    public void whenABatchCannotBePricedThenItsQuotesFailAndLaterQuotesArePriced() throws InterruptedException {
+        PaymentCalculator paymentCalculator = new PaymentCalculator();
+        int[] calls = new int[1];
+        QuoteBatcher quoteBatcher = new QuoteBatcher((startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, offset, length) -> {
+            if (calls[0]++ == 0) {
+                throw new StackOverflowError();
+            }
+            return paymentCalculator.calculateBatch(startEpochMinutes, endEpochMinutes, familyIds, totalPays, statusCodes, offset, length);
+        }, 16, 16);
+        try {
+            quoteBatcher.quote(START_EPOCH_MINUTE, END_EPOCH_MINUTE, 0);
+            fail("A quote of a failed batch was returned");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof StackOverflowError);
+        }
+
+        QuoteBatcher.PendingQuote pendingQuote = quoteBatcher.quote(START_EPOCH_MINUTE, END_EPOCH_MINUTE, 0);
+        assertEquals(190, pendingQuote.getTotalPay());
+        assertEquals(STATUS_VALID, pendingQuote.getStatusCode());
+        quoteBatcher.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenAQuoteIsRequestedAfterCloseThenAnIllegalStateExceptionIsThrown() throws InterruptedException {
+        QuoteBatcher quoteBatcher = new QuoteBatcher(new PaymentCalculator()::calculateBatch, 16, 16);
+        quoteBatcher.close();
+        quoteBatcher.quote(START_EPOCH_MINUTE, END_EPOCH_MINUTE, 0);
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.babysitter.service;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchPricingKernelTest {
+
+    private static final RateSchedule[] RATE_SCHEDULES = {
+            new RateSchedule(new int[]{360}, new int[]{15, 20}),
+            new RateSchedule(new int[]{300, 420}, new int[]{12, 8, 16}),
+            new RateSchedule(new int[]{61, 119, 150, 599}, new int[]{7, 0, 33, 5, 1000})
+    };
+
+    @Test
+    public void whenTheScalarKernelPricesEveryShiftThenTheResultsMatchTheRateSchedule() {
+        assertKernelMatchesRateSchedules(new ScalarBatchPricingKernel());
+    }
+
+    @Test
+    public void whenTheVectorKernelPricesEveryShiftThenTheResultsMatchTheRateSchedule() {
+        BatchPricingKernel batchPricingKernel = BatchPricingKernel.create();
+        Assume.assumeTrue(batchPricingKernel.isVectorized());
+        assertKernelMatchesRateSchedules(batchPricingKernel);
+    }
+
+    private void assertKernelMatchesRateSchedules(BatchPricingKernel batchPricingKernel) {
+        RateScheduleVersions[] rateScheduleVersions = new RateScheduleVersions[RATE_SCHEDULES.length + 1];
+        rateScheduleVersions[0] = new RateScheduleVersions(new long[]{RateScheduleVersions.SINCE_ALWAYS, 18_000}, new RateSchedule[]{RATE_SCHEDULES[0], RATE_SCHEDULES[1]});
+        rateScheduleVersions[2] = RateScheduleVersions.of(RATE_SCHEDULES[2]);
+        RateSegmentTable rateSegmentTable = new RateSegmentTable(rateScheduleVersions);
+        int[] slots = {rateSegmentTable.getSlot(0, 0), rateSegmentTable.getSlot(0, 1), rateSegmentTable.getSlot(2, 0)};
+
+        int shiftCount = 661 * 662 / 2;
+        int[] startOffsets = new int[shiftCount + 1];
+        int[] endOffsets = new int[shiftCount + 1];
+        int shift = 1;
+        for (int startOffset = 0; startOffset <= 660; startOffset++) {
+            for (int endOffset = startOffset; endOffset <= 660; endOffset++) {
+                startOffsets[shift] = startOffset;
+                endOffsets[shift] = endOffset;
+                shift++;
+            }
+        }
+        for (int i = 0; i < slots.length; i++) {
+            int[] totalPays = new int[shiftCount + 1];
+            batchPricingKernel.price(rateSegmentTable, slots[i], startOffsets, endOffsets, 1, shiftCount + 1, totalPays);
+            for (shift = 1; shift <= shiftCount; shift++) {
+                assertEquals(RATE_SCHEDULES[i].getTotalPay(startOffsets[shift], endOffsets[shift]), totalPays[shift]);
+            }
+            assertEquals(0, totalPays[0]);
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.babysitter.service;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneRules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class NightCalendarTest {
+
+    private static final String[] ZONES = {"America/New_York", "Europe/London", "Australia/Lord_Howe", "America/Sao_Paulo", "Asia/Kolkata", "UTC"};
+
+    @Test
+    public void whenEpochSecondsAreRequestedForEveryNightOfADecadeThenTheyMatchZonedDateTime() {
+        for (String zoneName : ZONES) {
+            ZoneId zone = ZoneId.of(zoneName);
+            assertNightsMatchZonedDateTime(NightCalendar.of(zone), zone, LocalDate.of(2015, 1, 1), LocalDate.of(2025, 1, 1));
+        }
+    }
+
+    @Test
+    public void whenEpochSecondsAreRequestedForNightsOutsideTheCachedYearsThenTheyMatchZonedDateTime() {
+        ZoneId zone = ZoneId.of("America/New_York");
+        assertNightsMatchZonedDateTime(NightCalendar.of(zone), zone, LocalDate.of(2299, 1, 1), LocalDate.of(2300, 1, 1));
+    }
+
+    @Test
+    public void whenGetNightEpochDayIsCalledThenTheNightWhoseStartIsTheLastOneBeforeTheSecondIsReturned() {
+        NightCalendar nightCalendar = NightCalendar.of(ZoneId.of("Australia/Lord_Howe"));
+        for (long nightEpochDay = LocalDate.of(2020, 1, 1).toEpochDay(); nightEpochDay < LocalDate.of(2021, 1, 1).toEpochDay(); nightEpochDay++) {
+            long nightStartEpochSecond = nightCalendar.getNightStartEpochSecond(nightEpochDay);
+            long nextNightStartEpochSecond = nightCalendar.getNightStartEpochSecond(nightEpochDay + 1);
+            assertEquals(nightEpochDay, nightCalendar.getNightEpochDay(nightStartEpochSecond));
+            assertEquals(nightEpochDay, nightCalendar.getNightEpochDay(nightCalendar.getNightEndEpochSecond(nightEpochDay)));
+            assertEquals(nightEpochDay, nightCalendar.getNightEpochDay(nextNightStartEpochSecond - 1));
+        }
+    }
+
+    @Test
+    public void whenNightCalendarOfIsCalledTwiceForAZoneThenTheSameCalendarIsReturned() {
+        assertSame(NightCalendar.of(ZoneId.of("Europe/London")), NightCalendar.of(ZoneId.of("Europe/London")));
+    }
+
+    // Every half hour of every night; a wall time skipped by the change to summer time is the moment of the change
+    private void assertNightsMatchZonedDateTime(NightCalendar nightCalendar, ZoneId zone, LocalDate firstNight, LocalDate lastNight) {
+        ZoneRules zoneRules = zone.getRules();
+        for (LocalDate night = firstNight; night.isBefore(lastNight); night = night.plusDays(1)) {
+            LocalDateTime nightStart = night.atTime(17, 0);
+            assertEquals(ZonedDateTime.of(nightStart, zone).toEpochSecond(), nightCalendar.getNightStartEpochSecond(night.toEpochDay()));
+            assertEquals(ZonedDateTime.of(nightStart.plusHours(11), zone).toEpochSecond(), nightCalendar.getNightEndEpochSecond(night.toEpochDay()));
+            for (int wallOffsetMinutes = 0; wallOffsetMinutes <= 660; wallOffsetMinutes += 30) {
+                LocalDateTime wallTime = nightStart.plusMinutes(wallOffsetMinutes);
+                long expected = zoneRules.getValidOffsets(wallTime).isEmpty()
+                        ? zoneRules.getTransition(wallTime).toEpochSecond()
+                        : ZonedDateTime.of(wallTime, zone).toEpochSecond();
+                assertEquals(zone + " " + wallTime, expected, nightCalendar.getEpochSecond(night.toEpochDay(), wallOffsetMinutes * 60));
+            }
+        }
+    }
+
+}
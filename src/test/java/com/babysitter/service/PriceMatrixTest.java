@@ -0,0 +1,47 @@
+package com.babysitter.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PriceMatrixTest {
+
+    @Test
+    public void whenGetTotalPayIsCalledThenTheResultMatchesTheRateScheduleForEveryShift() {
+        RateSchedule rateSchedule = new RateSchedule(new int[]{300, 420}, new int[]{12, 8, 16});
+        PriceMatrix priceMatrix = rateSchedule.getPriceMatrix();
+        for (int startOffset = 0; startOffset <= 660; startOffset++) {
+            for (int endOffset = startOffset; endOffset <= 660; endOffset++) {
+                assertEquals(rateSchedule.getTotalPay(startOffset, endOffset), priceMatrix.getTotalPay(startOffset, endOffset));
+            }
+        }
+    }
+
+    @Test
+    public void whenThePayOfAFamilyDoesNotFitACharThenTheMatrixStoresIntsWithTheSamePrices() {
+        RateSchedule rateSchedule = new RateSchedule(new int[]{360}, new int[]{20000, 15});
+        PriceMatrix priceMatrix = rateSchedule.getPriceMatrix();
+        assertEquals(rateSchedule.getTotalPay(0, 660), priceMatrix.getTotalPay(0, 660));
+        assertEquals(rateSchedule.getTotalPay(59, 601), priceMatrix.getTotalPay(59, 601));
+        assertEquals(661 * 662 / 2 * 4, priceMatrix.getMemoryBytes());
+    }
+
+    @Test
+    public void whenGetMemoryBytesIsCalledForAFamilyWithSmallPaysThenEveryShiftTakesTwoBytes() {
+        PriceMatrix priceMatrix = new RateSchedule(new int[]{240}, new int[]{21, 15}).getPriceMatrix();
+        assertEquals(661 * 662 / 2 * 2, priceMatrix.getMemoryBytes());
+        assertTrue(priceMatrix.getBuildNanos() > 0);
+    }
+
+    @Test
+    public void whenGetTotalPayFromPriceMatrixIsCalledThenTheMatrixIsBuiltOnceAndGivesTheComputedPay() {
+        RateSchedule rateSchedule = new RateSchedule(new int[]{360}, new int[]{15, 20});
+        assertEquals(rateSchedule.getTotalPay(10, 500), rateSchedule.getTotalPayFromPriceMatrix(10, 500));
+        PriceMatrix priceMatrix = rateSchedule.getPriceMatrix();
+        assertEquals(rateSchedule.getTotalPay(0, 660), rateSchedule.getTotalPayFromPriceMatrix(0, 660));
+        assertSame(priceMatrix, rateSchedule.getPriceMatrix());
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.babysitter.service;
+
+import com.babysitter.enums.RoundingPolicyEnum;
+import com.babysitter.exception.InvalidTimeFormatException;
+import com.babysitter.utils.DateUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+
+public class RateScheduleTest {
+
+    private TimeAndPayService timeAndPayService;
+    private LocalDateTime nightStart;
+
+    @Before
+    public void setUp() throws InvalidTimeFormatException {
+        timeAndPayService = new TimeAndPayService();
+        nightStart = DateUtil.convertStringIntoLocalDateTime("2020-03-21 17:00");
+    }
+
+    @Test
+    public void whenGetTotalPayIsCalledForASingleLimitScheduleThenTheResultMatchesGetTotalPayForSingleTimeLimitForEveryShift() {
+        int[][] limitsAndPays = {{360, 15, 20}, {240, 21, 15}, {1, 10, 30}, {659, 30, 10}, {125, 17, 23}};
+        for (int[] limitAndPays : limitsAndPays) {
+            RateSchedule rateSchedule = new RateSchedule(new int[]{limitAndPays[0]}, new int[]{limitAndPays[1], limitAndPays[2]});
+            LocalDateTime limit = nightStart.plusMinutes(limitAndPays[0]);
+            for (int startOffset = 0; startOffset <= 660; startOffset++) {
+                for (int endOffset = startOffset; endOffset <= 660; endOffset++) {
+                    int expected = timeAndPayService.getTotalPayForSingleTimeLimit(nightStart.plusMinutes(startOffset), nightStart.plusMinutes(endOffset), limit, limitAndPays[1], limitAndPays[2]);
+                    assertEquals(expected, rateSchedule.getTotalPay(startOffset, endOffset));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void whenGetTotalPayIsCalledForADoubleLimitScheduleThenTheResultMatchesGetTotalPayForDoubleTimeLimitForEveryShift() {
+        int[][] limitsAndPays = {{300, 420, 12, 8, 16}, {30, 631, 9, 14, 11}, {299, 300, 5, 50, 7}};
+        for (int[] limitsAndPay : limitsAndPays) {
+            RateSchedule rateSchedule = new RateSchedule(new int[]{limitsAndPay[0], limitsAndPay[1]}, new int[]{limitsAndPay[2], limitsAndPay[3], limitsAndPay[4]});
+            LocalDateTime firstLimit = nightStart.plusMinutes(limitsAndPay[0]);
+            LocalDateTime secondLimit = nightStart.plusMinutes(limitsAndPay[1]);
+            for (int startOffset = 0; startOffset <= 660; startOffset++) {
+                for (int endOffset = startOffset; endOffset <= 660; endOffset++) {
+                    int expected = timeAndPayService.getTotalPayForDoubleTimeLimit(nightStart.plusMinutes(startOffset), nightStart.plusMinutes(endOffset), firstLimit, secondLimit, limitsAndPay[2], limitsAndPay[3], limitsAndPay[4]);
+                    assertEquals(expected, rateSchedule.getTotalPay(startOffset, endOffset));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void whenGetTotalPayIsCalledForAScheduleWithoutLimitsThenTheWholeShiftIsPaidAtTheSameRate() {
+        RateSchedule rateSchedule = new RateSchedule(new int[0], new int[]{10});
+        assertEquals(110, rateSchedule.getTotalPay(0, 660));
+        assertEquals(10, rateSchedule.getTotalPay(30, 119));
+    }
+
+    @Test
+    public void whenGetTotalPayCentsIsCalledWithTruncateToHourThenTheResultIsGetTotalPayInCentsForEveryShift() {
+        RateSchedule rateSchedule = new RateSchedule(new int[]{300, 420}, new int[]{12, 8, 16});
+        for (int startOffset = 0; startOffset <= 660; startOffset++) {
+            for (int endOffset = startOffset; endOffset <= 660; endOffset++) {
+                assertEquals(rateSchedule.getTotalPay(startOffset, endOffset) * 100L, rateSchedule.getTotalPayCents(startOffset, endOffset, RoundingPolicyEnum.TRUNCATE_TO_HOUR));
+            }
+        }
+    }
+
+    @Test
+    public void whenGetTotalPayCentsIsCalledForASingleLimitScheduleThenTheResultMatchesGetTotalPayCentsForSingleTimeLimitForEveryPolicy() {
+        RateSchedule rateSchedule = new RateSchedule(new int[]{125}, new int[]{17, 23});
+        LocalDateTime limit = nightStart.plusMinutes(125);
+        for (RoundingPolicyEnum roundingPolicy : RoundingPolicyEnum.values()) {
+            for (int startOffset = 0; startOffset <= 660; startOffset += 7) {
+                for (int endOffset = startOffset; endOffset <= 660; endOffset++) {
+                    long expected = timeAndPayService.getTotalPayCentsForSingleTimeLimit(nightStart.plusMinutes(startOffset), nightStart.plusMinutes(endOffset), limit, 17, 23, roundingPolicy);
+                    assertEquals(expected, rateSchedule.getTotalPayCents(startOffset, endOffset, roundingPolicy));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void whenGetTotalPayCentsIsCalledWithAPartialHourThenEachPolicyRoundsItsOwnWay() {
+        RateSchedule rateSchedule = new RateSchedule(new int[0], new int[]{15});
+        // 1 hour 52 minutes at $15 an hour, the 7 minutes after 1 hour 45 minutes round down
+        assertEquals(1500, rateSchedule.getTotalPayCents(0, 112, RoundingPolicyEnum.TRUNCATE_TO_HOUR));
+        assertEquals(2625, rateSchedule.getTotalPayCents(0, 112, RoundingPolicyEnum.NEAREST_QUARTER_HOUR));
+        assertEquals(2800, rateSchedule.getTotalPayCents(0, 112, RoundingPolicyEnum.EXACT_MINUTE));
+        // 7 minutes round down to no quarter hour, 1 minute is 25 cents
+        assertEquals(0, rateSchedule.getTotalPayCents(0, 7, RoundingPolicyEnum.NEAREST_QUARTER_HOUR));
+        assertEquals(25, rateSchedule.getTotalPayCents(0, 1, RoundingPolicyEnum.EXACT_MINUTE));
+    }
+
+    @Test
+    public void whenGetCentsIsCalledWithExactMinuteThenTheResultIsRoundedToTheNearestCent() {
+        // 1 minute at $1 an hour is 1.67 cents and at $71 an hour 118.33 cents
+        assertEquals(2, RoundingPolicyEnum.EXACT_MINUTE.getCents(1, 1));
+        assertEquals(118, RoundingPolicyEnum.EXACT_MINUTE.getCents(71, 1));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void whenGetCentsOverflowsThenAnArithmeticExceptionIsThrown() {
+        RoundingPolicyEnum.EXACT_MINUTE.getCents(Integer.MAX_VALUE, Long.MAX_VALUE / 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenARateScheduleIsCreatedWithLimitsOutOfOrderThenAnIllegalArgumentExceptionIsThrown() {
+        new RateSchedule(new int[]{420, 300}, new int[]{12, 8, 16});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenARateScheduleIsCreatedWithALimitOutsideTheWorkableHoursThenAnIllegalArgumentExceptionIsThrown() {
+        new RateSchedule(new int[]{660}, new int[]{12, 8});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenARateScheduleIsCreatedWithTheWrongNumberOfPaysThenAnIllegalArgumentExceptionIsThrown() {
+        new RateSchedule(new int[]{300}, new int[]{12});
+    }
+
+}
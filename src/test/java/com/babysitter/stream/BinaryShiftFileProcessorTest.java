@@ -0,0 +1,102 @@
+package com.babysitter.stream;
+
+import com.babysitter.calculator.PaymentCalculator;
+import com.babysitter.codec.ShiftRecordCodec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class BinaryShiftFileProcessorTest {
+
+    private Path textFile;
+    private Path binaryFile;
+    private Path textOutputFile;
+    private Path binaryOutputFile;
+
+    @Before
+    public void setUp() throws IOException {
+        textFile = Files.createTempFile("shifts", ".csv");
+        binaryFile = Files.createTempFile("shifts", ".bin");
+        textOutputFile = Files.createTempFile("shifts", ".output");
+        binaryOutputFile = Files.createTempFile("shifts", ".results");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(textFile);
+        Files.deleteIfExists(binaryFile);
+        Files.deleteIfExists(textOutputFile);
+        Files.deleteIfExists(binaryOutputFile);
+    }
+
+    @Test
+    public void whenACsvFileIsConvertedAndProcessedThenEveryRecordGetsTheSameResultAsFromTheCsvFile() throws IOException {
+        StringBuilder csv = new StringBuilder("start,end,family\n");
+        csv.append("2020-03-21 17:00,2020-03-22 04:00,A\r\n")
+                .append("2020-03-21 17:00, 2020-03-22 04:00 ,B\n")
+                .append("\n")
+                .append("2020-03-21 17:00,2020-03-22 04:00,E\n")
+                .append("2020-03-21 25:00,2020-03-22 04:00,C\n")
+                .append("2020-03-21 18:00,2020-03-21 17:00\n");
+        for (int night = 1; night < 28; night++) {
+            csv.append(String.format("2020-02-%02d 1%d:00,2020-02-%02d 23:30,%s\n", night, 7 + night % 3, night, "ABC".substring(night % 3, night % 3 + 1)));
+        }
+        Files.write(textFile, csv.toString().getBytes(StandardCharsets.UTF_8));
+        PaymentCalculator paymentCalculator = new PaymentCalculator();
+
+        assertEquals(32, BinaryShiftConverter.convert(textFile, binaryFile));
+        assertEquals(32 * 12 + BinaryShiftWriter.HEADER_SIZE + 4 + 4 * 3, Files.size(binaryFile));
+        ShiftFileSummary textSummary = new ShiftFileProcessor(paymentCalculator).process(textFile, textOutputFile);
+        ShiftFileSummary binarySummary = new BinaryShiftFileProcessor(paymentCalculator, 10).process(binaryFile, binaryOutputFile);
+
+        assertEquals(textSummary.getRecords(), binarySummary.getRecords());
+        assertEquals(textSummary.getPricedRecords(), binarySummary.getPricedRecords());
+        assertEquals(textSummary.getTotalPay(), binarySummary.getTotalPay());
+        List<String> lines = Files.readAllLines(textOutputFile, StandardCharsets.UTF_8);
+        ByteBuffer results = ByteBuffer.wrap(Files.readAllBytes(binaryOutputFile));
+        assertEquals(32 * BinaryShiftFileProcessor.RESULT_SIZE, results.remaining());
+        for (int record = 0; record < 32; record++) {
+            String[] fields = lines.get(record + 1).split(",");
+            assertEquals(fields[fields.length - 2] + "," + fields[fields.length - 1], results.getInt() + "," + results.getInt());
+        }
+    }
+
+    @Test
+    public void whenManyFamiliesAreWrittenThenEachNameKeepsTheIndexOfItsFirstRecord() throws IOException {
+        try (BinaryShiftWriter binaryShiftWriter = new BinaryShiftWriter(binaryFile)) {
+            for (int record = 0; record < 300; record++) {
+                binaryShiftWriter.write(0, 60, "F" + record % 100);
+            }
+        }
+
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(binaryFile));
+        ByteBuffer records = file.slice(BinaryShiftWriter.HEADER_SIZE, 300 * ShiftRecordCodec.RECORD_SIZE);
+        for (int record = 0; record < 300; record++) {
+            assertEquals(record % 100, ShiftRecordCodec.getFamilyId(records, record));
+        }
+        ByteBuffer familyTable = file.position((int) file.getLong(BinaryShiftWriter.FAMILY_TABLE_POSITION));
+        assertEquals(100, familyTable.getInt());
+        for (int familyIndex = 0; familyIndex < 100; familyIndex++) {
+            byte[] familyName = new byte[familyTable.getShort()];
+            familyTable.get(familyName);
+            assertEquals("F" + familyIndex, new String(familyName, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenAFamilyNameIsLongerThanTheFamilyTableCanHoldThenAnIllegalArgumentExceptionIsThrown() throws IOException {
+        try (BinaryShiftWriter binaryShiftWriter = new BinaryShiftWriter(binaryFile)) {
+            binaryShiftWriter.write(0, 60, "A".repeat(BinaryShiftWriter.MAX_FAMILY_NAME_LENGTH + 1));
+        }
+    }
+
+}
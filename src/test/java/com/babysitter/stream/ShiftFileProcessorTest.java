@@ -0,0 +1,190 @@
+package com.babysitter.stream;
+
+import com.babysitter.calculator.PaymentCalculator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.babysitter.constants.Constants.*;
+import static org.junit.Assert.assertEquals;
+
+public class ShiftFileProcessorTest {
+
+    private Path inputFile;
+    private Path outputFile;
+
+    @Before
+    public void setUp() throws IOException {
+        inputFile = Files.createTempFile("shifts", ".input");
+        outputFile = Files.createTempFile("shifts", ".output");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputFile);
+        Files.deleteIfExists(outputFile);
+    }
+
+    @Test
+    public void whenProcessIsCalledWithACsvFileThenEveryRecordIsWrittenWithItsTotalPayAndStatusCode() throws IOException {
+        write("start,end,family\n"
+                + "2020-03-21 17:00,2020-03-22 04:00,A\r\n"
+                + "2020-03-21 17:00, 2020-03-22 04:00 ,B\n"
+                + "\n"
+                + "2020-03-21 17:00,2020-03-22 04:00,E\n"
+                + "2020-03-21 25:00,2020-03-22 04:00,C\n"
+                + "2020-03-21 18:00,2020-03-21 17:00");
+
+        ShiftFileSummary summary = new ShiftFileProcessor(new PaymentCalculator()).process(inputFile, outputFile);
+
+        List<String> lines = Files.readAllLines(outputFile, StandardCharsets.UTF_8);
+        assertEquals("start,end,family,totalPay,statusCode", lines.get(0));
+        assertEquals("2020-03-21 17:00,2020-03-22 04:00,A,190,0", lines.get(1));
+        assertEquals("2020-03-21 17:00, 2020-03-22 04:00 ,B,140,0", lines.get(2));
+        assertEquals("2020-03-21 17:00,2020-03-22 04:00,E,0," + STATUS_INVALID_FAMILY, lines.get(3));
+        assertEquals("2020-03-21 25:00,2020-03-22 04:00,C,0," + STATUS_INVALID_TIME_FORMAT, lines.get(4));
+        assertEquals("2020-03-21 18:00,2020-03-21 17:00,0," + (STATUS_FAMILY_BLANK | STATUS_END_TIME_BEFORE_START_TIME), lines.get(5));
+        assertEquals(6, lines.size());
+        assertEquals(5, summary.getRecords());
+        assertEquals(2, summary.getPricedRecords());
+        assertEquals(330, summary.getTotalPay());
+    }
+
+    @Test
+    public void whenProcessIsCalledWithAnNdjsonFileThenEveryRecordIsWrittenAsJsonWithItsTotalPayAndStatusCode() throws IOException {
+        write("{\"family\": \"C\", \"start\": \"2020-03-21 17:00\", \"end\": \"2020-03-22 04:00\", \"sitter\": 7}\n"
+                + "{\"start\":\"2020-03-21 17:00\",\"end\":\"2020-03-22 04:01\",\"family\":\"A\"}\n");
+
+        ShiftFileSummary summary = new ShiftFileProcessor(new PaymentCalculator()).process(inputFile, outputFile);
+
+        List<String> lines = Files.readAllLines(outputFile, StandardCharsets.UTF_8);
+        assertEquals("{\"start\":\"2020-03-21 17:00\",\"end\":\"2020-03-22 04:00\",\"family\":\"C\",\"totalPay\":189,\"statusCode\":0}", lines.get(0));
+        assertEquals("{\"start\":\"2020-03-21 17:00\",\"end\":\"2020-03-22 04:01\",\"family\":\"A\",\"totalPay\":0,\"statusCode\":" + STATUS_OUTSIDE_WORKABLE_HOURS + "}", lines.get(1));
+        assertEquals(1, summary.getPricedRecords());
+    }
+
+    @Test
+    public void whenNdjsonRecordsMissAKeyThenTheFieldIsReportedAsBlank() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            input.append("{\"start\":\"2020-03-21 17:00\",\"end\":\"2020-03-22 04:00\",\"family\":\"A\"}\n");
+        }
+        input.append("{\"end\":\"2020-03-22 04:00\",\"family\":\"A\"}\n");
+        input.append("{\"start\":\"2020-03-21 17:00\",\"family\":\"B\"}\n");
+        input.append("{\"start\":\"2020-03-21 17:00\",\"end\":\"2020-03-22 04:00\",\"sitter\":\"1234567890\"}\n");
+        input.append("{\"start\":\"2020-03-21 17:00\",\"end\":\"2020-03-21 16:00\"}\n");
+        write(input.toString());
+
+        ShiftFileSummary summary = new ShiftFileProcessor(new PaymentCalculator()).process(inputFile, outputFile);
+
+        List<String> lines = Files.readAllLines(outputFile, StandardCharsets.UTF_8);
+        assertEquals(5004, lines.size());
+        assertEquals("{\"start\":\"\",\"end\":\"2020-03-22 04:00\",\"family\":\"A\",\"totalPay\":0,\"statusCode\":" + STATUS_START_TIME_BLANK + "}", lines.get(5000));
+        assertEquals("{\"start\":\"2020-03-21 17:00\",\"end\":\"\",\"family\":\"B\",\"totalPay\":0,\"statusCode\":" + STATUS_END_TIME_BLANK + "}", lines.get(5001));
+        assertEquals("{\"start\":\"2020-03-21 17:00\",\"end\":\"2020-03-22 04:00\",\"family\":\"\",\"totalPay\":0,\"statusCode\":" + STATUS_FAMILY_BLANK + "}", lines.get(5002));
+        assertEquals("{\"start\":\"2020-03-21 17:00\",\"end\":\"2020-03-21 16:00\",\"family\":\"\",\"totalPay\":0,\"statusCode\":" + (STATUS_FAMILY_BLANK | STATUS_END_TIME_BEFORE_START_TIME) + "}", lines.get(5003));
+        assertEquals(5000, summary.getPricedRecords());
+        assertEquals(5000 * 190, summary.getTotalPay());
+    }
+
+    @Test
+    public void whenFieldsHoldOnlyWhitespaceThenTheyAreReportedAsBlankLikeOnTheStringPath() throws IOException {
+        PaymentCalculator paymentCalculator = new PaymentCalculator();
+        write("{\"start\":\"2020-03-21 17:00\",\"end\":\"2020-03-22 04:00\",\"family\":\" \"}\n");
+        new ShiftFileProcessor(paymentCalculator).process(inputFile, outputFile);
+        assertEquals(List.of("{\"start\":\"2020-03-21 17:00\",\"end\":\"2020-03-22 04:00\",\"family\":\" \",\"totalPay\":0,\"statusCode\":" + STATUS_FAMILY_BLANK + "}"),
+                Files.readAllLines(outputFile, StandardCharsets.UTF_8));
+        assertEquals(STATUS_FAMILY_BLANK, paymentCalculator.validate("2020-03-21 17:00", "2020-03-22 04:00", " "));
+
+        write("2020-03-21 17:00,\t,A\n");
+        new ShiftFileProcessor(paymentCalculator).process(inputFile, outputFile);
+        assertEquals(List.of("2020-03-21 17:00,\t,A,0," + STATUS_END_TIME_BLANK), Files.readAllLines(outputFile, StandardCharsets.UTF_8));
+        assertEquals(STATUS_END_TIME_BLANK, paymentCalculator.validate("2020-03-21 17:00", "\t", "A"));
+    }
+
+    @Test
+    public void whenProcessIsCalledWithLinesCrossingChunkBoundariesThenEveryRecordIsPricedOnce() throws IOException {
+        StringBuilder input = new StringBuilder();
+        String[] families = {"A", "B", "C"};
+        for (int i = 0; i < 10000; i++) {
+            input.append("2020-03-21 17:00,2020-03-22 04:00,").append(families[i % 3]).append('\n');
+        }
+        write(input.toString());
+
+        ShiftFileSummary summary = new ShiftFileProcessor(new PaymentCalculator(), 1000).process(inputFile, outputFile);
+
+        assertEquals(10000, summary.getRecords());
+        assertEquals(10000, summary.getPricedRecords());
+        assertEquals(3334 * 190 + 3333 * 140 + 3333 * 189, summary.getTotalPay());
+        assertEquals(10000, Files.readAllLines(outputFile, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void whenProcessIsCalledWithAQuarantineWriterThenOnlyMalformedRecordsAreQuarantinedWithTheirByteOffsets() throws IOException {
+        String validLine = "2020-03-21 17:00,2020-03-22 04:00,A\n";
+        String lateLine = "2020-03-21 18:00,2020-03-22 05:00,B\n";
+        String badTimeLine = "2020-03-21 25:00,2020-03-22 04:00,C\r\n";
+        String badFamilyLine = "2020-03-21 18:00,2020-03-21 17:00,E\n";
+        String missingFieldsLine = "2020-03-21 17:00";
+        write("start,end,family\n" + validLine + lateLine + badTimeLine + badFamilyLine + missingFieldsLine);
+        Path quarantineFile = Files.createTempFile("shifts", ".quarantine");
+
+        ShiftFileSummary summary;
+        try (QuarantineWriter quarantineWriter = new QuarantineWriter(quarantineFile)) {
+            // A chunk size of 50 maps most lines in a chunk of their own, so offsets must add the chunk position
+            summary = new ShiftFileProcessor(new PaymentCalculator(), 50).process(inputFile, outputFile, quarantineWriter);
+            assertEquals(3, quarantineWriter.getQuarantinedRecords());
+        }
+
+        List<String> lines = Files.readAllLines(quarantineFile, StandardCharsets.UTF_8);
+        Files.delete(quarantineFile);
+        int badTimeOffset = "start,end,family\n".length() + validLine.length() + lateLine.length();
+        int badFamilyOffset = badTimeOffset + badTimeLine.length();
+        assertEquals(badTimeOffset + "," + STATUS_INVALID_TIME_FORMAT + ",2020-03-21 25:00,2020-03-22 04:00,C", lines.get(0));
+        assertEquals(badFamilyOffset + "," + STATUS_INVALID_FAMILY + ",2020-03-21 18:00,2020-03-21 17:00,E", lines.get(1));
+        assertEquals((badFamilyOffset + badFamilyLine.length()) + "," + (STATUS_END_TIME_BLANK | STATUS_FAMILY_BLANK) + ",2020-03-21 17:00", lines.get(2));
+        assertEquals(3, lines.size());
+        assertEquals(5, summary.getRecords());
+        assertEquals(4, summary.getRejectedRecords());
+        assertEquals(3, summary.getMalformedRecords());
+        assertEquals(6, Files.readAllLines(outputFile, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void whenAnNdjsonRecordMissesAKeyThenItIsQuarantinedWithItsRawLine() throws IOException {
+        String validLine = "{\"start\":\"2020-03-21 17:00\",\"end\":\"2020-03-22 04:00\",\"family\":\"A\"}\n";
+        String missingEndLine = "{\"start\":\"2020-03-21 17:00\",\"family\":\"B\"}";
+        write(validLine + validLine + missingEndLine + "\n" + validLine);
+        Path quarantineFile = Files.createTempFile("shifts", ".quarantine");
+
+        ShiftFileSummary summary;
+        try (QuarantineWriter quarantineWriter = new QuarantineWriter(quarantineFile)) {
+            summary = new ShiftFileProcessor(new PaymentCalculator()).process(inputFile, outputFile, quarantineWriter);
+            assertEquals(1, quarantineWriter.getQuarantinedRecords());
+        }
+
+        List<String> lines = Files.readAllLines(quarantineFile, StandardCharsets.UTF_8);
+        Files.delete(quarantineFile);
+        assertEquals(List.of((2 * validLine.length()) + "," + STATUS_END_TIME_BLANK + "," + missingEndLine), lines);
+        assertEquals(4, summary.getRecords());
+        assertEquals(3, summary.getPricedRecords());
+        assertEquals(1, summary.getMalformedRecords());
+    }
+
+    @Test(expected = IOException.class)
+    public void whenALineIsLongerThanTheChunkSizeThenAnIOExceptionIsThrown() throws IOException {
+        write("2020-03-21 17:00,2020-03-22 04:00,A\n2020-03-21 17:00,2020-03-22 04:00,A\n");
+        new ShiftFileProcessor(new PaymentCalculator(), 10).process(inputFile, outputFile);
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(inputFile, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
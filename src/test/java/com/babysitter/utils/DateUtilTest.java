@@ -7,6 +7,11 @@ import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 
 public class DateUtilTest {
 
@@ -18,9 +23,18 @@ public class DateUtilTest {
     }
 
     @Test(expected = InvalidTimeFormatException.class)
-    public void whenConvertStringIntoLocalDateTimeIsCalledWithAnInvalidFormattedDateThenAnErrorMessageIsPrintedAndAnInvalidTimeFormatExceptionIsThrown() throws InvalidTimeFormatException {
+    public void whenConvertStringIntoLocalDateTimeIsCalledWithAnInvalidFormattedDateThenAnInvalidTimeFormatExceptionIsThrown() throws InvalidTimeFormatException {
         DateUtil.convertStringIntoLocalDateTime("2020-13-21 18:00");
-        Assert.assertEquals("The start time or end time is in an invalid format! Please use the format: \"yyyy-MM-dd HH:mm\" and please ensure that the times are correct", outputStream.toString().trim());
+    }
+
+    @Test
+    public void whenConvertStringIntoLocalDateTimeIsCalledWithAnInvalidFormattedDateThenNoErrorMessageIsPrinted() {
+        try {
+            DateUtil.convertStringIntoLocalDateTime("2020-13-21 18:00");
+        } catch (InvalidTimeFormatException e) {
+            Assert.assertEquals("The start or end time format is not correct and could not be parsed correctly", e.getMessage());
+        }
+        Assert.assertEquals("", outputStream.toString().trim());
     }
 
     @Test()
@@ -29,4 +43,63 @@ public class DateUtilTest {
         Assert.assertEquals("", outputStream.toString().trim());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void whenConvertStringIntoLocalDateTimeIsCalledWithAValidFormattedDateThenTheDateTimeIsParsedCorrectly() throws InvalidTimeFormatException {
+        LocalDateTime result = DateUtil.convertStringIntoLocalDateTime("2020-03-21 18:05");
+        Assert.assertEquals(LocalDateTime.of(2020, 3, 21, 18, 5), result);
+    }
+
+    @Test(expected = InvalidTimeFormatException.class)
+    public void whenConvertStringIntoLocalDateTimeIsCalledWithADayThatDoesNotExistInTheMonthThenAnInvalidTimeFormatExceptionIsThrown() throws InvalidTimeFormatException {
+        DateUtil.convertStringIntoLocalDateTime("2019-02-29 18:00");
+    }
+
+    @Test
+    public void whenParseEpochMinuteIsCalledWithALeapDayThenTheEpochMinuteIsReturned() {
+        long result = DateUtil.parseEpochMinute("2020-02-29 23:59");
+        Assert.assertEquals(LocalDateTime.of(2020, 2, 29, 23, 59).toEpochSecond(ZoneOffset.UTC) / 60, result);
+    }
+
+    @Test
+    public void whenParseEpochMinuteIsCalledWithAnInvalidValueThenInvalidEpochMinuteIsReturned() {
+        String[] invalidDates = {"", "2020-03-21", "2020-03-21 18:00 ", "2020/03/21 18:00", "2020-03-21T18:00", "2020-00-21 18:00",
+                "2020-03-32 18:00", "2020-03-21 24:00", "2020-03-21 18:60", "0000-03-21 18:00", "2020-0a-21 18:00", "20-03-2021 18:00"};
+        for (String invalidDate : invalidDates) {
+            Assert.assertEquals(invalidDate, DateUtil.INVALID_EPOCH_MINUTE, DateUtil.parseEpochMinute(invalidDate));
+        }
+        Assert.assertEquals(DateUtil.INVALID_EPOCH_MINUTE, DateUtil.parseEpochMinute(null));
+    }
+
+    @Test
+    public void whenParseEpochMinuteIsCalledWithABytesRangeThenTheSameEpochMinuteAsTheStringIsReturned() {
+        byte[] bytes = "A,2020-03-21 18:00,B".getBytes(StandardCharsets.US_ASCII);
+        Assert.assertEquals(DateUtil.parseEpochMinute("2020-03-21 18:00"), DateUtil.parseEpochMinute(bytes, 2, 16));
+        Assert.assertEquals(DateUtil.INVALID_EPOCH_MINUTE, DateUtil.parseEpochMinute(bytes, 0, 16));
+    }
+
+    @Test
+    public void whenParseEpochMinuteIsCalledForEveryDayOfSeveralCenturiesThenTheResultMatchesJavaTime() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        LocalDateTime dateTime = LocalDateTime.of(1895, 1, 1, 0, 0);
+        LocalDateTime lastDateTime = LocalDateTime.of(2105, 1, 1, 0, 0);
+        while (dateTime.isBefore(lastDateTime)) {
+            Assert.assertEquals(dateTime.toEpochSecond(ZoneOffset.UTC) / 60, DateUtil.parseEpochMinute(dateTime.format(formatter)));
+            dateTime = dateTime.plusDays(1).plusMinutes(7);
+        }
+    }
+
+    @Test
+    public void whenParseMinuteOfDayIsCalledForEveryMinuteOfTheDayThenTheResultMatchesLocalTime() {
+        for (LocalTime time = LocalTime.MIN; ; time = time.plusMinutes(1)) {
+            Assert.assertEquals(time.getHour() * 60 + time.getMinute(), DateUtil.parseMinuteOfDay(time.toString()));
+            if (time.equals(LocalTime.MAX.withSecond(0).withNano(0))) {
+                break;
+            }
+        }
+        String[] invalidTimes = {"24:00", "23:60", "2:00", "22-00", "ab:cd", "", "22:000"};
+        for (String invalidTime : invalidTimes) {
+            Assert.assertEquals(invalidTime, -1, DateUtil.parseMinuteOfDay(invalidTime));
+        }
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.babysitter.utils;
 
+import com.babysitter.enums.RoundingPolicyEnum;
 import com.babysitter.exception.InvalidTimeFormatException;
 import com.babysitter.service.TimeAndPayService;
 import org.junit.Before;
@@ -279,4 +280,37 @@ public class TimeAndPayUtilTest {
     }
 
 
+    @Test
+    public void whenGetTotalPayCentsForSingleTimeLimitIsCalledWithExactMinutesThenEachSideOfTheLimitIsPaidByTheMinute() throws InvalidTimeFormatException {
+        LocalDateTime startDateTime = DateUtil.convertStringIntoLocalDateTime("2020-03-21 21:50");
+        LocalDateTime endDateTime = DateUtil.convertStringIntoLocalDateTime("2020-03-22 00:20");
+        LocalDateTime limitDateTime = DateUtil.convertStringIntoLocalDateTime("2020-03-21 23:00");
+
+        long result = timeAndPayService.getTotalPayCentsForSingleTimeLimit(startDateTime, endDateTime, limitDateTime, 15, 20, RoundingPolicyEnum.EXACT_MINUTE);
+        assertEquals(1750 + 2667, result);
+    }
+
+    @Test
+    public void whenGetTotalPayCentsForDoubleTimeLimitIsCalledWithNearestQuarterHourThenEachRateIsRoundedToAQuarterHour() throws InvalidTimeFormatException {
+        LocalDateTime startDateTime = DateUtil.convertStringIntoLocalDateTime("2020-03-21 21:20");
+        LocalDateTime endDateTime = DateUtil.convertStringIntoLocalDateTime("2020-03-22 00:10");
+        LocalDateTime firstLimit = DateUtil.convertStringIntoLocalDateTime("2020-03-21 22:00");
+        LocalDateTime secondLimit = DateUtil.convertStringIntoLocalDateTime("2020-03-22 00:00");
+
+        long result = timeAndPayService.getTotalPayCentsForDoubleTimeLimit(startDateTime, endDateTime, firstLimit, secondLimit, 12, 8, 16, RoundingPolicyEnum.NEAREST_QUARTER_HOUR);
+        // 40 minutes round to 45, 2 hours, 10 minutes round to 15
+        assertEquals(900 + 1600 + 400, result);
+    }
+
+    @Test
+    public void whenGetTotalPayCentsForDoubleTimeLimitIsCalledWithTruncateToHourThenTheResultIsGetTotalPayForDoubleTimeLimitInCents() throws InvalidTimeFormatException {
+        LocalDateTime startDateTime = DateUtil.convertStringIntoLocalDateTime("2020-03-21 17:30");
+        LocalDateTime endDateTime = DateUtil.convertStringIntoLocalDateTime("2020-03-22 03:10");
+        LocalDateTime firstLimit = DateUtil.convertStringIntoLocalDateTime("2020-03-21 22:00");
+        LocalDateTime secondLimit = DateUtil.convertStringIntoLocalDateTime("2020-03-22 00:00");
+
+        long result = timeAndPayService.getTotalPayCentsForDoubleTimeLimit(startDateTime, endDateTime, firstLimit, secondLimit, 12, 8, 16, RoundingPolicyEnum.TRUNCATE_TO_HOUR);
+        assertEquals(timeAndPayService.getTotalPayForDoubleTimeLimit(startDateTime, endDateTime, firstLimit, secondLimit, 12, 8, 16) * 100L, result);
+    }
+
 }